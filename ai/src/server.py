@@ -1,4 +1,5 @@
 import os
+import struct
 import time
 import numpy as np
 import traceback
@@ -9,10 +10,11 @@ from contextlib import asynccontextmanager
 
 import torch
 import torch.nn as nn
-from fastapi import FastAPI, HTTPException, Query, Security, Depends
+from fastapi import FastAPI, HTTPException, Query, Security, Depends, Request
 from fastapi.security.api_key import APIKeyHeader
 from pydantic import BaseModel, Field
 from scipy.signal import butter, filtfilt, resample_poly
+from starlette.concurrency import run_in_threadpool
 import uvicorn
 
 # ✅ [수정 1] CORS 미들웨어 import 주석 해제 (필수!)
@@ -433,6 +435,87 @@ def sample_window(label: Optional[str] = Query(None)):
         traceback.print_exc()
         raise HTTPException(500, f"Sample server error: {str(e)}")
 
+def prepare_window(x: np.ndarray, fs: Optional[int]):
+    """
+    (12, L) 또는 (L, 12) float32 배열 → 모델 입력 (정규화된 12 × TARGET_LEN, 진폭 특징)
+    """
+    x = to_12xL(x)
+
+    if not np.isfinite(x).all():
+        raise HTTPException(status_code=422, detail="Input contains NaN/Inf values")
+
+    in_fs = int(fs) if fs else FS
+    if in_fs <= 0:
+        raise HTTPException(status_code=422, detail=f"fs must be a positive integer (got {in_fs})")
+    if in_fs != FS:
+        x = resample_12lead(x, in_fs, FS)
+
+    x = ensure_len_12xL(x, TARGET_LEN)
+
+    x_f = pre.bandpass(x)
+    amp = compute_amp_feats(x_f)
+    x_n = pre.normalize(x_f)
+    return x_n, amp
+
+def result_from_logits(logits: np.ndarray) -> dict:
+    probs = sigmoid_np(logits).astype(float)
+    active = decode_active_labels(probs, THRESHOLDS)
+    risk = risk_level_from_probs(probs)
+
+    top_idx = int(np.argmax(probs))
+    top_label = LABELS[top_idx]
+    top_conf = float(probs[top_idx])
+
+    return {
+        "probs": probs.tolist(),
+        "thresholds": THRESHOLDS,
+        "active_labels": active,
+        "risk_level": risk,
+        "top_label": top_label,
+        "top_confidence": top_conf,
+    }
+
+def run_prediction(x: np.ndarray, fs: Optional[int]) -> dict:
+    """
+    (12, L) 또는 (L, 12) float32 배열 → 예측 결과 (JSON/바이너리 엔드포인트 공통)
+    """
+    return run_prediction_batch([(x, fs)])[0]
+
+def run_prediction_batch(windows: List[tuple]) -> List[dict]:
+    """
+    [(x, fs), ...] → 윈도우별 예측 결과
+    전처리는 윈도우마다, 모델 추론은 한 번의 배치 forward로 (eval 모드라 배치 구성과 무관하게 같은 결과)
+    단일 윈도우면 입력 오류는 HTTPException, 배치면 해당 자리에 {"error", "status"}
+    """
+    prepared = []
+    results: List[Optional[dict]] = [None] * len(windows)
+    for i, (x, fs) in enumerate(windows):
+        try:
+            prepared.append((i,) + prepare_window(x, fs))
+        except (HTTPException, ValueError) as e:
+            if len(windows) == 1:
+                raise
+            if isinstance(e, HTTPException):
+                results[i] = {"error": e.detail, "status": e.status_code}
+            else:
+                results[i] = {"error": str(e), "status": 422}
+
+    if prepared:
+        xt = torch.from_numpy(np.stack([p[1] for p in prepared])).float().to(DEVICE)
+        at = torch.from_numpy(np.stack([p[2] for p in prepared])).float().to(DEVICE)
+        with torch.no_grad():
+            logits = model(xt, at).detach().cpu().numpy()
+        for row, p in enumerate(prepared):
+            results[p[0]] = result_from_logits(logits[row])
+    return results
+
+def _print_predict_error():
+    print("\n" + "=" * 60)
+    print("❌ PREDICT ERROR")
+    print("=" * 60)
+    traceback.print_exc()
+    print("=" * 60 + "\n")
+
 @app.post("/predict_window", dependencies=[Depends(verify_api_key)])
 def predict_window(req: PredictReq):
     if model is None or pre is None:
@@ -440,54 +523,100 @@ def predict_window(req: PredictReq):
 
     try:
         validate_request_matrix(req.x)
+        return run_prediction(np.array(req.x, dtype=np.float32), req.fs)
 
-        x = np.array(req.x, dtype=np.float32)
-        x = to_12xL(x)
-
-        if not np.isfinite(x).all():
-            raise HTTPException(status_code=422, detail="Input contains NaN/Inf values")
-
-        in_fs = int(req.fs) if req.fs else FS
-        if in_fs <= 0:
-            raise HTTPException(status_code=422, detail=f"fs must be a positive integer (got {in_fs})")
-        if in_fs != FS:
-            x = resample_12lead(x, in_fs, FS)
-
-        x = ensure_len_12xL(x, TARGET_LEN)
+    except HTTPException:
+        raise
+    except Exception as e:
+        _print_predict_error()
+        raise HTTPException(status_code=500, detail=f"Server Error: {str(e)}")
 
-        x_f = pre.bandpass(x)
-        amp = compute_amp_feats(x_f)
-        x_n = pre.normalize(x_f)
+# =============================================================================
+# 바이너리 윈도우 (백엔드 application/octet-stream 경로)
+# 형식 (little-endian): "ECG1" | leads u16 | reserved u16 | length u32 | fs u32 | float32[leads × length]
+# =============================================================================
+BIN_MAGIC = b"ECG1"
+BIN_HEADER = struct.Struct("<4sHHII")
+BIN_MAX_SAMPLES = int(os.environ.get("BIN_MAX_SAMPLES", "30000"))
 
-        xt = torch.from_numpy(x_n).unsqueeze(0).float().to(DEVICE)
-        at = torch.from_numpy(amp).unsqueeze(0).float().to(DEVICE)
+def _read_binary_window(body: bytes, offset: int):
+    """
+    body[offset:]에서 윈도우 하나 → (x, fs, 다음 윈도우 offset)
+    """
+    if len(body) - offset < BIN_HEADER.size:
+        raise HTTPException(status_code=422, detail="ECG window header is truncated")
+    magic, leads, _, length, fs = BIN_HEADER.unpack_from(body, offset)
+    if magic != BIN_MAGIC:
+        raise HTTPException(status_code=422, detail="ECG window must start with magic ECG1")
+    if leads != 12 or length <= 0 or length > BIN_MAX_SAMPLES:
+        raise HTTPException(status_code=422, detail=f"Unsupported window shape ({leads}, {length})")
+    end = offset + BIN_HEADER.size + leads * length * 4
+    if len(body) < end:
+        raise HTTPException(status_code=422, detail=f"Body is {len(body) - offset} bytes, header declares {end - offset}")
+    x = np.frombuffer(body, dtype="<f4", count=leads * length, offset=offset + BIN_HEADER.size).reshape(leads, length)
+    return x, fs, end
+
+def parse_binary_window(body: bytes):
+    x, fs, end = _read_binary_window(body, 0)
+    if end != len(body):
+        raise HTTPException(status_code=422, detail=f"Body is {len(body)} bytes, header declares {end}")
+    return x, fs
+
+# 배치 형식 (little-endian): "ECGB" | count u32 | 윈도우 × count (각각 위의 ECG1 형식)
+BATCH_MAGIC = b"ECGB"
+BATCH_HEADER = struct.Struct("<4sI")
+BATCH_MAX_WINDOWS = int(os.environ.get("BATCH_MAX_WINDOWS", "64"))
+
+def parse_binary_batch(body: bytes):
+    if len(body) < BATCH_HEADER.size:
+        raise HTTPException(status_code=422, detail="ECG batch header is truncated")
+    magic, count = BATCH_HEADER.unpack_from(body)
+    if magic != BATCH_MAGIC:
+        raise HTTPException(status_code=422, detail="ECG batch must start with magic ECGB")
+    if count <= 0 or count > BATCH_MAX_WINDOWS:
+        raise HTTPException(status_code=422, detail=f"Batch must contain 1-{BATCH_MAX_WINDOWS} windows (got {count})")
+    windows = []
+    offset = BATCH_HEADER.size
+    for _ in range(count):
+        x, fs, offset = _read_binary_window(body, offset)
+        windows.append((x, fs))
+    if offset != len(body):
+        raise HTTPException(status_code=422, detail=f"Batch is {len(body)} bytes, headers declare {offset}")
+    return windows
+
+@app.post("/predict_window_bin", dependencies=[Depends(verify_api_key)])
+async def predict_window_bin(request: Request):
+    if model is None or pre is None:
+        raise HTTPException(500, "Model not ready")
 
-        with torch.no_grad():
-            logits = model(xt, at).detach().cpu().numpy()[0]
+    x, fs = parse_binary_window(await request.body())
+    try:
+        # 추론은 이벤트 루프 밖에서 (JSON 엔드포인트의 sync def와 같은 스레드풀)
+        return await run_in_threadpool(run_prediction, x, fs)
 
-        probs = sigmoid_np(logits).astype(float)
-        active = decode_active_labels(probs, THRESHOLDS)
-        risk = risk_level_from_probs(probs)
+    except HTTPException:
+        raise
+    except Exception as e:
+        _print_predict_error()
+        raise HTTPException(status_code=500, detail=f"Server Error: {str(e)}")
 
-        top_idx = int(np.argmax(probs))
-        top_label = LABELS[top_idx]
-        top_conf = float(probs[top_idx])
+@app.post("/predict_batch_bin", dependencies=[Depends(verify_api_key)])
+async def predict_batch_bin(request: Request):
+    """
+    백엔드 마이크로배치 경로 — 윈도우 여러 개를 한 번의 모델 forward로 추론
+    응답: {"results": [예측 결과 | {"error", "status"}, ...]} (요청 순서)
+    """
+    if model is None or pre is None:
+        raise HTTPException(500, "Model not ready")
 
-        return {
-            "probs": probs.tolist(),
-            "thresholds": THRESHOLDS,
-            "active_labels": active,
-            "risk_level": risk,
-            "top_label": top_label,
-            "top_confidence": top_conf,
-        }
+    windows = parse_binary_batch(await request.body())
+    try:
+        return {"results": await run_in_threadpool(run_prediction_batch, windows)}
 
+    except HTTPException:
+        raise
     except Exception as e:
-        print("\n" + "=" * 60)
-        print("❌ PREDICT ERROR")
-        print("=" * 60)
-        traceback.print_exc()
-        print("=" * 60 + "\n")
+        _print_predict_error()
         raise HTTPException(status_code=500, detail=f"Server Error: {str(e)}")
 
 if __name__ == "__main__":
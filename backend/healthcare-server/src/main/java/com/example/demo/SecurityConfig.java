@@ -2,6 +2,7 @@ package com.example.demo;
 
 import com.example.demo.jwt.JwtAuthFilter;
 import com.example.demo.jwt.JwtProvider;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -31,6 +32,13 @@ public class SecurityConfig {
     @Value("${cors.allowed-origins}")
     private String corsAllowedOrigins;
 
+    // 운영 지표(/actuator/metrics)는 별도 관리 포트에서만 허용 — 서비스 포트와 같으면 허용하지 않음
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -38,8 +46,15 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // SSE(/api/ecg/jobs/{id}/events) 완료 시 async dispatch — 최초 요청에서 이미 인가됨
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/actuator/health").permitAll()
+                // 관리 포트는 외부에 공개하지 않음 (k8s Service 미노출, docker-compose는 호스트 loopback만) → 내부 수집기만 접근
+                .requestMatchers(request -> managementPort > 0 && managementPort != serverPort
+                        && request.getLocalPort() == managementPort).permitAll()
+                // 서비스 포트로 들어온 나머지 actuator 요청은 로그인한 환자/보호자 계정이라도 거부
+                .requestMatchers("/actuator/**").denyAll()
                 .anyRequest().authenticated()
             )
             .exceptionHandling(ex -> ex
@@ -58,7 +73,8 @@ public class SecurityConfig {
         CorsConfiguration config = new CorsConfiguration();
         config.setAllowedOrigins(origins);
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        config.setAllowedHeaders(List.of("Authorization", "Content-Type", "X-API-Key"));
+        config.setAllowedHeaders(List.of("Authorization", "Content-Type", "X-API-Key", "Idempotency-Key"));
+        config.setExposedHeaders(List.of("Idempotent-Replayed"));
         config.setAllowCredentials(false);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
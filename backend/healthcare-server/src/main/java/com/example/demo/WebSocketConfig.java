@@ -0,0 +1,27 @@
+package com.example.demo;
+
+import com.example.demo.controller.EcgStreamHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final EcgStreamHandler ecgStreamHandler;
+
+    // HTTP API와 같은 허용 출처 (Origin 헤더가 없는 앱 클라이언트는 그대로 허용)
+    @Value("${cors.allowed-origins}")
+    private String corsAllowedOrigins;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(ecgStreamHandler, "/api/ecg/stream")
+                .setAllowedOrigins(corsAllowedOrigins.split(","));
+    }
+}
@@ -1,13 +1,33 @@
 package com.example.demo.controller;
 
+import com.example.demo.security.AccessControlService;
 import com.example.demo.service.EcgAnalysisService;
+import com.example.demo.service.EcgJobService;
+import com.example.demo.service.EcgRecordService;
+import com.example.demo.service.EcgSampleStore;
+import com.example.demo.service.EcgWindow;
+import com.example.demo.service.EcgWindowStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/ecg")
@@ -15,29 +35,192 @@ import java.util.Map;
 public class EcgController {
 
     private final EcgAnalysisService ecgAnalysisService;
+    private final EcgJobService ecgJobService;
+    private final EcgSampleStore ecgSampleStore;
+    private final EcgRecordService ecgRecordService;
+    private final EcgWindowStore ecgWindowStore;
+    private final AccessControlService accessControlService;
+    private final ObjectMapper objectMapper;
 
+    private static final TypeReference<Map<String, Object>> JSON_BODY = new TypeReference<>() {};
+
+    /**
+     * ECG 윈도우 예측 — Content-Type에 따라
+     * - application/json: {"x": [[...] × 12], "fs": 500} (기존 형식)
+     * - application/octet-stream: float32 바이너리 (형식은 EcgWindow 참고)
+     * ai.ecg.pass-through=true면 본문을 해석하지 않고 AI 서버로 그대로 스트리밍 (EcgAnalysisService.forwardPredict)
+     * save=true면 결과(심박수/HRV/위험도)를 로그인 사용자의 측정 기록으로 저장 (EcgRecordService, pass-through 설정과 무관)
+     * 원본 윈도우 저장소(EcgWindowStore)가 켜져 있으면 pass-through 설정과 무관하게 본문을 해석해 윈도우를 보관
+     */
     @PostMapping("/predict_window")
-    public ResponseEntity<String> predictWindow(@RequestBody Map<String, Object> body) {
-        if (body.get("x") == null) {
-            return ResponseEntity.badRequest()
+    public ResponseEntity<String> predictWindow(
+            @RequestParam(defaultValue = "false") boolean save,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            if (ecgAnalysisService.isPassThrough() && !save && !ecgWindowStore.isEnabled()) {
+                ecgAnalysisService.forwardPredict(request.getContentType(), request.getContentLengthLong(),
+                        request.getInputStream(), response);
+                return null; // 응답은 이미 스트리밍됨
+            }
+            String result = readAnalysis(request, save).get();
+            return ResponseEntity.ok()
                     .contentType(MediaType.APPLICATION_JSON)
-                    .body("{\"error\":\"Missing required field: x\"}");
+                    .body(result);
+        } catch (ResponseStatusException e) {
+            return error(e);
+        }
+    }
+
+    /**
+     * 비동기 분석 작업 등록 — 본문 형식은 /predict_window와 같음 (pass-through 설정과 무관하게 백엔드가 검증)
+     * 202 + {"id", "status": "queued", ...}, Location: /api/ecg/jobs/{id}
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitJob(
+            @RequestParam(defaultValue = "false") boolean save,
+            HttpServletRequest request) throws IOException {
+        try {
+            String owner = accessControlService.currentUserId();
+            EcgJobService.EcgJob job = ecgJobService.submit(owner, readAnalysis(request, save));
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/ecg/jobs/" + job.getId()))
+                    .body(job);
+        } catch (ResponseStatusException e) {
+            return error(e);
+        }
+    }
+
+    /**
+     * 작업 상태 조회 — status: queued | running | done(result 포함) | failed(error 포함)
+     */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<?> getJob(@PathVariable String id) throws JsonProcessingException {
+        try {
+            return ResponseEntity.ok(ecgJobService.get(accessControlService.currentUserId(), id));
+        } catch (ResponseStatusException e) {
+            return error(e);
+        }
+    }
+
+    /**
+     * 작업 완료 알림 (text/event-stream) — 완료되면 "result" 이벤트 하나를 보내고 스트림 종료
+     */
+    @GetMapping("/jobs/{id}/events")
+    public ResponseEntity<?> jobEvents(@PathVariable String id) throws JsonProcessingException {
+        try {
+            SseEmitter emitter = ecgJobService.subscribe(ecgJobService.get(accessControlService.currentUserId(), id));
+            return ResponseEntity.ok(emitter);
+        } catch (ResponseStatusException e) {
+            return error(e);
+        }
+    }
+
+    /**
+     * 요청 본문 읽기 + 검증 (요청 스레드) → AI 서버 호출은 반환된 Supplier를 실행할 때
+     * - application/json: {"x": [[...] × 12], "fs": 500}
+     * - application/octet-stream: 60,000개 Double 박싱/중첩 List 없이 float32 바이트 그대로 검증 후 전달
+     * save=true면 분석 후 측정 기록 저장 + 응답에 "recorded" 추가
+     * 원본 윈도우 저장(EcgWindowStore)은 분석이 성공한 뒤(save=true면 기록 저장 뒤)에만 — 거부/실패한 요청은 남지 않음
+     */
+    private Supplier<String> readAnalysis(HttpServletRequest request, boolean save) throws IOException {
+        String owner = accessControlService.currentUserId();
+        if (isOctetStream(request.getContentType())) {
+            EcgWindow window = ecgAnalysisService.readWindow(request.getInputStream(), request.getContentLengthLong());
+            return analysis(owner, window, save);
+        }
+        Map<String, Object> body;
+        try {
+            body = objectMapper.readValue(request.getInputStream(), JSON_BODY);
+        } catch (JsonProcessingException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Malformed JSON body");
+        }
+        if (body == null || body.get("x") == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Missing required field: x");
         }
         @SuppressWarnings("unchecked")
         List<List<Double>> x = (List<List<Double>>) body.get("x");
         Integer fs = body.get("fs") instanceof Number n ? n.intValue() : 500;
-        String result = ecgAnalysisService.analyzeEcg(x, fs);
-        return ResponseEntity.ok()
+        if (ecgAnalysisService.isPreprocess()) {
+            // 모양/값 오류는 여기서 400 — AI 서버에는 맞춰진 float32 윈도우만 전달
+            EcgWindow window = ecgAnalysisService.prepareWindow(x, fs);
+            return analysis(owner, window, save);
+        }
+        // 전처리가 꺼져 있으면 JSON 그대로 AI 서버로 (윈도우를 만들지 않으므로 원본 저장소에도 남지 않음)
+        Supplier<String> analysis = () -> ecgAnalysisService.analyzeEcg(x, fs);
+        return save ? () -> ecgRecordService.record(owner, analysis.get(), null) : analysis;
+    }
+
+    private Supplier<String> analysis(String owner, EcgWindow window, boolean save) {
+        if (save) {
+            return () -> ecgRecordService.record(owner, ecgAnalysisService.analyzeEcg(window), window);
+        }
+        if (!ecgWindowStore.isEnabled()) {
+            return () -> ecgAnalysisService.analyzeEcg(window);
+        }
+        return () -> ecgRecordService.keepWindow(owner, ecgAnalysisService.analyzeEcg(window), window);
+    }
+
+    private static boolean isOctetStream(String contentType) {
+        try {
+            return contentType != null
+                    && MediaType.APPLICATION_OCTET_STREAM.isCompatibleWith(MediaType.parseMediaType(contentType));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private ResponseEntity<String> error(ResponseStatusException e) throws JsonProcessingException {
+        return ResponseEntity.status(e.getStatusCode())
+                .headers(e.getHeaders())
                 .contentType(MediaType.APPLICATION_JSON)
-                .body(result);
+                .body(objectMapper.writeValueAsString(Map.of("error", e.getReason())));
     }
 
+    /**
+     * 저장된 원본 윈도우 목록 (EcgWindowStore) — [{ref, measuredAt}], 측정 시각 오름차순, 기간 생략 시 최근 1일
+     */
+    @GetMapping("/windows")
+    public ResponseEntity<?> listWindows(
+            @RequestParam String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "100") int limit) throws JsonProcessingException {
+        try {
+            accessControlService.ensureSelfOrLinkedGuardian(userId);
+            return ResponseEntity.ok(ecgWindowStore.list(userId, from, to, limit));
+        } catch (ResponseStatusException e) {
+            return error(e);
+        }
+    }
+
+    /**
+     * 저장된 원본 윈도우 1개 — application/octet-stream ECG1 (12 × 5000 @ 500Hz), /predict_window에 그대로 다시 보낼 수 있음
+     */
+    @GetMapping("/windows/{ref}")
+    public ResponseEntity<?> getWindow(@PathVariable long ref, @RequestParam String userId) throws JsonProcessingException {
+        try {
+            accessControlService.ensureSelfOrLinkedGuardian(userId);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .body(ecgWindowStore.load(userId, ref).payload());
+        } catch (ResponseStatusException e) {
+            return error(e);
+        }
+    }
+
+    /**
+     * 샘플 윈도우 — 미리 받아둔 샘플이 있으면 메모리에서 바로 응답 (EcgSampleStore), 없으면 AI 서버 호출
+     */
     @GetMapping("/sample_window")
-    public ResponseEntity<String> sampleWindow(
-            @RequestParam(required = false) String label) {
-        String result = ecgAnalysisService.sampleWindow(label);
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(result);
+    public ResponseEntity<?> sampleWindow(
+            @RequestParam(required = false) String label) throws JsonProcessingException {
+        try {
+            Object result = ecgSampleStore.sampleWindow(label);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(result);
+        } catch (ResponseStatusException e) {
+            return error(e);
+        }
     }
 }
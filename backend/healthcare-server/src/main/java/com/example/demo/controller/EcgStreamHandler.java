@@ -0,0 +1,86 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.EcgStreamService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * WebSocket /api/ecg/stream?fs=500&hopMs=2000 — 연속 ECG 스트리밍 (핸드셰이크는 다른 API처럼 Authorization: Bearer로 인증)
+ * - 클라이언트 → 서버: 바이너리 메시지, float32 LE 프레임 [t][lead] × N (EcgStreamBuffer)
+ * - 서버 → 클라이언트: 텍스트 JSON — 연결 직후 {"type": "ready", ...}, 이후 hop마다 {"type": "result", "seq", "endSample", "skipped", "result"}
+ * - 형식 오류(프레임 크기, NaN)는 1007 BAD_DATA, 동시 세션 수 초과는 1013 SERVICE_OVERLOAD로 종료
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EcgStreamHandler extends BinaryWebSocketHandler {
+
+    private static final String STREAM = "ecgStream";
+
+    private final EcgStreamService ecgStreamService;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws IOException {
+        Map<String, String> params = query(session.getUri());
+        EcgStreamService.EcgStream stream;
+        try {
+            stream = ecgStreamService.open(session, integer(params, "fs"), integer(params, "hopMs"));
+        } catch (IllegalArgumentException e) {
+            session.close(CloseStatus.BAD_DATA.withReason(e.getMessage()));
+            return;
+        }
+        if (stream == null) {
+            session.close(CloseStatus.SERVICE_OVERLOAD.withReason("Too many ECG streams"));
+            return;
+        }
+        session.getAttributes().put(STREAM, stream);
+        log.info("[ECG] stream opened: {} ({})", session.getId(),
+                session.getPrincipal() != null ? session.getPrincipal().getName() : "-");
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws IOException {
+        if (!(session.getAttributes().get(STREAM) instanceof EcgStreamService.EcgStream stream)) {
+            return;
+        }
+        try {
+            stream.accept(message.getPayload());
+        } catch (IllegalArgumentException e) {
+            session.close(CloseStatus.BAD_DATA.withReason(e.getMessage()));
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        if (session.getAttributes().remove(STREAM) instanceof EcgStreamService.EcgStream stream) {
+            stream.close();
+            log.info("[ECG] stream closed: {} ({})", session.getId(), status.getCode());
+        }
+    }
+
+    private static Map<String, String> query(URI uri) {
+        return uri == null ? Map.of() : UriComponentsBuilder.fromUri(uri).build().getQueryParams().toSingleValueMap();
+    }
+
+    private static Integer integer(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be an integer");
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.AnomalyEventResponse;
 import com.example.demo.dto.ConnectedPatientResponseDto;
 import com.example.demo.dto.GuardianConnectRequestDto;
 import com.example.demo.security.AccessControlService;
 import com.example.demo.service.GuardianService;
+import com.example.demo.service.VitalsAnomalyQueryService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -17,6 +21,7 @@ public class GuardianController {
 
     private final GuardianService guardianService;
     private final AccessControlService accessControlService;
+    private final VitalsAnomalyQueryService vitalsAnomalyQueryService;
 
     @PostMapping("/connect")
     public ResponseEntity<String> connectPatientGuardian(@RequestBody GuardianConnectRequestDto request) {
@@ -48,4 +53,17 @@ public class GuardianController {
         List<ConnectedPatientResponseDto> guardians = guardianService.getMyGuardians(patientId);
         return ResponseEntity.ok(guardians);
     }
+
+    // 보호자 대시보드 — 연결된 모든 환자의 이상 측정 이벤트 (최신순)
+    @GetMapping("/anomalies/{guardianId}")
+    public ResponseEntity<List<AnomalyEventResponse>> getPatientAnomalies(
+            @PathVariable String guardianId,
+            @RequestParam(required = false) List<String> types,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "100") int limit) {
+        accessControlService.ensureGuardianSelf(guardianId);
+        return ResponseEntity.ok(vitalsAnomalyQueryService.findForGuardian(
+                accessControlService.currentUser(), types, from, to, limit));
+    }
 }
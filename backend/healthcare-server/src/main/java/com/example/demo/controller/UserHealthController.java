@@ -1,26 +1,38 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.CreateHealthRecordBatchRequest;
 import com.example.demo.dto.CreateHealthRecordRequest;
+import com.example.demo.dto.VitalsBatchResponse;
+import com.example.demo.dto.VitalsSeriesResponse;
+import com.example.demo.dto.AnomalyEventResponse;
 import jakarta.validation.Valid;
 import com.example.demo.dto.InsightsResponse;
 import com.example.demo.dto.auth.UserHealthResponse;
 import com.example.demo.entity.User;
-import com.example.demo.entity.UserHealth;
-import com.example.demo.entity.UserHealthRecord;
-import com.example.demo.repository.UserHealthRecordRepository;
-import com.example.demo.repository.UserHealthRepository;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.security.AccessControlService;
+import com.example.demo.service.IdempotencyService;
 import com.example.demo.service.UserHealthService;
+import com.example.demo.service.VitalsAnomalyQueryService;
+import com.example.demo.service.VitalsExportService;
+import com.example.demo.service.VitalsQueryCache;
+import com.example.demo.service.VitalsSeriesService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/vitals")
@@ -29,35 +41,47 @@ public class UserHealthController {
 
     private final UserHealthService userHealthService;
     private final UserRepository userRepository;
-    private final UserHealthRepository userHealthRepository;
-    private final UserHealthRecordRepository userHealthRecordRepository;
     private final AccessControlService accessControlService;
+    private final VitalsQueryCache vitalsQueryCache;
+    private final VitalsExportService vitalsExportService;
+    private final VitalsAnomalyQueryService vitalsAnomalyQueryService;
+    private final IdempotencyService idempotencyService;
+    private final VitalsSeriesService vitalsSeriesService;
 
+    // Idempotency-Key가 있으면 같은 키의 재시도는 저장 없이 최초 응답을 그대로 반환
     @PostMapping
-    public ResponseEntity<String> addVitalMeasurement(@Valid @RequestBody CreateHealthRecordRequest req) {
+    public ResponseEntity<String> addVitalMeasurement(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody CreateHealthRecordRequest req) {
         accessControlService.ensureSelfOrLinkedGuardian(req.getUserId());
-        userHealthService.saveHealthRecord(req);
-        return ResponseEntity.ok("Measurement saved and average updated.");
+        return idempotencyService.execute("vitals:" + req.getUserId(), idempotencyKey, req, String.class, () -> {
+            userHealthService.saveHealthRecord(req);
+            return "Measurement saved and average updated.";
+        });
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<VitalsBatchResponse> addVitalMeasurementsBatch(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody CreateHealthRecordBatchRequest req) {
+        accessControlService.ensureSelfOrLinkedGuardian(req.getUserId());
+        return idempotencyService.execute("vitals-batch:" + req.getUserId(), idempotencyKey, req, VitalsBatchResponse.class,
+                () -> userHealthService.saveHealthRecordBatch(req.getUserId(), req.getReadings()));
     }
 
     @GetMapping("/summary")
-    @Transactional(readOnly = true)
     public ResponseEntity<UserHealthResponse> getUserHealthSummary(@RequestParam String userId) {
         accessControlService.ensureSelfOrLinkedGuardian(userId);
 
         User user = userRepository.findByUserId(userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "user not found"));
 
-        UserHealth userHealth = userHealthRepository.findByUser(user).orElse(null);
-        UserHealthRecord latest = userHealthRecordRepository
-                .findTopByUser_IdOrderByMeasuredAtDesc(user.getId())
-                .orElse(null);
+        UserHealthResponse response = vitalsQueryCache.summary(user.getId(),
+                () -> userHealthService.loadSummary(user.getId()));
 
-        if (userHealth == null && latest == null) {
+        if (response == null) {
             return ResponseEntity.noContent().build();
         }
-
-        UserHealthResponse response = new UserHealthResponse(userHealth, latest);
         return ResponseEntity.ok(response);
     }
 
@@ -77,13 +101,88 @@ public class UserHealthController {
             default -> 7;
         };
 
-        LocalDateTime end = LocalDateTime.now();
-        LocalDateTime start = end.minusDays(days - 1L);
+        InsightsResponse resp = vitalsQueryCache.insights(user.getId(), days,
+                () -> userHealthService.loadInsights(user.getId(), days));
+        return ResponseEntity.ok(resp);
+    }
 
-        List<UserHealthRecord> rows = userHealthRecordRepository
-                .findByUser_IdAndMeasuredAtBetweenOrderByMeasuredAtAsc(user.getId(), start, end);
+    // 장기간 원본 측정값 차트 — 항목별 최대 points개 점 (LTTB 다운샘플링)
+    @GetMapping("/series")
+    public ResponseEntity<VitalsSeriesResponse> getSeries(
+            @RequestParam String userId,
+            @RequestParam(defaultValue = "365d") String range,
+            @RequestParam(defaultValue = "500") int points
+    ) {
+        accessControlService.ensureSelfOrLinkedGuardian(userId);
 
-        InsightsResponse resp = InsightsResponse.from(rows, days);
-        return ResponseEntity.ok(resp);
+        User user = userRepository.findByUserId(userId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "user not found"));
+
+        int days = switch (range) {
+            case "30d" -> 30;
+            case "365d" -> 365;
+            default -> 7;
+        };
+        if (points < 3 || points > 5000) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "points must be between 3 and 5000");
+        }
+
+        return ResponseEntity.ok(vitalsSeriesService.load(user.getId(), days, points));
+    }
+
+    // 이상 측정 이벤트 조회 (types 예: HIGH_GLUCOSE,HIGH_BP — 생략 시 전체, 기간 생략 시 최근 30일)
+    @GetMapping("/anomalies")
+    public ResponseEntity<List<AnomalyEventResponse>> getAnomalies(
+            @RequestParam String userId,
+            @RequestParam(required = false) List<String> types,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        accessControlService.ensureSelfOrLinkedGuardian(userId);
+
+        User user = userRepository.findByUserId(userId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "user not found"));
+
+        return ResponseEntity.ok(vitalsAnomalyQueryService.findForPatient(user, types, from, to, limit));
+    }
+
+    // 전체 측정 이력 내보내기 — 목록을 메모리에 올리지 않고 DB 커서에서 바로 응답으로 스트리밍
+    @GetMapping("/export")
+    public void exportVitals(
+            @RequestParam String userId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response
+    ) throws IOException {
+        accessControlService.ensureSelfOrLinkedGuardian(userId);
+
+        User user = userRepository.findByUserId(userId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "user not found"));
+
+        VitalsExportService.Format exportFormat = switch (format) {
+            case "ndjson" -> VitalsExportService.Format.NDJSON;
+            case "csv" -> VitalsExportService.Format.CSV;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be ndjson or csv");
+        };
+
+        response.setContentType(exportFormat.contentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("vitals-" + userId + "." + exportFormat.extension())
+                .build().toString());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            try (GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), 64 * 1024)) {
+                vitalsExportService.export(user.getId(), exportFormat, out);
+            }
+        } else {
+            OutputStream out = response.getOutputStream();
+            vitalsExportService.export(user.getId(), exportFormat, out);
+            out.flush();
+        }
     }
 }
@@ -0,0 +1,39 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.UserHealthRecord;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 이상 측정 이벤트 (GET /api/vitals/anomalies, GET /api/guardian/anomalies/{guardianId})
+ */
+@Getter
+public class AnomalyEventResponse {
+
+    private final String userId;          // 환자 로그인 ID
+    private final Long recordId;
+    private final LocalDateTime measuredAt;
+    private final List<String> anomalyTypes; // 예: ["HIGH_BP", "HIGH_GLUCOSE"]
+    private final String anomalyReason;
+
+    private final Long bpSys;
+    private final Long bpDia;
+    private final Long glucose;
+    private final Long heartRate;
+    private final Double ecgRiskScore;
+
+    public AnomalyEventResponse(String userId, UserHealthRecord record, List<String> anomalyTypes) {
+        this.userId = userId;
+        this.recordId = record.getId();
+        this.measuredAt = record.getMeasuredAt();
+        this.anomalyTypes = anomalyTypes;
+        this.anomalyReason = record.getAnomalyReason();
+        this.bpSys = record.getBpSys();
+        this.bpDia = record.getBpDia();
+        this.glucose = record.getGlucose();
+        this.heartRate = record.getHeartRate();
+        this.ecgRiskScore = record.getEcgRiskScore();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * 오프라인 버퍼링된 측정값 일괄 업로드 요청
+ * - readings 각 항목은 @Valid로 한 번에 검증되어 위반 항목이 readings[i].field 형태로 반환됨
+ */
+@Getter
+@Setter
+public class CreateHealthRecordBatchRequest {
+
+    @NotBlank(message = "userId는 필수입니다")
+    private String userId;
+
+    @Valid
+    @NotEmpty(message = "readings는 최소 1건 이상이어야 합니다")
+    @Size(max = 1000, message = "readings는 한 번에 최대 1000건까지 전송할 수 있습니다")
+    private List<VitalReadingRequest> readings;
+}
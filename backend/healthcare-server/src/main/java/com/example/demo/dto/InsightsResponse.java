@@ -1,5 +1,6 @@
 package com.example.demo.dto;
 
+import com.example.demo.entity.UserHealthDaily;
 import com.example.demo.entity.UserHealthRecord;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -7,6 +8,7 @@ import lombok.Getter;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 /**
@@ -30,82 +32,111 @@ public class InsightsResponse {
     LocalDate today = LocalDate.now();
     LocalDate startDay = today.minusDays(days - 1L);
 
-    // ✅ 날짜별 "항목별 마지막 기록"을 따로 저장
-    Map<LocalDate, UserHealthRecord> lastGlu = new HashMap<>();
-    Map<LocalDate, UserHealthRecord> lastBp  = new HashMap<>();
-    Map<LocalDate, UserHealthRecord> lastEcg = new HashMap<>();
+    // ✅ 날짜별 "항목별 마지막 기록"을 따로 저장 (인덱스 = startDay로부터 경과 일수)
+    UserHealthRecord[] lastGlu = new UserHealthRecord[days];
+    UserHealthRecord[] lastBp  = new UserHealthRecord[days];
+    UserHealthRecord[] lastEcg = new UserHealthRecord[days];
 
     for (UserHealthRecord r : rows) {
         LocalDateTime t = r.getMeasuredAt();
         if (t == null) continue;
         LocalDate d = t.toLocalDate();
         if (d.isBefore(startDay) || d.isAfter(today)) continue;
+        int i = (int) ChronoUnit.DAYS.between(startDay, d);
 
         // 혈당 있는 기록이면 glucose용 last 갱신
-        if (r.getGlucose() != null) {
-            UserHealthRecord prev = lastGlu.get(d);
-            if (prev == null || (prev.getMeasuredAt() != null && t.isAfter(prev.getMeasuredAt()))) {
-                lastGlu.put(d, r);
-            }
+        if (r.getGlucose() != null && isLater(lastGlu[i], t)) {
+            lastGlu[i] = r;
         }
 
         // 혈압 있는 기록이면 bp용 last 갱신
-        if (r.getBpSys() != null && r.getBpDia() != null) {
-            UserHealthRecord prev = lastBp.get(d);
-            if (prev == null || (prev.getMeasuredAt() != null && t.isAfter(prev.getMeasuredAt()))) {
-                lastBp.put(d, r);
-            }
+        if (r.getBpSys() != null && r.getBpDia() != null && isLater(lastBp[i], t)) {
+            lastBp[i] = r;
         }
 
         // ECG 있는 기록이면 ecg용 last 갱신 (riskScore 기준 추천)
-        if (r.getEcgRiskScore() != null || Boolean.TRUE.equals(r.getEcgAbnormal()) || r.getHeartRate() != null) {
-            UserHealthRecord prev = lastEcg.get(d);
-            if (prev == null || (prev.getMeasuredAt() != null && t.isAfter(prev.getMeasuredAt()))) {
-                lastEcg.put(d, r);
-            }
+        if ((r.getEcgRiskScore() != null || Boolean.TRUE.equals(r.getEcgAbnormal()) || r.getHeartRate() != null)
+                && isLater(lastEcg[i], t)) {
+            lastEcg[i] = r;
         }
     }
 
-    DateTimeFormatter fmt = DateTimeFormatter.ofPattern("MM/dd");
-
-    List<String> labels = new ArrayList<>(days);
-    List<Integer> g = new ArrayList<>(days);
-    List<Integer> b = new ArrayList<>(days);
-    List<Integer> e = new ArrayList<>(days);
-
+    int[] g = new int[days];
+    int[] b = new int[days];
+    int[] e = new int[days];
     for (int i = 0; i < days; i++) {
-        LocalDate d = startDay.plusDays(i);
-        labels.add(d.format(fmt));
+        UserHealthRecord rg = lastGlu[i];
+        UserHealthRecord rb = lastBp[i];
+        UserHealthRecord re = lastEcg[i];
 
-        UserHealthRecord rg = lastGlu.get(d);
-        UserHealthRecord rb = lastBp.get(d);
-        UserHealthRecord re = lastEcg.get(d);
-
-        g.add(scoreGlucose(rg != null ? rg.getGlucose() : null));
-        b.add(scoreBp(
+        g[i] = scoreGlucose(rg != null ? rg.getGlucose() : null);
+        b[i] = scoreBp(
                 rb != null ? rb.getBpSys() : null,
                 rb != null ? rb.getBpDia() : null
-        ));
-        e.add(scoreEcg(
+        );
+        e[i] = scoreEcg(
                 re != null ? re.getEcgRiskScore() : null,
                 re != null ? re.getEcgAbnormal() : null
-        ));
+        );
     }
 
-    // 데이터가 하나라도 있는 날짜만 포함해 가중 평균 계산
-    // 가중치: glucose 35% + bp 35% + ecg 30% (클라이언트 재계산 제거)
-    int dataCount = 0;
-    double scoreSum = 0.0;
-    for (int i = 0; i < days; i++) {
-        int gi = g.get(i), bi = b.get(i), ei = e.get(i);
-        if (gi == 0 && bi == 0 && ei == 0) continue; // 데이터 없는 날 제외
-        scoreSum += gi * 0.35 + bi * 0.35 + ei * 0.30;
-        dataCount++;
+    return build(startDay, days, g, b, e);
+}
+
+    /**
+     * 일별 요약(user_health_daily) 기반 생성 — 원본 기록을 읽지 않고 최대 days행만 사용
+     */
+    public static InsightsResponse fromDaily(List<UserHealthDaily> rows, int days) {
+        LocalDate today = LocalDate.now();
+        LocalDate startDay = today.minusDays(days - 1L);
+
+        int[] g = new int[days];
+        int[] b = new int[days];
+        int[] e = new int[days];
+
+        for (UserHealthDaily row : rows) {
+            LocalDate d = row.getDay();
+            if (d == null || d.isBefore(startDay) || d.isAfter(today)) continue;
+            int i = (int) ChronoUnit.DAYS.between(startDay, d);
+
+            g[i] = scoreGlucose(row.getGlucoseLast());
+            b[i] = scoreBp(row.getBpSysLast(), row.getBpDiaLast());
+            e[i] = scoreEcg(row.getEcgRiskLast(), row.getEcgAbnormalLast());
+        }
+
+        return build(startDay, days, g, b, e);
     }
-    int weeklyScore = dataCount > 0 ? (int) Math.round(scoreSum / dataCount) : 0;
 
-    return new InsightsResponse(labels, g, b, e, 100, weeklyScore);
-}
+    private static boolean isLater(UserHealthRecord prev, LocalDateTime t) {
+        return prev == null || (prev.getMeasuredAt() != null && t.isAfter(prev.getMeasuredAt()));
+    }
+
+    private static InsightsResponse build(LocalDate startDay, int days, int[] g, int[] b, int[] e) {
+        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("MM/dd");
+
+        List<String> labels = new ArrayList<>(days);
+        List<Integer> glucose = new ArrayList<>(days);
+        List<Integer> bp = new ArrayList<>(days);
+        List<Integer> ecg = new ArrayList<>(days);
+
+        // 데이터가 하나라도 있는 날짜만 포함해 가중 평균 계산
+        // 가중치: glucose 35% + bp 35% + ecg 30% (클라이언트 재계산 제거)
+        int dataCount = 0;
+        double scoreSum = 0.0;
+        for (int i = 0; i < days; i++) {
+            labels.add(startDay.plusDays(i).format(fmt));
+            glucose.add(g[i]);
+            bp.add(b[i]);
+            ecg.add(e[i]);
+
+            if (g[i] == 0 && b[i] == 0 && e[i] == 0) continue; // 데이터 없는 날 제외
+            scoreSum += g[i] * 0.35 + b[i] * 0.35 + e[i] * 0.30;
+            dataCount++;
+        }
+        int weeklyScore = dataCount > 0 ? (int) Math.round(scoreSum / dataCount) : 0;
+
+        return new InsightsResponse(labels, glucose, bp, ecg, 100, weeklyScore);
+    }
 
 
     // ------------------------
@@ -0,0 +1,55 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 측정값 1건 (단건 POST /api/vitals, 배치 POST /api/vitals/batch 공통)
+ */
+@Getter
+@Setter
+public class VitalReadingRequest {
+
+    // 혈압 (없으면 null 가능) — 의학적 허용 범위
+    @Min(value = 60, message = "수축기 혈압(bpSys)은 60 mmHg 이상이어야 합니다")
+    @Max(value = 300, message = "수축기 혈압(bpSys)은 300 mmHg 이하이어야 합니다")
+    private Long bpSys;
+
+    @Min(value = 30, message = "이완기 혈압(bpDia)은 30 mmHg 이상이어야 합니다")
+    @Max(value = 200, message = "이완기 혈압(bpDia)은 200 mmHg 이하이어야 합니다")
+    private Long bpDia;
+
+    // 혈당 (없으면 null 가능) — mg/dL 기준
+    @Min(value = 20, message = "혈당(glucose)은 20 mg/dL 이상이어야 합니다")
+    @Max(value = 600, message = "혈당(glucose)은 600 mg/dL 이하이어야 합니다")
+    private Long glucose;
+
+    // 측정 타입 (공복/식후)
+    private Boolean isFasting;
+
+    @Min(value = 20, message = "심박수(heartRate)는 20 bpm 이상이어야 합니다")
+    @Max(value = 300, message = "심박수(heartRate)는 300 bpm 이하이어야 합니다")
+    private Long heartRate;
+
+    @DecimalMin(value = "0.0", message = "ECG 위험 점수(ecgRiskScore)는 0.0 이상이어야 합니다")
+    @DecimalMax(value = "1.0", message = "ECG 위험 점수(ecgRiskScore)는 1.0 이하이어야 합니다")
+    private Double ecgRiskScore;
+
+    private Boolean ecgAbnormal;
+    private String ecgAnomalyType;
+
+    // HRV (ms) — ECG 분석 결과 저장 시 EcgRhythmAnalyzer 값
+    @DecimalMin(value = "0.0", message = "SDNN(hrvSdnnMs)은 0 이상이어야 합니다")
+    @DecimalMax(value = "2000.0", message = "SDNN(hrvSdnnMs)은 2000ms 이하이어야 합니다")
+    private Double hrvSdnnMs;
+
+    @DecimalMin(value = "0.0", message = "RMSSD(hrvRmssdMs)는 0 이상이어야 합니다")
+    @DecimalMax(value = "2000.0", message = "RMSSD(hrvRmssdMs)는 2000ms 이하이어야 합니다")
+    private Double hrvRmssdMs;
+
+    // 기기 측정 시각 (오프라인 버퍼링 후 재전송 시 사용). 없으면 서버 수신 시각
+    private LocalDateTime measuredAt;
+}
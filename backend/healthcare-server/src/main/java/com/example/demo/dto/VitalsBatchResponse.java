@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 배치 업로드 결과
+ * - saved: 저장된 측정 건수
+ * - abnormal: 이상값으로 분류된 건수
+ * - alertTypes: 발송된(병합된) 알림 종류 — 종류별 최대 1건
+ */
+@Getter
+@AllArgsConstructor
+public class VitalsBatchResponse {
+
+    private int saved;
+    private int abnormal;
+    private List<String> alertTypes;
+}
@@ -0,0 +1,26 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 장기간 원본 측정값 차트용 응답 (GET /api/vitals/series)
+ * - 항목별로 최대 points개 점 (LTTB 다운샘플링), t = 측정 시각 epoch millis, v = 값
+ * - rawCount: 다운샘플링 전 원본 점 개수
+ */
+@Getter
+@AllArgsConstructor
+public class VitalsSeriesResponse {
+
+    public record Series(long[] t, double[] v) {}
+
+    private int days;
+    private int points;
+    private Series bpSys;
+    private Series bpDia;
+    private Series glucose;
+    private Series heartRate;
+    private Series hrvSdnnMs;
+    private Series hrvRmssdMs;
+    private int rawCount;
+}
@@ -21,6 +21,9 @@ public class UserHealthResponse {
     private Double ecgRiskScore;
     private Boolean ecgAbnormal;
     private String ecgAnomalyType;
+    private Double hrvSdnnMs;
+    private Double hrvRmssdMs;
+    private Long ecgWindowRef;
 
     // (선택) 최신 기록 시간
     private LocalDateTime lastMeasuredAt;
@@ -40,6 +43,9 @@ public class UserHealthResponse {
             this.ecgRiskScore = latest.getEcgRiskScore();
             this.ecgAbnormal = latest.getEcgAbnormal();
             this.ecgAnomalyType = latest.getEcgAnomalyType();
+            this.hrvSdnnMs = latest.getHrvSdnnMs();
+            this.hrvRmssdMs = latest.getHrvRmssdMs();
+            this.ecgWindowRef = latest.getEcgWindowRef();
             this.lastMeasuredAt = latest.getMeasuredAt();
         }
     }
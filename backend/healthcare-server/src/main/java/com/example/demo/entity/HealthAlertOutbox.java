@@ -0,0 +1,75 @@
+package com.example.demo.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 건강 이상 알림 아웃박스
+ * - 측정 기록과 같은 트랜잭션에서 INSERT되고, HealthAlertOutboxDispatcher가 비동기로
+ *   환자/보호자별 UserHealthAlert 생성 + 발송을 처리한다 (at-least-once).
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "health_alert_outbox")
+public class HealthAlertOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // 어떤 환자의 이상 알림인지 (보호자 목록은 발송 시점에 조회)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "patient_id", nullable = false)
+    private User patient;
+
+    // 알림의 근거가 된 측정 기록
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "health_record_id")
+    private UserHealthRecord healthRecord;
+
+    @Column(nullable = false)
+    private String alertType;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(nullable = false, length = 1000)
+    private String message;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    // 다음 처리 가능 시각 (재시도 backoff / 처리 중 lease 만료 시각)
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    private LocalDateTime processedAt;
+}
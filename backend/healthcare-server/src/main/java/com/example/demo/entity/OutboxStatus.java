@@ -0,0 +1,7 @@
+package com.example.demo.entity;
+
+public enum OutboxStatus {
+    PENDING,   // 발송 대기 (재시도 포함)
+    SENT,      // 알림 생성 + 발송 완료
+    FAILED     // 최대 재시도 초과
+}
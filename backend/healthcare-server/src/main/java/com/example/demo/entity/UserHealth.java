@@ -1,5 +1,7 @@
 package com.example.demo.entity;
 
+import java.time.LocalDateTime;
+
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -26,4 +28,30 @@ public class UserHealth {
 
     private Long lastBpSys;       // 최근 수축기 혈압? (현재값)
     private Long lastBpDia;       // 최근 이완기 혈압? (현재값)
+    private LocalDateTime lastBpAt; // last_bp_* 측정 시각 (이보다 오래된 측정은 last 값을 바꾸지 않음)
+
+    // ---- 누적 합계/건수 (평균을 O(1)로 갱신하기 위한 running total) ----
+    // avg* 컬럼은 이 값들로부터 파생되며, 전체 기록 AVG 재계산을 대체한다.
+    @Column(nullable = false)
+    private Long bpCount = 0L;       // 수축기/이완기 모두 있는 기록 수
+
+    @Column(nullable = false)
+    private Long bpSysSum = 0L;      // 수축기 혈압 합계
+
+    @Column(nullable = false)
+    private Long bpDiaSum = 0L;      // 이완기 혈압 합계
+
+    @Column(nullable = false)
+    private Long glucoseCount = 0L;  // 혈당 기록 수
+
+    @Column(nullable = false)
+    private Long glucoseSum = 0L;    // 혈당 합계
+
+    // ---- 개인 기준선: 지수가중 이동 평균/분산 (VitalsBaselineDetector가 측정마다 O(1) 갱신) ----
+    private Double bpSysEwMean;
+    private Double bpSysEwVar;
+    private Double bpDiaEwMean;
+    private Double bpDiaEwVar;
+    private Double glucoseEwMean;
+    private Double glucoseEwVar;
 }
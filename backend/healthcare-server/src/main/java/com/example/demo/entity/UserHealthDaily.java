@@ -0,0 +1,73 @@
+package com.example.demo.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 일별 측정 요약 (user_health_daily)
+ * - 항목별 마지막 값 / 최소 / 최대 / 건수
+ * - 측정 저장 시 UserHealthDailyRollupService가 UPSERT로 증분 갱신
+ * - /api/vitals/insights는 원본 기록 대신 이 테이블(최대 365행)을 읽는다.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "user_health_daily", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"user_id", "day"})
+    })
+public class UserHealthDaily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    // ---- 혈당 ----
+    private Long glucoseLast;
+    private LocalDateTime glucoseLastAt;
+    private Long glucoseMin;
+    private Long glucoseMax;
+    @Column(nullable = false)
+    private Long glucoseCount = 0L;
+
+    // ---- 혈압 (수축기/이완기 모두 있는 기록만) ----
+    private Long bpSysLast;
+    private Long bpDiaLast;
+    private LocalDateTime bpLastAt;
+    private Long bpSysMin;
+    private Long bpSysMax;
+    private Long bpDiaMin;
+    private Long bpDiaMax;
+    @Column(nullable = false)
+    private Long bpCount = 0L;
+
+    // ---- ECG (riskScore / abnormal / heartRate 중 하나라도 있는 기록) ----
+    private Double ecgRiskLast;
+    private Boolean ecgAbnormalLast;
+    private LocalDateTime ecgLastAt;
+    private Double ecgRiskMin;
+    private Double ecgRiskMax;
+    @Column(nullable = false)
+    private Long ecgCount = 0L;
+}
@@ -2,8 +2,6 @@ package com.example.demo.entity;
 
 import java.time.LocalDateTime;
 
-import org.hibernate.annotations.CreationTimestamp;
-
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -16,8 +14,10 @@ import lombok.Setter;
 @Table(name = "user_health_records")
 public class UserHealthRecord {
     
+    // IDENTITY는 INSERT마다 키를 받아와야 해서 JDBC 배치가 불가능 → 시퀀스(50개 단위 선할당) 사용
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_health_records_seq")
+    @SequenceGenerator(name = "user_health_records_seq", sequenceName = "user_health_records_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -69,16 +69,36 @@ public class UserHealthRecord {
     @Column(length = 50)
     private String ecgAnomalyType; // 예: "AFIB", "PVC", "NORMAL"
 
+    @Column
+    private Double hrvSdnnMs;      // RR 간격 표준편차 (ms)
+
+    @Column
+    private Double hrvRmssdMs;     // 연속 RR 차이 RMS (ms)
+
+    @Column
+    private Long ecgWindowRef;     // 원본 ECG 윈도우 (EcgWindowStore ref, GET /api/ecg/windows/{ref})
+
 
     // ---- 이상 종류 / 이유(선택) ----
-    // 예) "HIGH_BP", "LOW_BP", "HIGH_GLUCOSE" 등
-    @Column(length = 50)
+    // 예) "HIGH_BP", "LOW_BP", "HIGH_GLUCOSE" 등 (기준선 이탈 비트까지 모두 합쳐도 101자, V14)
+    @Column(length = 255)
     private String anomalyType;
 
     // 예) "수축기 혈압이 개인 평균보다 30mmHg 이상 높음"
     @Column(length = 255)
     private String anomalyReason;
 
-    @CreationTimestamp
+    // VitalAnomaly 비트마스크 (0 = 이상 없음), 이상 종류별 조회는 이 컬럼 사용
+    @Column(nullable = false)
+    private Integer anomalyMask = 0;
+
+    // 기기가 보낸 측정 시각 (없으면 저장 시점)
     private LocalDateTime measuredAt; // 언제 측정했는지
+
+    @PrePersist
+    void defaultMeasuredAt() {
+        if (measuredAt == null) {
+            measuredAt = LocalDateTime.now();
+        }
+    }
 }
@@ -0,0 +1,38 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 질환별 이상 판정 기준 (vitals_disease_threshold, V16)
+ * - 환자 질환(UserDisease)의 코드 접두어 또는 이름 키워드로 매칭
+ * - 기본 기준보다 엄격해지는 방향으로만 적용 (VitalsRuleEngine)
+ * - 비어 있는 항목(null)은 기준을 바꾸지 않음
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "vitals_disease_threshold")
+public class VitalsDiseaseThreshold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String codePrefix;   // ICD 등 코드 접두어 (예: I10)
+    private String nameKeyword;  // 질환명 포함 키워드 (예: 고혈압)
+
+    private Long bpSysHigh;
+    private Long bpDiaHigh;
+    private Long bpSysLow;
+    private Long bpDiaLow;
+    private Long glucoseHigh;
+    private Long glucoseLow;
+}
@@ -0,0 +1,47 @@
+package com.example.demo.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 환자별 이상 판정 기준 (vitals_patient_threshold, V16)
+ * - 담당 의료진이 지정한 값으로, 지정한 항목은 질환별/기본 기준보다 우선
+ * - 비어 있는 항목(null)은 질환별/기본 기준을 그대로 사용
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "vitals_patient_threshold")
+public class VitalsPatientThreshold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false, unique = true)
+    private User user;
+
+    private Long bpSysHigh;
+    private Long bpDiaHigh;
+    private Long bpSysLow;
+    private Long bpDiaLow;
+    private Long glucoseHigh;
+    private Long glucoseLow;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
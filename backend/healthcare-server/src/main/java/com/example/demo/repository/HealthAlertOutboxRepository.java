@@ -0,0 +1,36 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.HealthAlertOutbox;
+import com.example.demo.entity.OutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface HealthAlertOutboxRepository extends JpaRepository<HealthAlertOutbox, Long> {
+
+    // 처리 가능한 PENDING 항목 선점 (여러 인스턴스가 동시에 폴링해도 같은 행을 잡지 않도록 SKIP LOCKED)
+    @Query(value = "SELECT id FROM health_alert_outbox " +
+            "WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockDueIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // 선점한 항목에 lease를 걸어 처리 중 다른 폴링에서 제외 (노드가 죽으면 lease 만료 후 재시도)
+    @Modifying
+    @Query("UPDATE HealthAlertOutbox o SET o.nextAttemptAt = :leaseUntil, o.attempts = o.attempts + 1 " +
+            "WHERE o.id IN :ids")
+    int lease(@Param("ids") List<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // 보존 기간이 지난 SENT 항목을 최대 limit개 삭제 (한 번에 큰 DELETE로 잠금/WAL이 몰리지 않도록 배치 단위)
+    @Modifying
+    @Query(value = "DELETE FROM health_alert_outbox WHERE id IN (" +
+            "SELECT id FROM health_alert_outbox " +
+            "WHERE status = 'SENT' AND processed_at < :before " +
+            "ORDER BY processed_at LIMIT :limit)", nativeQuery = true)
+    int deleteSentBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    long countByStatus(OutboxStatus status);
+}
@@ -17,6 +17,9 @@ public interface UserDiseaseRepository extends JpaRepository<UserDisease, Long>
     // 트렌드에서 targetGroup = diseaseCode 로 필터할 때 사용할 예정
     List<UserDisease> findByDiseaseCode(String diseaseCode);
 
+    // 환자별 이상 판정 기준 컴파일용 (VitalsRuleEngine)
+    List<UserDisease> findByUser_Id(Long userPkId);
+
     List<UserDisease> findAll();
 
     
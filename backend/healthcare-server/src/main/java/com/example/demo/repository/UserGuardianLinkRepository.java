@@ -3,6 +3,8 @@ package com.example.demo.repository;
 import com.example.demo.entity.User;
 import com.example.demo.entity.UserGuardianLink;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 
 public interface UserGuardianLinkRepository extends JpaRepository<UserGuardianLink, Long> {
@@ -11,4 +13,8 @@ public interface UserGuardianLinkRepository extends JpaRepository<UserGuardianLi
     List<UserGuardianLink> findByGuardian(User guardian);
     boolean existsByPatientAndGuardian(User patient, User guardian);
     void deleteByPatientAndGuardian(User patient, User guardian);
+
+    // 보호자 대시보드용 — 연결된 환자 (PK, 로그인 ID)만 조회
+    @Query("SELECT l.patient.id, l.patient.userId FROM UserGuardianLink l WHERE l.guardian.id = :guardianPkId")
+    List<Object[]> findPatientIdsByGuardianId(@Param("guardianPkId") Long guardianPkId);
 }
\ No newline at end of file
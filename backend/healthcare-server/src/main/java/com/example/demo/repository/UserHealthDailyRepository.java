@@ -0,0 +1,17 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.UserHealthDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface UserHealthDailyRepository extends JpaRepository<UserHealthDaily, Long> {
+
+    // insights 조회용: 기간 내 일별 요약 (최대 365행)
+    List<UserHealthDaily> findByUser_IdAndDayBetweenOrderByDayAsc(Long userPkId, LocalDate start, LocalDate end);
+
+    // 마지막 측정일 (최신 기록 조회 범위를 좁히는 데 사용)
+    Optional<UserHealthDaily> findTopByUser_IdOrderByDayDesc(Long userPkId);
+}
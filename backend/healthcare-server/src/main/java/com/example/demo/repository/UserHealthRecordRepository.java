@@ -2,26 +2,33 @@
 
     import com.example.demo.entity.UserHealthRecord;
     import org.springframework.data.jpa.repository.JpaRepository;
+    import org.springframework.data.jpa.repository.Modifying;
     import org.springframework.data.jpa.repository.Query;
     import org.springframework.data.repository.query.Param;
+    import java.util.Collection;
     import java.util.List;
     import java.time.LocalDateTime;
     import java.util.Optional;
 
     public interface UserHealthRecordRepository extends JpaRepository<UserHealthRecord, Long> {
 
-        // ✅ 유저 PK(id) 기준으로 최신 1건
-        Optional<UserHealthRecord> findTopByUser_IdOrderByMeasuredAtDesc(Long userPkId);
-
-        // (원하면 리스트도)
-        List<UserHealthRecord> findByUser_IdOrderByMeasuredAtDesc(Long userPkId);
-
-        @Query("SELECT AVG(r.bpSys), AVG(r.bpDia) FROM UserHealthRecord r " +
-                "WHERE r.user.id = :userId AND r.bpSys IS NOT NULL AND r.bpDia IS NOT NULL")
-        List<Object[]> findAverageBpByUserId(@Param("userId") Long userId);
+        // 최신 기록 조회를 하루 범위로 한정 → 해당 월 파티션 하나만 스캔 (partition pruning)
+        Optional<UserHealthRecord> findTopByUser_IdAndMeasuredAtGreaterThanEqualAndMeasuredAtLessThanOrderByMeasuredAtDesc(
+            Long userPkId,
+            LocalDateTime startInclusive,
+            LocalDateTime endExclusive
+        );
 
-        @Query("SELECT AVG(r.glucose) FROM UserHealthRecord r WHERE r.user.id = :userId AND r.glucose IS NOT NULL")
-        Double findAverageGlucoseByUserId(@Param("userId") Long userId);
+        // 누적 합계 검증용 전체 재집계: [bpCount, bpSysSum, bpDiaSum, glucoseCount, glucoseSum]
+        // (측정 저장 경로에서는 사용하지 않음 — UserHealth의 running total 사용)
+        @Query("SELECT " +
+                "COALESCE(SUM(CASE WHEN r.bpSys IS NOT NULL AND r.bpDia IS NOT NULL THEN 1L ELSE 0L END), 0L), " +
+                "COALESCE(SUM(CASE WHEN r.bpSys IS NOT NULL AND r.bpDia IS NOT NULL THEN r.bpSys ELSE 0L END), 0L), " +
+                "COALESCE(SUM(CASE WHEN r.bpSys IS NOT NULL AND r.bpDia IS NOT NULL THEN r.bpDia ELSE 0L END), 0L), " +
+                "COUNT(r.glucose), " +
+                "COALESCE(SUM(r.glucose), 0L) " +
+                "FROM UserHealthRecord r WHERE r.user.id = :userId")
+        List<Object[]> findRunningTotalsByUserId(@Param("userId") Long userId);
 
         List<UserHealthRecord> findByUser_IdAndMeasuredAtBetweenOrderByMeasuredAtAsc(
             Long userPkId,
@@ -29,4 +36,28 @@
             LocalDateTime end
         );
 
+        // 기록 저장 후 원본 ECG 윈도우 연결 — measured_at 조건으로 해당 월 파티션만 (partition pruning)
+        @Modifying
+        @Query("UPDATE UserHealthRecord r SET r.ecgWindowRef = :ref WHERE r.id = :id AND r.measuredAt = :measuredAt")
+        int updateEcgWindowRef(
+            @Param("id") Long id,
+            @Param("measuredAt") LocalDateTime measuredAt,
+            @Param("ref") Long ref
+        );
+
+        // 이상 종류별 이벤트 조회 (여러 환자 가능) — anomaly_mask <> 0 조건으로 부분 인덱스 사용
+        @Query(value = "SELECT * FROM user_health_records r " +
+                "WHERE r.user_id IN (:userPkIds) " +
+                "AND r.anomaly_mask <> 0 AND (r.anomaly_mask & :mask) <> 0 " +
+                "AND r.measured_at >= :from AND r.measured_at < :to " +
+                "ORDER BY r.measured_at DESC LIMIT :limit",
+                nativeQuery = true)
+        List<UserHealthRecord> findAnomalyEvents(
+            @Param("userPkIds") Collection<Long> userPkIds,
+            @Param("mask") int mask,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to,
+            @Param("limit") int limit
+        );
+
     }
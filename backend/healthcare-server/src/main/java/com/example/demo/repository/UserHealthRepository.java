@@ -2,8 +2,14 @@ package com.example.demo.repository;
 
 import com.example.demo.entity.User;
 import com.example.demo.entity.UserHealth;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserHealthRepository extends JpaRepository<UserHealth, Long> {
@@ -11,4 +17,15 @@ public interface UserHealthRepository extends JpaRepository<UserHealth, Long> {
     // ✅ 유저 객체로 요약 정보(UserHealth)를 찾는 메소드
     // (JPA가 메소드 이름을 보고 자동으로 쿼리를 만들어줍니다)
     Optional<UserHealth> findByUser(User user);
-}
\ No newline at end of file
+
+    Optional<UserHealth> findByUser_Id(Long userPkId);
+
+    // 측정값 저장 시 누적 합계(read-modify-write)가 동시 요청에 유실되지 않도록 행 잠금
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM UserHealth h WHERE h.user = :user")
+    Optional<UserHealth> findByUserForUpdate(@Param("user") User user);
+
+    // 누적 합계 검증용 keyset 페이지 — 엔티티 대신 유저 PK만 (영속성 컨텍스트에 쌓이지 않음)
+    @Query("SELECT h.user.id FROM UserHealth h WHERE h.user.id > :after ORDER BY h.user.id")
+    List<Long> findUserIdsAfter(@Param("after") Long after, Pageable pageable);
+}
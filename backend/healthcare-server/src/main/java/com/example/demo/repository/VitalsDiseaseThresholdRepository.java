@@ -0,0 +1,8 @@
+package com.example.demo.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.example.demo.entity.VitalsDiseaseThreshold;
+
+public interface VitalsDiseaseThresholdRepository extends JpaRepository<VitalsDiseaseThreshold, Long> {
+}
@@ -0,0 +1,13 @@
+package com.example.demo.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.example.demo.entity.VitalsPatientThreshold;
+
+public interface VitalsPatientThresholdRepository extends JpaRepository<VitalsPatientThreshold, Long> {
+
+    // 환자별 이상 판정 기준 컴파일용 (VitalsRuleEngine)
+    Optional<VitalsPatientThreshold> findByUser_Id(Long userPkId);
+}
@@ -0,0 +1,19 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.service.EcgSampleStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class EcgSampleRefreshScheduler {
+
+    private final EcgSampleStore ecgSampleStore;
+
+    // 기동 직후 첫 실행 (샘플 미리 받기), 이후 비었거나 오래된 라벨만 갱신 — AI 호출은 EcgSampleStore 전용 스레드에서
+    @Scheduled(fixedDelayString = "${ai.ecg.samples.check-interval-ms:30000}")
+    public void refresh() {
+        ecgSampleStore.refreshAsync();
+    }
+}
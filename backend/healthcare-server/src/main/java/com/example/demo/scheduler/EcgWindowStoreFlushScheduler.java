@@ -0,0 +1,21 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.service.EcgWindowStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "ai.ecg.store.enabled", havingValue = "true")
+public class EcgWindowStoreFlushScheduler {
+
+    private final EcgWindowStore ecgWindowStore;
+
+    // 쓰는 중인 세그먼트를 주기적으로 디스크에 반영 (가득 찬 세그먼트는 압축 전에 EcgWindowStore가 직접 반영)
+    @Scheduled(fixedDelayString = "${ai.ecg.store.flush-interval-ms:1000}")
+    public void flush() {
+        ecgWindowStore.flush();
+    }
+}
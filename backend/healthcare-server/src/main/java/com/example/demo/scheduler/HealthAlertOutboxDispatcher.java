@@ -0,0 +1,92 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.service.HealthAlertOutboxService;
+import com.example.demo.service.HealthAlertOutboxService.ClaimedAlert;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 건강 이상 알림 아웃박스 디스패처
+ * - 주기적으로 PENDING 항목을 선점해 환자 단위로 묶고, 고정 크기 virtual thread 풀에서 병렬 발송
+ * - 측정 저장 요청의 지연이 보호자 수와 무관해지도록 fan-out을 요청 밖으로 분리
+ */
+@Slf4j
+@Component
+public class HealthAlertOutboxDispatcher {
+
+    private final HealthAlertOutboxService outboxService;
+    private final int batchSize;
+    private final ExecutorService executor;
+
+    public HealthAlertOutboxDispatcher(
+            HealthAlertOutboxService outboxService,
+            @Value("${alerts.outbox.batch-size:100}") int batchSize,
+            @Value("${alerts.outbox.dispatcher-threads:8}") int dispatcherThreads) {
+        this.outboxService = outboxService;
+        this.batchSize = batchSize;
+        this.executor = Executors.newFixedThreadPool(dispatcherThreads,
+                Thread.ofVirtual().name("alert-outbox-", 0).factory());
+    }
+
+    @Scheduled(fixedDelayString = "${alerts.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        List<ClaimedAlert> claimed;
+        do {
+            claimed = outboxService.claimBatch(batchSize);
+            if (claimed.isEmpty()) {
+                return;
+            }
+
+            // 환자별로 묶어서 보호자 조회/알림 저장을 한 번에 처리
+            Map<Long, List<Long>> idsByPatient = new LinkedHashMap<>();
+            for (ClaimedAlert alert : claimed) {
+                idsByPatient.computeIfAbsent(alert.patientId(), k -> new ArrayList<>()).add(alert.id());
+            }
+
+            List<Callable<Void>> tasks = new ArrayList<>(idsByPatient.size());
+            for (List<Long> ids : idsByPatient.values()) {
+                tasks.add(() -> {
+                    deliver(ids);
+                    return null;
+                });
+            }
+
+            try {
+                executor.invokeAll(tasks);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        } while (claimed.size() == batchSize); // 꽉 찬 배치면 밀린 항목이 더 있을 수 있음
+    }
+
+    private void deliver(List<Long> ids) {
+        try {
+            outboxService.deliver(ids);
+        } catch (Exception e) {
+            log.warn("[AlertOutbox] delivery failed for ids={}: {}", ids, e.getMessage());
+            try {
+                outboxService.markFailed(ids, e.getMessage());
+            } catch (Exception markError) {
+                // 상태 기록조차 실패하면 lease 만료 후 재선점되어 재시도됨
+                log.error("[AlertOutbox] could not record failure for ids={}: {}", ids, markError.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
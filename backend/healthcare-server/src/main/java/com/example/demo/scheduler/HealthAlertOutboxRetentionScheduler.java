@@ -0,0 +1,54 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.service.HealthAlertOutboxService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 알림 아웃박스 보존 정리
+ * - 보존 기간이 지난 SENT 항목을 배치 단위로 삭제 (배치마다 별도 트랜잭션 → 잠금/WAL을 잘게 나눔)
+ * - FAILED 항목은 원인 확인용으로 남김 (alerts.outbox.failed 지표)
+ */
+@Slf4j
+@Component
+public class HealthAlertOutboxRetentionScheduler {
+
+    private final HealthAlertOutboxService outboxService;
+    private final int retentionDays;
+    private final int batchSize;
+
+    public HealthAlertOutboxRetentionScheduler(
+            HealthAlertOutboxService outboxService,
+            @Value("${alerts.outbox.retention-days:14}") int retentionDays,
+            @Value("${alerts.outbox.purge-batch-size:1000}") int batchSize) {
+        this.outboxService = outboxService;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${alerts.outbox.purge-cron:0 45 4 * * *}") // 기본: 매일 04:45
+    public void runDaily() {
+        purge();
+    }
+
+    /**
+     * @return 삭제된 행 수
+     */
+    public long purge() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        long total = 0;
+        int deleted;
+        do {
+            deleted = outboxService.purgeSentBatch(before, batchSize);
+            total += deleted;
+        } while (deleted == batchSize); // 꽉 찬 배치면 남은 항목이 더 있을 수 있음
+        if (total > 0) {
+            log.info("[AlertOutbox] purged {} SENT entr(ies) processed before {}", total, before);
+        }
+        return total;
+    }
+}
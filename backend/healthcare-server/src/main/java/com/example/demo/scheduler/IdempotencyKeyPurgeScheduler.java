@@ -0,0 +1,21 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.service.IdempotencyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotencyKeyPurgeScheduler {
+
+    private final IdempotencyService idempotencyService;
+
+    @Scheduled(cron = "${vitals.idempotency.purge-cron:0 15 * * * *}") // 기본: 매시 15분
+    public void runHourly() {
+        int deleted = idempotencyService.purgeExpired();
+        log.debug("[Scheduler] Idempotency key purge finished: {} deleted", deleted);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.service.UserHealthRecordArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "vitals.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class UserHealthRecordArchiveScheduler {
+
+    private final UserHealthRecordArchiveService archiveService;
+
+    @Scheduled(cron = "${vitals.archive.cron:0 30 4 * * *}") // 기본: 매일 04:30 (파티션 관리 이후)
+    public void runDaily() {
+        log.info("[Scheduler] Vitals archive started");
+        UserHealthRecordArchiveService.ArchiveResult result = archiveService.archiveOldRecords();
+        log.info("[Scheduler] Vitals archive finished: {} row(s) in {} block(s)", result.rows(), result.blocks());
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.service.UserHealthRecordPartitionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserHealthRecordPartitionScheduler {
+
+    private final UserHealthRecordPartitionService partitionService;
+
+    @Scheduled(cron = "${vitals.partition.cron:0 0 4 * * *}") // 기본: 매일 04:00
+    public void runDaily() {
+        log.info("[Scheduler] Vitals partition maintenance started");
+        partitionService.ensureFuturePartitions();
+        log.info("[Scheduler] Vitals partition maintenance finished");
+    }
+}
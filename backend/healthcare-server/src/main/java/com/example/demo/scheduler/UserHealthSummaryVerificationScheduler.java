@@ -0,0 +1,22 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.service.UserHealthSummaryVerificationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserHealthSummaryVerificationScheduler {
+
+    private final UserHealthSummaryVerificationService verificationService;
+
+    @Scheduled(cron = "${vitals.summary.verify-cron:0 30 3 * * *}") // 기본: 매일 03:30
+    public void runDaily() {
+        log.info("[Scheduler] Vitals summary verification started");
+        verificationService.verifyAll();
+        log.info("[Scheduler] Vitals summary verification finished");
+    }
+}
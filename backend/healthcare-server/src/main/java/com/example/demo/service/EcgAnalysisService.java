@@ -1,15 +1,49 @@
 package com.example.demo.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
@@ -17,25 +51,119 @@ public class EcgAnalysisService {
 
     private final String baseUrl;
     private final String aiApiKey;
+    private final int maxSamplesPerLead;
     private final RestTemplate restTemplate;
+    private final boolean passThrough;
+    private final boolean preprocess;
+    private final boolean rhythm;
+    private final long maxBodyBytes;
+    // pass-through 전용 — AI 서버 4xx/5xx도 예외 없이 상태/본문 그대로 전달
+    private final RestTemplate proxyTemplate;
+    private final CloseableHttpClient httpClient;
+    private final EcgCallGuard callGuard;
+    private final EcgResultCache resultCache;
+    // ai.ecg.batch.enabled=false면 null — 바이너리 윈도우를 건별로 /predict_window_bin 호출
+    private final EcgInferenceBatcher batcher;
+    private final long batchResultTimeoutMs;
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
     public EcgAnalysisService(
             @Value("${ai.ecg.server-url:http://ai:8000}") String aiServerUrl,
             @Value("${ai.ecg.api-key:}") String aiApiKey,
             @Value("${ai.ecg.connect-timeout-ms:5000}") int connectTimeoutMs,
-            @Value("${ai.ecg.read-timeout-ms:30000}") int readTimeoutMs) {
+            @Value("${ai.ecg.read-timeout-ms:30000}") int readTimeoutMs,
+            @Value("${ai.ecg.max-samples-per-lead:30000}") int maxSamplesPerLead,
+            @Value("${ai.ecg.pass-through:false}") boolean passThrough,
+            @Value("${ai.ecg.max-body-bytes:4194304}") long maxBodyBytes,
+            @Value("${ai.ecg.preprocess.enabled:true}") boolean preprocess,
+            @Value("${ai.ecg.rhythm.enabled:true}") boolean rhythm,
+            @Value("${ai.ecg.pool.max-total:50}") int poolMaxTotal,
+            @Value("${ai.ecg.pool.max-per-route:50}") int poolMaxPerRoute,
+            @Value("${ai.ecg.pool.keep-alive-ms:4000}") long keepAliveMs,
+            @Value("${ai.ecg.pool.acquire-timeout-ms:5000}") long acquireTimeoutMs,
+            @Value("${ai.ecg.batch.enabled:false}") boolean batchEnabled,
+            @Value("${ai.ecg.batch.max-size:16}") int batchMaxSize,
+            @Value("${ai.ecg.batch.max-wait-ms:10}") long batchMaxWaitMs,
+            @Value("${ai.ecg.batch.queue-capacity:256}") int batchQueueCapacity,
+            @Value("${ai.ecg.batch.concurrency:4}") int batchConcurrency,
+            MeterRegistry meterRegistry,
+            EcgCallGuard callGuard,
+            EcgResultCache resultCache) {
         // path가 포함된 이전 URL 값도 안전하게 처리 (예: http://ai:8000/predict_window → http://ai:8000)
         this.baseUrl = aiServerUrl.replaceAll("/predict_window$", "").replaceAll("/$", "");
         this.aiApiKey = aiApiKey;
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(connectTimeoutMs);
-        factory.setReadTimeout(readTimeoutMs);
+        this.maxSamplesPerLead = maxSamplesPerLead;
+        this.callGuard = callGuard;
+        this.resultCache = resultCache;
+        // keep-alive 커넥션 풀 — 요청마다 TCP/TLS 연결을 새로 맺지 않음 (AI 서버는 호스트 하나라 route도 하나)
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(poolMaxTotal)
+                .setMaxConnPerRoute(poolMaxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        // 유휴 후 재사용 전 연결 상태 확인 (서버가 먼저 닫은 연결에 POST를 보내지 않도록)
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(1))
+                        .build())
+                .build();
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(acquireTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        // 서버가 Keep-Alive 헤더를 보내지 않을 때의 유휴 유지 시간 (uvicorn 기본 keep-alive 5초보다 짧게)
+                        .setConnectionKeepAlive(TimeValue.ofMilliseconds(keepAliveMs))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(keepAliveMs))
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "ecg-ai").bindTo(meterRegistry);
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(httpClient);
         this.restTemplate = new RestTemplate(factory);
+        this.passThrough = passThrough;
+        this.preprocess = preprocess;
+        this.rhythm = rhythm;
+        this.maxBodyBytes = maxBodyBytes;
+        this.proxyTemplate = new RestTemplate(factory);
+        this.proxyTemplate.setErrorHandler(new DefaultResponseErrorHandler() {
+            @Override
+            public boolean hasError(ClientHttpResponse response) {
+                return false;
+            }
+        });
+        this.batcher = batchEnabled
+                ? new EcgInferenceBatcher(batchMaxSize, batchMaxWaitMs, batchQueueCapacity, batchConcurrency,
+                        this::predictBatch, meterRegistry)
+                : null;
+        // 큐 대기 + 배치 수집 + AI 서버 응답까지 기다리는 최대 시간
+        this.batchResultTimeoutMs = batchMaxWaitMs + acquireTimeoutMs + readTimeoutMs;
     }
 
+    @PreDestroy
+    void close() throws IOException {
+        if (batcher != null) {
+            batcher.close();
+        }
+        httpClient.close();
+    }
+
+    public boolean isPassThrough() {
+        return passThrough;
+    }
+
+    public boolean isPreprocess() {
+        return preprocess;
+    }
+
+    private static final String AI_UNAVAILABLE = "{\"error\": \"AI 서버와 통신할 수 없습니다. 잠시 후 다시 시도해주세요.\"}";
+
     private HttpHeaders buildHeaders() {
+        return buildHeaders(MediaType.APPLICATION_JSON);
+    }
+
+    private HttpHeaders buildHeaders(MediaType contentType) {
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setContentType(contentType);
         if (aiApiKey != null && !aiApiKey.isBlank()) {
             headers.set("X-API-Key", aiApiKey);
         }
@@ -43,35 +171,315 @@ public class EcgAnalysisService {
     }
 
     public String analyzeEcg(List<List<Double>> ecgData, Integer fs) {
+        int sampleRate = fs != null ? fs : 500;
+        EcgResultCache.Key key = resultCache.key(ecgData, sampleRate);
+        String cached = resultCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
         Map<String, Object> body = Map.of(
                 "x", ecgData,
-                "fs", fs != null ? fs : 500
+                "fs", sampleRate
         );
         HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, buildHeaders());
+        return call("predict_window", AI_UNAVAILABLE, key,
+                () -> restTemplate.postForEntity(baseUrl + "/predict_window", entity, String.class));
+    }
+
+    /**
+     * 바이너리 ECG 윈도우 요청 본문 읽기 + 검증 (형식은 EcgWindow 참고)
+     * ai.ecg.preprocess.enabled면 12 × 5000 @ 500Hz로 맞춘 윈도우 (EcgWindowPreprocessor)
+     */
+    public EcgWindow readWindow(InputStream body, long contentLength) throws IOException {
+        EcgWindow window = EcgWindow.read(body, contentLength, maxSamplesPerLead);
+        return preprocess ? EcgWindowPreprocessor.preprocess(window) : window;
+    }
+
+    /**
+     * JSON x[행][열] → 검증 + 12 × 5000 @ 500Hz 바이너리 윈도우 (AI 서버에는 /predict_window_bin으로 전달)
+     * @throws ResponseStatusException 400 모양/값 오류, 413 리드당 샘플 수 초과
+     */
+    public EcgWindow prepareWindow(List<? extends List<?>> x, int fs) {
+        return EcgWindowPreprocessor.fromMatrix(x, fs, maxSamplesPerLead);
+    }
+
+    /**
+     * 바이너리 윈도우를 같은 형식 그대로 AI 서버 /predict_window_bin으로 전달 (JSON 재직렬화 없음)
+     * - 마이크로배치가 켜져 있으면 동시에 들어온 윈도우와 묶어 /predict_batch_bin으로 전달 (EcgInferenceBatcher)
+     * - ai.ecg.rhythm.enabled면 응답에 리드 II 심박수/HRV("rhythm") 추가 — 백엔드에서 계산 (EcgRhythmAnalyzer)
+     */
+    public String analyzeEcg(EcgWindow window) {
+        String result = predict(window, resultCache.key(window));
+        return rhythm ? withRhythm(result, window) : result;
+    }
+
+    /**
+     * 스트리밍 롤링 윈도우 분석 (EcgStreamService) — analyzeEcg와 같지만 결과 캐시를 거치지 않음
+     * (겹치는 윈도우는 같은 값이 다시 오지 않으므로 캐시에 넣으면 다른 결과만 밀어냄)
+     */
+    public String analyzeStreamWindow(EcgWindow window) {
+        String result = predict(window, null);
+        return rhythm ? withRhythm(result, window) : result;
+    }
+
+    /**
+     * @param key null이면 결과 캐시 조회/저장 없음
+     */
+    private String predict(EcgWindow window, EcgResultCache.Key key) {
+        String cached = resultCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (batcher != null) {
+            String result = awaitBatch(batcher.submit(window));
+            resultCache.put(key, result);
+            return result != null ? result : AI_UNAVAILABLE;
+        }
+        HttpEntity<byte[]> entity = new HttpEntity<>(window.payload(), buildHeaders(MediaType.APPLICATION_OCTET_STREAM));
+        return call("predict_window_bin", AI_UNAVAILABLE, key,
+                () -> restTemplate.postForEntity(baseUrl + "/predict_window_bin", entity, String.class));
+    }
+
+    /**
+     * AI 응답 JSON에 "rhythm": {beats, heartRate, sdnnMs, rmssdMs} 추가 — 오류 응답이거나 비트가 3개 미만이면 그대로
+     */
+    private String withRhythm(String result, EcgWindow window) {
+        EcgRhythmAnalyzer.EcgRhythm r = EcgRhythmAnalyzer.analyze(window);
+        if (r == null) {
+            return result;
+        }
         try {
-            ResponseEntity<String> response = restTemplate.postForEntity(
-                    baseUrl + "/predict_window", entity, String.class);
-            return response.getBody();
-        } catch (Exception e) {
-            log.error("[ECG] predict_window 실패: {}", e.getMessage());
-            return "{\"error\": \"AI 서버와 통신할 수 없습니다. 잠시 후 다시 시도해주세요.\"}";
+            if (!(objectMapper.readTree(result) instanceof ObjectNode root) || root.has("error")) {
+                return result;
+            }
+            root.putObject("rhythm")
+                    .put("beats", r.beats())
+                    .put("heartRate", round1(r.heartRate()))
+                    .put("sdnnMs", round1(r.sdnnMs()))
+                    .put("rmssdMs", round1(r.rmssdMs()));
+            return objectMapper.writeValueAsString(root);
+        } catch (JsonProcessingException e) {
+            return result;
+        }
+    }
+
+    private static double round1(double v) {
+        return Math.round(v * 10) / 10.0;
+    }
+
+    private String awaitBatch(CompletableFuture<String> future) {
+        try {
+            return future.get(batchResultTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ResponseStatusException rejected) {
+                throw rejected;
+            }
+            log.error("[ECG] predict_batch_bin 실패: {}", e.getCause().getMessage());
+            return null;
+        } catch (TimeoutException e) {
+            // 아직 전송 전이면 배치에서 빠짐
+            future.cancel(false);
+            log.error("[ECG] predict_batch_bin 결과 대기 시간 초과 ({}ms)", batchResultTimeoutMs);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * 윈도우 여러 개를 AI 서버 /predict_batch_bin 한 번으로 추론 — 배치 하나가 EcgCallGuard 자리 하나를 씀
+     * 요청 본문: "ECGB" | count u32 (LE) | 각 윈도우의 ECG1 바이트 그대로 (복사 없이 순서대로 스트리밍)
+     * @return 윈도우 순서대로 결과 JSON — 통신 실패/5xx면 전부 null, 개별 윈도우 오류(422 등)는 해당 항목만 null
+     * @throws ResponseStatusException 503 서킷 OPEN 또는 동시 호출 포화
+     */
+    List<String> predictBatch(List<EcgWindow> windows) {
+        ByteBuffer header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN)
+                .put(BATCH_MAGIC).putInt(windows.size());
+        long contentLength = header.capacity();
+        for (EcgWindow w : windows) {
+            contentLength += w.payload().length;
+        }
+        long length = contentLength;
+        try (EcgCallGuard.Permit permit = callGuard.acquire()) {
+            try {
+                JsonNode results = restTemplate.execute(baseUrl + "/predict_batch_bin", HttpMethod.POST, request -> {
+                    request.getHeaders().putAll(buildHeaders(MediaType.APPLICATION_OCTET_STREAM));
+                    request.getHeaders().setContentLength(length);
+                    if (request instanceof StreamingHttpOutputMessage streaming) {
+                        streaming.setBody(out -> writeBatch(header.array(), windows, out));
+                    } else {
+                        writeBatch(header.array(), windows, request.getBody());
+                    }
+                }, response -> objectMapper.readTree(response.getBody()).path("results"));
+                permit.success();
+                List<String> out = new ArrayList<>(windows.size());
+                int failed = 0;
+                for (int i = 0; i < windows.size(); i++) {
+                    JsonNode r = results.path(i);
+                    boolean ok = r.isObject() && !r.has("error");
+                    out.add(ok ? r.toString() : null);
+                    if (!ok) failed++;
+                }
+                if (failed > 0) {
+                    log.warn("[ECG] predict_batch_bin {}/{}건 실패", failed, windows.size());
+                }
+                return out;
+            } catch (HttpStatusCodeException e) {
+                if (e.getStatusCode().is4xxClientError()) {
+                    permit.clientError();
+                }
+                log.error("[ECG] predict_batch_bin 실패: {}", e.getMessage());
+            } catch (Exception e) {
+                log.error("[ECG] predict_batch_bin 실패: {}", e.getMessage());
+            }
+            return Collections.nCopies(windows.size(), null);
+        }
+    }
+
+    private static final byte[] BATCH_MAGIC = {'E', 'C', 'G', 'B'};
+
+    private static void writeBatch(byte[] header, List<EcgWindow> windows, OutputStream out) throws IOException {
+        out.write(header);
+        for (EcgWindow w : windows) {
+            out.write(w.payload());
+        }
+    }
+
+    /**
+     * pass-through 모드 — 요청 본문을 해석하지 않고 servlet InputStream → AI 서버 → servlet OutputStream으로 그대로 스트리밍
+     * - 검증은 Content-Type/Content-Length/크기 상한만 (본문 형식/NaN 검증은 AI 서버가 담당)
+     * - 요청/응답 모두 고정 크기 버퍼로 복사 — 요청당 힙 사용량이 윈도우 크기와 무관
+     * - AI 서버의 상태 코드와 본문을 그대로 돌려줌 (본문을 보지 않으므로 EcgResultCache도 거치지 않음)
+     * @throws ResponseStatusException 415 지원하지 않는 Content-Type / 411 Content-Length 없음 / 413 크기 초과
+     */
+    public void forwardPredict(String contentType, long contentLength, InputStream body,
+                               HttpServletResponse response) throws IOException {
+        MediaType type = parseContentType(contentType);
+        String path;
+        if (MediaType.APPLICATION_OCTET_STREAM.isCompatibleWith(type)) {
+            path = "/predict_window_bin";
+        } else if (MediaType.APPLICATION_JSON.isCompatibleWith(type)) {
+            path = "/predict_window";
+        } else {
+            throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                    "Content-Type must be application/json or application/octet-stream");
+        }
+        if (contentLength < 0) {
+            throw new ResponseStatusException(HttpStatus.LENGTH_REQUIRED, "Content-Length is required");
+        }
+        if (contentLength > maxBodyBytes) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Request body must be at most " + maxBodyBytes + " bytes (got " + contentLength + ")");
+        }
+
+        try (EcgCallGuard.Permit permit = callGuard.acquire()) {
+            proxyTemplate.execute(baseUrl + path, HttpMethod.POST, request -> {
+                request.getHeaders().putAll(buildHeaders(type));
+                request.getHeaders().setContentLength(contentLength);
+                if (request instanceof StreamingHttpOutputMessage streaming) {
+                    streaming.setBody(out -> copyBody(body, out, contentLength, permit));
+                } else {
+                    copyBody(body, request.getBody(), contentLength, permit);
+                }
+            }, upstream -> {
+                HttpStatusCode status = upstream.getStatusCode();
+                if (status.is4xxClientError()) {
+                    permit.clientError();
+                } else if (!status.is5xxServerError()) {
+                    permit.success();
+                }
+                response.setStatus(status.value());
+                MediaType upstreamType = upstream.getHeaders().getContentType();
+                response.setContentType(upstreamType != null ? upstreamType.toString() : MediaType.APPLICATION_JSON_VALUE);
+                long length = upstream.getHeaders().getContentLength();
+                if (length >= 0) {
+                    response.setContentLengthLong(length);
+                }
+                upstream.getBody().transferTo(response.getOutputStream());
+                return null;
+            });
+        } catch (RestClientException e) {
+            // 연결 오류/타임아웃 — permit이 success 없이 닫혀 브레이커에 실패로 기록됨
+            log.error("[ECG] predict_window pass-through 실패: {}", e.getMessage());
+            if (!response.isCommitted()) {
+                response.reset();
+                response.setStatus(HttpStatus.BAD_GATEWAY.value());
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                response.getWriter().write("{\"error\": \"AI 서버와 통신할 수 없습니다. 잠시 후 다시 시도해주세요.\"}");
+            }
+        }
+    }
+
+    private static MediaType parseContentType(String contentType) {
+        try {
+            return contentType != null ? MediaType.parseMediaType(contentType) : null;
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 클라이언트 본문을 고정 크기 버퍼로 AI 서버에 복사 — 클라이언트 쪽 읽기 실패/본문 부족은 AI 서버 실패로 세지 않음
+     */
+    private static void copyBody(InputStream body, OutputStream out, long contentLength,
+                                 EcgCallGuard.Permit permit) throws IOException {
+        byte[] buffer = new byte[8192];
+        long copied = 0;
+        while (true) {
+            int n;
+            try {
+                n = body.read(buffer);
+            } catch (IOException e) {
+                permit.clientError();
+                throw e;
+            }
+            if (n < 0) break;
+            out.write(buffer, 0, n);
+            copied += n;
+        }
+        if (copied != contentLength) {
+            // 클라이언트가 선언보다 적게 보냄 — 잘린 본문을 AI 서버가 받지 않도록 전송 중단
+            permit.clientError();
+            throw new IOException("request body ended after " + copied + " of " + contentLength + " bytes");
         }
     }
 
     public String sampleWindow(String label) {
         HttpEntity<Void> entity = new HttpEntity<>(buildHeaders());
-        try {
-            UriComponentsBuilder uri = UriComponentsBuilder
-                    .fromUriString(baseUrl + "/sample_window");
-            if (label != null && !label.isBlank()) {
-                uri.queryParam("label", label);
+        UriComponentsBuilder uri = UriComponentsBuilder
+                .fromUriString(baseUrl + "/sample_window");
+        if (label != null && !label.isBlank()) {
+            uri.queryParam("label", label);
+        }
+        return call("sample_window", "{\"error\": \"샘플 데이터를 불러올 수 없습니다.\"}", null,
+                () -> restTemplate.exchange(uri.toUriString(), HttpMethod.GET, entity, String.class));
+    }
+
+    /**
+     * EcgCallGuard(벌크헤드 + 서킷 브레이커)를 거쳐 AI 서버 호출 — 통신 실패/5xx는 errorBody 반환 + 브레이커에 실패로 기록
+     * @param cacheKey null이 아니면 성공 응답을 EcgResultCache에 저장
+     * @throws ResponseStatusException 503 서킷 OPEN 또는 동시 호출 포화 (AI 서버에 요청하지 않음)
+     */
+    private String call(String name, String errorBody, EcgResultCache.Key cacheKey,
+                        Supplier<ResponseEntity<String>> request) {
+        try (EcgCallGuard.Permit permit = callGuard.acquire()) {
+            try {
+                String body = request.get().getBody();
+                permit.success();
+                resultCache.put(cacheKey, body);
+                return body;
+            } catch (HttpStatusCodeException e) {
+                if (e.getStatusCode().is4xxClientError()) {
+                    permit.clientError();
+                }
+                log.error("[ECG] {} 실패: {}", name, e.getMessage());
+                return errorBody;
+            } catch (Exception e) {
+                log.error("[ECG] {} 실패: {}", name, e.getMessage());
+                return errorBody;
             }
-            ResponseEntity<String> response = restTemplate.exchange(
-                    uri.toUriString(), HttpMethod.GET, entity, String.class);
-            return response.getBody();
-        } catch (Exception e) {
-            log.error("[ECG] sample_window 실패: {}", e.getMessage());
-            return "{\"error\": \"샘플 데이터를 불러올 수 없습니다.\"}";
         }
     }
 }
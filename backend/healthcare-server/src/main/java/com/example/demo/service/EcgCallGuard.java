@@ -0,0 +1,187 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AI 서버 호출 보호 — 벌크헤드(동시 호출 수 제한) + 서킷 브레이커(EcgCircuitBreaker)
+ * - AI 서버가 느려져도 ECG 요청이 잡아둘 수 있는 Tomcat 스레드는 maxConcurrent개까지 (나머지 API는 영향 없음)
+ * - 차단/포화 시 AI 서버에 요청하지 않고 바로 503 + Retry-After
+ *
+ * 지표 (/actuator/metrics):
+ * - ai.ecg.circuit.state{state=closed|open|half_open} — 현재 상태만 1
+ * - ai.ecg.circuit.failure.rate / ai.ecg.circuit.slow.rate — 최근 호출 기준 (%)
+ * - ai.ecg.bulkhead.available — 남은 동시 호출 자리
+ * - ai.ecg.calls{outcome=success|failure|client_error} — AI 서버 호출 시간
+ * - ai.ecg.rejected{reason=circuit_open|bulkhead_full}
+ */
+@Slf4j
+@Component
+public class EcgCallGuard {
+
+    private final EcgCircuitBreaker breaker;
+    private final Semaphore bulkhead;
+    private final long maxWaitMs;
+    private final Timer successTimer;
+    private final Timer failureTimer;
+    private final Timer clientErrorTimer;
+    private final Counter circuitOpenCounter;
+    private final Counter bulkheadFullCounter;
+
+    public EcgCallGuard(
+            @Value("${ai.ecg.bulkhead.max-concurrent:20}") int maxConcurrent,
+            @Value("${ai.ecg.bulkhead.max-wait-ms:100}") long maxWaitMs,
+            @Value("${ai.ecg.circuit.window-size:20}") int windowSize,
+            @Value("${ai.ecg.circuit.minimum-calls:10}") int minimumCalls,
+            @Value("${ai.ecg.circuit.failure-rate-threshold:50}") int failureRateThreshold,
+            @Value("${ai.ecg.circuit.slow-call-rate-threshold:50}") int slowCallRateThreshold,
+            @Value("${ai.ecg.circuit.slow-call-ms:5000}") long slowCallMs,
+            @Value("${ai.ecg.circuit.open-ms:30000}") long openMs,
+            @Value("${ai.ecg.circuit.half-open-calls:3}") int halfOpenCalls,
+            MeterRegistry meterRegistry) {
+        this.breaker = new EcgCircuitBreaker(windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold,
+                TimeUnit.MILLISECONDS.toNanos(slowCallMs), TimeUnit.MILLISECONDS.toNanos(openMs), halfOpenCalls,
+                System::nanoTime);
+        this.bulkhead = new Semaphore(maxConcurrent, true);
+        this.maxWaitMs = maxWaitMs;
+
+        for (EcgCircuitBreaker.State s : EcgCircuitBreaker.State.values()) {
+            Gauge.builder("ai.ecg.circuit.state", breaker, b -> b.state() == s ? 1 : 0)
+                    .description("ECG AI circuit breaker state (1 = current)")
+                    .tag("state", s.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry);
+        }
+        Gauge.builder("ai.ecg.circuit.failure.rate", breaker, EcgCircuitBreaker::failureRate)
+                .description("Failure rate of recent ECG AI calls (%)")
+                .register(meterRegistry);
+        Gauge.builder("ai.ecg.circuit.slow.rate", breaker, EcgCircuitBreaker::slowCallRate)
+                .description("Slow call rate of recent ECG AI calls (%)")
+                .register(meterRegistry);
+        Gauge.builder("ai.ecg.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .description("Free ECG AI call slots")
+                .register(meterRegistry);
+        this.successTimer = timer(meterRegistry, "success");
+        this.failureTimer = timer(meterRegistry, "failure");
+        this.clientErrorTimer = timer(meterRegistry, "client_error");
+        this.circuitOpenCounter = rejected(meterRegistry, "circuit_open");
+        this.bulkheadFullCounter = rejected(meterRegistry, "bulkhead_full");
+    }
+
+    /**
+     * 호출 자리 확보 — 반환된 Permit은 try-with-resources로 닫아야 함
+     * @throws ResponseStatusException 503 서킷 OPEN 또는 벌크헤드 포화
+     */
+    public Permit acquire() {
+        EcgCircuitBreaker.State before = breaker.state();
+        if (!breaker.tryAcquire()) {
+            circuitOpenCounter.increment();
+            long retryAfter = Math.max(1, (breaker.remainingOpenMillis() + 999) / 1000);
+            throw unavailable("AI 서버 응답이 지연되어 ECG 분석을 잠시 중단했습니다. 잠시 후 다시 시도해주세요.", retryAfter);
+        }
+        if (before == EcgCircuitBreaker.State.OPEN) {
+            log.info("[ECG] circuit OPEN -> HALF_OPEN (probing AI server)");
+        }
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            breaker.onIgnored();
+            bulkheadFullCounter.increment();
+            throw unavailable("ECG 분석 요청이 많습니다. 잠시 후 다시 시도해주세요.", 1);
+        }
+        return new Permit(System.nanoTime());
+    }
+
+    EcgCircuitBreaker.State state() {
+        return breaker.state();
+    }
+
+    /**
+     * 확보한 호출 자리 — success()/clientError() 없이 닫히면 실패로 기록
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final long startedAt;
+        private boolean done;
+
+        private Permit(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        public void success() {
+            complete(successTimer, true);
+        }
+
+        /**
+         * AI 서버가 입력 오류(4xx)로 응답 — 서버 상태와 무관하므로 브레이커 판단에서 제외
+         */
+        public void clientError() {
+            if (done) return;
+            done = true;
+            bulkhead.release();
+            breaker.onIgnored();
+            clientErrorTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void close() {
+            complete(failureTimer, false);
+        }
+
+        private void complete(Timer timer, boolean success) {
+            if (done) return;
+            done = true;
+            bulkhead.release();
+            long elapsed = System.nanoTime() - startedAt;
+            EcgCircuitBreaker.State before = breaker.state();
+            breaker.onResult(elapsed, success);
+            EcgCircuitBreaker.State after = breaker.state();
+            if (before != after) {
+                log.warn("[ECG] circuit {} -> {} (failureRate={}%, slowRate={}%)", before, after,
+                        Math.round(breaker.failureRate()), Math.round(breaker.slowCallRate()));
+            }
+            timer.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    static ResponseStatusException unavailable(String reason, long retryAfterSeconds) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, reason) {
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+    private static Timer timer(MeterRegistry registry, String outcome) {
+        return Timer.builder("ai.ecg.calls")
+                .description("ECG AI server calls")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static Counter rejected(MeterRegistry registry, String reason) {
+        return Counter.builder("ai.ecg.rejected")
+                .description("ECG AI calls rejected without contacting the server")
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
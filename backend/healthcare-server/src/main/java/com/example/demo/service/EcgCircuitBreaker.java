@@ -0,0 +1,158 @@
+package com.example.demo.service;
+
+import java.util.function.LongSupplier;
+
+/**
+ * AI 서버 호출용 서킷 브레이커 (외부 라이브러리 없이 구현, 단일 인스턴스 환경)
+ * - CLOSED: 최근 windowSize건의 결과를 링 버퍼로 유지, minimumCalls 이상에서
+ *   실패율 또는 느린 호출 비율이 임계치 이상이면 OPEN
+ * - OPEN: openDuration 동안 호출을 바로 거절 (AI 서버에 요청을 보내지 않음)
+ * - HALF_OPEN: openDuration 경과 후 probeCalls건만 통과시켜 결과를 보고 CLOSED/OPEN 결정
+ *
+ * 느린 호출은 성공이어도 slowCallNanos 이상 걸린 호출 — AI 서버가 죽기 전 느려지는 단계에서 미리 차단
+ */
+final class EcgCircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int probeCalls;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private final byte[] window;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+    private long openedAt;
+    private int probesStarted;
+
+    /**
+     * @param failureRateThreshold  실패율 임계치 (%)
+     * @param slowCallRateThreshold 느린 호출 비율 임계치 (%)
+     * @param clock                 System::nanoTime (테스트에서 교체)
+     */
+    EcgCircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold, int slowCallRateThreshold,
+                      long slowCallNanos, long openNanos, int probeCalls, LongSupplier clock) {
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallNanos;
+        this.openNanos = openNanos;
+        this.probeCalls = Math.min(probeCalls, windowSize);
+        this.clock = clock;
+        this.window = new byte[windowSize];
+    }
+
+    /**
+     * 호출 허용 여부 — true면 반드시 onResult/onIgnored로 결과를 알려야 함
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openNanos) {
+                return false;
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= probeCalls) {
+                return false;
+            }
+            probesStarted++;
+        }
+        return true;
+    }
+
+    /**
+     * @param success false면 실패 (연결 오류, 타임아웃, AI 서버 5xx)
+     */
+    synchronized void onResult(long durationNanos, boolean success) {
+        if (state == State.OPEN) {
+            return; // OPEN 전환 전에 시작한 호출
+        }
+        byte outcome = (byte) ((success ? 0 : FAILED) | (durationNanos >= slowCallNanos ? SLOW : 0));
+        record(outcome);
+
+        if (state == State.HALF_OPEN) {
+            if (recorded < probeCalls) {
+                return;
+            }
+            transition(exceeded() ? State.OPEN : State.CLOSED);
+        } else if (recorded >= minimumCalls && exceeded()) {
+            transition(State.OPEN);
+        }
+    }
+
+    /**
+     * 결과를 판단에 쓰지 않는 호출 (예: 4xx 입력 오류) — HALF_OPEN 시험 호출 자리만 돌려줌
+     */
+    synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && probesStarted > recorded) {
+            probesStarted--;
+        }
+    }
+
+    synchronized State state() {
+        // 대기 시간이 지난 OPEN은 다음 호출에서 HALF_OPEN이 됨 — 조회만으로는 전환하지 않음
+        return state;
+    }
+
+    synchronized double failureRate() {
+        return recorded == 0 ? 0 : 100.0 * failures / recorded;
+    }
+
+    synchronized double slowCallRate() {
+        return recorded == 0 ? 0 : 100.0 * slowCalls / recorded;
+    }
+
+    /**
+     * OPEN 상태일 때 남은 차단 시간 (ms), 그 외 0
+     */
+    synchronized long remainingOpenMillis() {
+        if (state != State.OPEN) return 0;
+        return Math.max(0, (openNanos - (clock.getAsLong() - openedAt)) / 1_000_000);
+    }
+
+    private boolean exceeded() {
+        return failures * 100 >= failureRateThreshold * recorded
+                || slowCalls * 100 >= slowCallRateThreshold * recorded;
+    }
+
+    private void record(byte outcome) {
+        if (recorded == windowSize) {
+            byte evicted = window[next];
+            if ((evicted & FAILED) != 0) failures--;
+            if ((evicted & SLOW) != 0) slowCalls--;
+        } else {
+            recorded++;
+        }
+        window[next] = outcome;
+        next = (next + 1) % windowSize;
+        if ((outcome & FAILED) != 0) failures++;
+        if ((outcome & SLOW) != 0) slowCalls++;
+    }
+
+    private void transition(State to) {
+        state = to;
+        if (to == State.OPEN) {
+            // 차단 원인이 된 비율은 OPEN 동안 지표로 남김 (HALF_OPEN 진입 시 초기화)
+            openedAt = clock.getAsLong();
+            return;
+        }
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+        probesStarted = 0;
+    }
+}
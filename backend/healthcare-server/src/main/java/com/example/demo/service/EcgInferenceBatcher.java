@@ -0,0 +1,179 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * ECG 추론 마이크로배치 — 동시에 들어온 바이너리 윈도우를 모아 AI 서버 /predict_batch_bin 한 번으로 추론
+ * - 수집 스레드 하나가 첫 윈도우를 받은 뒤 maxWaitMs 또는 maxSize개까지 모아 배치를 만듦
+ * - 전송 중인 배치는 concurrency개까지 — 모두 전송 중이면 다음 배치는 그동안 큐에 쌓인 만큼 커짐 (부하가 높을수록 배치가 커짐)
+ * - 결과는 요청 순서대로 각 호출자의 CompletableFuture로 전달
+ * - 큐(queueCapacity)가 가득 차면 기다리지 않고 503
+ *
+ * 지표: ai.ecg.batch.size(배치 크기 분포), ai.ecg.batch.queue(대기 중인 윈도우), ai.ecg.rejected{reason=batch_queue_full}
+ */
+@Slf4j
+final class EcgInferenceBatcher implements AutoCloseable {
+
+    private final BlockingQueue<Pending> queue;
+    private final int maxSize;
+    private final long maxWaitNanos;
+    private final Semaphore inFlight;
+    private final ExecutorService senders;
+    private final Thread collector;
+    // 윈도우 목록 → 같은 순서의 결과 (실패한 항목은 null), 배치 전체 거절은 예외
+    private final Function<List<EcgWindow>, List<String>> send;
+    private final DistributionSummary batchSize;
+    private final Counter queueFullCounter;
+    private volatile boolean running = true;
+
+    EcgInferenceBatcher(int maxSize, long maxWaitMs, int queueCapacity, int concurrency,
+                        Function<List<EcgWindow>, List<String>> send, MeterRegistry meterRegistry) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxSize = maxSize;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.inFlight = new Semaphore(concurrency);
+        this.send = send;
+        this.senders = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread t = new Thread(r, "ecg-batch-send");
+            t.setDaemon(true);
+            return t;
+        });
+        this.batchSize = DistributionSummary.builder("ai.ecg.batch.size")
+                .description("Windows per ECG AI batch call")
+                .register(meterRegistry);
+        Gauge.builder("ai.ecg.batch.queue", queue, BlockingQueue::size)
+                .description("ECG windows waiting for a batch")
+                .register(meterRegistry);
+        this.queueFullCounter = Counter.builder("ai.ecg.rejected")
+                .description("ECG AI calls rejected without contacting the server")
+                .tag("reason", "batch_queue_full")
+                .register(meterRegistry);
+        this.collector = new Thread(this::collect, "ecg-batch-collect");
+        this.collector.setDaemon(true);
+        this.collector.start();
+    }
+
+    /**
+     * 윈도우를 다음 배치에 추가
+     * @return 추론 결과(AI 서버 응답 JSON), 항목 실패 시 null — 배치가 거절되면(503) 그 예외로 완료
+     * @throws org.springframework.web.server.ResponseStatusException 503 큐 포화
+     */
+    CompletableFuture<String> submit(EcgWindow window) {
+        Pending pending = new Pending(window, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            queueFullCounter.increment();
+            throw EcgCallGuard.unavailable("ECG 분석 요청이 많습니다. 잠시 후 다시 시도해주세요.", 1);
+        }
+        return pending.result;
+    }
+
+    int queued() {
+        return queue.size();
+    }
+
+    private void collect() {
+        List<Pending> batch = new ArrayList<>(maxSize);
+        while (running) {
+            try {
+                inFlight.acquire();
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxSize) {
+                    queue.drainTo(batch, maxSize - batch.size());
+                    long left = deadline - System.nanoTime();
+                    if (batch.size() >= maxSize || left <= 0) break;
+                    Pending next = queue.poll(left, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                fail(batch);
+                break;
+            }
+            // 호출자가 이미 타임아웃으로 포기한 항목은 보내지 않음
+            batch.removeIf(p -> p.result.isDone());
+            if (batch.isEmpty()) {
+                inFlight.release();
+                continue;
+            }
+            List<Pending> sending = batch;
+            batch = new ArrayList<>(maxSize);
+            try {
+                senders.execute(() -> {
+                    try {
+                        dispatch(sending);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                fail(sending);
+                inFlight.release();
+            }
+        }
+    }
+
+    private void dispatch(List<Pending> batch) {
+        batchSize.record(batch.size());
+        List<EcgWindow> windows = new ArrayList<>(batch.size());
+        for (Pending p : batch) {
+            windows.add(p.window);
+        }
+        try {
+            List<String> results = send.apply(windows);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(i < results.size() ? results.get(i) : null);
+            }
+        } catch (RuntimeException e) {
+            for (Pending p : batch) {
+                p.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * 종료 중 — 남은 항목을 503으로 완료
+     */
+    private static void fail(List<Pending> batch) {
+        for (Pending p : batch) {
+            p.result.completeExceptionally(EcgCallGuard.unavailable("서버가 종료 중입니다. 잠시 후 다시 시도해주세요.", 1));
+        }
+        batch.clear();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        collector.interrupt();
+        senders.shutdown();
+        List<Pending> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        fail(rest);
+        try {
+            if (!senders.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("[ECG] batch senders did not finish within 5s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Pending(EcgWindow window, CompletableFuture<String> result) {
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 비동기 ECG 분석 작업 (POST /api/ecg/jobs → GET /api/ecg/jobs/{id} 또는 SSE /api/ecg/jobs/{id}/events)
+ * - 요청 스레드는 본문 검증 후 바로 작업 ID를 반환 — AI 서버 응답을 기다리며 Tomcat 스레드를 잡아두지 않음
+ * - 실행은 고정 크기 풀(threads) + 대기 큐(queueCapacity), 큐가 가득 차면 503 + Retry-After
+ * - 작업 목록은 메모리(Caffeine)에 maxJobs개까지, 생성 후 ttlSeconds 지나면 만료 — 서버 재시작 시 사라짐
+ * - 작업은 생성한 사용자만 조회 가능 (다른 사용자에게는 404)
+ *
+ * 지표: ai.ecg.jobs.queue(대기), ai.ecg.jobs.active(실행 중), ai.ecg.jobs.submitted{outcome=accepted|rejected},
+ *       cache.size{cache=ecg.jobs}
+ */
+@Slf4j
+@Service
+public class EcgJobService {
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    private final Cache<String, EcgJob> jobs;
+    private final ThreadPoolExecutor executor;
+    private final long sseTimeoutMs;
+    private final Counter acceptedCounter;
+    private final Counter rejectedCounter;
+
+    public EcgJobService(
+            MeterRegistry meterRegistry,
+            @Value("${ai.ecg.jobs.threads:8}") int threads,
+            @Value("${ai.ecg.jobs.queue-capacity:100}") int queueCapacity,
+            @Value("${ai.ecg.jobs.max-jobs:1000}") long maxJobs,
+            @Value("${ai.ecg.jobs.ttl-seconds:600}") long ttlSeconds,
+            @Value("${ai.ecg.jobs.sse-timeout-ms:60000}") long sseTimeoutMs) {
+        this.jobs = Caffeine.newBuilder()
+                .maximumSize(maxJobs)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, jobs, "ecg.jobs");
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofVirtual().name("ecg-job-", 0).factory());
+        this.sseTimeoutMs = sseTimeoutMs;
+        Gauge.builder("ai.ecg.jobs.queue", executor, e -> e.getQueue().size())
+                .description("ECG analysis jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("ai.ecg.jobs.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("ECG analysis jobs running")
+                .register(meterRegistry);
+        this.acceptedCounter = submitted(meterRegistry, "accepted");
+        this.rejectedCounter = submitted(meterRegistry, "rejected");
+    }
+
+    /**
+     * 분석 작업 등록 — analysis는 작업 스레드에서 실행 (EcgAnalysisService 호출)
+     * @throws ResponseStatusException 503 대기 큐 포화
+     */
+    public EcgJob submit(String owner, Supplier<String> analysis) {
+        EcgJob job = new EcgJob(UUID.randomUUID().toString(), owner);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> job.run(analysis));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.getId());
+            rejectedCounter.increment();
+            throw EcgCallGuard.unavailable("ECG 분석 요청이 많습니다. 잠시 후 다시 시도해주세요.", 1);
+        }
+        acceptedCounter.increment();
+        return job;
+    }
+
+    /**
+     * @throws ResponseStatusException 404 없거나 만료되었거나 다른 사용자의 작업
+     */
+    public EcgJob get(String owner, String id) {
+        EcgJob job = jobs.getIfPresent(id);
+        if (job == null || !job.owner.equals(owner)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "ECG job not found: " + id);
+        }
+        return job;
+    }
+
+    /**
+     * 완료 시 "result" 이벤트(GET /api/ecg/jobs/{id}와 같은 JSON) 한 번 보내고 종료 — 이미 끝난 작업이면 바로 전송
+     */
+    public SseEmitter subscribe(EcgJob job) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        job.completion.whenComplete((j, e) -> {
+            try {
+                emitter.send(SseEmitter.event().name("result").id(job.getId()).data(job, MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (IOException | IllegalStateException ex) {
+                // 클라이언트가 먼저 연결을 끊었거나 타임아웃 — 결과는 GET으로 조회 가능
+                log.debug("[ECG] job {} SSE 전송 실패: {}", job.getId(), ex.getMessage());
+            }
+        });
+        return emitter;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static Counter submitted(MeterRegistry registry, String outcome) {
+        return Counter.builder("ai.ecg.jobs.submitted")
+                .description("ECG analysis jobs submitted")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * 작업 상태 — JSON 응답 본문으로 그대로 직렬화 (result는 AI 서버 응답 JSON 원문)
+     */
+    @Getter
+    public static final class EcgJob {
+
+        private final String id;
+        @JsonIgnore
+        private final String owner;
+        private final Instant createdAt = Instant.now();
+        private volatile Status status = Status.QUEUED;
+        private volatile Instant completedAt;
+        @JsonRawValue
+        private volatile String result;
+        private volatile String error;
+        @JsonIgnore
+        private final CompletableFuture<EcgJob> completion = new CompletableFuture<>();
+
+        private EcgJob(String id, String owner) {
+            this.id = id;
+            this.owner = owner;
+        }
+
+        public String getStatus() {
+            return status.name().toLowerCase(Locale.ROOT);
+        }
+
+        private void run(Supplier<String> analysis) {
+            status = Status.RUNNING;
+            try {
+                result = analysis.get();
+                status = Status.DONE;
+            } catch (ResponseStatusException e) {
+                // 서킷 OPEN/벌크헤드 포화 — 동기 API라면 503이었을 요청
+                error = e.getReason();
+                status = Status.FAILED;
+            } catch (RuntimeException e) {
+                log.error("[ECG] job {} 실패", id, e);
+                error = "ECG 분석 중 오류가 발생했습니다.";
+                status = Status.FAILED;
+            }
+            completedAt = Instant.now();
+            completion.complete(this);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CreateHealthRecordRequest;
+import com.example.demo.entity.UserHealthRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+
+/**
+ * ECG 분석 결과 → 측정 기록 1건 (POST /api/ecg/predict_window?save=true, POST /api/ecg/jobs?save=true)
+ * - heartRate/HRV: 응답의 "rhythm" (EcgRhythmAnalyzer, 백엔드 계산)
+ * - ecgRiskScore: NORM을 제외한 라벨 확률 중 최대값 (AI 서버 risk_level과 같은 기준)
+ * - ecgAbnormal: risk_level이 medium/high, ecgAnomalyType: top_label
+ * - ecgWindowRef: EcgWindowStore에 저장된 원본 윈도우 (저장소가 꺼져 있으면 없음)
+ * 원본 윈도우는 분석이 성공한 뒤에만 저장 — save=true면 측정 기록이 만들어진 뒤 저장하고 기록에 연결
+ * (거부/실패한 요청, 오류 응답은 저장소에 남지 않음)
+ * 저장은 측정값 API와 같은 경로(UserHealthService.saveHealthRecord) — 이상 판정/알림/일별 요약이 그대로 적용됨
+ */
+@Service
+@RequiredArgsConstructor
+public class EcgRecordService {
+
+    private final UserHealthService userHealthService;
+    private final EcgWindowStore ecgWindowStore;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param result analyzeEcg 응답 JSON
+     * @param window 분석한 윈도우 (JSON 그대로 전달한 경우 null) — 기록이 저장되면 EcgWindowStore에 보관
+     * @return result에 "recorded": true|false (윈도우가 저장됐으면 "windowRef"도)를 추가한 JSON (AI 오류 응답이면 기록을 저장하지 않음)
+     */
+    public String record(String userId, String result, EcgWindow window) {
+        ObjectNode root;
+        try {
+            if (!(objectMapper.readTree(result) instanceof ObjectNode node)) {
+                return result;
+            }
+            root = node;
+        } catch (JsonProcessingException e) {
+            return result;
+        }
+        CreateHealthRecordRequest req = toReading(root);
+        if (req == null) {
+            root.put("recorded", false);
+        } else {
+            req.setUserId(userId);
+            UserHealthRecord record = userHealthService.saveHealthRecord(req);
+            root.put("recorded", true);
+            Long windowRef = window == null ? null : ecgWindowStore.append(userId, window, epochMillis(record));
+            if (windowRef != null) {
+                userHealthService.attachEcgWindow(record, windowRef);
+                root.put("windowRef", windowRef);
+            }
+        }
+        try {
+            return objectMapper.writeValueAsString(root);
+        } catch (JsonProcessingException e) {
+            return result;
+        }
+    }
+
+    /**
+     * save=false 분석 — 오류 응답이 아니면 윈도우만 EcgWindowStore에 보관 (측정 기록 없음)
+     * @return result 그대로
+     */
+    public String keepWindow(String userId, String result, EcgWindow window) {
+        if (ecgWindowStore.isEnabled() && !isError(result)) {
+            ecgWindowStore.append(userId, window, System.currentTimeMillis());
+        }
+        return result;
+    }
+
+    private boolean isError(String result) {
+        try {
+            return !(objectMapper.readTree(result) instanceof ObjectNode node) || node.has("error");
+        } catch (JsonProcessingException e) {
+            return true;
+        }
+    }
+
+    private static long epochMillis(UserHealthRecord record) {
+        return record.getMeasuredAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * @return 오류 응답이거나 저장할 값이 없으면 null
+     */
+    CreateHealthRecordRequest toReading(JsonNode root) {
+        if (root.has("error")) {
+            return null;
+        }
+        CreateHealthRecordRequest req = new CreateHealthRecordRequest();
+        JsonNode rhythm = root.path("rhythm");
+        if (rhythm.isObject()) {
+            long heartRate = Math.round(rhythm.path("heartRate").asDouble());
+            // VitalReadingRequest 허용 범위(20–300 bpm) 밖이면 검출 오류로 보고 심박수만 뺌
+            if (heartRate >= 20 && heartRate <= 300) {
+                req.setHeartRate(heartRate);
+            }
+            req.setHrvSdnnMs(rhythm.path("sdnnMs").asDouble());
+            req.setHrvRmssdMs(rhythm.path("rmssdMs").asDouble());
+        }
+        JsonNode probs = root.path("probs");
+        if (probs.isArray() && probs.size() > 1) {
+            double risk = 0;
+            for (int i = 1; i < probs.size(); i++) {
+                risk = Math.max(risk, probs.get(i).asDouble());
+            }
+            req.setEcgRiskScore(Math.min(1.0, risk));
+            req.setEcgAbnormal(!"low".equals(root.path("risk_level").asText("low")));
+            req.setEcgAnomalyType(root.path("top_label").asText(null));
+        }
+        if (req.getHeartRate() == null && req.getHrvSdnnMs() == null && req.getEcgRiskScore() == null) {
+            return null;
+        }
+        return req;
+    }
+}
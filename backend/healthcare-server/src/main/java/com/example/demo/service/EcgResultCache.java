@@ -0,0 +1,159 @@
+package com.example.demo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ECG 추론 결과 캐시 (내용 주소 기반) — 같은 윈도우를 다시 보내면 AI 서버를 호출하지 않음
+ * - 키: float32 샘플 바이트(리틀엔디언, AI 서버 입력과 동일하게 float32로 정규화) + 배열 모양 + fs
+ *   JSON 윈도우와 같은 값의 바이너리 윈도우는 같은 키
+ * - hashCode는 샘플 바이트의 빠른 64비트 해시, equals는 바이트 전체 비교 — 해시 충돌이 나도 다른 윈도우 결과를 돌려주지 않음
+ * - 샘플 바이트를 키로 보관하므로 크기 제한은 바이트 단위(maxBytes), TTL은 모델 교체 반영용
+ * - 성공한 AI 응답만 저장 (오류/503은 저장하지 않음)
+ * - 적중률은 cache.gets{cache=ecg.result, result=hit|miss}와 ecg.result.cache.hit.ratio로 노출
+ */
+@Service
+public class EcgResultCache {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Cache<Key, String> cache;
+    private final boolean enabled;
+
+    public EcgResultCache(
+            MeterRegistry meterRegistry,
+            @Value("${ai.ecg.cache.enabled:true}") boolean enabled,
+            @Value("${ai.ecg.cache.max-bytes:33554432}") long maxBytes,
+            @Value("${ai.ecg.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key k, String v) -> k.to - k.from + v.length() * 2)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "ecg.result");
+        Gauge.builder("ecg.result.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Hit ratio of the ECG inference result cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 바이너리 윈도우 키 — 요청 바이트를 복사하지 않고 그대로 참조
+     */
+    public Key key(EcgWindow window) {
+        if (!enabled) return null;
+        byte[] payload = window.payload();
+        return new Key(window.leads(), window.length(), window.fs(), payload, EcgWindow.HEADER_BYTES, payload.length);
+    }
+
+    /**
+     * JSON 윈도우 키 — x[행][열]을 float32로 정규화 (AI 서버의 np.array(x, dtype=float32)와 같은 값)
+     * @return 행 길이가 다르거나 숫자가 아닌 값이 있으면 null (캐시하지 않고 AI 서버가 판단)
+     */
+    public Key key(List<? extends List<?>> x, int fs) {
+        if (!enabled || x == null || x.isEmpty() || x.get(0) == null) return null;
+        int rows = x.size();
+        int cols = x.get(0).size();
+        byte[] samples = new byte[rows * cols * Float.BYTES];
+        int pos = 0;
+        for (List<?> row : x) {
+            if (row == null || row.size() != cols) return null;
+            for (Object v : row) {
+                if (!(v instanceof Number n)) return null;
+                int bits = Float.floatToRawIntBits(n.floatValue());
+                samples[pos] = (byte) bits;
+                samples[pos + 1] = (byte) (bits >>> 8);
+                samples[pos + 2] = (byte) (bits >>> 16);
+                samples[pos + 3] = (byte) (bits >>> 24);
+                pos += 4;
+            }
+        }
+        return new Key(rows, cols, fs, samples, 0, samples.length);
+    }
+
+    public String get(Key key) {
+        return key == null ? null : cache.getIfPresent(key);
+    }
+
+    public void put(Key key, String result) {
+        if (key != null && result != null) {
+            cache.put(key, result);
+        }
+    }
+
+    /**
+     * 윈도우 키 — data[from, to)가 float32 샘플 바이트
+     */
+    public static final class Key {
+
+        private final int rows;
+        private final int cols;
+        private final int fs;
+        private final byte[] data;
+        private final int from;
+        private final int to;
+        private final int hash;
+
+        Key(int rows, int cols, int fs, byte[] data, int from, int to) {
+            this.rows = rows;
+            this.cols = cols;
+            this.fs = fs;
+            this.data = data;
+            this.from = from;
+            this.to = to;
+            this.hash = hash(data, from, to, 31L * (31L * rows + cols) + fs);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && hash == k.hash && rows == k.rows && cols == k.cols && fs == k.fs
+                    && Arrays.equals(data, from, to, k.data, k.from, k.to);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * 2레인 곱셈-회전 해시 (16바이트 단위) + murmur3 fmix64 마무리 — 240KB 윈도우 기준 수십 µs
+     * 충돌 저항성은 필요 없음 (equals가 전체 비교)
+     */
+    static int hash(byte[] b, int from, int to, long seed) {
+        long h1 = 0x9E3779B97F4A7C15L ^ seed;
+        long h2 = 0xC2B2AE3D27D4EB4FL + seed;
+        int i = from;
+        for (int end = to - 15; i < end; i += 16) {
+            h1 = Long.rotateLeft(h1 ^ (long) LONGS.get(b, i) * 0x87C37B91114253D5L, 31) * 5 + 0x52DCE729;
+            h2 = Long.rotateLeft(h2 ^ (long) LONGS.get(b, i + 8) * 0x4CF5AD432745937FL, 33) * 5 + 0x38495AB5;
+        }
+        for (; i < to; i++) {
+            h1 = (h1 ^ (b[i] & 0xFF)) * 0x100000001B3L;
+        }
+        long h = fmix64(h1 ^ Long.rotateLeft(h2, 29) ^ (to - from));
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
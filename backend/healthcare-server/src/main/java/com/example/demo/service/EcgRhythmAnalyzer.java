@@ -0,0 +1,294 @@
+package com.example.demo.service;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * 리드 II R 피크 검출 (Pan-Tompkins) → 심박수 + 기본 HRV(SDNN, RMSSD)
+ * - 대역통과(5–15Hz, 2차 Butterworth 고역+저역) → 5점 미분 → 제곱 → 150ms 이동창 적분(MWI)
+ * - MWI 국소 최대값을 적응 임계치(SPKI/NPKI)로 QRS/잡음 판정, 불응기 200ms, 360ms 이내 작은 피크는 T파로 간주
+ * - 평균 RR의 166%가 지나도록 QRS가 없으면 절반 임계치 이상의 잡음 피크 중 가장 큰 것을 QRS로 채택 (searchback)
+ * - 임계치 초기값은 처음 2초의 MWI 최대값/평균으로 정함 (그 구간만 먼저 필터링)
+ * - 비트 위치는 이전 비트 이후 대역통과 신호가 가장 큰 지점(R 피크) — MWI 피크보다 흔들림이 적어 RR 간격 오차가 작음
+ *
+ * 윈도우 payload(float32 little-endian)를 그대로 읽고 RR 간격은 저장하지 않고 누적 통계만 유지 — 윈도우당 배열/박싱 없음
+ * (상태 객체 Stage/Detector는 메서드 밖으로 나가지 않아 JIT 탈출 분석으로 힙에 할당되지 않음).
+ * MWI에서 빠지는 값은 저장해두지 않고 창 길이만큼 늦게 도는 같은 필터로 다시 계산 (링 버퍼 없음).
+ * AI 서버를 거치지 않음 — 모델 결과와 별개로 백엔드에서 계산.
+ */
+public final class EcgRhythmAnalyzer {
+
+    // 리드 순서 I, II, III, aVR, aVL, aVF, V1–V6 (PTB-XL)
+    public static final int LEAD_II = 1;
+
+    private static final VarHandle FLOAT_LE =
+            MethodHandles.byteArrayViewVarHandle(float[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private static final double BAND_LOW_HZ = 5.0;
+    private static final double BAND_HIGH_HZ = 15.0;
+    private static final double MWI_SECONDS = 0.150;
+    private static final double REFRACTORY_SECONDS = 0.200;
+    private static final double T_WAVE_SECONDS = 0.360;
+    private static final double LEARNING_SECONDS = 2.0;
+    private static final double SEARCHBACK_RR = 1.66;
+
+    private EcgRhythmAnalyzer() {
+    }
+
+    /**
+     * @param beats     검출한 QRS 수
+     * @param heartRate 평균 RR 기준 심박수 (bpm)
+     * @param sdnnMs    RR 간격 표준편차 (ms)
+     * @param rmssdMs   연속 RR 차이 제곱평균제곱근 (ms)
+     */
+    public record EcgRhythm(int beats, double heartRate, double sdnnMs, double rmssdMs) {
+    }
+
+    /**
+     * @return RR 간격이 2개 미만이면 (비트 3개 미만) null
+     */
+    public static EcgRhythm analyze(EcgWindow window) {
+        return analyze(window.payload(),
+                EcgWindow.HEADER_BYTES + LEAD_II * window.length() * Float.BYTES, window.length(), window.fs());
+    }
+
+    /**
+     * payload[offset...]의 float32(LE) length개 (한 리드) 분석
+     */
+    static EcgRhythm analyze(byte[] payload, int offset, int length, int fs) {
+        int mwiWidth = Math.max(1, (int) Math.round(MWI_SECONDS * fs));
+
+        // ---- 학습 구간: 처음 2초 MWI 최대/평균 → 임계치 초기값 ----
+        int learning = Math.min(length, (int) (LEARNING_SECONDS * fs));
+        Stage lead = new Stage(fs);
+        Stage lag = new Stage(fs);
+        double sum = 0;
+        double learnMax = 0;
+        double learnSum = 0;
+        for (int n = 0; n < learning; n++) {
+            sum += lead.next(sample(payload, offset, n));
+            if (n >= mwiWidth) {
+                sum -= lag.next(sample(payload, offset, n - mwiWidth));
+            }
+            double mwi = sum / mwiWidth;
+            learnMax = Math.max(learnMax, mwi);
+            learnSum += mwi;
+        }
+        if (learning == 0 || learnMax <= 0) {
+            return null; // 평탄한 신호 (0 패딩뿐이거나 리드 없음)
+        }
+        Detector detector = new Detector(learnMax / 3, learnSum / learning / 2,
+                (int) (REFRACTORY_SECONDS * fs), (int) (T_WAVE_SECONDS * fs));
+
+        // ---- 검출 ----
+        lead.reset();
+        lag.reset();
+        sum = 0;
+        double m1 = 0;              // MWI[n-1]
+        double m2 = 0;              // MWI[n-2]
+        for (int n = 0; n < length; n++) {
+            sum += lead.next(sample(payload, offset, n));
+            if (n >= mwiWidth) {
+                sum -= lag.next(sample(payload, offset, n - mwiWidth));
+            }
+            double mwi = sum / mwiWidth;
+
+            detector.track(n, lead.filtered());
+            if (n >= 2 && m1 > m2 && m1 >= mwi) {
+                detector.peak(n - 1, m1);
+            }
+            detector.tick(n);
+
+            m2 = m1;
+            m1 = mwi;
+        }
+        detector.finish();
+
+        if (detector.rrCount < 2) {
+            return null;
+        }
+        double msPerSample = 1000.0 / fs;
+        return new EcgRhythm(detector.beats,
+                60.0 * fs / detector.rrMean,
+                Math.sqrt(detector.rrM2 / (detector.rrCount - 1)) * msPerSample,
+                Math.sqrt(detector.diffSq / (detector.rrCount - 1)) * msPerSample);
+    }
+
+    private static float sample(byte[] payload, int offset, int n) {
+        return (float) FLOAT_LE.get(payload, offset + n * Float.BYTES);
+    }
+
+    /**
+     * MWI 피크 → QRS/잡음 판정 + RR 통계
+     * - 피크는 불응기(200ms) 동안 더 큰 피크가 없을 때 판정 (P파/리플 언덕이 뒤따르는 QRS보다 먼저 판정되지 않도록)
+     * - RR 간격은 저장하지 않고 Welford 평균/분산 + 연속 차이 제곱합만 누적
+     */
+    private static final class Detector {
+
+        private final int refractory;
+        private final int tWave;
+        private double spki;            // 신호 피크 추정
+        private double npki;            // 잡음 피크 추정
+        private int pendTime = -1;      // 판정 대기 중인 피크 (MWI 시점, 비트 위치, 값)
+        private int pendPos;
+        private double pendPeak;
+        // 마지막 비트 확정 이후 대역통과 출력 최대값과 그 위치 (R 피크 → 비트 위치)
+        private double rAmplitude = Double.NEGATIVE_INFINITY;
+        private int rPos;
+        private int candPos = -1;       // searchback 후보 (마지막 QRS 이후 가장 큰 잡음 피크)
+        private double candPeak;
+        private int last = -1;          // 마지막 비트 위치
+        private double lastPeak;        // 그 MWI 피크 값 (T파 판정)
+        private double rrAvg;           // 최근 RR 평균 (지수 평균, 약 8박) — searchback 기준
+        private int prevRr;
+        int beats;
+        int rrCount;
+        double rrMean;
+        double rrM2;
+        double diffSq;
+
+        Detector(double spki, double npki, int refractory, int tWave) {
+            this.spki = spki;
+            this.npki = npki;
+            this.refractory = refractory;
+            this.tWave = tWave;
+        }
+
+        void track(int n, double filtered) {
+            if (filtered > rAmplitude) {
+                rAmplitude = filtered;
+                rPos = n;
+            }
+        }
+
+        void peak(int time, double value) {
+            int pos = rPos;
+            if (pendTime >= 0 && time - pendTime < refractory) {
+                if (value > pendPeak) {
+                    pendTime = time;
+                    pendPos = pos;
+                    pendPeak = value;
+                }
+                return;
+            }
+            finish();
+            pendTime = time;
+            pendPos = pos;
+            pendPeak = value;
+        }
+
+        void tick(int n) {
+            if (pendTime >= 0 && n - pendTime >= refractory) {
+                finish();
+            }
+            // searchback — 평균 RR의 166%가 지나도록 QRS가 없으면 놓친 비트를 후보 중 가장 큰 피크로 채움
+            if (candPos > last && last >= 0 && rrAvg > 0 && n - last > SEARCHBACK_RR * rrAvg) {
+                spki = 0.25 * candPeak + 0.75 * spki;
+                beat(candPos, candPeak);
+            }
+        }
+
+        /** 대기 중인 피크 판정 */
+        void finish() {
+            if (pendTime < 0) return;
+            int pos = pendPos;
+            double peak = pendPeak;
+            pendTime = -1;
+            double thr1 = npki + 0.25 * (spki - npki);
+            boolean refractoryOver = last < 0 || pos - last >= refractory;
+            boolean tWaveLike = last >= 0 && pos - last < tWave && peak < 0.5 * lastPeak;
+            if (peak > thr1 && refractoryOver && !tWaveLike) {
+                spki = 0.125 * peak + 0.875 * spki;
+                beat(pos, peak);
+            } else {
+                npki = 0.125 * peak + 0.875 * npki;
+                if (peak > 0.5 * thr1 && peak > candPeak && refractoryOver) {
+                    candPeak = peak;
+                    candPos = pos;
+                }
+            }
+        }
+
+        private void beat(int pos, double peak) {
+            if (last >= 0) {
+                int rr = pos - last;
+                rrAvg = rrCount == 0 ? rr : 0.125 * rr + 0.875 * rrAvg;
+                rrCount++;
+                double delta = rr - rrMean;
+                rrMean += delta / rrCount;
+                rrM2 += delta * (rr - rrMean);
+                if (rrCount > 1) {
+                    double d = rr - prevRr;
+                    diffSq += d * d;
+                }
+                prevRr = rr;
+            }
+            last = pos;
+            lastPeak = peak;
+            beats++;
+            rAmplitude = Double.NEGATIVE_INFINITY;
+            candPeak = 0;
+            candPos = -1;
+        }
+    }
+
+    /**
+     * 대역통과 → 미분 → 제곱 (한 샘플씩)
+     */
+    private static final class Stage {
+
+        // 고역 통과 / 저역 통과 biquad 계수 (a0로 정규화, Direct Form II transposed)
+        private final double hb0, hb1, hb2, ha1, ha2;
+        private final double lb0, lb1, lb2, la1, la2;
+        private double hz1, hz2, lz1, lz2;
+        private double y1, y2, y3, y4; // 미분용 직전 대역통과 출력
+
+        Stage(int fs) {
+            double q = Math.sqrt(0.5);
+            double w = 2 * Math.PI * BAND_LOW_HZ / fs;
+            double cos = Math.cos(w);
+            double alpha = Math.sin(w) / (2 * q);
+            double a0 = 1 + alpha;
+            hb0 = (1 + cos) / 2 / a0;
+            hb1 = -(1 + cos) / a0;
+            hb2 = hb0;
+            ha1 = -2 * cos / a0;
+            ha2 = (1 - alpha) / a0;
+
+            w = 2 * Math.PI * Math.min(BAND_HIGH_HZ, 0.45 * fs) / fs;
+            cos = Math.cos(w);
+            alpha = Math.sin(w) / (2 * q);
+            a0 = 1 + alpha;
+            lb0 = (1 - cos) / 2 / a0;
+            lb1 = (1 - cos) / a0;
+            lb2 = lb0;
+            la1 = -2 * cos / a0;
+            la2 = (1 - alpha) / a0;
+        }
+
+        double filtered() {
+            return y1;
+        }
+
+        void reset() {
+            hz1 = hz2 = lz1 = lz2 = 0;
+            y1 = y2 = y3 = y4 = 0;
+        }
+
+        double next(double x) {
+            double h = hb0 * x + hz1;
+            hz1 = hb1 * x - ha1 * h + hz2;
+            hz2 = hb2 * x - ha2 * h;
+            double y = lb0 * h + lz1;
+            lz1 = lb1 * h - la1 * y + lz2;
+            lz2 = lb2 * h - la2 * y;
+            double d = 2 * y + y1 - y3 - 2 * y4;
+            y4 = y3;
+            y3 = y2;
+            y2 = y1;
+            y1 = y;
+            return d * d;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * /api/ecg/sample_window 메모리 저장소 — 라벨별 샘플 윈도우를 AI 서버에서 미리 받아두고 바로 응답
+ * - 라벨마다 perLabel개 (AI 서버가 라벨 안에서 무작위로 고르므로 여러 개를 받아 무작위로 돌려줌)
+ * - 샘플은 float[리드][샘플] 그대로 보관 (윈도우당 240KB, JSON 문자열/List<Double>의 수분의 일)
+ * - 백그라운드 갱신: EcgSampleRefreshScheduler가 주기적으로 refreshAsync() 호출 → 비었거나 refreshMinutes 지난 라벨만 다시 받음
+ * - AI 서버가 꺼진 채로 시작해도 부팅은 그대로 진행, 비어 있는 라벨은 기존처럼 AI 서버를 직접 호출하고 다음 주기에 다시 채움
+ *
+ * 지표: ai.ecg.samples.loaded(보관 중인 샘플 수), ai.ecg.samples.requests{source=memory|ai}
+ */
+@Slf4j
+@Service
+public class EcgSampleStore {
+
+    private final EcgAnalysisService ecgAnalysisService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final boolean enabled;
+    private final List<String> labels;
+    private final int perLabel;
+    private final long refreshNanos;
+    private final Map<String, Entry> samples = new ConcurrentHashMap<>();
+    // 스케줄러 스레드를 AI 호출로 잡아두지 않도록 갱신은 별도 스레드 하나에서
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("ecg-sample-refresh").factory());
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final Counter memoryCounter;
+    private final Counter aiCounter;
+
+    public EcgSampleStore(
+            EcgAnalysisService ecgAnalysisService,
+            MeterRegistry meterRegistry,
+            @Value("${ai.ecg.samples.enabled:true}") boolean enabled,
+            @Value("${ai.ecg.samples.labels:NORM,STTC,MI,CD,HYP}") List<String> labels,
+            @Value("${ai.ecg.samples.per-label:4}") int perLabel,
+            @Value("${ai.ecg.samples.refresh-minutes:10}") long refreshMinutes) {
+        this.ecgAnalysisService = ecgAnalysisService;
+        this.enabled = enabled;
+        this.labels = labels.stream().map(EcgSampleStore::normalize).filter(l -> !l.isEmpty()).toList();
+        this.perLabel = perLabel;
+        this.refreshNanos = TimeUnit.MINUTES.toNanos(refreshMinutes);
+        Gauge.builder("ai.ecg.samples.loaded", samples, s -> s.values().stream().mapToInt(e -> e.samples.length).sum())
+                .description("ECG sample windows held in memory")
+                .register(meterRegistry);
+        this.memoryCounter = requests(meterRegistry, "memory");
+        this.aiCounter = requests(meterRegistry, "ai");
+    }
+
+    /**
+     * 샘플 윈도우 조회 — 메모리에 있으면 바로, 없으면 AI 서버 호출 (응답 형식은 AI 서버 /sample_window와 같음)
+     * @param label null/공백이면 보관 중인 라벨 중 무작위
+     * @return EcgSample(직렬화하면 {x, fs, label, id, from, ts}) 또는 AI 서버 응답 JSON 문자열
+     */
+    public Object sampleWindow(String label) {
+        String key = normalize(label);
+        Optional<EcgSample> cached = pick(key);
+        if (cached.isPresent()) {
+            memoryCounter.increment();
+            return cached.get();
+        }
+        aiCounter.increment();
+        String body = ecgAnalysisService.sampleWindow(label);
+        if (enabled && labels.contains(key) && !samples.containsKey(key)) {
+            // 부팅 시 AI 서버가 꺼져 있었던 라벨 — 직접 받은 응답으로 먼저 채워둠
+            parse(body).ifPresent(s -> samples.putIfAbsent(key, new Entry(new EcgSample[]{s}, 0L)));
+        }
+        return body;
+    }
+
+    private Optional<EcgSample> pick(String label) {
+        if (!enabled) return Optional.empty();
+        Entry entry;
+        if (label.isEmpty()) {
+            List<Entry> loaded = new ArrayList<>(samples.values());
+            if (loaded.isEmpty()) return Optional.empty();
+            entry = loaded.get(ThreadLocalRandom.current().nextInt(loaded.size()));
+        } else {
+            entry = samples.get(label);
+            if (entry == null) return Optional.empty();
+        }
+        return Optional.of(entry.samples[ThreadLocalRandom.current().nextInt(entry.samples.length)]);
+    }
+
+    /**
+     * 비었거나 오래된 라벨 갱신 — 이미 갱신 중이면 건너뜀
+     */
+    public void refreshAsync() {
+        if (!enabled || !refreshing.compareAndSet(false, true)) return;
+        try {
+            refresher.execute(() -> {
+                try {
+                    refreshStale();
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            refreshing.set(false);
+        }
+    }
+
+    void refreshStale() {
+        long now = System.nanoTime();
+        for (String label : labels) {
+            Entry entry = samples.get(label);
+            if (entry != null && entry.samples.length >= perLabel && now - entry.loadedAt < refreshNanos) {
+                continue;
+            }
+            List<EcgSample> fetched = new ArrayList<>(perLabel);
+            for (int i = 0; i < perLabel; i++) {
+                Optional<EcgSample> sample;
+                try {
+                    sample = parse(ecgAnalysisService.sampleWindow(label));
+                } catch (ResponseStatusException e) {
+                    sample = Optional.empty(); // 서킷 OPEN/벌크헤드 포화
+                }
+                if (sample.isEmpty()) break; // AI 서버 장애 — 기존 샘플 유지, 다음 주기에 재시도
+                fetched.add(sample.get());
+            }
+            if (!fetched.isEmpty()) {
+                samples.put(label, new Entry(fetched.toArray(EcgSample[]::new), System.nanoTime()));
+            }
+            log.debug("[ECG] sample_window {} 갱신: {}/{}", label, fetched.size(), perLabel);
+        }
+    }
+
+    /**
+     * AI 서버 /sample_window 응답 → EcgSample (x는 float32로 보관 — AI 서버 입력 정밀도와 같음)
+     * @return 오류 응답이거나 x가 2차원 숫자 배열이 아니면 empty
+     */
+    Optional<EcgSample> parse(String body) {
+        try {
+            JsonNode root = objectMapper.readTree(body);
+            JsonNode x = root.path("x");
+            if (!x.isArray() || x.isEmpty() || !x.get(0).isArray()) return Optional.empty();
+            float[][] data = new float[x.size()][];
+            int cols = x.get(0).size();
+            for (int r = 0; r < data.length; r++) {
+                JsonNode row = x.get(r);
+                if (row.size() != cols) return Optional.empty();
+                float[] values = new float[cols];
+                for (int c = 0; c < cols; c++) {
+                    JsonNode v = row.get(c);
+                    if (!v.isNumber()) return Optional.empty();
+                    values[c] = v.floatValue();
+                }
+                data[r] = values;
+            }
+            return Optional.of(new EcgSample(data, root.path("fs").asInt(500), root.path("label").asText(null),
+                    root.path("id").asText(null), root.path("from").asText(null), root.path("ts").asDouble()));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private static String normalize(String label) {
+        return label == null ? "" : label.strip().toUpperCase(Locale.ROOT);
+    }
+
+    private static Counter requests(MeterRegistry registry, String source) {
+        return Counter.builder("ai.ecg.samples.requests")
+                .description("ECG sample_window requests by source")
+                .tag("source", source)
+                .register(registry);
+    }
+
+    private record Entry(EcgSample[] samples, long loadedAt) {
+    }
+
+    /**
+     * 샘플 윈도우 — AI 서버 /sample_window 응답과 같은 필드로 직렬화
+     */
+    public record EcgSample(float[][] x, int fs, String label, String id, String from, double ts) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * 연속 ECG 스트림 링 버퍼 (WebSocket 세션 하나) — 최근 10초(12 × 10·fs float, 500Hz면 12 × 5000 = 240KB)만 보관
+ * - 입력 청크: float32 little-endian, 프레임(시점) 단위 [t][lead] — 프레임 하나 = 12 × 4 = 48바이트
+ * - 링에는 리드별로 나눠 저장 (lead × length + 위치) → 스냅샷은 리드마다 복사 2번으로 ECG1 윈도우(리드 순서대로)
+ * - 추론 시점: 처음 10초가 찬 뒤, 이후 직전 스냅샷 끝에서 hop 샘플 이상 들어왔을 때
+ * 버퍼 크기는 연결 시 fs로 정해지고 이후 늘어나지 않음. 스레드 안전하지 않음 (EcgStreamService.EcgStream이 동기화).
+ */
+public final class EcgStreamBuffer {
+
+    public static final int FRAME_BYTES = EcgWindow.LEADS * Float.BYTES;
+    public static final int WINDOW_SECONDS = 10;
+
+    private final int fs;
+    private final int length;
+    private final int hop;
+    private final float[] ring;
+    private int head;               // 다음에 쓸 위치
+    private long received;          // 지금까지 받은 샘플 수 (리드당)
+    private long lastEnd = -1;      // 직전 스냅샷의 끝 (received 기준), 없으면 -1
+
+    /**
+     * @param hop 추론 간격 (샘플 수)
+     */
+    public EcgStreamBuffer(int fs, int hop) {
+        this.fs = fs;
+        this.length = WINDOW_SECONDS * fs;
+        this.hop = hop;
+        this.ring = new float[EcgWindow.LEADS * length];
+    }
+
+    /**
+     * @param window 스냅샷 (12 × 10·fs)
+     * @param endSample 윈도우 마지막 샘플 다음 위치 (스트림 시작부터 리드당 샘플 수)
+     * @param skipped 직전 스냅샷 이후 추론하지 못하고 건너뛴 hop 수 (이전 추론이 끝나지 않아 합쳐진 경우)
+     */
+    public record Snapshot(EcgWindow window, long endSample, long skipped) {
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public long received() {
+        return received;
+    }
+
+    /**
+     * 프레임 단위 float32(LE) 청크 추가 — 오래된 샘플은 덮어씀
+     * @throws IllegalArgumentException 프레임 크기의 배수가 아니거나 NaN/Inf 포함 (그 앞까지는 이미 반영됨)
+     */
+    public void append(ByteBuffer chunk) {
+        int bytes = chunk.remaining();
+        if (bytes % FRAME_BYTES != 0) {
+            throw new IllegalArgumentException(
+                    "Chunk must be a whole number of " + FRAME_BYTES + "-byte frames (got " + bytes + " bytes)");
+        }
+        ByteBuffer le = chunk.slice().order(ByteOrder.LITTLE_ENDIAN);
+        for (int frame = 0, frames = bytes / FRAME_BYTES; frame < frames; frame++) {
+            int base = frame * FRAME_BYTES;
+            for (int lead = 0; lead < EcgWindow.LEADS; lead++) {
+                float v = le.getFloat(base + lead * Float.BYTES);
+                if (!Float.isFinite(v)) {
+                    throw new IllegalArgumentException("Chunk contains NaN/Inf at sample " + received + ", lead " + lead);
+                }
+                ring[lead * length + head] = v;
+            }
+            head = head + 1 == length ? 0 : head + 1;
+            received++;
+        }
+    }
+
+    public boolean due() {
+        return received >= (lastEnd < 0 ? length : lastEnd + hop);
+    }
+
+    /**
+     * 최근 10초 → ECG1 윈도우 (새 배열 — 결과가 나오기 전에 링이 덮어써져도 영향 없음)
+     */
+    public Snapshot snapshot() {
+        byte[] payload = new byte[EcgWindow.HEADER_BYTES + ring.length * Float.BYTES];
+        ByteBuffer buf = ByteBuffer.wrap(payload).order(ByteOrder.LITTLE_ENDIAN);
+        buf.put(new byte[]{'E', 'C', 'G', '1'}).putShort((short) EcgWindow.LEADS).putShort((short) 0)
+                .putInt(length).putInt(fs);
+        FloatBuffer samples = buf.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+        for (int lead = 0; lead < EcgWindow.LEADS; lead++) {
+            int offset = lead * length;
+            samples.put(ring, offset + head, length - head); // 가장 오래된 샘플부터
+            samples.put(ring, offset, head);
+        }
+        long skipped = lastEnd < 0 ? (received - length) / hop : (received - lastEnd) / hop - 1;
+        lastEnd = received;
+        return new Snapshot(new EcgWindow(EcgWindow.LEADS, length, fs, payload), received, Math.max(0, skipped));
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.websocket.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 연속 ECG 스트리밍 (WebSocket /api/ecg/stream) — 세션별 링 버퍼 + hop마다 롤링 윈도우 추론
+ * - 세션마다 추론은 동시에 1건만: 앞 추론이 끝나기 전에 다음 hop이 오면 기다렸다가 그때의 최신 10초로 한 번만 추론
+ *   (밀린 hop은 "skipped"로 알림) → AI 서버가 느려져도 세션당 대기 작업/메모리가 늘지 않음
+ * - 결과 전송은 ConcurrentWebSocketSessionDecorator(전송 시간/버퍼 한도) — 느린 클라이언트는 오래된 결과부터 버림
+ * - 동시 세션 수 maxSessions로 제한 (넘으면 연결 거부) → 전체 메모리 = 세션 수 × 세션당 고정 크기
+ *
+ * 세션당 메모리 (fs Hz): 링 12 × 10·fs × 4바이트 + 추론 중인 윈도우 1개(같은 크기) + 수신 메시지 버퍼(max-chunk-bytes)
+ * + 전송 버퍼(send-buffer-bytes). 500Hz 기본값이면 240KB + 240KB + 64KB + 64KB ≈ 608KB.
+ * 지표: ai.ecg.stream.sessions, ai.ecg.stream.windows{outcome=analyzed|skipped}
+ */
+@Slf4j
+@Service
+public class EcgStreamService {
+
+    private final EcgAnalysisService ecgAnalysisService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int maxSessions;
+    private final int hopMs;
+    private final int minHopMs;
+    private final int minFs;
+    private final int maxFs;
+    private final int sendTimeMs;
+    private final int sendBufferBytes;
+    private final int maxChunkBytes;
+    private final long idleTimeoutMs;
+    private final AtomicInteger sessions = new AtomicInteger();
+    // 세션당 1건이므로 동시 추론 수는 세션 수 이하 — AI 호출 동시성은 EcgCallGuard 벌크헤드가 다시 제한
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("ecg-stream-", 0).factory());
+    private final Counter analyzedCounter;
+    private final Counter skippedCounter;
+
+    public EcgStreamService(
+            EcgAnalysisService ecgAnalysisService,
+            MeterRegistry meterRegistry,
+            @Value("${ai.ecg.stream.max-sessions:200}") int maxSessions,
+            @Value("${ai.ecg.stream.hop-ms:2000}") int hopMs,
+            @Value("${ai.ecg.stream.min-hop-ms:1000}") int minHopMs,
+            @Value("${ai.ecg.stream.min-fs:100}") int minFs,
+            @Value("${ai.ecg.stream.max-fs:1000}") int maxFs,
+            @Value("${ai.ecg.stream.send-time-ms:5000}") int sendTimeMs,
+            @Value("${ai.ecg.stream.send-buffer-bytes:65536}") int sendBufferBytes,
+            @Value("${ai.ecg.stream.max-chunk-bytes:65536}") int maxChunkBytes,
+            @Value("${ai.ecg.stream.idle-timeout-ms:60000}") long idleTimeoutMs) {
+        this.ecgAnalysisService = ecgAnalysisService;
+        this.maxSessions = maxSessions;
+        this.hopMs = hopMs;
+        this.minHopMs = minHopMs;
+        this.minFs = minFs;
+        this.maxFs = maxFs;
+        this.sendTimeMs = sendTimeMs;
+        this.sendBufferBytes = sendBufferBytes;
+        this.maxChunkBytes = maxChunkBytes;
+        this.idleTimeoutMs = idleTimeoutMs;
+        Gauge.builder("ai.ecg.stream.sessions", sessions, AtomicInteger::get)
+                .description("Open ECG streaming sessions")
+                .register(meterRegistry);
+        this.analyzedCounter = windows(meterRegistry, "analyzed");
+        this.skippedCounter = windows(meterRegistry, "skipped");
+    }
+
+    private static Counter windows(MeterRegistry registry, String outcome) {
+        return Counter.builder("ai.ecg.stream.windows")
+                .description("Rolling ECG windows analyzed or skipped while the previous one was in flight")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * 스트림 시작 — 성공하면 "ready" 메시지 전송
+     * @param fs    입력 샘플링 주파수 (null이면 500)
+     * @param hopMs 추론 간격 (null이면 ai.ecg.stream.hop-ms)
+     * @return 동시 세션 수를 넘으면 null
+     * @throws IllegalArgumentException fs/hopMs 범위 오류
+     */
+    public EcgStream open(WebSocketSession session, Integer fs, Integer hopMs) {
+        int rate = fs != null ? fs : EcgWindowPreprocessor.TARGET_FS;
+        int hop = hopMs != null ? hopMs : this.hopMs;
+        if (rate < minFs || rate > maxFs) {
+            throw new IllegalArgumentException("fs must be " + minFs + "-" + maxFs + " (got " + rate + ")");
+        }
+        if (hop < minHopMs || hop > EcgStreamBuffer.WINDOW_SECONDS * 1000) {
+            throw new IllegalArgumentException("hopMs must be " + minHopMs + "-" + EcgStreamBuffer.WINDOW_SECONDS * 1000
+                    + " (got " + hop + ")");
+        }
+        if (sessions.incrementAndGet() > maxSessions) {
+            sessions.decrementAndGet();
+            return null;
+        }
+        // 수신 메시지 버퍼 = 청크 최대 크기 (넘으면 컨테이너가 1009로 종료), 입력이 끊긴 세션은 idle-timeout 후 종료
+        session.setBinaryMessageSizeLimit(maxChunkBytes);
+        session.setTextMessageSizeLimit(1024);
+        if (session instanceof NativeWebSocketSession ws && ws.getNativeSession(Session.class) instanceof Session container) {
+            container.setMaxIdleTimeout(idleTimeoutMs);
+        }
+        int hopSamples = Math.max(1, (int) ((long) hop * rate / 1000));
+        EcgStream stream = new EcgStream(
+                new ConcurrentWebSocketSessionDecorator(session, sendTimeMs, sendBufferBytes,
+                        ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP),
+                new EcgStreamBuffer(rate, hopSamples));
+        ObjectNode ready = objectMapper.createObjectNode()
+                .put("type", "ready")
+                .put("fs", rate)
+                .put("windowSamples", stream.buffer.length())
+                .put("hopSamples", hopSamples)
+                .put("frameBytes", EcgStreamBuffer.FRAME_BYTES);
+        stream.send(ready);
+        return stream;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * WebSocket 세션 하나의 스트림 상태 — 수신(컨테이너 스레드)과 추론 완료(가상 스레드)가 this로 동기화
+     */
+    public final class EcgStream {
+
+        private final WebSocketSession session;
+        private final EcgStreamBuffer buffer;
+        private boolean inFlight;
+        private boolean closed;
+        private long seq;
+
+        private EcgStream(WebSocketSession session, EcgStreamBuffer buffer) {
+            this.session = session;
+            this.buffer = buffer;
+        }
+
+        /**
+         * 수신 청크 반영 → 추론 시점이고 진행 중인 추론이 없으면 바로 시작
+         * @throws IllegalArgumentException 청크 형식 오류 (EcgStreamBuffer.append)
+         */
+        public void accept(ByteBuffer chunk) {
+            EcgStreamBuffer.Snapshot next;
+            synchronized (this) {
+                buffer.append(chunk);
+                next = next();
+            }
+            if (next != null) {
+                dispatch(next);
+            }
+        }
+
+        public void close() {
+            synchronized (this) {
+                if (closed) return;
+                closed = true;
+            }
+            sessions.decrementAndGet();
+        }
+
+        private EcgStreamBuffer.Snapshot next() {
+            if (closed || inFlight || !buffer.due()) {
+                return null;
+            }
+            inFlight = true;
+            return buffer.snapshot();
+        }
+
+        private void dispatch(EcgStreamBuffer.Snapshot snapshot) {
+            try {
+                executor.execute(() -> analyze(snapshot));
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    inFlight = false; // 종료 중
+                }
+            }
+        }
+
+        private void analyze(EcgStreamBuffer.Snapshot snapshot) {
+            EcgStreamBuffer.Snapshot next = snapshot;
+            while (next != null) {
+                String result;
+                try {
+                    result = ecgAnalysisService.analyzeStreamWindow(EcgWindowPreprocessor.preprocess(next.window()));
+                } catch (ResponseStatusException e) {
+                    // 서킷 OPEN/벌크헤드 포화 — 이번 윈도우만 오류로 알리고 스트림은 유지
+                    result = errorJson(e.getReason());
+                } catch (RuntimeException e) {
+                    log.error("[ECG] stream analysis failed ({}): {}", session.getId(), e.toString());
+                    result = errorJson("ECG 분석에 실패했습니다.");
+                }
+                analyzedCounter.increment();
+                skippedCounter.increment(next.skipped());
+                send(next, result);
+                synchronized (this) {
+                    inFlight = false;
+                    next = next(); // 기다리는 동안 hop이 지났으면 최신 10초로 바로 이어서
+                }
+            }
+        }
+
+        private void send(EcgStreamBuffer.Snapshot snapshot, String result) {
+            ObjectNode message = objectMapper.createObjectNode()
+                    .put("type", "result")
+                    .put("seq", ++seq)
+                    .put("endSample", snapshot.endSample())
+                    .put("skipped", snapshot.skipped());
+            try {
+                message.set("result", objectMapper.readTree(result));
+            } catch (JsonProcessingException e) {
+                message.put("result", result);
+            }
+            send(message);
+        }
+
+        private void send(ObjectNode message) {
+            if (!session.isOpen()) return;
+            try {
+                session.sendMessage(new TextMessage(objectMapper.writeValueAsString(message)));
+            } catch (IOException | IllegalStateException e) {
+                // 전송 시간 초과/연결 종료 — 데코레이터가 세션을 닫고 afterConnectionClosed에서 정리됨
+                log.debug("[ECG] stream send failed ({}): {}", session.getId(), e.getMessage());
+            }
+        }
+
+        private String errorJson(String reason) {
+            try {
+                return objectMapper.writeValueAsString(objectMapper.createObjectNode().put("error", reason));
+            } catch (JsonProcessingException e) {
+                return "{\"error\": \"ECG 분석에 실패했습니다.\"}";
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * application/octet-stream ECG 윈도우 (POST /api/ecg/predict_window 바이너리 변형)
+ *
+ * 형식 (little-endian):
+ * <pre>
+ * 0  magic   "ECG1" (4바이트)
+ * 4  leads   uint16  (12)
+ * 6  reserved uint16 (0)
+ * 8  length  uint32  (리드당 샘플 수)
+ * 12 fs      uint32  (Hz)
+ * 16 samples float32 × leads × length (리드 순서대로, JSON x[lead][sample]과 같은 배치)
+ * </pre>
+ *
+ * 헤더를 포함한 요청 바이트를 그대로 보관 — 값 검증은 float 뷰로 하고 AI 서버에는 복사 없이 같은 바이트를 전달한다.
+ */
+public record EcgWindow(int leads, int length, int fs, byte[] payload) {
+
+    public static final int HEADER_BYTES = 16;
+    public static final int LEADS = 12;
+    private static final int MAGIC = 'E' | 'C' << 8 | 'G' << 16 | '1' << 24;
+    private static final int MAX_FS = 10_000;
+
+    /**
+     * @param maxSamples 리드당 최대 샘플 수
+     * @throws ResponseStatusException 400 형식 오류 / 413 크기 초과
+     */
+    public static EcgWindow read(InputStream in, long contentLength, int maxSamples) throws IOException {
+        byte[] header = in.readNBytes(HEADER_BYTES);
+        if (header.length < HEADER_BYTES) {
+            throw badRequest("ECG window header is truncated");
+        }
+        ByteBuffer h = ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN);
+        if (h.getInt(0) != MAGIC) {
+            throw badRequest("ECG window must start with magic \"ECG1\"");
+        }
+        int leads = Short.toUnsignedInt(h.getShort(4));
+        long length = Integer.toUnsignedLong(h.getInt(8));
+        long fs = Integer.toUnsignedLong(h.getInt(12));
+        if (leads != LEADS) {
+            throw badRequest("leads must be " + LEADS + " (got " + leads + ")");
+        }
+        if (fs <= 0 || fs > MAX_FS) {
+            throw badRequest("fs must be 1-" + MAX_FS + " (got " + fs + ")");
+        }
+        if (length <= 0) {
+            throw badRequest("length must be positive");
+        }
+        if (length > maxSamples) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "length must be at most " + maxSamples + " samples per lead (got " + length + ")");
+        }
+        int total = HEADER_BYTES + leads * (int) length * Float.BYTES;
+        if (contentLength >= 0 && contentLength != total) {
+            throw badRequest("Content-Length " + contentLength + " does not match header (" + total + " bytes expected)");
+        }
+
+        byte[] payload = new byte[total];
+        System.arraycopy(header, 0, payload, 0, HEADER_BYTES);
+        int read = in.readNBytes(payload, HEADER_BYTES, total - HEADER_BYTES);
+        if (read != total - HEADER_BYTES) {
+            throw badRequest("ECG window body is truncated (" + read + " of " + (total - HEADER_BYTES) + " sample bytes)");
+        }
+        if (in.read() != -1) {
+            throw badRequest("ECG window body is longer than its header declares");
+        }
+
+        EcgWindow window = new EcgWindow(leads, (int) length, (int) fs, payload);
+        window.requireFinite();
+        return window;
+    }
+
+    /**
+     * 샘플 값 뷰 (복사 없음, 리드 순서대로 length개씩)
+     */
+    public FloatBuffer samples() {
+        return ByteBuffer.wrap(payload, HEADER_BYTES, payload.length - HEADER_BYTES)
+                .slice()
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asFloatBuffer();
+    }
+
+    private void requireFinite() {
+        FloatBuffer s = samples();
+        for (int i = 0, n = s.limit(); i < n; i++) {
+            if (!Float.isFinite(s.get(i))) {
+                throw badRequest("Input contains NaN/Inf at x[" + i / length + "][" + i % length + "]");
+            }
+        }
+    }
+
+    private static ResponseStatusException badRequest(String message) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, message);
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.demo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+/**
+ * AI 서버 prepare_window의 모양 맞추기 단계를 백엔드에서 먼저 수행 — 12 × TARGET_LENGTH @ TARGET_FS 윈도우만 AI 서버로 보냄
+ * - (12, L) / (L, 12) 확인 + 전치, NaN/Inf 검사 (실패하면 AI 서버를 거치지 않고 400)
+ * - fs ≠ 500이면 scipy.signal.resample_poly(x, up, down)와 같은 polyphase 리샘플링 (Kaiser β=5 FIR, 반길이 10 × max(up, down))
+ * - 길이 맞추기는 ensure_len_12xL과 같음: 길면 마지막 TARGET_LENGTH개, 짧으면 뒤를 0으로 채움
+ *   리샘플링도 남길 출력 샘플만 계산 (잘라낼 앞부분은 계산하지 않음)
+ * - 결과가 AI 서버 입력과 같으므로 서버 쪽 리샘플/길이 맞추기는 그대로 통과 (대역통과/정규화는 AI 서버 담당)
+ *
+ * float[] 위에서만 계산하고 Double 박싱/중간 List를 만들지 않음. 필터 계수는 (up, down) 비율별로 한 번만 설계해 재사용.
+ * 필터 캐시는 계수 개수 합으로 상한(MAX_FILTER_TAPS) — fs를 바꿔 가며 보내도 힙이 계속 늘지 않음 (밀려난 비율은 다시 설계).
+ */
+public final class EcgWindowPreprocessor {
+
+    public static final int TARGET_FS = 500;
+    public static final int TARGET_LENGTH = 5000;
+    private static final int MAX_FS = 10_000;
+    private static final double KAISER_BETA = 5.0;
+
+    // 계수 float 개수 기준 상한 (약 8MB) — 소수 fs(예: 9973)의 필터는 약 20만 개, 흔한 fs(250/360/1000)는 수천 개
+    private static final long MAX_FILTER_TAPS = 2_000_000;
+
+    private static final Cache<Long, PolyphaseFilter> FILTERS = Caffeine.newBuilder()
+            .maximumWeight(MAX_FILTER_TAPS)
+            .weigher((Long key, PolyphaseFilter filter) -> filter.taps())
+            .build();
+
+    private EcgWindowPreprocessor() {
+    }
+
+    /**
+     * 바이너리 윈도우 → 12 × 5000 @ 500Hz (이미 그 모양이면 같은 인스턴스)
+     */
+    public static EcgWindow preprocess(EcgWindow window) {
+        if (window.fs() == TARGET_FS && window.length() == TARGET_LENGTH) {
+            return window;
+        }
+        float[] samples = new float[EcgWindow.LEADS * window.length()];
+        window.samples().get(samples);
+        return fit(samples, window.length(), window.fs());
+    }
+
+    /**
+     * JSON x[행][열] (12 × L 또는 L × 12) → 12 × 5000 @ 500Hz 바이너리 윈도우
+     * 오류 메시지는 AI 서버 validate_request_matrix / to_12xL과 같음
+     * @param maxSamples 리드당 최대 샘플 수
+     * @throws ResponseStatusException 400 모양/값 오류, 413 크기 초과
+     */
+    public static EcgWindow fromMatrix(List<? extends List<?>> x, int fs, int maxSamples) {
+        if (x == null || x.isEmpty()) {
+            throw badRequest("Input data 'x' is empty");
+        }
+        if (fs <= 0 || fs > MAX_FS) {
+            throw badRequest("fs must be 1-" + MAX_FS + " (got " + fs + ")");
+        }
+        int rows = x.size();
+        List<?> first = x.get(0);
+        int cols = first == null ? -1 : first.size();
+        for (List<?> row : x) {
+            if (row == null || row.size() != cols) {
+                throw badRequest("Jagged array detected");
+            }
+        }
+        boolean leadMajor = rows == EcgWindow.LEADS;
+        if (!leadMajor && cols != EcgWindow.LEADS) {
+            throw badRequest("Expected (12, L) or (L, 12). Got (" + rows + ", " + cols + ")");
+        }
+        int length = leadMajor ? cols : rows;
+        if (length == 0) {
+            throw badRequest("Input data 'x' is empty");
+        }
+        if (length > maxSamples) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "length must be at most " + maxSamples + " samples per lead (got " + length + ")");
+        }
+
+        float[] samples = new float[EcgWindow.LEADS * length];
+        for (int r = 0; r < rows; r++) {
+            List<?> row = x.get(r);
+            for (int c = 0; c < cols; c++) {
+                if (!(row.get(c) instanceof Number n)) {
+                    throw badRequest("Input contains a non-numeric value at x[" + r + "][" + c + "]");
+                }
+                float v = n.floatValue();
+                if (!Float.isFinite(v)) {
+                    throw badRequest("Input contains NaN/Inf at x[" + r + "][" + c + "]");
+                }
+                samples[leadMajor ? r * length + c : c * length + r] = v;
+            }
+        }
+
+        return fit(samples, length, fs);
+    }
+
+    /**
+     * 리드 순서 samples(리드당 length개) → 리드마다 TARGET_FS로 리샘플 + TARGET_LENGTH로 맞춘 윈도우
+     */
+    private static EcgWindow fit(float[] samples, int length, int fs) {
+        float[] out = new float[EcgWindow.LEADS * TARGET_LENGTH]; // 0으로 채워진 상태 = 뒤쪽 패딩
+        PolyphaseFilter filter = fs == TARGET_FS ? null : filter(fs, TARGET_FS);
+        for (int l = 0; l < EcgWindow.LEADS; l++) {
+            if (filter == null) {
+                int keep = Math.min(length, TARGET_LENGTH);
+                System.arraycopy(samples, l * length + length - keep, out, l * TARGET_LENGTH, keep);
+            } else {
+                filter.resampleTail(samples, l * length, length, out, l * TARGET_LENGTH, TARGET_LENGTH);
+            }
+        }
+        byte[] payload = header(TARGET_LENGTH);
+        ByteBuffer.wrap(payload, EcgWindow.HEADER_BYTES, payload.length - EcgWindow.HEADER_BYTES)
+                .slice()
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asFloatBuffer()
+                .put(out);
+        return new EcgWindow(EcgWindow.LEADS, TARGET_LENGTH, TARGET_FS, payload);
+    }
+
+    static PolyphaseFilter filter(int fromFs, int toFs) {
+        int g = gcd(fromFs, toFs);
+        int up = toFs / g;
+        int down = fromFs / g;
+        return FILTERS.get((long) up << 32 | down, k -> new PolyphaseFilter(up, down));
+    }
+
+    /**
+     * 캐시에 남아 있는 필터 계수 개수 합 (상한 확인용)
+     */
+    static long cachedFilterTaps() {
+        FILTERS.cleanUp();
+        return FILTERS.policy().eviction().orElseThrow().weightedSize().orElseThrow();
+    }
+
+    /**
+     * scipy.signal.resample_poly의 기본 필터 + 출력 위치
+     * h = firwin(2·half + 1, 1 / max(up, down), window=('kaiser', 5.0)) × up (float32),
+     * out[m] = Σ h[m·down + half − i·up] · x[i]
+     */
+    static final class PolyphaseFilter {
+
+        final int up;
+        final int down;
+        private final int half;
+        // phases[p][k] = h[p + (len − 1 − k)·up] (뒤집어 저장) — 출력 위치 t = m·down + half에서 p = t mod up,
+        // x[t / up − len + 1 + k]와 곱함 → x를 앞에서부터 순서대로 읽음
+        private final float[][] phases;
+
+        PolyphaseFilter(int up, int down) {
+            this.up = up;
+            this.down = down;
+            int maxRate = Math.max(up, down);
+            this.half = 10 * maxRate;
+            float[] h = firwin(2 * half + 1, 1.0 / maxRate);
+            for (int i = 0; i < h.length; i++) {
+                h[i] *= up;
+            }
+            this.phases = new float[up][];
+            for (int p = 0; p < up; p++) {
+                float[] taps = new float[(h.length - p + up - 1) / up];
+                for (int j = 0; j < taps.length; j++) {
+                    taps[taps.length - 1 - j] = h[p + j * up];
+                }
+                phases[p] = taps;
+            }
+        }
+
+        int taps() {
+            return 2 * half + 1;
+        }
+
+        int outputLength(int inputLength) {
+            long n = (long) inputLength * up;
+            return (int) (n / down + (n % down != 0 ? 1 : 0));
+        }
+
+        /**
+         * x[xOff, xOff + n)의 리샘플 결과 중 마지막 min(maxOut, 출력 길이)개만 계산해 dst[dstOff...]에 기록
+         * @return 기록한 샘플 수
+         */
+        int resampleTail(float[] x, int xOff, int n, float[] dst, int dstOff, int maxOut) {
+            int nOut = outputLength(n);
+            int from = Math.max(0, nOut - maxOut);
+            for (int m = from; m < nOut; m++) {
+                long t = (long) m * down + half;
+                float[] taps = phases[(int) (t % up)];
+                int start = (int) (t / up) - taps.length + 1; // taps[0]에 곱할 x 위치
+                // x 범위 밖(양 끝 0 패딩)의 탭은 건너뜀
+                int kFrom = Math.max(0, -start);
+                int kTo = Math.min(taps.length, n - start);
+                int base = xOff + start;
+                double acc = 0;
+                for (int k = kFrom; k < kTo; k++) {
+                    acc += (double) taps[k] * x[base + k];
+                }
+                dst[dstOff + m - from] = (float) acc;
+            }
+            return nOut - from;
+        }
+
+        private static float[] firwin(int numTaps, double cutoff) {
+            double alpha = 0.5 * (numTaps - 1);
+            double[] h = new double[numTaps];
+            double sum = 0;
+            double i0Beta = besselI0(KAISER_BETA);
+            for (int n = 0; n < numTaps; n++) {
+                double m = n - alpha;
+                double r = m / alpha;
+                double window = besselI0(KAISER_BETA * Math.sqrt(Math.max(0, 1 - r * r))) / i0Beta;
+                h[n] = cutoff * sinc(cutoff * m) * window;
+                sum += h[n];
+            }
+            float[] out = new float[numTaps];
+            for (int n = 0; n < numTaps; n++) {
+                out[n] = (float) (h[n] / sum);
+            }
+            return out;
+        }
+
+        private static double sinc(double x) {
+            if (x == 0) return 1;
+            double px = Math.PI * x;
+            return Math.sin(px) / px;
+        }
+
+        // 0차 수정 베셀 함수 (급수 전개, β=5 근처에서 20항 이내로 수렴)
+        private static double besselI0(double x) {
+            double term = 1;
+            double sum = 1;
+            double q = x * x / 4;
+            for (int k = 1; term > sum * 1e-17; k++) {
+                term *= q / ((double) k * k);
+                sum += term;
+            }
+            return sum;
+        }
+    }
+
+    private static byte[] header(int length) {
+        byte[] payload = new byte[EcgWindow.HEADER_BYTES + EcgWindow.LEADS * length * Float.BYTES];
+        ByteBuffer.wrap(payload).order(ByteOrder.LITTLE_ENDIAN)
+                .put((byte) 'E').put((byte) 'C').put((byte) 'G').put((byte) '1')
+                .putShort((short) EcgWindow.LEADS)
+                .putShort((short) 0)
+                .putInt(length)
+                .putInt(TARGET_FS);
+        return payload;
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private static ResponseStatusException badRequest(String message) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, message);
+    }
+}
@@ -0,0 +1,724 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 분석한 ECG 윈도우 원본 보관소 (append-only 세그먼트 파일, Postgres에는 ref만 저장)
+ * - 윈도우는 전처리 후 모양(12 × 5000 float32 @ 500Hz, 240KB)으로 고정 크기 슬롯에 기록
+ * - 쓰는 중인 세그먼트는 slot × segmentWindows 크기로 미리 잡아 메모리 매핑 — 쓰기는 매핑 영역 memcpy 한 번 (write 시스템 콜/DB 왕복 없음)
+ * - 세그먼트가 가득 차면 force 후 백그라운드 스레드에서 윈도우별로 압축한 seg-N.ecgz로 바꾸고 .ecg 삭제
+ * - ref = 세그먼트 번호 << 32 | 슬롯 번호 — 압축 후에도 그대로 유효 (UserHealthRecord.ecgWindowRef)
+ * - 사용자별 (측정 시각, ref) 정렬 배열을 메모리에 두고 시각 범위 조회는 이진 탐색, 기동 시 슬롯 헤더를 읽어 다시 만듦
+ *
+ * 슬롯 헤더 (128바이트, little-endian):
+ * <pre>
+ * 0  magic      "ECGW" (데이터/나머지 헤더를 쓴 뒤 마지막에 기록 — 없으면 빈 슬롯)
+ * 4  crc32      원본 float32 바이트
+ * 8  measuredAt epoch ms
+ * 16 fs, 20 length
+ * 24 userId 길이 u16, 26 codec u8 (0 원본, 1 deflate, 2 바이트 평면 분리 + deflate), 27 예약
+ * 28 dataBytes  (압축 후 크기, 원본이면 DATA_BYTES)
+ * 32 userId     UTF-8, 최대 96바이트
+ * </pre>
+ * 압축 세그먼트(.ecgz): "ECGZ" | version u32 | 슬롯 수 u32 | 예약 u32 | 블록 시작 위치 u64 × (슬롯 수 + 1) | 블록(슬롯 헤더 + 데이터)...
+ *
+ * 기동 시 남아 있는 .ecg는 모두 닫힌 세그먼트로 보고 압축 (쓰기는 항상 새 세그먼트에서 시작).
+ * 지표: ai.ecg.store.windows, ai.ecg.store.compaction.pending, ai.ecg.store.append.failures
+ */
+@Slf4j
+@Service
+public class EcgWindowStore {
+
+    static final int DATA_BYTES = EcgWindow.LEADS * EcgWindowPreprocessor.TARGET_LENGTH * Float.BYTES;
+    static final int SLOT_HEADER_BYTES = 128;
+    static final int SLOT_BYTES = SLOT_HEADER_BYTES + DATA_BYTES;
+    private static final int MAX_USER_ID_BYTES = SLOT_HEADER_BYTES - 32;
+    private static final int SLOT_MAGIC = 'E' | 'C' << 8 | 'G' << 16 | 'W' << 24;
+    private static final int PACKED_MAGIC = 'E' | 'C' << 8 | 'G' << 16 | 'Z' << 24;
+    private static final int PACKED_VERSION = 1;
+    private static final int PACKED_HEADER_BYTES = 16;
+    private static final int ECG1_MAGIC = 'E' | 'C' << 8 | 'G' << 16 | '1' << 24;
+    private static final byte CODEC_RAW = 0;
+    private static final byte CODEC_DEFLATE = 1;
+    private static final byte CODEC_SHUFFLE_DEFLATE = 2;
+    private static final int DEFAULT_DAYS = 1;
+    private static final int MAX_LIMIT = 1000;
+    private static final Pattern SEGMENT_FILE = Pattern.compile("seg-(\\d{8})\\.(ecg|ecgz)");
+
+    private final boolean enabled;
+    private final Path dir;
+    private final int segmentWindows;
+    private final Map<Integer, Segment> segments = new ConcurrentHashMap<>();
+    private final Map<String, PatientIndex> index = new ConcurrentHashMap<>();
+    private final AtomicLong windows = new AtomicLong();
+    private final AtomicInteger pendingCompaction = new AtomicInteger();
+    // 압축은 세그먼트 하나씩 전용 스레드에서 (요청 스레드/스케줄러와 분리)
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("ecg-store-compact").factory());
+    private final Counter failures;
+    private final Object appendLock = new Object();
+    private MappedSegment active;   // appendLock
+    private int nextSegment;        // appendLock
+
+    public EcgWindowStore(
+            MeterRegistry meterRegistry,
+            @Value("${ai.ecg.store.enabled:false}") boolean enabled,
+            @Value("${ai.ecg.store.dir:data/ecg-windows}") String dir,
+            @Value("${ai.ecg.store.segment-windows:256}") int segmentWindows) {
+        this.enabled = enabled;
+        this.dir = Path.of(dir);
+        this.segmentWindows = segmentWindows;
+        Gauge.builder("ai.ecg.store.windows", windows, AtomicLong::get)
+                .description("ECG windows in the raw window store")
+                .register(meterRegistry);
+        Gauge.builder("ai.ecg.store.compaction.pending", pendingCompaction, AtomicInteger::get)
+                .description("Full ECG store segments waiting to be compressed")
+                .register(meterRegistry);
+        this.failures = Counter.builder("ai.ecg.store.append.failures")
+                .description("ECG windows that could not be written to the store")
+                .register(meterRegistry);
+        if (enabled) {
+            try {
+                open();
+            } catch (IOException e) {
+                throw new UncheckedIOException("ECG window store를 열 수 없습니다: " + this.dir.toAbsolutePath(), e);
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public record StoredWindow(long ref, LocalDateTime measuredAt) {
+    }
+
+    /**
+     * 윈도우 1개 기록 (전처리 전 윈도우면 12 × 5000 @ 500Hz로 맞춰서 저장)
+     * 저장 실패는 분석을 막지 않음 — 로그/지표만 남기고 null
+     * @param measuredAt epoch ms
+     * @return ref, 저장소가 꺼져 있거나 실패하면 null
+     */
+    public Long append(String userId, EcgWindow window, long measuredAt) {
+        if (!enabled) {
+            return null;
+        }
+        byte[] owner = userId.getBytes(StandardCharsets.UTF_8);
+        if (owner.length > MAX_USER_ID_BYTES) {
+            log.warn("[ECG] store skipped: userId longer than {} bytes", MAX_USER_ID_BYTES);
+            failures.increment();
+            return null;
+        }
+        EcgWindow fitted = EcgWindowPreprocessor.preprocess(window);
+
+        MappedSegment segment;
+        int slot;
+        try {
+            synchronized (appendLock) {
+                if (active == null || active.reserved == segmentWindows) {
+                    active = MappedSegment.create(path(nextSegment, "ecg"), nextSegment, segmentWindows);
+                    segments.put(active.id, active);
+                    nextSegment++;
+                }
+                segment = active;
+                slot = segment.reserved++;
+            }
+        } catch (IOException e) {
+            log.warn("[ECG] store segment open failed: {}", e.getMessage());
+            failures.increment();
+            return null;
+        }
+
+        long ref = (long) segment.id << 32 | slot;
+        try {
+            segment.write(slot, owner, measuredAt, fitted);
+            index.computeIfAbsent(userId, k -> new PatientIndex()).add(measuredAt, ref);
+            windows.incrementAndGet();
+        } catch (RuntimeException e) {
+            log.warn("[ECG] store write failed (segment {}, slot {}): {}", segment.id, slot, e.toString());
+            failures.increment();
+            ref = -1;
+        } finally {
+            // 마지막 슬롯까지 기록이 끝난 세그먼트만 압축 (예약 후 아직 쓰는 중인 슬롯이 있으면 그 쓰기가 끝날 때)
+            if (segment.written.incrementAndGet() == segmentWindows) {
+                schedule(segment);
+            }
+        }
+        return ref < 0 ? null : ref;
+    }
+
+    /**
+     * 사용자 윈도우 목록 (측정 시각 오름차순, from ≤ measuredAt < to, 기간 생략 시 최근 1일)
+     */
+    public List<StoredWindow> list(String userId, LocalDateTime from, LocalDateTime to, int limit) {
+        requireEnabled();
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(DEFAULT_DAYS);
+        if (!start.isBefore(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+        PatientIndex patient = index.get(userId);
+        return patient == null ? List.of() : patient.range(epochMillis(start), epochMillis(end), limit);
+    }
+
+    /**
+     * 저장된 윈도우 원본 (ECG1 바이너리, /predict_window에 그대로 다시 보낼 수 있음)
+     * @throws ResponseStatusException 404 다른 사용자의 ref/없는 ref, 500 손상된 슬롯
+     */
+    public EcgWindow load(String userId, long ref) {
+        requireEnabled();
+        Segment segment = segments.get((int) (ref >>> 32));
+        int slot = (int) ref;
+        if (segment == null || slot < 0 || slot >= segment.slots()) {
+            throw notFound();
+        }
+        byte[] payload = new byte[EcgWindow.HEADER_BYTES + DATA_BYTES];
+        ByteBuffer header;
+        try {
+            header = segment.read(slot, payload, EcgWindow.HEADER_BYTES);
+        } catch (IOException | DataFormatException e) {
+            log.error("[ECG] store read failed (segment {}, slot {}): {}", segment.id, slot, e.toString());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Stored ECG window is unreadable");
+        }
+        if (header == null || !userId.equals(owner(header))) {
+            throw notFound();
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload, EcgWindow.HEADER_BYTES, DATA_BYTES);
+        if ((int) crc.getValue() != header.getInt(4)) {
+            log.error("[ECG] store checksum mismatch (segment {}, slot {})", segment.id, slot);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Stored ECG window is corrupted");
+        }
+        int length = header.getInt(20);
+        int fs = header.getInt(16);
+        ByteBuffer.wrap(payload).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(ECG1_MAGIC).putShort((short) EcgWindow.LEADS).putShort((short) 0)
+                .putInt(length).putInt(fs);
+        return new EcgWindow(EcgWindow.LEADS, length, fs, payload);
+    }
+
+    /**
+     * 쓰는 중인 세그먼트를 디스크에 반영 (EcgWindowStoreFlushScheduler)
+     * 매핑 영역은 프로세스가 죽어도 OS 페이지 캐시에 남음 — force는 전원 장애 대비
+     */
+    public void flush() {
+        MappedSegment segment;
+        synchronized (appendLock) {
+            segment = active;
+        }
+        if (segment != null) {
+            segment.buffer.force();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (!enabled) return;
+        flush();
+        compactor.shutdown();
+        if (!compactor.awaitTermination(60, TimeUnit.SECONDS)) {
+            log.warn("[ECG] store compaction still running at shutdown — resumes on next start");
+        }
+        for (Segment segment : segments.values()) {
+            segment.close();
+        }
+    }
+
+    // ---- 기동: 세그먼트 목록 → 인덱스 ----
+
+    private void open() throws IOException {
+        Files.createDirectories(dir);
+        TreeSet<Integer> mapped = new TreeSet<>();
+        TreeSet<Integer> packed = new TreeSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(file); // 압축 도중 종료된 임시 파일
+                    continue;
+                }
+                Matcher m = SEGMENT_FILE.matcher(name);
+                if (m.matches()) {
+                    (m.group(2).equals("ecg") ? mapped : packed).add(Integer.parseInt(m.group(1)));
+                }
+            }
+        }
+        for (int id : packed) {
+            PackedSegment segment = PackedSegment.open(path(id, "ecgz"), id);
+            segments.put(id, segment);
+            indexSegment(segment);
+            if (mapped.remove(id)) {
+                Files.deleteIfExists(path(id, "ecg")); // 압축 완료 후 삭제 전에 종료됨
+            }
+        }
+        for (int id : mapped) {
+            MappedSegment segment = MappedSegment.open(path(id, "ecg"), id);
+            segments.put(id, segment);
+            indexSegment(segment);
+            schedule(segment);
+        }
+        nextSegment = segments.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1) + 1;
+        log.info("[ECG] store opened: {} windows in {} segments at {}", windows.get(), segments.size(), dir.toAbsolutePath());
+    }
+
+    private void indexSegment(Segment segment) throws IOException {
+        for (int slot = 0; slot < segment.slots(); slot++) {
+            ByteBuffer header = segment.header(slot);
+            if (header != null) {
+                index.computeIfAbsent(owner(header), k -> new PatientIndex())
+                        .add(header.getLong(8), (long) segment.id << 32 | slot);
+                windows.incrementAndGet();
+            }
+        }
+    }
+
+    // ---- 압축 ----
+
+    private void schedule(MappedSegment segment) {
+        pendingCompaction.incrementAndGet();
+        try {
+            compactor.execute(() -> {
+                try {
+                    compact(segment);
+                } catch (IOException | RuntimeException e) {
+                    // 원본 .ecg는 그대로 남음 — 조회는 매핑 세그먼트로 계속되고 다음 기동 때 다시 시도
+                    log.error("[ECG] store compaction failed (segment {}): {}", segment.id, e.toString());
+                } finally {
+                    pendingCompaction.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            pendingCompaction.decrementAndGet(); // 종료 중 — 다음 기동 때 압축
+        }
+    }
+
+    private void compact(MappedSegment segment) throws IOException {
+        segment.buffer.force();
+        int slots = segment.slots();
+        Path target = path(segment.id, "ecgz");
+        Path tmp = dir.resolve(target.getFileName() + ".tmp");
+        long[] offsets = new long[slots + 1];
+        Codec codec = new Codec();
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            long position = PACKED_HEADER_BYTES + (long) Long.BYTES * (slots + 1);
+            for (int slot = 0; slot < slots; slot++) {
+                offsets[slot] = position;
+                if (segment.header(slot) == null) continue;
+                ByteBuffer block = codec.encode(segment, slot);
+                position += write(out, block, position);
+            }
+            offsets[slots] = position;
+            ByteBuffer table = ByteBuffer.allocate(PACKED_HEADER_BYTES + Long.BYTES * (slots + 1))
+                    .order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(PACKED_MAGIC).putInt(PACKED_VERSION).putInt(slots).putInt(0);
+            for (long offset : offsets) {
+                table.putLong(offset);
+            }
+            write(out, table.flip(), 0);
+            out.force(true);
+        } finally {
+            codec.end();
+        }
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        segments.put(segment.id, PackedSegment.open(target, segment.id));
+        // 조회 중인 스레드가 들고 있는 매핑은 GC 전까지 유효 (파일 삭제와 무관)
+        Files.deleteIfExists(path(segment.id, "ecg"));
+        long rawBytes = (long) slots * SLOT_BYTES;
+        log.info("[ECG] store segment {} compressed: {} KB → {} KB", segment.id,
+                rawBytes >> 10, offsets[slots] >> 10);
+    }
+
+    private static int write(FileChannel out, ByteBuffer buffer, long position) throws IOException {
+        int total = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            position += out.write(buffer, position);
+        }
+        return total;
+    }
+
+    private Path path(int id, String extension) {
+        return dir.resolve(String.format("seg-%08d.%s", id, extension));
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static String owner(ByteBuffer header) {
+        byte[] id = new byte[Short.toUnsignedInt(header.getShort(24))];
+        header.get(32, id);
+        return new String(id, StandardCharsets.UTF_8);
+    }
+
+    private void requireEnabled() {
+        if (!enabled) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "ECG window store is disabled");
+        }
+    }
+
+    private static ResponseStatusException notFound() {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "ECG window not found");
+    }
+
+    // ---- 세그먼트 ----
+
+    private abstract static sealed class Segment permits MappedSegment, PackedSegment {
+
+        final int id;
+
+        Segment(int id) {
+            this.id = id;
+        }
+
+        abstract int slots();
+
+        /** @return 슬롯 헤더 (little-endian), 빈 슬롯이면 null */
+        abstract ByteBuffer header(int slot) throws IOException;
+
+        /** 원본 float32 바이트를 dst[offset...]에 복원 @return 슬롯 헤더, 빈 슬롯이면 null */
+        abstract ByteBuffer read(int slot, byte[] dst, int offset) throws IOException, DataFormatException;
+
+        void close() {
+        }
+    }
+
+    /**
+     * 쓰는 중이거나 압축 전인 세그먼트 — 파일 전체를 매핑 (절대 위치 get/put만 사용해 여러 스레드가 같은 버퍼를 공유)
+     */
+    static final class MappedSegment extends Segment {
+
+        final MappedByteBuffer buffer;
+        final AtomicInteger written = new AtomicInteger();
+        int reserved;   // EcgWindowStore.appendLock
+
+        private MappedSegment(int id, MappedByteBuffer buffer) {
+            super(id);
+            this.buffer = buffer;
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        static MappedSegment create(Path path, int id, int slots) throws IOException {
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return new MappedSegment(id, ch.map(FileChannel.MapMode.READ_WRITE, 0, (long) slots * SLOT_BYTES));
+            }
+        }
+
+        static MappedSegment open(Path path, int id) throws IOException {
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long size = ch.size() - ch.size() % SLOT_BYTES;
+                MappedSegment segment = new MappedSegment(id, ch.map(FileChannel.MapMode.READ_WRITE, 0, size));
+                segment.reserved = segment.slots(); // 다시 쓰지 않음
+                return segment;
+            }
+        }
+
+        @Override
+        int slots() {
+            return buffer.capacity() / SLOT_BYTES;
+        }
+
+        void write(int slot, byte[] owner, long measuredAt, EcgWindow window) {
+            int base = slot * SLOT_BYTES;
+            byte[] payload = window.payload();
+            buffer.put(base + SLOT_HEADER_BYTES, payload, EcgWindow.HEADER_BYTES, DATA_BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(payload, EcgWindow.HEADER_BYTES, DATA_BYTES);
+            buffer.putInt(base + 4, (int) crc.getValue());
+            buffer.putLong(base + 8, measuredAt);
+            buffer.putInt(base + 16, window.fs());
+            buffer.putInt(base + 20, window.length());
+            buffer.putShort(base + 24, (short) owner.length);
+            buffer.put(base + 26, CODEC_RAW);
+            buffer.putInt(base + 28, DATA_BYTES);
+            buffer.put(base + 32, owner);
+            buffer.putInt(base, SLOT_MAGIC);
+        }
+
+        @Override
+        ByteBuffer header(int slot) {
+            int base = slot * SLOT_BYTES;
+            if (buffer.getInt(base) != SLOT_MAGIC) {
+                return null;
+            }
+            return buffer.slice(base, SLOT_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        @Override
+        ByteBuffer read(int slot, byte[] dst, int offset) {
+            ByteBuffer header = header(slot);
+            if (header != null) {
+                buffer.get(slot * SLOT_BYTES + SLOT_HEADER_BYTES, dst, offset, DATA_BYTES);
+            }
+            return header;
+        }
+    }
+
+    /**
+     * 압축된 세그먼트 — 블록 위치 표만 메모리에 두고 슬롯마다 위치 지정 읽기 (FileChannel.read(buf, pos)는 스레드 안전)
+     */
+    static final class PackedSegment extends Segment {
+
+        private final FileChannel channel;
+        private final long[] offsets;
+
+        private PackedSegment(int id, FileChannel channel, long[] offsets) {
+            super(id);
+            this.channel = channel;
+            this.offsets = offsets;
+        }
+
+        static PackedSegment open(Path path, int id) throws IOException {
+            FileChannel ch = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                ByteBuffer head = readFully(ch, PACKED_HEADER_BYTES, 0);
+                if (head.getInt(0) != PACKED_MAGIC || head.getInt(4) != PACKED_VERSION) {
+                    throw new IOException("not an ECG store segment: " + path);
+                }
+                int slots = head.getInt(8);
+                ByteBuffer table = readFully(ch, Long.BYTES * (slots + 1), PACKED_HEADER_BYTES);
+                long[] offsets = new long[slots + 1];
+                for (int i = 0; i <= slots; i++) {
+                    offsets[i] = table.getLong(i * Long.BYTES);
+                }
+                return new PackedSegment(id, ch, offsets);
+            } catch (IOException | RuntimeException e) {
+                ch.close();
+                throw e;
+            }
+        }
+
+        @Override
+        int slots() {
+            return offsets.length - 1;
+        }
+
+        @Override
+        ByteBuffer header(int slot) throws IOException {
+            if (offsets[slot + 1] == offsets[slot]) {
+                return null;
+            }
+            return readFully(channel, SLOT_HEADER_BYTES, offsets[slot]);
+        }
+
+        @Override
+        ByteBuffer read(int slot, byte[] dst, int offset) throws IOException, DataFormatException {
+            long start = offsets[slot];
+            int size = (int) (offsets[slot + 1] - start);
+            if (size == 0) {
+                return null;
+            }
+            ByteBuffer block = readFully(channel, size, start);
+            ByteBuffer header = block.slice(0, SLOT_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            Codec.decode(header.get(26), block.array(), SLOT_HEADER_BYTES, size - SLOT_HEADER_BYTES, dst, offset);
+            return header;
+        }
+
+        @Override
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        private static ByteBuffer readFully(FileChannel ch, int size, long position) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining()) {
+                if (ch.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("ECG store segment is truncated");
+                }
+            }
+            return buffer.flip();
+        }
+    }
+
+    /**
+     * 윈도우별 무손실 압축 — 원본 그대로 deflate 또는 바이트 평면 분리(float의 k번째 바이트끼리 모음) 후 deflate
+     * (µV 단위로 양자화된 ADC 값은 같은 float이 반복돼 원본 쪽이, 리샘플된 값은 지수/상위 가수 바이트가 모이는 평면 쪽이 작음)
+     * 어느 쪽인지는 첫 리드만 두 방식으로 압축해 보고 정함 — 전체 deflate는 한 번. 원본보다 작지 않으면 원본 그대로
+     */
+    private static final class Codec {
+
+        private static final int PROBE_BYTES = DATA_BYTES / EcgWindow.LEADS;
+
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final byte[] raw = new byte[DATA_BYTES];
+        private final byte[] planes = new byte[DATA_BYTES];
+        private final byte[] out = new byte[SLOT_HEADER_BYTES + DATA_BYTES];
+
+        ByteBuffer encode(MappedSegment segment, int slot) {
+            ByteBuffer header = segment.read(slot, raw, 0);
+            header.get(0, out, 0, SLOT_HEADER_BYTES);
+
+            shuffle(raw, planes, PROBE_BYTES);
+            boolean shuffled = deflate(planes, PROBE_BYTES, out, SLOT_HEADER_BYTES)
+                    < deflate(raw, PROBE_BYTES, out, SLOT_HEADER_BYTES);
+            if (shuffled) {
+                shuffle(raw, planes, DATA_BYTES);
+            }
+            int size = deflate(shuffled ? planes : raw, DATA_BYTES, out, SLOT_HEADER_BYTES);
+            byte codec = shuffled ? CODEC_SHUFFLE_DEFLATE : CODEC_DEFLATE;
+            if (size >= DATA_BYTES) {
+                System.arraycopy(raw, 0, out, SLOT_HEADER_BYTES, DATA_BYTES);
+                size = DATA_BYTES;
+                codec = CODEC_RAW;
+            }
+            ByteBuffer block = ByteBuffer.wrap(out, 0, SLOT_HEADER_BYTES + size).order(ByteOrder.LITTLE_ENDIAN);
+            block.put(26, codec).putInt(28, size);
+            return block;
+        }
+
+        /** src[0, length) 압축 @return 압축 크기, length 이상이 되면 length */
+        private int deflate(byte[] src, int length, byte[] dst, int offset) {
+            deflater.reset();
+            deflater.setInput(src, 0, length);
+            deflater.finish();
+            int size = 0;
+            int room = length - 1;
+            while (!deflater.finished() && size < room) {
+                size += deflater.deflate(dst, offset + size, room - size);
+            }
+            return deflater.finished() ? size : length;
+        }
+
+        static void decode(byte codec, byte[] src, int offset, int length, byte[] dst, int dstOffset)
+                throws DataFormatException {
+            if (codec == CODEC_RAW) {
+                System.arraycopy(src, offset, dst, dstOffset, DATA_BYTES);
+                return;
+            }
+            byte[] target = codec == CODEC_SHUFFLE_DEFLATE ? new byte[DATA_BYTES] : dst;
+            int targetOffset = codec == CODEC_SHUFFLE_DEFLATE ? 0 : dstOffset;
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(src, offset, length);
+                int size = 0;
+                while (size < DATA_BYTES && !inflater.finished()) {
+                    int n = inflater.inflate(target, targetOffset + size, DATA_BYTES - size);
+                    if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new DataFormatException("truncated block");
+                    }
+                    size += n;
+                }
+            } finally {
+                inflater.end();
+            }
+            if (codec == CODEC_SHUFFLE_DEFLATE) {
+                unshuffle(target, dst, dstOffset);
+            }
+        }
+
+        /** src[0, length)의 float을 바이트 평면 4개로 (planes[0, length)) */
+        private static void shuffle(byte[] src, byte[] planes, int length) {
+            int n = length / Float.BYTES;
+            for (int i = 0; i < n; i++) {
+                planes[i] = src[4 * i];
+                planes[n + i] = src[4 * i + 1];
+                planes[2 * n + i] = src[4 * i + 2];
+                planes[3 * n + i] = src[4 * i + 3];
+            }
+        }
+
+        private static void unshuffle(byte[] planes, byte[] dst, int offset) {
+            int n = DATA_BYTES / Float.BYTES;
+            for (int i = 0; i < n; i++) {
+                dst[offset + 4 * i] = planes[i];
+                dst[offset + 4 * i + 1] = planes[n + i];
+                dst[offset + 4 * i + 2] = planes[2 * n + i];
+                dst[offset + 4 * i + 3] = planes[3 * n + i];
+            }
+        }
+
+        void end() {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 사용자 한 명의 (측정 시각, ref) — 시각 오름차순 배열 (대부분 끝에 추가, 늦게 도착한 윈도우만 뒤에서부터 밀어 삽입)
+     */
+    private static final class PatientIndex {
+
+        private long[] times = new long[16];
+        private long[] refs = new long[16];
+        private int size;
+
+        synchronized void add(long time, long ref) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                refs = Arrays.copyOf(refs, size * 2);
+            }
+            int i = size;
+            while (i > 0 && times[i - 1] > time) {
+                times[i] = times[i - 1];
+                refs[i] = refs[i - 1];
+                i--;
+            }
+            times[i] = time;
+            refs[i] = ref;
+            size++;
+        }
+
+        synchronized List<StoredWindow> range(long from, long to, int limit) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (times[mid] < from) lo = mid + 1;
+                else hi = mid;
+            }
+            List<StoredWindow> result = new ArrayList<>();
+            for (int i = lo; i < size && times[i] < to && result.size() < limit; i++) {
+                result.add(new StoredWindow(refs[i],
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(times[i]), ZoneId.systemDefault())));
+            }
+            return result;
+        }
+    }
+}
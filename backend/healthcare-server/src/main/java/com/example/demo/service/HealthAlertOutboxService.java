@@ -0,0 +1,118 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.HealthAlertOutbox;
+import com.example.demo.entity.OutboxStatus;
+import com.example.demo.repository.HealthAlertOutboxRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 아웃박스 항목의 선점(claim) / 발송 / 재시도 상태 전이를 트랜잭션 단위로 처리
+ * - 디스패처는 이 서비스의 메서드를 각각 별도 트랜잭션으로 호출한다.
+ * - SENT 항목은 보존 기간 후 배치 삭제(HealthAlertOutboxRetentionScheduler), FAILED 항목은 남기고 alerts.outbox.failed 지표로 노출
+ */
+@Slf4j
+@Service
+public class HealthAlertOutboxService {
+
+    private final HealthAlertOutboxRepository outboxRepository;
+    private final NotificationService notificationService;
+    private final Duration lease;
+    private final int maxAttempts;
+
+    public HealthAlertOutboxService(
+            HealthAlertOutboxRepository outboxRepository,
+            NotificationService notificationService,
+            @Value("${alerts.outbox.lease-ms:60000}") long leaseMs,
+            @Value("${alerts.outbox.max-attempts:5}") int maxAttempts,
+            MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.notificationService = notificationService;
+        this.lease = Duration.ofMillis(leaseMs);
+        this.maxAttempts = maxAttempts;
+
+        // 수집 시점마다 부분 인덱스(idx_health_alert_outbox_failed)로 COUNT
+        Gauge.builder("alerts.outbox.failed", outboxRepository, r -> r.countByStatus(OutboxStatus.FAILED))
+                .description("Outbox entries that gave up after max attempts (kept for inspection)")
+                .register(meterRegistry);
+    }
+
+    public record ClaimedAlert(Long id, Long patientId) {}
+
+    /**
+     * 처리 가능한 항목을 최대 limit개 선점하고 lease를 건다.
+     * lease 동안 처리 결과가 기록되지 않으면(노드 종료 등) 다시 선점 대상이 된다 → at-least-once
+     */
+    @Transactional
+    public List<ClaimedAlert> claimBatch(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = outboxRepository.lockDueIds(now, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        outboxRepository.lease(ids, now.plus(lease));
+        return outboxRepository.findAllById(ids).stream()
+                .map(e -> new ClaimedAlert(e.getId(), e.getPatient().getId()))
+                .toList();
+    }
+
+    /**
+     * 한 환자의 항목들을 한 트랜잭션에서 알림 생성 + 발송 + SENT 처리
+     */
+    @Transactional
+    public void deliver(List<Long> outboxIds) {
+        List<HealthAlertOutbox> entries = outboxRepository.findAllById(outboxIds).stream()
+                .filter(e -> e.getStatus() == OutboxStatus.PENDING)
+                .toList();
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        notificationService.deliverOutboxEntries(entries.get(0).getPatient(), entries);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (HealthAlertOutbox entry : entries) {
+            entry.setStatus(OutboxStatus.SENT);
+            entry.setProcessedAt(now);
+            entry.setLastError(null);
+        }
+    }
+
+    /**
+     * 발송 실패 시 지수 backoff로 재시도 예약, 최대 횟수 초과 시 FAILED
+     */
+    @Transactional
+    public void markFailed(List<Long> outboxIds, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        String lastError = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+
+        for (HealthAlertOutbox entry : outboxRepository.findAllById(outboxIds)) {
+            entry.setLastError(lastError);
+            if (entry.getAttempts() >= maxAttempts) {
+                entry.setStatus(OutboxStatus.FAILED);
+                entry.setProcessedAt(now);
+                log.error("[AlertOutbox] id={} gave up after {} attempts: {}", entry.getId(), entry.getAttempts(), lastError);
+            } else {
+                long backoffSec = 1L << Math.min(entry.getAttempts(), 10); // 2, 4, 8 ... 최대 1024초
+                entry.setNextAttemptAt(now.plusSeconds(backoffSec));
+            }
+        }
+    }
+
+    /**
+     * before 이전에 발송 완료된 SENT 항목을 최대 limit개 삭제 (FAILED/PENDING은 건드리지 않음)
+     * @return 삭제된 행 수
+     */
+    @Transactional
+    public int purgeSentBatch(LocalDateTime before, int limit) {
+        return outboxRepository.deleteSentBefore(before, limit);
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key 기반 중복 제출 방지 (모바일 재시도로 인한 중복 기록/중복 알림 차단)
+ * - 1차: 메모리 캐시 (scope+key → 요청 해시, 응답 본문) — 적중 시 DB/저장 로직을 전혀 타지 않음
+ * - 2차: idempotency_keys 테이블 — 저장 트랜잭션 안에서 키를 선점하므로 재시작/다중 인스턴스/동시 재시도에도 1회만 처리
+ * - 같은 키로 다른 요청 본문이 오면 422
+ * - 적중률은 vitals.idempotency.requests{result=hit|miss, source=memory|db}로 노출
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 100;
+
+    // 보존 기간이 지난 행은 재선점 허용 (purge 전이라도 새 요청으로 처리)
+    private static final String CLAIM_SQL = """
+            INSERT INTO idempotency_keys AS k (scope, idem_key, request_hash, created_at)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (scope, idem_key) DO UPDATE
+                SET request_hash = EXCLUDED.request_hash, response_body = NULL, created_at = EXCLUDED.created_at
+                WHERE k.created_at < ?
+            """;
+
+    private record Stored(String requestHash, String responseBody) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration window;
+    private final Cache<String, Stored> cache;
+    private final Counter memoryHits;
+    private final Counter dbHits;
+    private final Counter misses;
+
+    public IdempotencyService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${vitals.idempotency.window-seconds:86400}") long windowSeconds,
+            @Value("${vitals.idempotency.cache-max-size:100000}") long maxSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.window = Duration.ofSeconds(windowSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(window)
+                .build();
+        this.memoryHits = counter(meterRegistry, "hit", "memory");
+        this.dbHits = counter(meterRegistry, "hit", "db");
+        this.misses = counter(meterRegistry, "miss", "db");
+    }
+
+    private static Counter counter(MeterRegistry registry, String result, String source) {
+        return Counter.builder("vitals.idempotency.requests")
+                .description("Idempotency-Key lookups on vitals submissions")
+                .tag("result", result)
+                .tag("source", source)
+                .register(registry);
+    }
+
+    /**
+     * key가 없으면 action을 그대로 실행. 있으면 최초 1회만 실행하고 이후에는 저장된 응답을 재사용
+     *
+     * @param scope   엔드포인트 + 환자 로그인 ID (다른 환자/엔드포인트와 키 충돌 방지)
+     * @param request 요청 본문 (해시 비교용)
+     * @param action  실제 저장 로직 — 키 선점과 같은 트랜잭션에서 실행됨
+     */
+    public <T> ResponseEntity<T> execute(String scope, String key, Object request, Class<T> bodyType, Supplier<T> action) {
+        if (key == null) {
+            return ResponseEntity.ok(action.get());
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, HEADER + " must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+
+        String cacheKey = scope + '\n' + key;
+        String requestHash = hash(request);
+
+        Stored cached = cache.getIfPresent(cacheKey);
+        if (cached != null) {
+            memoryHits.increment();
+            return replay(cached, requestHash, bodyType);
+        }
+
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            int claimed = jdbcTemplate.update(CLAIM_SQL, scope, key, requestHash,
+                    Timestamp.valueOf(now), Timestamp.valueOf(now.minus(window)));
+
+            if (claimed == 0) {
+                // 다른 요청이 먼저 처리함 (동시 요청이었다면 ON CONFLICT가 그 트랜잭션 종료까지 대기)
+                Stored stored = load(scope, key);
+                if (stored != null && stored.responseBody() != null) {
+                    dbHits.increment();
+                    cache.put(cacheKey, stored);
+                    return replay(stored, requestHash, bodyType);
+                }
+                // 이전 처리 결과가 아직 없음 (이론상 발생하지 않지만 중복 저장보다는 재시도 유도)
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "request with this " + HEADER + " is in progress");
+            }
+
+            misses.increment();
+            T body = action.get();
+            String responseBody = toJson(body);
+            jdbcTemplate.update("UPDATE idempotency_keys SET response_body = ? WHERE scope = ? AND idem_key = ?",
+                    responseBody, scope, key);
+
+            Stored stored = new Stored(requestHash, responseBody);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.put(cacheKey, stored);
+                }
+            });
+            return ResponseEntity.ok(body);
+        });
+    }
+
+    /**
+     * 보존 기간이 지난 키 삭제
+     * @return 삭제된 행 수
+     */
+    public int purgeExpired() {
+        int deleted = jdbcTemplate.update("DELETE FROM idempotency_keys WHERE created_at < ?",
+                Timestamp.valueOf(LocalDateTime.now().minus(window)));
+        if (deleted > 0) {
+            log.info("[Idempotency] purged {} expired key(s)", deleted);
+        }
+        return deleted;
+    }
+
+    private Stored load(String scope, String key) {
+        List<Stored> rows = jdbcTemplate.query(
+                "SELECT request_hash, response_body FROM idempotency_keys WHERE scope = ? AND idem_key = ?",
+                (rs, i) -> new Stored(rs.getString(1), rs.getString(2)),
+                scope, key);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private <T> ResponseEntity<T> replay(Stored stored, String requestHash, Class<T> bodyType) {
+        if (!stored.requestHash().equals(requestHash)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY, HEADER + " was already used for a different request");
+        }
+        try {
+            T body = objectMapper.readValue(stored.responseBody(), bodyType);
+            return ResponseEntity.ok().header(REPLAYED_HEADER, "true").body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("stored idempotent response is unreadable", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("response is not serializable", e);
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] json = objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("failed to hash request", e);
+        }
+    }
+}
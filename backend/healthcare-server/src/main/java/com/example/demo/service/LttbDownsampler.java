@@ -0,0 +1,83 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.VitalsSeriesResponse.Series;
+
+/**
+ * Largest-Triangle-Three-Buckets 다운샘플링 (Steinarsson, 2013)
+ * 시계열 모양(급격한 변화/피크)을 유지하면서 최대 threshold개 점만 남긴다.
+ * 입력/출력 모두 primitive 배열, 측정 시각 오름차순 가정
+ */
+public final class LttbDownsampler {
+
+    private LttbDownsampler() {
+    }
+
+    /**
+     * @param t         x축 (epoch millis), 길이 ≥ n
+     * @param v         y축 값, 길이 ≥ n
+     * @param n         유효 점 개수
+     * @param threshold 최대 출력 점 개수 (3 이상)
+     * @return 선택된 점 — n ≤ threshold면 앞 n개를 그대로 복사
+     */
+    public static Series downsample(long[] t, double[] v, int n, int threshold) {
+        if (threshold < 3) {
+            throw new IllegalArgumentException("threshold must be >= 3");
+        }
+        if (n <= threshold) {
+            long[] outT = new long[n];
+            double[] outV = new double[n];
+            System.arraycopy(t, 0, outT, 0, n);
+            System.arraycopy(v, 0, outV, 0, n);
+            return new Series(outT, outV);
+        }
+
+        long[] outT = new long[threshold];
+        double[] outV = new double[threshold];
+        long origin = t[0]; // 면적 계산 시 epoch millis 크기로 인한 정밀도 손실 방지
+
+        // 첫 점/마지막 점은 항상 포함, 가운데 n-2개 점을 threshold-2개 버킷으로 나눔
+        double every = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+        int out = 0;
+        outT[out] = t[0];
+        outV[out++] = v[0];
+
+        for (int i = 0; i < threshold - 2; i++) {
+            // 다음 버킷 평균점 (삼각형의 세 번째 꼭짓점)
+            int avgStart = (int) ((i + 1) * every) + 1;
+            int avgEnd = Math.min((int) ((i + 2) * every) + 1, n);
+            double avgT = 0;
+            double avgV = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgT += t[j] - origin;
+                avgV += v[j];
+            }
+            int avgLen = avgEnd - avgStart;
+            avgT /= avgLen;
+            avgV /= avgLen;
+
+            // 현재 버킷에서 (이전 선택점, 후보점, 다음 버킷 평균점) 삼각형 면적이 최대인 점 선택
+            int rangeStart = (int) (i * every) + 1;
+            int rangeEnd = (int) ((i + 1) * every) + 1;
+            double aT = t[a] - origin;
+            double aV = v[a];
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((aT - avgT) * (v[j] - aV) - (aT - (t[j] - origin)) * (avgV - aV));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+
+            outT[out] = t[next];
+            outV[out++] = v[next];
+            a = next;
+        }
+
+        outT[out] = t[n - 1];
+        outV[out] = v[n - 1];
+        return new Series(outT, outV);
+    }
+}
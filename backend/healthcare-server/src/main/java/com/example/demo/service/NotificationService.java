@@ -1,8 +1,11 @@
 package com.example.demo.service;
 
+import com.example.demo.entity.HealthAlertOutbox;
 import com.example.demo.entity.User;
 import com.example.demo.entity.UserGuardianLink;
 import com.example.demo.entity.UserHealthAlert;
+import com.example.demo.entity.UserHealthRecord;
+import com.example.demo.repository.HealthAlertOutboxRepository;
 import com.example.demo.repository.UserGuardianLinkRepository;
 import com.example.demo.repository.UserHealthAlertRepository;
 import lombok.RequiredArgsConstructor;
@@ -11,6 +14,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Slf4j
@@ -20,6 +25,7 @@ public class NotificationService {
 
     private final UserHealthAlertRepository alertRepository;
     private final UserGuardianLinkRepository guardianLinkRepository;
+    private final HealthAlertOutboxRepository outboxRepository;
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void sendEmergencyAlert(User patient, String title, String message, String alertType) {
@@ -32,16 +38,65 @@ public class NotificationService {
         }
     }
 
+    /**
+     * 호출한 트랜잭션(측정 기록 저장)에 아웃박스 행만 추가한다.
+     * 보호자 조회/알림 생성/발송은 HealthAlertOutboxDispatcher가 요청 밖에서 처리.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueEmergencyAlert(User patient, UserHealthRecord record, String title, String message, String alertType) {
+        HealthAlertOutbox entry = new HealthAlertOutbox();
+        entry.setPatient(patient);
+        entry.setHealthRecord(record);
+        entry.setTitle(title);
+        entry.setMessage(message);
+        entry.setAlertType(alertType);
+        entry.setNextAttemptAt(LocalDateTime.now());
+        outboxRepository.save(entry);
+    }
+
+    /**
+     * 같은 환자의 아웃박스 항목들을 한 번에 처리
+     * - 보호자 목록은 환자당 1회만 조회
+     * - (항목 × 수신자) 알림을 saveAll로 일괄 저장 후 발송
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deliverOutboxEntries(User patient, List<HealthAlertOutbox> entries) {
+        List<User> receivers = new ArrayList<>();
+        receivers.add(patient);
+        for (UserGuardianLink link : guardianLinkRepository.findByPatient(patient)) {
+            receivers.add(link.getGuardian());
+        }
+
+        List<UserHealthAlert> alerts = new ArrayList<>(entries.size() * receivers.size());
+        for (HealthAlertOutbox entry : entries) {
+            for (User receiver : receivers) {
+                UserHealthAlert alert = newAlert(patient, receiver, entry.getTitle(), entry.getMessage(), entry.getAlertType());
+                alert.setHealthRecord(entry.getHealthRecord());
+                alerts.add(alert);
+            }
+        }
+        alertRepository.saveAll(alerts);
+
+        for (UserHealthAlert alert : alerts) {
+            sendRealTimePush(alert.getReceiver(), alert.getTitle(), alert.getMessage());
+        }
+    }
+
     private void createAndSaveAlert(User patient, User receiver, String title, String message, String alertType) {
+        UserHealthAlert alert = newAlert(patient, receiver, title, message, alertType);
+
+        alertRepository.save(alert);
+        sendRealTimePush(receiver, title, message);
+    }
+
+    private UserHealthAlert newAlert(User patient, User receiver, String title, String message, String alertType) {
         UserHealthAlert alert = new UserHealthAlert();
         alert.setPatient(patient);
         alert.setReceiver(receiver);
         alert.setTitle(title);
         alert.setMessage(message);
         alert.setAlertType(alertType);
-
-        alertRepository.save(alert);
-        sendRealTimePush(receiver, title, message);
+        return alert;
     }
 
     private void sendRealTimePush(User receiver, String title, String message) {
@@ -20,6 +20,7 @@ public class UserDiseaseService {
 
     private final UserRepository userRepository;
     private final UserDiseaseRepository userDiseaseRepository;
+    private final VitalsRuleEngine vitalsRuleEngine;
 
     @Transactional
     public UserDiseaseResponse addDisease(String userId, CreateUserDiseaseRequest req) {
@@ -33,6 +34,7 @@ public class UserDiseaseService {
         disease.setDiagnosedAt(req.getDiagnosedAt());
 
         UserDisease saved = userDiseaseRepository.save(disease);
+        vitalsRuleEngine.evictAfterCommit(user.getId());
         return UserDiseaseResponse.from(saved);
     }
 
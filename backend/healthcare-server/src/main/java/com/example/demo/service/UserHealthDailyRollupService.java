@@ -0,0 +1,260 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.UserHealthRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * user_health_daily 일별 요약 유지
+ * - apply(): 측정 저장과 같은 트랜잭션에서 날짜별로 미리 합친 뒤 UPSERT (배치도 날짜 수만큼만 실행)
+ * - rebuild(): 원본 기록(보관 블록 포함)에서 기간 전체를 다시 집계 (백필/정합성 복구용)
+ *
+ * NULL 파라미터 타입 지정과 ON CONFLICT UPSERT가 필요해 JPA 대신 JdbcTemplate 사용
+ */
+@Slf4j
+@Service
+public class UserHealthDailyRollupService {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO user_health_daily AS d (user_id, day,
+                glucose_last, glucose_last_at, glucose_min, glucose_max, glucose_count,
+                bp_sys_last, bp_dia_last, bp_last_at, bp_sys_min, bp_sys_max, bp_dia_min, bp_dia_max, bp_count,
+                ecg_risk_last, ecg_abnormal_last, ecg_last_at, ecg_risk_min, ecg_risk_max, ecg_count)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (user_id, day) DO UPDATE SET
+                glucose_last      = CASE WHEN %1$s THEN EXCLUDED.glucose_last ELSE d.glucose_last END,
+                glucose_last_at   = GREATEST(d.glucose_last_at, EXCLUDED.glucose_last_at),
+                glucose_min       = LEAST(d.glucose_min, EXCLUDED.glucose_min),
+                glucose_max       = GREATEST(d.glucose_max, EXCLUDED.glucose_max),
+                glucose_count     = d.glucose_count + EXCLUDED.glucose_count,
+                bp_sys_last       = CASE WHEN %2$s THEN EXCLUDED.bp_sys_last ELSE d.bp_sys_last END,
+                bp_dia_last       = CASE WHEN %2$s THEN EXCLUDED.bp_dia_last ELSE d.bp_dia_last END,
+                bp_last_at        = GREATEST(d.bp_last_at, EXCLUDED.bp_last_at),
+                bp_sys_min        = LEAST(d.bp_sys_min, EXCLUDED.bp_sys_min),
+                bp_sys_max        = GREATEST(d.bp_sys_max, EXCLUDED.bp_sys_max),
+                bp_dia_min        = LEAST(d.bp_dia_min, EXCLUDED.bp_dia_min),
+                bp_dia_max        = GREATEST(d.bp_dia_max, EXCLUDED.bp_dia_max),
+                bp_count          = d.bp_count + EXCLUDED.bp_count,
+                ecg_risk_last     = CASE WHEN %3$s THEN EXCLUDED.ecg_risk_last ELSE d.ecg_risk_last END,
+                ecg_abnormal_last = CASE WHEN %3$s THEN EXCLUDED.ecg_abnormal_last ELSE d.ecg_abnormal_last END,
+                ecg_last_at       = GREATEST(d.ecg_last_at, EXCLUDED.ecg_last_at),
+                ecg_risk_min      = LEAST(d.ecg_risk_min, EXCLUDED.ecg_risk_min),
+                ecg_risk_max      = GREATEST(d.ecg_risk_max, EXCLUDED.ecg_risk_max),
+                ecg_count         = d.ecg_count + EXCLUDED.ecg_count
+            """.formatted(
+                    newerThanStored("glucose_last_at"),
+                    newerThanStored("bp_last_at"),
+                    newerThanStored("ecg_last_at"));
+
+    // V6 마이그레이션의 백필 쿼리와 동일한 집계 (기간 한정)
+    private static final String REBUILD_INSERT_SQL = """
+            INSERT INTO user_health_daily (user_id, day,
+                glucose_last, glucose_last_at, glucose_min, glucose_max, glucose_count,
+                bp_sys_last, bp_dia_last, bp_last_at, bp_sys_min, bp_sys_max, bp_dia_min, bp_dia_max, bp_count,
+                ecg_risk_last, ecg_abnormal_last, ecg_last_at, ecg_risk_min, ecg_risk_max, ecg_count)
+            SELECT r.user_id, CAST(r.measured_at AS DATE),
+                (ARRAY_AGG(r.glucose ORDER BY r.measured_at DESC, r.id DESC) FILTER (WHERE r.glucose IS NOT NULL))[1],
+                MAX(r.measured_at) FILTER (WHERE r.glucose IS NOT NULL),
+                MIN(r.glucose), MAX(r.glucose), COUNT(r.glucose),
+                (ARRAY_AGG(r.bp_sys ORDER BY r.measured_at DESC, r.id DESC) FILTER (WHERE r.bp_sys IS NOT NULL AND r.bp_dia IS NOT NULL))[1],
+                (ARRAY_AGG(r.bp_dia ORDER BY r.measured_at DESC, r.id DESC) FILTER (WHERE r.bp_sys IS NOT NULL AND r.bp_dia IS NOT NULL))[1],
+                MAX(r.measured_at) FILTER (WHERE r.bp_sys IS NOT NULL AND r.bp_dia IS NOT NULL),
+                MIN(r.bp_sys) FILTER (WHERE r.bp_sys IS NOT NULL AND r.bp_dia IS NOT NULL),
+                MAX(r.bp_sys) FILTER (WHERE r.bp_sys IS NOT NULL AND r.bp_dia IS NOT NULL),
+                MIN(r.bp_dia) FILTER (WHERE r.bp_sys IS NOT NULL AND r.bp_dia IS NOT NULL),
+                MAX(r.bp_dia) FILTER (WHERE r.bp_sys IS NOT NULL AND r.bp_dia IS NOT NULL),
+                COUNT(*) FILTER (WHERE r.bp_sys IS NOT NULL AND r.bp_dia IS NOT NULL),
+                (ARRAY_AGG(r.ecg_risk_score ORDER BY r.measured_at DESC, r.id DESC) FILTER (WHERE r.ecg_risk_score IS NOT NULL OR r.ecg_abnormal = TRUE OR r.heart_rate IS NOT NULL))[1],
+                (ARRAY_AGG(r.ecg_abnormal ORDER BY r.measured_at DESC, r.id DESC) FILTER (WHERE r.ecg_risk_score IS NOT NULL OR r.ecg_abnormal = TRUE OR r.heart_rate IS NOT NULL))[1],
+                MAX(r.measured_at) FILTER (WHERE r.ecg_risk_score IS NOT NULL OR r.ecg_abnormal = TRUE OR r.heart_rate IS NOT NULL),
+                MIN(r.ecg_risk_score), MAX(r.ecg_risk_score),
+                COUNT(*) FILTER (WHERE r.ecg_risk_score IS NOT NULL OR r.ecg_abnormal = TRUE OR r.heart_rate IS NOT NULL)
+            FROM user_health_records r
+            WHERE r.measured_at >= ? AND r.measured_at < ?
+            GROUP BY r.user_id, CAST(r.measured_at AS DATE)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int rebuildDaysOnStartup;
+
+    public UserHealthDailyRollupService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${vitals.daily.rebuild-days-on-startup:0}") int rebuildDaysOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.rebuildDaysOnStartup = rebuildDaysOnStartup;
+    }
+
+    /**
+     * 새로 저장된 측정 기록들을 일별 요약에 반영 (호출한 트랜잭션에 참여)
+     */
+    @Transactional
+    public void apply(Long userPkId, List<UserHealthRecord> records) {
+        Map<LocalDate, DailyDelta> byDay = new TreeMap<>();
+        for (UserHealthRecord r : records) {
+            if (r.getMeasuredAt() == null) continue;
+            byDay.computeIfAbsent(r.getMeasuredAt().toLocalDate(), d -> new DailyDelta()).add(r);
+        }
+        if (byDay.isEmpty()) return;
+
+        List<Object[]> args = new ArrayList<>(byDay.size());
+        for (Map.Entry<LocalDate, DailyDelta> e : byDay.entrySet()) {
+            args.add(e.getValue().toArgs(userPkId, e.getKey()));
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, args, args.size(), DailyRollupRowSetter::set);
+    }
+
+    /**
+     * [from, to] 기간의 일별 요약을 원본 기록에서 다시 만든다 (전체 사용자)
+     */
+    @Transactional
+    public int rebuild(LocalDate from, LocalDate to) {
+        jdbcTemplate.update("DELETE FROM user_health_daily WHERE day BETWEEN ? AND ?",
+                Date.valueOf(from), Date.valueOf(to));
+        int rows = jdbcTemplate.update(REBUILD_INSERT_SQL,
+                Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        int archived = rebuildFromArchive(from, to);
+        log.info("[DailyRollup] rebuilt {} rows for {} ~ {} ({} archived block(s) applied)", rows, from, to, archived);
+        return rows;
+    }
+
+    /**
+     * 콜드 티어로 옮겨진 기록도 같은 기간이면 블록을 풀어 apply()로 합침 (핫 행과 같은 날짜면 UPSERT로 병합)
+     * @return 반영한 블록 수
+     */
+    private int rebuildFromArchive(LocalDate from, LocalDate to) {
+        int[] blocks = {0};
+        jdbcTemplate.query("SELECT user_id, payload FROM user_health_record_archive WHERE month >= ? AND month <= ?",
+                rs -> {
+                    List<UserHealthRecord> inRange = new ArrayList<>();
+                    for (UserHealthRecord r : VitalsArchiveCodec.decode(rs.getBytes(2))) {
+                        LocalDate day = r.getMeasuredAt().toLocalDate();
+                        if (!day.isBefore(from) && !day.isAfter(to)) inRange.add(r);
+                    }
+                    apply(rs.getLong(1), inRange);
+                    blocks[0]++;
+                },
+                Date.valueOf(from.withDayOfMonth(1)), Date.valueOf(to));
+        return blocks[0];
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildDaysOnStartup <= 0) return;
+        LocalDate today = LocalDate.now();
+        rebuild(today.minusDays(rebuildDaysOnStartup - 1L), today);
+    }
+
+    // 저장된 "마지막" 시각보다 새 값이 같거나 늦을 때만 last 값을 교체 (오프라인 재전송 순서 역전 대비)
+    private static String newerThanStored(String atColumn) {
+        return "EXCLUDED." + atColumn + " IS NOT NULL AND (d." + atColumn + " IS NULL OR EXCLUDED."
+                + atColumn + " >= d." + atColumn + ")";
+    }
+
+    /**
+     * 하루치 증분 (같은 날짜 기록을 Java에서 먼저 합쳐 UPSERT 1회로 반영)
+     */
+    private static final class DailyDelta {
+        Long glucoseLast; LocalDateTime glucoseLastAt; Long glucoseMin; Long glucoseMax; long glucoseCount;
+        Long bpSysLast; Long bpDiaLast; LocalDateTime bpLastAt;
+        Long bpSysMin; Long bpSysMax; Long bpDiaMin; Long bpDiaMax; long bpCount;
+        Double ecgRiskLast; Boolean ecgAbnormalLast; LocalDateTime ecgLastAt;
+        Double ecgRiskMin; Double ecgRiskMax; long ecgCount;
+
+        void add(UserHealthRecord r) {
+            LocalDateTime t = r.getMeasuredAt();
+
+            if (r.getGlucose() != null) {
+                long g = r.getGlucose();
+                if (glucoseLastAt == null || !t.isBefore(glucoseLastAt)) {
+                    glucoseLast = g;
+                    glucoseLastAt = t;
+                }
+                glucoseMin = glucoseMin == null ? g : Math.min(glucoseMin, g);
+                glucoseMax = glucoseMax == null ? g : Math.max(glucoseMax, g);
+                glucoseCount++;
+            }
+
+            if (r.getBpSys() != null && r.getBpDia() != null) {
+                long sys = r.getBpSys();
+                long dia = r.getBpDia();
+                if (bpLastAt == null || !t.isBefore(bpLastAt)) {
+                    bpSysLast = sys;
+                    bpDiaLast = dia;
+                    bpLastAt = t;
+                }
+                bpSysMin = bpSysMin == null ? sys : Math.min(bpSysMin, sys);
+                bpSysMax = bpSysMax == null ? sys : Math.max(bpSysMax, sys);
+                bpDiaMin = bpDiaMin == null ? dia : Math.min(bpDiaMin, dia);
+                bpDiaMax = bpDiaMax == null ? dia : Math.max(bpDiaMax, dia);
+                bpCount++;
+            }
+
+            if (r.getEcgRiskScore() != null || Boolean.TRUE.equals(r.getEcgAbnormal()) || r.getHeartRate() != null) {
+                Double risk = r.getEcgRiskScore();
+                if (ecgLastAt == null || !t.isBefore(ecgLastAt)) {
+                    ecgRiskLast = risk;
+                    ecgAbnormalLast = r.getEcgAbnormal();
+                    ecgLastAt = t;
+                }
+                if (risk != null) {
+                    ecgRiskMin = ecgRiskMin == null ? risk : Math.min(ecgRiskMin, risk);
+                    ecgRiskMax = ecgRiskMax == null ? risk : Math.max(ecgRiskMax, risk);
+                }
+                ecgCount++;
+            }
+        }
+
+        Object[] toArgs(Long userPkId, LocalDate day) {
+            return new Object[]{
+                    userPkId, day,
+                    glucoseLast, glucoseLastAt, glucoseMin, glucoseMax, glucoseCount,
+                    bpSysLast, bpDiaLast, bpLastAt, bpSysMin, bpSysMax, bpDiaMin, bpDiaMax, bpCount,
+                    ecgRiskLast, ecgAbnormalLast, ecgLastAt, ecgRiskMin, ecgRiskMax, ecgCount
+            };
+        }
+    }
+
+    /**
+     * NULL도 컬럼 타입을 명시해서 바인딩 (PostgreSQL은 타입 없는 NULL 파라미터를 거부할 수 있음)
+     */
+    private static final class DailyRollupRowSetter {
+        private static final int[] TYPES = {
+                Types.BIGINT, Types.DATE,
+                Types.BIGINT, Types.TIMESTAMP, Types.BIGINT, Types.BIGINT, Types.BIGINT,
+                Types.BIGINT, Types.BIGINT, Types.TIMESTAMP, Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.BIGINT,
+                Types.DOUBLE, Types.BOOLEAN, Types.TIMESTAMP, Types.DOUBLE, Types.DOUBLE, Types.BIGINT
+        };
+
+        static void set(PreparedStatement ps, Object[] args) throws SQLException {
+            for (int i = 0; i < args.length; i++) {
+                Object v = args[i];
+                if (v == null) {
+                    ps.setNull(i + 1, TYPES[i]);
+                } else if (v instanceof LocalDate d) {
+                    ps.setDate(i + 1, Date.valueOf(d));
+                } else if (v instanceof LocalDateTime t) {
+                    ps.setTimestamp(i + 1, Timestamp.valueOf(t));
+                } else {
+                    ps.setObject(i + 1, v, TYPES[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.UserHealthRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 오래된 측정 기록을 콜드 티어(user_health_record_archive)로 이관
+ * - minAgeDays보다 오래된 "완결된 월"만 대상 — 환자 × 월 단위로 VitalsArchiveCodec 블록 1개
+ * - 그룹마다 별도 트랜잭션: 환자 요약(user_health_info) 행 잠금 → 원본 행 잠금 → (기존 블록과 병합) 인코딩/UPSERT → 원본 삭제
+ *   (요약 행 잠금은 측정 저장/누적 합계 검증과 같은 잠금 — 검증이 핫/보관 합계를 읽는 사이에 기록이 옮겨지지 않음)
+ * - 이관 후 비게 된 과거 월 파티션은 DROP (DELETE만으로는 디스크 공간이 돌아오지 않음)
+ *
+ * 조회는 VitalsRecordReader가 두 티어를 합쳐서 처리한다.
+ * 보관 블록에는 레코드 id와 평균 대비 차이(*_diff_from_avg)가 남지 않으며,
+ * 이상 이벤트 조회(/api/vitals/anomalies)는 핫 티어만 대상으로 한다.
+ */
+@Slf4j
+@Service
+public class UserHealthRecordArchiveService {
+
+    private static final String GROUPS_SQL = """
+            SELECT user_id, CAST(date_trunc('month', measured_at) AS DATE) AS month
+            FROM user_health_records
+            WHERE measured_at < ?
+            GROUP BY 1, 2
+            ORDER BY 2, 1
+            LIMIT ?
+            """;
+
+    private static final String SELECT_GROUP_SQL = "SELECT id, pg_column_size(r.*) AS row_bytes, "
+            + VitalsRecordReader.COLUMNS + """
+
+            FROM user_health_records r
+            WHERE user_id = ? AND measured_at >= ? AND measured_at < ?
+            ORDER BY measured_at ASC, id ASC
+            FOR UPDATE
+            """;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO user_health_record_archive (user_id, month, record_count, first_measured_at, last_measured_at,
+                bp_count, bp_sys_sum, bp_dia_sum, glucose_count, glucose_sum, raw_bytes, payload, archived_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, now())
+            ON CONFLICT (user_id, month) DO UPDATE SET
+                record_count = EXCLUDED.record_count,
+                first_measured_at = EXCLUDED.first_measured_at,
+                last_measured_at = EXCLUDED.last_measured_at,
+                bp_count = EXCLUDED.bp_count,
+                bp_sys_sum = EXCLUDED.bp_sys_sum,
+                bp_dia_sum = EXCLUDED.bp_dia_sum,
+                glucose_count = EXCLUDED.glucose_count,
+                glucose_sum = EXCLUDED.glucose_sum,
+                raw_bytes = EXCLUDED.raw_bytes,
+                payload = EXCLUDED.payload,
+                archived_at = EXCLUDED.archived_at
+            """;
+
+    private static final String TOTALS_SQL = """
+            SELECT COALESCE(SUM(bp_count), 0), COALESCE(SUM(bp_sys_sum), 0), COALESCE(SUM(bp_dia_sum), 0),
+                   COALESCE(SUM(glucose_count), 0), COALESCE(SUM(glucose_sum), 0)
+            FROM user_health_record_archive WHERE user_id = ?
+            """;
+
+    public record ArchiveResult(int blocks, long rows, long rawBytes, long compressedBytes) {}
+
+    private record Existing(byte[] payload, long rawBytes) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserHealthRecordPartitionService partitionService;
+    private final int minAgeDays;
+    private final int batchSize;
+    private final Counter rowsCounter;
+    private final Counter rawBytesCounter;
+    private final Counter compressedBytesCounter;
+
+    public UserHealthRecordArchiveService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            UserHealthRecordPartitionService partitionService,
+            MeterRegistry meterRegistry,
+            @Value("${vitals.archive.min-age-days:180}") int minAgeDays,
+            @Value("${vitals.archive.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.partitionService = partitionService;
+        this.minAgeDays = minAgeDays;
+        this.batchSize = batchSize;
+        this.rowsCounter = Counter.builder("vitals.archive.rows")
+                .description("Vitals records moved to the cold tier")
+                .register(meterRegistry);
+        this.rawBytesCounter = Counter.builder("vitals.archive.bytes")
+                .description("Size of archived vitals data")
+                .tag("form", "raw")
+                .register(meterRegistry);
+        this.compressedBytesCounter = Counter.builder("vitals.archive.bytes")
+                .description("Size of archived vitals data")
+                .tag("form", "compressed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 보관 기준 월 이전의 기록을 모두 블록으로 옮긴다 (batchSize 그룹씩 반복)
+     */
+    public ArchiveResult archiveOldRecords() {
+        // 기준 시각이 속한 월은 아직 보관하지 않음 → 블록은 항상 한 달 전체를 담음
+        LocalDate cutoff = LocalDate.now().minusDays(minAgeDays).withDayOfMonth(1);
+
+        int blocks = 0;
+        long rows = 0;
+        long rawBytes = 0;
+        long compressedBytes = 0;
+        while (true) {
+            List<Object[]> groups = jdbcTemplate.query(GROUPS_SQL,
+                    (rs, i) -> new Object[]{rs.getLong(1), rs.getDate(2).toLocalDate()},
+                    Timestamp.valueOf(cutoff.atStartOfDay()), batchSize);
+            for (Object[] g : groups) {
+                long[] moved = transactionTemplate.execute(status -> archiveMonth((Long) g[0], (LocalDate) g[1]));
+                blocks++;
+                rows += moved[0];
+                rawBytes += moved[1];
+                compressedBytes += moved[2];
+            }
+            if (groups.size() < batchSize) break;
+        }
+
+        int dropped = partitionService.dropEmptyPartitionsBefore(YearMonth.from(cutoff));
+        if (rows > 0 || dropped > 0) {
+            log.info("[Archive] blocks={}, rows={}, raw={}B, compressed={}B ({}%), droppedPartitions={}",
+                    blocks, rows, rawBytes, compressedBytes,
+                    rawBytes == 0 ? 0 : Math.round(100.0 * compressedBytes / rawBytes), dropped);
+        }
+        return new ArchiveResult(blocks, rows, rawBytes, compressedBytes);
+    }
+
+    /**
+     * 환자의 보관 블록 합계 [bpCount, bpSysSum, bpDiaSum, glucoseCount, glucoseSum] (running total 검증용)
+     */
+    public long[] archivedTotals(Long userPkId) {
+        return jdbcTemplate.queryForObject(TOTALS_SQL, (rs, i) -> new long[]{
+                rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5)
+        }, userPkId);
+    }
+
+    /**
+     * @return [이관한 행 수, 원본 크기, 블록 크기 증가분]
+     */
+    private long[] archiveMonth(Long userPkId, LocalDate month) {
+        LocalDateTime from = month.atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atStartOfDay();
+
+        // UserHealthRepository.findByUserForUpdate와 같은 행 잠금 (잠금 순서: 요약 행 → 기록 행, 저장 경로와 동일)
+        jdbcTemplate.query("SELECT 1 FROM user_health_info WHERE user_id = ? FOR UPDATE", rs -> {}, userPkId);
+
+        List<Long> ids = new ArrayList<>();
+        long[] rawBytes = {0};
+        List<UserHealthRecord> records = new ArrayList<>();
+        jdbcTemplate.query(SELECT_GROUP_SQL, rs -> {
+            ids.add(rs.getLong("id"));
+            rawBytes[0] += rs.getLong("row_bytes");
+            records.add(VitalsRecordReader.map(rs));
+        }, userPkId, Timestamp.valueOf(from), Timestamp.valueOf(to));
+        if (records.isEmpty()) {
+            return new long[]{0, 0, 0};
+        }
+
+        // 이미 보관된 월이면 (보관 후 늦게 도착한 측정) 기존 블록과 합쳐 다시 인코딩
+        List<Existing> existing = jdbcTemplate.query(
+                "SELECT payload, raw_bytes FROM user_health_record_archive WHERE user_id = ? AND month = ? FOR UPDATE",
+                (rs, i) -> new Existing(rs.getBytes(1), rs.getLong(2)),
+                userPkId, Date.valueOf(month));
+        long previousSize = 0;
+        long previousRaw = 0;
+        if (!existing.isEmpty()) {
+            previousSize = existing.get(0).payload().length;
+            previousRaw = existing.get(0).rawBytes();
+            List<UserHealthRecord> merged = VitalsArchiveCodec.decode(existing.get(0).payload());
+            merged.addAll(records);
+            // 안정 정렬 — 같은 시각이면 기존 블록 기록이 앞
+            merged.sort(Comparator.comparing(UserHealthRecord::getMeasuredAt));
+            records.clear();
+            records.addAll(merged);
+        }
+
+        long bpCount = 0, bpSysSum = 0, bpDiaSum = 0, glucoseCount = 0, glucoseSum = 0;
+        for (UserHealthRecord r : records) {
+            if (r.getBpSys() != null && r.getBpDia() != null) {
+                bpCount++;
+                bpSysSum += r.getBpSys();
+                bpDiaSum += r.getBpDia();
+            }
+            if (r.getGlucose() != null) {
+                glucoseCount++;
+                glucoseSum += r.getGlucose();
+            }
+        }
+
+        byte[] payload = VitalsArchiveCodec.encode(records);
+        jdbcTemplate.update(UPSERT_SQL,
+                userPkId, Date.valueOf(month), records.size(),
+                Timestamp.valueOf(records.get(0).getMeasuredAt()),
+                Timestamp.valueOf(records.get(records.size() - 1).getMeasuredAt()),
+                bpCount, bpSysSum, bpDiaSum, glucoseCount, glucoseSum,
+                previousRaw + rawBytes[0], payload);
+
+        int deleted = jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("DELETE FROM user_health_records "
+                    + "WHERE user_id = ? AND measured_at >= ? AND measured_at < ? AND id = ANY(?)");
+            Array idArray = con.createArrayOf("bigint", ids.toArray());
+            ps.setLong(1, userPkId);
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+            ps.setArray(4, idArray);
+            return ps;
+        });
+        if (deleted != ids.size()) {
+            // FOR UPDATE로 잠근 행이므로 발생하면 안 됨 — 블록 저장까지 함께 롤백
+            throw new IllegalStateException("archived " + ids.size() + " rows but deleted " + deleted);
+        }
+
+        long compressedDelta = payload.length - previousSize;
+        rowsCounter.increment(deleted);
+        rawBytesCounter.increment(rawBytes[0]);
+        compressedBytesCounter.increment(compressedDelta);
+        return new long[]{deleted, rawBytes[0], compressedDelta};
+    }
+}
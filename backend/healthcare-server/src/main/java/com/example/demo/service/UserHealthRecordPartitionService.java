@@ -0,0 +1,132 @@
+package com.example.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * user_health_records 월별 파티션 사전 생성 (V7 마이그레이션 참고)
+ * - 현재 월부터 monthsAhead개월 뒤까지 파티션이 없으면 만든다.
+ * - 기동 시 1회 + 스케줄러(UserHealthRecordPartitionScheduler)에서 주기 실행
+ * - 콜드 티어 이관(UserHealthRecordArchiveService) 후 비게 된 과거 월 파티션은 삭제
+ */
+@Slf4j
+@Service
+public class UserHealthRecordPartitionService {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+
+    public UserHealthRecordPartitionService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${vitals.partition.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.monthsAhead = monthsAhead;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureOnStartup() {
+        ensureFuturePartitions();
+    }
+
+    /**
+     * @return 새로 만든 파티션 수
+     */
+    public int ensureFuturePartitions() {
+        YearMonth current = YearMonth.now();
+        int created = 0;
+        for (int i = 0; i <= monthsAhead; i++) {
+            if (createIfMissing(current.plusMonths(i))) created++;
+        }
+        if (created > 0) {
+            log.info("[Partition] created {} user_health_records partition(s) up to {}", created, current.plusMonths(monthsAhead));
+        }
+        return created;
+    }
+
+    /**
+     * before 이전 월의 파티션 중 비어 있는 것을 삭제 (콜드 티어 이관 후 디스크 회수)
+     * DEFAULT 파티션은 대상이 아님 — 삭제된 월에 늦게 도착한 측정은 DEFAULT에 들어갔다가 다음 이관 때 옮겨진다.
+     * @return 삭제한 파티션 수
+     */
+    public int dropEmptyPartitionsBefore(YearMonth before) {
+        List<String> names = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                WHERE p.relname = 'user_health_records' AND c.relname ~ '^user_health_records_y[0-9]{4}m[0-9]{2}$'
+                """, String.class);
+        int dropped = 0;
+        for (String name : names) {
+            YearMonth month = YearMonth.parse(name.substring("user_health_records_".length()), SUFFIX);
+            if (!month.isBefore(before)) continue;
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> dropIfEmpty(name)))) {
+                    dropped++;
+                }
+            } catch (Exception e) {
+                // 잠금 대기 시간 초과 등 — 다음 이관 때 다시 시도
+                log.warn("[Partition] skipped dropping {}: {}", name, e.getMessage());
+            }
+        }
+        if (dropped > 0) {
+            log.info("[Partition] dropped {} empty user_health_records partition(s) before {}", dropped, before);
+        }
+        return dropped;
+    }
+
+    /**
+     * 파티션을 ACCESS EXCLUSIVE로 잠근 뒤 비어 있는지 다시 확인하고 삭제 (호출한 트랜잭션 안에서)
+     * - 확인과 삭제 사이에 늦게 도착한 측정이 커밋되어 테이블과 함께 사라지는 것을 막음
+     * - 잠금 대기 중에는 해당 월 INSERT도 막히므로 lock_timeout으로 오래 기다리지 않음
+     */
+    private boolean dropIfEmpty(String name) {
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '5s'");
+        jdbcTemplate.execute("LOCK TABLE " + name + " IN ACCESS EXCLUSIVE MODE");
+        Boolean empty = jdbcTemplate.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM " + name + ")", Boolean.class);
+        if (!Boolean.TRUE.equals(empty)) {
+            return false;
+        }
+        jdbcTemplate.execute("DROP TABLE " + name);
+        return true;
+    }
+
+    public static String partitionName(YearMonth month) {
+        return "user_health_records_" + month.format(SUFFIX);
+    }
+
+    private boolean createIfMissing(YearMonth month) {
+        String name = partitionName(month);
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+        if (Boolean.TRUE.equals(exists)) {
+            return false;
+        }
+
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        try {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name
+                    + " PARTITION OF user_health_records FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+            return true;
+        } catch (Exception e) {
+            // DEFAULT 파티션에 이미 해당 월 데이터가 있으면 생성 불가 → 수동 이관 필요
+            log.error("[Partition] failed to create {}: {}", name, e.getMessage());
+            return false;
+        }
+    }
+}
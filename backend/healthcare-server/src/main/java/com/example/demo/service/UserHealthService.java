@@ -1,197 +1,385 @@
 package com.example.demo.service;
 
 import com.example.demo.dto.CreateHealthRecordRequest;
+import com.example.demo.dto.InsightsResponse;
+import com.example.demo.dto.VitalReadingRequest;
+import com.example.demo.dto.VitalsBatchResponse;
+import com.example.demo.dto.auth.UserHealthResponse;
 import com.example.demo.entity.User;
 import com.example.demo.entity.UserHealth;
+import com.example.demo.entity.UserHealthDaily;
 import com.example.demo.entity.UserHealthRecord;
+import com.example.demo.repository.UserHealthDailyRepository;
 import com.example.demo.repository.UserHealthRecordRepository;
 import com.example.demo.repository.UserHealthRepository;
 import com.example.demo.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.util.List;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 public class UserHealthService {
 
+    // 기기 시계 오차 허용 범위 (measuredAt이 서버 시각보다 이만큼까지는 앞서도 허용)
+    private static final Duration MAX_CLOCK_SKEW = Duration.ofMinutes(5);
+
     private final UserRepository userRepository;
     private final UserHealthRepository userHealthRepository; // 요약 정보
     private final UserHealthRecordRepository userHealthRecordRepository; // 기록 로그
     private final NotificationService notificationService;
+    private final UserHealthDailyRepository userHealthDailyRepository; // 일별 요약 조회
+    private final UserHealthDailyRollupService dailyRollupService; // 일별 요약 갱신
+    private final VitalsQueryCache vitalsQueryCache;
+    private final VitalsRuleEngine vitalsRuleEngine; // 환자별 이상 판정 기준
+    private final VitalsBaselineDetector baselineDetector; // 개인 기준선 이탈 판정
+    private final VitalsRecordReader vitalsRecordReader; // 보관(콜드 티어) 기록 조회
+
+    // 이보다 오래된 측정의 이상 알림은 지연 측정으로 표시 (flagIfStale)
+    @Value("${vitals.alert.fresh-minutes:60}")
+    private long alertFreshMinutes;
+
+    // 핫 테이블 조회 하한 — 이보다 오래된 월은 콜드 티어로 이관됨 (findLatestRecord fallback)
+    @Value("${vitals.archive.min-age-days:180}")
+    private int archiveMinAgeDays;
 
+    /**
+     * @return 저장된 측정 기록 (id, measuredAt 확정)
+     */
     @Transactional
-public void saveHealthRecord(CreateHealthRecordRequest req) {
-
-    User user = userRepository.findByUserId(req.getUserId())
-            .orElseThrow(() -> new RuntimeException("User not found"));
-
-    UserHealth userHealth = userHealthRepository.findByUser(user)
-            .orElseGet(() -> {
-                UserHealth newHealth = new UserHealth();
-                newHealth.setUser(user);
-                return userHealthRepository.save(newHealth);
-            });
-
-    UserHealthRecord record = new UserHealthRecord();
-    record.setUser(user);
-
-    // --------------------
-    // 1) 혈압 저장
-    // --------------------
-    if (req.getBpSys() != null && req.getBpDia() != null) {
-        record.setBpSys(req.getBpSys());
-        record.setBpDia(req.getBpDia());
-
-        if (userHealth.getAvgBpSys() != null && userHealth.getAvgBpDia() != null) {
-            record.setBpSysDiffFromAvg((double) (req.getBpSys() - userHealth.getAvgBpSys()));
-            record.setBpDiaDiffFromAvg((double) (req.getBpDia() - userHealth.getAvgBpDia()));
-        }
-
-        if (req.getBpSys() >= 140 || req.getBpDia() >= 90) {
-            record.setBpAbnormal(true);
-            appendAnomaly(record, "HIGH_BP", "고혈압 기준치 초과");
-        } else if (req.getBpSys() < 90 || req.getBpDia() < 60) {
-            record.setBpAbnormal(true);
-            appendAnomaly(record, "LOW_BP", "저혈압 기준치 미만");
-        } else {
-            record.setBpAbnormal(false);
+    public UserHealthRecord saveHealthRecord(CreateHealthRecordRequest req) {
+
+        User user = userRepository.findByUserId(req.getUserId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        validateMeasuredAt(List.of(req));
+
+        UserHealth userHealth = loadSummaryForUpdate(user);
+        VitalsRuleSet rules = vitalsRuleEngine.rulesFor(user.getId());
+        // 고정 기준치 + 개인 기준선 (기준선은 UserHealth에서 바로 갱신, 추가 조회 없음)
+        int anomalies = rules.classify(req) | baselineDetector.observe(userHealth, req);
+        UserHealthRecord record = buildRecord(user, userHealth, req, anomalies);
+
+        // 저장
+        userHealthRecordRepository.save(record);
+
+        // 요약 업데이트
+        updateUserHealthSummary(userHealth, req, record.getMeasuredAt());
+        dailyRollupService.apply(user.getId(), List.of(record));
+        vitalsQueryCache.evictAfterCommit(user.getId());
+
+        // ✅ 이상값 종류별로 각각 알림 예약 (복수 이상값 모두 전달)
+        // 같은 트랜잭션에 아웃박스 행만 기록 → 보호자 fan-out은 HealthAlertOutboxDispatcher가 처리
+        if (anomalies != 0) {
+            for (VitalAnomaly anomaly : VitalAnomaly.all()) {
+                if (anomaly.alerts() && anomaly.in(anomalies)) {
+                    String message = flagIfStale(rules.alertMessage(anomaly, req), record.getMeasuredAt());
+                    notificationService.enqueueEmergencyAlert(user, record, anomaly.alertTitle(), message, "HEALTH_ANOMALY");
+                }
+            }
         }
+        return record;
     }
 
-    // --------------------
-    // 2) 혈당 저장
-    // --------------------
-    if (req.getGlucose() != null) {
-        record.setGlucose(req.getGlucose());
+    /**
+     * 저장된 측정 기록에 원본 ECG 윈도우 연결 (EcgRecordService — 기록이 만들어진 뒤에만 윈도우를 저장하므로 별도 UPDATE)
+     */
+    @Transactional
+    public void attachEcgWindow(UserHealthRecord record, long windowRef) {
+        userHealthRecordRepository.updateEcgWindowRef(record.getId(), record.getMeasuredAt(), windowRef);
+        vitalsQueryCache.evictAfterCommit(record.getUser().getId());
+    }
+
+    /**
+     * 오프라인 버퍼링된 측정값 일괄 저장
+     * - 전체 항목을 먼저 검증한 뒤 저장 (하나라도 잘못되면 전체 거부)
+     * - 기록은 saveAll로 JDBC 배치 INSERT, 요약(UserHealth)은 배치당 1회만 갱신
+     * - 알림은 이상 종류별로 최대 1건 (가장 최근 측정값 기준 + 건수), 아웃박스로 비동기 발송
+     */
+    @Transactional
+    public VitalsBatchResponse saveHealthRecordBatch(String userId, List<VitalReadingRequest> readings) {
+
+        User user = userRepository.findByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        validateMeasuredAt(readings);
+
+        // 측정 시각 순으로 처리 (개인 기준선/알림 병합 순서) — last* 값은 저장된 최근 측정 시각과도 비교해 갱신
+        LocalDateTime receivedAt = LocalDateTime.now();
+        List<VitalReadingRequest> ordered = new ArrayList<>(readings);
+        ordered.sort(Comparator.comparing(r -> r.getMeasuredAt() != null ? r.getMeasuredAt() : receivedAt));
+
+        UserHealth userHealth = loadSummaryForUpdate(user);
+        VitalsRuleSet rules = vitalsRuleEngine.rulesFor(user.getId());
 
-        if (userHealth.getAvgGlucose() != null) {
-            record.setGlucoseDiffFromAvg((double) (req.getGlucose() - userHealth.getAvgGlucose()));
+        // 평균 대비 차이는 배치 시작 시점의 개인 평균 기준
+        List<UserHealthRecord> records = new ArrayList<>(ordered.size());
+        int[] anomalies = new int[ordered.size()];
+        // 개인 기준선은 측정 순서대로 판정 → 갱신 (누적 건수도 같은 순서로 증가, avg*는 루프 이후에 반영)
+        for (int i = 0; i < ordered.size(); i++) {
+            VitalReadingRequest r = ordered.get(i);
+            anomalies[i] = rules.classify(r) | baselineDetector.observe(userHealth, r);
+            UserHealthRecord record = buildRecord(user, userHealth, r, anomalies[i]);
+            records.add(record);
+            accumulateSummary(userHealth, r, record.getMeasuredAt());
         }
+        userHealthRecordRepository.saveAll(records);
 
-        if (req.getGlucose() >= 200) {
-            record.setGlucoseAbnormal(true);
-            appendAnomaly(record, "HIGH_GLUCOSE", "혈당 기준치 초과");
-        } else if (req.getGlucose() <= 70) {
-            record.setGlucoseAbnormal(true);
-            appendAnomaly(record, "LOW_GLUCOSE", "혈당 기준치 미만");
-        } else {
-            record.setGlucoseAbnormal(false);
+        applyAverages(userHealth);
+        userHealthRepository.save(userHealth);
+        dailyRollupService.apply(user.getId(), records);
+        vitalsQueryCache.evictAfterCommit(user.getId());
+
+        // 이상 종류별 (가장 최근 측정값 위치, 건수) 병합 — VitalAnomaly 순서로 인덱싱
+        VitalAnomaly[] types = VitalAnomaly.all();
+        int[] latestByType = new int[types.length];
+        int[] countByType = new int[types.length];
+        int abnormal = 0;
+        for (int i = 0; i < anomalies.length; i++) {
+            int mask = anomalies[i];
+            if (mask == 0) continue;
+            abnormal++;
+            for (VitalAnomaly anomaly : types) {
+                if (anomaly.alerts() && anomaly.in(mask)) {
+                    latestByType[anomaly.ordinal()] = i; // 측정 시각 오름차순이므로 마지막 값이 가장 최근
+                    countByType[anomaly.ordinal()]++;
+                }
+            }
         }
-    }
 
-    // --------------------
-    // 3) ✅ ECG 저장 (추가!)
-    // --------------------
-    if (req.getHeartRate() != null) {
-        record.setHeartRate(req.getHeartRate());
-    }
-    if (req.getEcgRiskScore() != null) {
-        record.setEcgRiskScore(req.getEcgRiskScore());
-    }
-    if (req.getEcgAbnormal() != null) {
-        record.setEcgAbnormal(req.getEcgAbnormal());
-    }
-    if (req.getEcgAnomalyType() != null) {
-        record.setEcgAnomalyType(req.getEcgAnomalyType());
-    }
+        List<String> alertTypes = new ArrayList<>();
+        for (VitalAnomaly anomaly : types) {
+            int count = countByType[anomaly.ordinal()];
+            if (count == 0) continue;
+            int latest = latestByType[anomaly.ordinal()];
+            String message = rules.alertMessage(anomaly, ordered.get(latest));
+            if (count > 1) {
+                message += String.format(" (%d abnormal readings in this upload)", count);
+            }
+            message = flagIfStale(message, records.get(latest).getMeasuredAt());
+            notificationService.enqueueEmergencyAlert(user, records.get(latest), anomaly.alertTitle(), message, "HEALTH_ANOMALY");
+            alertTypes.add(anomaly.name());
+        }
 
-    if (Boolean.TRUE.equals(record.getEcgAbnormal())) {
-        appendAnomaly(record, "ECG_ABNORMAL", "ECG 이상 감지");
+        return new VitalsBatchResponse(records.size(), abnormal, alertTypes);
     }
 
-    // --------------------
-    // 4) ✅ overallAbnormal 계산 (추가!)
-    // --------------------
-    boolean overall =
-            Boolean.TRUE.equals(record.getBpAbnormal())
-            || Boolean.TRUE.equals(record.getGlucoseAbnormal())
-            || Boolean.TRUE.equals(record.getEcgAbnormal());
-    record.setOverallAbnormal(overall);
-
-    // 저장
-    userHealthRecordRepository.save(record);
-
-    // 요약 업데이트
-    updateUserHealthSummary(user, userHealth, req);
-
-    // ✅ 이상값 종류별로 각각 알림 발송 (복수 이상값 모두 전달)
-    if (Boolean.TRUE.equals(record.getBpAbnormal())) {
-        String type = (req.getBpSys() >= 140 || req.getBpDia() >= 90) ? "HIGH_BP" : "LOW_BP";
-        notificationService.sendEmergencyAlert(user, buildAlertTitle(type), buildAlertMessage(type, req), "HEALTH_ANOMALY");
+    /**
+     * /api/vitals/summary 조회 (VitalsQueryCache miss 시 호출)
+     * @return 요약/기록이 모두 없으면 null
+     */
+    @Transactional(readOnly = true)
+    public UserHealthResponse loadSummary(Long userPkId) {
+        UserHealth userHealth = userHealthRepository.findByUser_Id(userPkId).orElse(null);
+        UserHealthRecord latest = findLatestRecord(userPkId);
+
+        if (userHealth == null && latest == null) {
+            return null;
+        }
+        return new UserHealthResponse(userHealth, latest);
     }
-    if (Boolean.TRUE.equals(record.getGlucoseAbnormal())) {
-        String type = req.getGlucose() >= 200 ? "HIGH_GLUCOSE" : "LOW_GLUCOSE";
-        notificationService.sendEmergencyAlert(user, buildAlertTitle(type), buildAlertMessage(type, req), "HEALTH_ANOMALY");
+
+    /**
+     * 최신 측정 기록 — 일별 요약의 마지막 측정일로 범위를 좁혀 월 파티션 하나만 조회
+     * (일별 요약이 없거나 그날 기록이 없으면 보관 기준 월 ~ 마지막 측정일 범위로,
+     *  핫 테이블에 없으면 보관 블록으로 fallback — 어느 단계도 전체 파티션을 스캔하지 않음)
+     */
+    private UserHealthRecord findLatestRecord(Long userPkId) {
+        Optional<UserHealthDaily> lastDay = userHealthDailyRepository.findTopByUser_IdOrderByDayDesc(userPkId);
+        LocalDateTime end = LocalDate.now().plusDays(1).atStartOfDay();
+        if (lastDay.isPresent()) {
+            LocalDate day = lastDay.get().getDay();
+            Optional<UserHealthRecord> latest = userHealthRecordRepository
+                    .findTopByUser_IdAndMeasuredAtGreaterThanEqualAndMeasuredAtLessThanOrderByMeasuredAtDesc(
+                            userPkId, day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+            if (latest.isPresent()) {
+                return latest.get();
+            }
+            // 저장 시 일별 요약도 함께 갱신되므로 그 이후 날짜에는 기록이 없음
+            end = day.atStartOfDay();
+        }
+        // 보관 스케줄러가 옮기는 월(UserHealthRecordArchiveService와 같은 기준) 이전은 콜드 티어에서 조회
+        LocalDateTime start = LocalDate.now().minusDays(archiveMinAgeDays).withDayOfMonth(1).atStartOfDay();
+        if (!start.isBefore(end)) {
+            return vitalsRecordReader.findLatestArchived(userPkId);
+        }
+        return userHealthRecordRepository
+                .findTopByUser_IdAndMeasuredAtGreaterThanEqualAndMeasuredAtLessThanOrderByMeasuredAtDesc(
+                        userPkId, start, end)
+                .orElseGet(() -> vitalsRecordReader.findLatestArchived(userPkId));
     }
-    if (Boolean.TRUE.equals(record.getEcgAbnormal())) {
-        notificationService.sendEmergencyAlert(user, buildAlertTitle("ECG_ABNORMAL"), buildAlertMessage("ECG_ABNORMAL", req), "HEALTH_ANOMALY");
+
+    /**
+     * /api/vitals/insights 조회 (VitalsQueryCache miss 시 호출)
+     * 원본 기록 대신 일별 요약(최대 days행)만 조회
+     */
+    @Transactional(readOnly = true)
+    public InsightsResponse loadInsights(Long userPkId, int days) {
+        LocalDate end = LocalDate.now();
+        LocalDate start = end.minusDays(days - 1L);
+
+        List<UserHealthDaily> rows = userHealthDailyRepository
+                .findByUser_IdAndDayBetweenOrderByDayAsc(userPkId, start, end);
+
+        return InsightsResponse.fromDaily(rows, days);
     }
-}
 
+    private UserHealth loadSummaryForUpdate(User user) {
+        return userHealthRepository.findByUserForUpdate(user)
+                .orElseGet(() -> {
+                    UserHealth newHealth = new UserHealth();
+                    newHealth.setUser(user);
+                    return userHealthRepository.save(newHealth);
+                });
+    }
 
-    private void appendAnomaly(UserHealthRecord record, String type, String reason) {
-        if (record.getAnomalyType() == null) {
-            record.setAnomalyType(type);
-            record.setAnomalyReason(reason);
-        } else {
-            record.setAnomalyType(record.getAnomalyType() + "," + type);
-            record.setAnomalyReason(record.getAnomalyReason() + ", " + reason);
+    /**
+     * 기기 제공 측정 시각 검증 (전체 항목 1회 순회, 위반 항목을 모두 모아서 400)
+     */
+    private void validateMeasuredAt(List<? extends VitalReadingRequest> readings) {
+        LocalDateTime limit = LocalDateTime.now().plus(MAX_CLOCK_SKEW);
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < readings.size(); i++) {
+            LocalDateTime t = readings.get(i).getMeasuredAt();
+            if (t != null && t.isAfter(limit)) {
+                errors.add("readings[" + i + "].measuredAt: 미래 시각은 허용되지 않습니다");
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, String.join(", ", errors));
         }
     }
 
-    private void updateUserHealthSummary(User user, UserHealth userHealth, CreateHealthRecordRequest req) {
-        // 4-1. DB에서 해당 유저의 모든 기록 평균 다시 계산
-        // (데이터가 많아지면 '최근 30일' 등으로 조건 추가 권장)
-        
-        // 혈압 평균 갱신
-        if (req.getBpSys() != null) {
-            List<Object[]> avgBp = userHealthRecordRepository.findAverageBpByUserId(user.getId());
-            if (!avgBp.isEmpty() && avgBp.get(0)[0] != null) {
-                Double avgSys = (Double) avgBp.get(0)[0];
-                Double avgDia = (Double) avgBp.get(0)[1];
-                
-                userHealth.setAvgBpSys(Math.round(avgSys)); // 반올림해서 저장
-                userHealth.setAvgBpDia(Math.round(avgDia));
+    /**
+     * @param anomalies VitalsRuleSet.classify() 결과 — 플래그와 이상 종류/사유 문자열을 모두 여기서 채움
+     */
+    private UserHealthRecord buildRecord(User user, UserHealth userHealth, VitalReadingRequest req, int anomalies) {
+        UserHealthRecord record = new UserHealthRecord();
+        record.setUser(user);
+        record.setMeasuredAt(req.getMeasuredAt() != null ? req.getMeasuredAt() : LocalDateTime.now());
+
+        // --------------------
+        // 1) 혈압 저장
+        // --------------------
+        if (req.getBpSys() != null && req.getBpDia() != null) {
+            record.setBpSys(req.getBpSys());
+            record.setBpDia(req.getBpDia());
+
+            if (userHealth.getAvgBpSys() != null && userHealth.getAvgBpDia() != null) {
+                record.setBpSysDiffFromAvg((double) (req.getBpSys() - userHealth.getAvgBpSys()));
+                record.setBpDiaDiffFromAvg((double) (req.getBpDia() - userHealth.getAvgBpDia()));
             }
-            // 최근 값 갱신
-            userHealth.setLastBpSys(req.getBpSys());
-            userHealth.setLastBpDia(req.getBpDia());
+
+            record.setBpAbnormal((anomalies & VitalAnomaly.BP_MASK) != 0);
         }
 
-        // 혈당 평균 갱신
+        // --------------------
+        // 2) 혈당 저장
+        // --------------------
         if (req.getGlucose() != null) {
-            Double avgGlu = userHealthRecordRepository.findAverageGlucoseByUserId(user.getId());
-            if (avgGlu != null) {
-                userHealth.setAvgGlucose(Math.round(avgGlu));
+            record.setGlucose(req.getGlucose());
+
+            if (userHealth.getAvgGlucose() != null) {
+                record.setGlucoseDiffFromAvg((double) (req.getGlucose() - userHealth.getAvgGlucose()));
             }
+
+            record.setGlucoseAbnormal((anomalies & VitalAnomaly.GLUCOSE_MASK) != 0);
+        }
+
+        // --------------------
+        // 3) ✅ ECG 저장 (추가!)
+        // --------------------
+        if (req.getHeartRate() != null) {
+            record.setHeartRate(req.getHeartRate());
+        }
+        if (req.getEcgRiskScore() != null) {
+            record.setEcgRiskScore(req.getEcgRiskScore());
+        }
+        if (req.getEcgAbnormal() != null) {
+            record.setEcgAbnormal(req.getEcgAbnormal());
+        }
+        if (req.getEcgAnomalyType() != null) {
+            record.setEcgAnomalyType(req.getEcgAnomalyType());
         }
+        record.setHrvSdnnMs(req.getHrvSdnnMs());
+        record.setHrvRmssdMs(req.getHrvRmssdMs());
+
+        // --------------------
+        // 4) ✅ 이상 종류/사유, overallAbnormal (마스크 조합별 문자열 재사용)
+        //    overallAbnormal은 기준치 규칙 이상일 때만 true — 기준선 이탈은 anomalyType/anomalyMask에만 남김
+        // --------------------
+        record.setAnomalyType(VitalAnomaly.typeOf(anomalies));
+        record.setAnomalyReason(VitalAnomaly.reasonOf(anomalies));
+        record.setAnomalyMask(anomalies);
+        record.setOverallAbnormal((anomalies & VitalAnomaly.RULE_MASK) != 0);
+
+        return record;
+    }
+
+    private void updateUserHealthSummary(UserHealth userHealth, VitalReadingRequest req, LocalDateTime measuredAt) {
+        // 4-1. 누적 합계/건수에 이번 측정값만 더해 평균 갱신 (O(1))
+        // 전체 기록 AVG 재계산은 UserHealthSummaryVerificationService에서 주기적으로 검증용으로만 수행
+        accumulateSummary(userHealth, req, measuredAt);
+        applyAverages(userHealth);
 
         // 요약 테이블 저장 (UPDATE)
         userHealthRepository.save(userHealth);
     }
 
-    private String buildAlertTitle(String anomalyType) {
-        return switch (anomalyType) {
-            case "HIGH_BP"      -> "⚠️ High Blood Pressure Detected";
-            case "LOW_BP"       -> "⚠️ Low Blood Pressure Detected";
-            case "HIGH_GLUCOSE" -> "⚠️ High Blood Glucose Detected";
-            case "LOW_GLUCOSE"  -> "⚠️ Low Blood Glucose Detected";
-            case "ECG_ABNORMAL" -> "⚠️ Abnormal ECG Detected";
-            default             -> "⚠️ Abnormal Vital Signs Detected";
-        };
+    private void accumulateSummary(UserHealth userHealth, VitalReadingRequest req, LocalDateTime measuredAt) {
+        // 혈압 누적
+        if (req.getBpSys() != null) {
+            if (req.getBpDia() != null) {
+                userHealth.setBpCount(userHealth.getBpCount() + 1);
+                userHealth.setBpSysSum(userHealth.getBpSysSum() + req.getBpSys());
+                userHealth.setBpDiaSum(userHealth.getBpDiaSum() + req.getBpDia());
+            }
+            // 최근 값 갱신 — 저장된 최근 측정보다 같거나 늦을 때만 (오프라인 재전송된 과거 측정은 제외)
+            if (userHealth.getLastBpAt() == null || !measuredAt.isBefore(userHealth.getLastBpAt())) {
+                userHealth.setLastBpSys(req.getBpSys());
+                userHealth.setLastBpDia(req.getBpDia());
+                userHealth.setLastBpAt(measuredAt);
+            }
+        }
+
+        // 혈당 누적
+        if (req.getGlucose() != null) {
+            userHealth.setGlucoseCount(userHealth.getGlucoseCount() + 1);
+            userHealth.setGlucoseSum(userHealth.getGlucoseSum() + req.getGlucose());
+        }
+    }
+
+    /**
+     * 신선도 기준보다 오래된 측정(오프라인 재전송)의 알림은 현재 상태로 오해하지 않도록 측정 시각을 붙임
+     */
+    private String flagIfStale(String message, LocalDateTime measuredAt) {
+        if (measuredAt.isBefore(LocalDateTime.now().minusMinutes(alertFreshMinutes))) {
+            return message + " (measured at " + measuredAt.truncatedTo(ChronoUnit.MINUTES) + ", uploaded late)";
+        }
+        return message;
     }
 
-    private String buildAlertMessage(String anomalyType, CreateHealthRecordRequest req) {
-        return switch (anomalyType) {
-            case "HIGH_BP"      -> String.format("Blood pressure %d/%d mmHg exceeds normal range (≥140/90).", req.getBpSys(), req.getBpDia());
-            case "LOW_BP"       -> String.format("Blood pressure %d/%d mmHg is below normal range (<90/60).", req.getBpSys(), req.getBpDia());
-            case "HIGH_GLUCOSE" -> String.format("Blood glucose %d mg/dL exceeds normal range (≥200).", req.getGlucose());
-            case "LOW_GLUCOSE"  -> String.format("Blood glucose %d mg/dL is below normal range (≤70).", req.getGlucose());
-            case "ECG_ABNORMAL" -> "An abnormality was detected in the ECG reading. Please consult a healthcare provider.";
-            default             -> "Abnormal vital signs were recorded. Please check the health data.";
-        };
+    /**
+     * 누적 합계/건수로부터 avg* 컬럼을 다시 계산 (반올림해서 저장)
+     */
+    static void applyAverages(UserHealth userHealth) {
+        long bpCount = userHealth.getBpCount();
+        if (bpCount > 0) {
+            userHealth.setAvgBpSys(Math.round((double) userHealth.getBpSysSum() / bpCount));
+            userHealth.setAvgBpDia(Math.round((double) userHealth.getBpDiaSum() / bpCount));
+        }
+        long glucoseCount = userHealth.getGlucoseCount();
+        if (glucoseCount > 0) {
+            userHealth.setAvgGlucose(Math.round((double) userHealth.getGlucoseSum() / glucoseCount));
+        }
     }
-}
\ No newline at end of file
+}
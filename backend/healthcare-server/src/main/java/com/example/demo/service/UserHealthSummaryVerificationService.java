@@ -0,0 +1,133 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.UserHealth;
+import com.example.demo.repository.UserHealthRecordRepository;
+import com.example.demo.repository.UserHealthRepository;
+import com.example.demo.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * UserHealth의 누적 합계/건수(running total)가 전체 기록(핫 테이블 + 보관 블록 합계) 재집계 결과와 일치하는지 검증
+ * - 측정 저장 경로는 O(1) 증분 갱신만 하므로, 이 작업이 정합성의 기준선 역할을 한다.
+ * - repair=true면 불일치 행을 재집계 값으로 교정한다.
+ * - 환자마다 짧은 트랜잭션 하나: UserHealth 행 잠금(findByUserForUpdate, 측정 저장 경로와 같은 잠금) → 재집계 → 교정
+ *   → 재집계와 교정 사이에 커밋된 측정의 증분을 덮어쓰지 않음. 목록은 유저 PK만 keyset으로 읽어 영속성 컨텍스트가 쌓이지 않음.
+ */
+@Slf4j
+@Service
+public class UserHealthSummaryVerificationService {
+
+    private static final int PAGE_SIZE = 200;
+
+    private final UserRepository userRepository;
+    private final UserHealthRepository userHealthRepository;
+    private final UserHealthRecordRepository userHealthRecordRepository;
+    private final UserHealthRecordArchiveService archiveService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean repair;
+
+    public UserHealthSummaryVerificationService(
+            UserRepository userRepository,
+            UserHealthRepository userHealthRepository,
+            UserHealthRecordRepository userHealthRecordRepository,
+            UserHealthRecordArchiveService archiveService,
+            PlatformTransactionManager transactionManager,
+            @Value("${vitals.summary.verify-repair:true}") boolean repair) {
+        this.userRepository = userRepository;
+        this.userHealthRepository = userHealthRepository;
+        this.userHealthRecordRepository = userHealthRecordRepository;
+        this.archiveService = archiveService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.repair = repair;
+    }
+
+    public record VerificationResult(int checked, int mismatched, int repaired) {}
+
+    /**
+     * 트랜잭션 없이 호출 — 환자별 트랜잭션은 verifyUser에서 따로 시작/커밋
+     */
+    public VerificationResult verifyAll() {
+        int checked = 0;
+        int mismatched = 0;
+        int repaired = 0;
+
+        long after = 0;
+        while (true) {
+            List<Long> userPkIds = userHealthRepository.findUserIdsAfter(after, PageRequest.of(0, PAGE_SIZE));
+            for (Long userPkId : userPkIds) {
+                Boolean match = transactionTemplate.execute(status -> verifyUser(userPkId));
+                if (match == null) continue; // 그 사이 삭제됨
+                checked++;
+                if (match) continue;
+
+                mismatched++;
+                if (repair) repaired++;
+            }
+            if (userPkIds.size() < PAGE_SIZE) break;
+            after = userPkIds.get(userPkIds.size() - 1);
+        }
+
+        if (mismatched > 0) {
+            log.warn("[SummaryVerification] checked={}, mismatched={}, repaired={}", checked, mismatched, repaired);
+        } else {
+            log.info("[SummaryVerification] checked={}, all running totals match", checked);
+        }
+        return new VerificationResult(checked, mismatched, repaired);
+    }
+
+    /**
+     * 트랜잭션 안에서 호출 — 커밋 시까지 UserHealth 행 잠금 유지 (그동안 이 환자의 측정 저장은 대기)
+     * @return 증분 값과 재집계 값이 일치하면 true, 요약 행이 없으면 null
+     */
+    private Boolean verifyUser(Long userPkId) {
+        UserHealth health = userHealthRepository.findByUserForUpdate(userRepository.getReferenceById(userPkId))
+                .orElse(null);
+        if (health == null) return null;
+        List<Object[]> rows = userHealthRecordRepository.findRunningTotalsByUserId(userPkId);
+        Object[] totals = rows.isEmpty() ? new Object[]{0L, 0L, 0L, 0L, 0L} : rows.get(0);
+
+        // 콜드 티어로 옮겨진 기록은 블록에 저장된 합계로 더함
+        long[] archived = archiveService.archivedTotals(userPkId);
+
+        long bpCount = toLong(totals[0]) + archived[0];
+        long bpSysSum = toLong(totals[1]) + archived[1];
+        long bpDiaSum = toLong(totals[2]) + archived[2];
+        long glucoseCount = toLong(totals[3]) + archived[3];
+        long glucoseSum = toLong(totals[4]) + archived[4];
+
+        boolean match = health.getBpCount() == bpCount
+                && health.getBpSysSum() == bpSysSum
+                && health.getBpDiaSum() == bpDiaSum
+                && health.getGlucoseCount() == glucoseCount
+                && health.getGlucoseSum() == glucoseSum;
+        if (match) return true;
+
+        log.warn("[SummaryVerification] userPk={} incremental=(bp {}/{}/{}, glu {}/{}) recomputed=(bp {}/{}/{}, glu {}/{})",
+                userPkId,
+                health.getBpCount(), health.getBpSysSum(), health.getBpDiaSum(),
+                health.getGlucoseCount(), health.getGlucoseSum(),
+                bpCount, bpSysSum, bpDiaSum, glucoseCount, glucoseSum);
+
+        if (repair) {
+            health.setBpCount(bpCount);
+            health.setBpSysSum(bpSysSum);
+            health.setBpDiaSum(bpDiaSum);
+            health.setGlucoseCount(glucoseCount);
+            health.setGlucoseSum(glucoseSum);
+            UserHealthService.applyAverages(health);
+            userHealthRepository.save(health);
+        }
+        return false;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number n ? n.longValue() : 0L;
+    }
+}
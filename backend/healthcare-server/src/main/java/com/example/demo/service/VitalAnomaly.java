@@ -0,0 +1,118 @@
+package com.example.demo.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 측정값 이상 종류 — VitalsRuleSet.classify() 결과 비트마스크의 각 비트
+ * anomalyType / anomalyReason 문자열은 마스크 조합별로 미리 만들어 두고 재사용
+ */
+public enum VitalAnomaly {
+
+    // 순서 = 비트 위치 (user_health_records.anomaly_mask에 저장되므로 순서 변경/중간 삽입 금지)
+    HIGH_BP("고혈압 기준치 초과", "⚠️ High Blood Pressure Detected"),
+    LOW_BP("저혈압 기준치 미만", "⚠️ Low Blood Pressure Detected"),
+    HIGH_GLUCOSE("혈당 기준치 초과", "⚠️ High Blood Glucose Detected"),
+    LOW_GLUCOSE("혈당 기준치 미만", "⚠️ Low Blood Glucose Detected"),
+    ECG_ABNORMAL("ECG 이상 감지", "⚠️ Abnormal ECG Detected"),
+    // 개인 기준선 이탈 (VitalsBaselineDetector) — 기록/조회용 표시만 하고 보호자 알림은 보내지 않음
+    BP_BASELINE_DEVIATION("혈압 개인 기준선 이탈", null),
+    GLUCOSE_BASELINE_DEVIATION("혈당 개인 기준선 이탈", null);
+
+    public static final int BP_MASK = HIGH_BP.bit() | LOW_BP.bit();
+    public static final int GLUCOSE_MASK = HIGH_GLUCOSE.bit() | LOW_GLUCOSE.bit();
+    // 기준치 규칙(VitalsRuleSet) 이상만 — overallAbnormal은 이 비트로만 정함 (기준선 이탈만으로는 false)
+    public static final int RULE_MASK = BP_MASK | GLUCOSE_MASK | ECG_ABNORMAL.bit();
+
+    private static final VitalAnomaly[] VALUES = values();
+    private static final String[] TYPES = new String[1 << VALUES.length];
+    private static final String[] REASONS = new String[1 << VALUES.length];
+
+    static {
+        for (int mask = 1; mask < TYPES.length; mask++) {
+            StringBuilder type = new StringBuilder();
+            StringBuilder reason = new StringBuilder();
+            for (VitalAnomaly a : VALUES) {
+                if (a.in(mask)) {
+                    if (!type.isEmpty()) {
+                        type.append(',');
+                        reason.append(", ");
+                    }
+                    type.append(a.name());
+                    reason.append(a.reason);
+                }
+            }
+            TYPES[mask] = type.toString();
+            REASONS[mask] = reason.toString();
+        }
+    }
+
+    private final String reason;
+    private final String alertTitle;
+
+    VitalAnomaly(String reason, String alertTitle) {
+        this.reason = reason;
+        this.alertTitle = alertTitle;
+    }
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    public boolean in(int mask) {
+        return (mask & bit()) != 0;
+    }
+
+    /**
+     * 예: "HIGH_BP,HIGH_GLUCOSE" → HIGH_BP | HIGH_GLUCOSE
+     * @throws IllegalArgumentException 알 수 없는 종류
+     */
+    public static int maskOf(Collection<String> names) {
+        int mask = 0;
+        for (String name : names) {
+            mask |= valueOf(name.trim().toUpperCase(Locale.ROOT)).bit();
+        }
+        return mask;
+    }
+
+    public static List<String> namesOf(int mask) {
+        List<String> names = new ArrayList<>(Integer.bitCount(mask));
+        for (VitalAnomaly a : VALUES) {
+            if (a.in(mask)) {
+                names.add(a.name());
+            }
+        }
+        return names;
+    }
+
+    public String alertTitle() {
+        return alertTitle;
+    }
+
+    public boolean alerts() {
+        return alertTitle != null;
+    }
+
+    /**
+     * @return 비트 순서대로 돌 때 쓰는 공유 배열 (수정 금지)
+     */
+    static VitalAnomaly[] all() {
+        return VALUES;
+    }
+
+    /**
+     * 예: HIGH_BP | HIGH_GLUCOSE → "HIGH_BP,HIGH_GLUCOSE" (이상 없으면 null)
+     */
+    public static String typeOf(int mask) {
+        return TYPES[mask];
+    }
+
+    /**
+     * 예: HIGH_BP | HIGH_GLUCOSE → "고혈압 기준치 초과, 혈당 기준치 초과" (이상 없으면 null)
+     */
+    public static String reasonOf(int mask) {
+        return REASONS[mask];
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AnomalyEventResponse;
+import com.example.demo.entity.User;
+import com.example.demo.entity.UserHealthRecord;
+import com.example.demo.repository.UserGuardianLinkRepository;
+import com.example.demo.repository.UserHealthRecordRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 이상 종류/기간별 측정 이벤트 조회
+ * anomaly_mask 비트 연산 + 부분 인덱스(idx_user_health_records_abnormal) 사용, 문자열 LIKE 검색 없음
+ */
+@Service
+@RequiredArgsConstructor
+public class VitalsAnomalyQueryService {
+
+    private static final int DEFAULT_DAYS = 30;
+    private static final int MAX_LIMIT = 500;
+    private static final int ALL_TYPES = (1 << VitalAnomaly.all().length) - 1;
+
+    private final UserHealthRecordRepository userHealthRecordRepository;
+    private final UserGuardianLinkRepository userGuardianLinkRepository;
+
+    @Transactional(readOnly = true)
+    public List<AnomalyEventResponse> findForPatient(User patient, List<String> types,
+                                                     LocalDateTime from, LocalDateTime to, int limit) {
+        return find(Map.of(patient.getId(), patient.getUserId()), types, from, to, limit);
+    }
+
+    /**
+     * 보호자에게 연결된 모든 환자의 이상 이벤트를 한 번의 쿼리로 조회 (최신순)
+     */
+    @Transactional(readOnly = true)
+    public List<AnomalyEventResponse> findForGuardian(User guardian, List<String> types,
+                                                      LocalDateTime from, LocalDateTime to, int limit) {
+        Map<Long, String> patients = new HashMap<>();
+        for (Object[] row : userGuardianLinkRepository.findPatientIdsByGuardianId(guardian.getId())) {
+            patients.put((Long) row[0], (String) row[1]);
+        }
+        if (patients.isEmpty()) {
+            return List.of();
+        }
+        return find(patients, types, from, to, limit);
+    }
+
+    private List<AnomalyEventResponse> find(Map<Long, String> userIdsByPk, List<String> types,
+                                            LocalDateTime from, LocalDateTime to, int limit) {
+        int mask = parseMask(types);
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(DEFAULT_DAYS);
+        if (!start.isBefore(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must be before to");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        List<UserHealthRecord> records = userHealthRecordRepository
+                .findAnomalyEvents(userIdsByPk.keySet(), mask, start, end, limit);
+
+        List<AnomalyEventResponse> events = new ArrayList<>(records.size());
+        for (UserHealthRecord r : records) {
+            // 요청 종류와 무관하게 해당 측정의 전체 이상 종류를 표시
+            events.add(new AnomalyEventResponse(
+                    userIdsByPk.get(r.getUser().getId()), r, VitalAnomaly.namesOf(r.getAnomalyMask())));
+        }
+        return events;
+    }
+
+    /**
+     * @param types null/비어 있으면 전체 종류
+     */
+    private static int parseMask(List<String> types) {
+        if (types == null || types.isEmpty()) {
+            return ALL_TYPES;
+        }
+        try {
+            return VitalAnomaly.maskOf(types);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "unknown anomaly type: " + types);
+        }
+    }
+}
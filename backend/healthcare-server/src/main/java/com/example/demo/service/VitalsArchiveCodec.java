@@ -0,0 +1,436 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.UserHealthRecord;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+/**
+ * 콜드 티어 블록 인코딩 (환자 1명 × 1개월, 측정 시각 오름차순)
+ *
+ * 컬럼 단위로 저장:
+ * - measured_at: 마이크로초, 첫 값 + delta + delta-of-delta (zigzag varint) — 주기적 측정은 대부분 1바이트
+ * - 정수 항목(bp_sys, bp_dia, glucose, heart_rate): null 비트맵 + 직전 값 대비 delta (zigzag varint)
+ * - 실수 항목(ecg_risk_score, hrv_sdnn_ms, hrv_rmssd_ms): null 비트맵 + 직전 값과 XOR한 비트를 뒤집어 varint (비슷한 값일수록 짧음)
+ * - ecg_abnormal, bp_abnormal, glucose_abnormal, overall_abnormal: null 비트맵 + 값 비트맵
+ *   (저장된 값 그대로 — 과거 기록은 anomaly_mask와 어긋난 플래그가 있을 수 있음)
+ * - ecg_anomaly_type: null 비트맵 + 블록 내 사전 인덱스
+ * - anomaly_mask: varint
+ *
+ * 평균 대비 차이(*_diff_from_avg)는 조회 경로에서 쓰지 않는 파생값이라 보관하지 않는다.
+ * anomaly_type/anomaly_reason은 복원 시 anomaly_mask로부터 다시 만든다.
+ *
+ * 버전 (이전 버전은 읽기만 지원, 없는 컬럼은 null로 복원):
+ * 1 = 최초, 2 = anomaly_mask 뒤에 hrv_sdnn_ms, hrv_rmssd_ms 추가, 3 = 그 뒤에 ecg_window_ref (정수 항목과 같은 delta)
+ */
+public final class VitalsArchiveCodec {
+
+    private static final int VERSION = 3;
+
+    private VitalsArchiveCodec() {
+    }
+
+    public static byte[] encode(List<UserHealthRecord> records) {
+        Out out = new Out(records.size() * 8 + 16);
+        int n = records.size();
+        out.varint(VERSION);
+        out.varint(n);
+
+        // measured_at
+        long prev = 0;
+        long prevDelta = 0;
+        for (int i = 0; i < n; i++) {
+            long t = toMicros(records.get(i).getMeasuredAt());
+            if (i == 0) {
+                out.zigzag(t);
+            } else {
+                long delta = t - prev;
+                out.zigzag(delta - prevDelta);
+                prevDelta = delta;
+            }
+            prev = t;
+        }
+
+        writeLongs(out, records, UserHealthRecord::getBpSys);
+        writeLongs(out, records, UserHealthRecord::getBpDia);
+        writeLongs(out, records, UserHealthRecord::getGlucose);
+        writeLongs(out, records, UserHealthRecord::getHeartRate);
+
+        writeDoubles(out, records, UserHealthRecord::getEcgRiskScore);
+
+        writeFlags(out, records, UserHealthRecord::getEcgAbnormal);
+        writeFlags(out, records, UserHealthRecord::getBpAbnormal);
+        writeFlags(out, records, UserHealthRecord::getGlucoseAbnormal);
+        writeFlags(out, records, UserHealthRecord::getOverallAbnormal);
+
+        // ecg_anomaly_type (블록 내 사전)
+        Map<String, Integer> dict = new LinkedHashMap<>();
+        for (UserHealthRecord r : records) {
+            if (r.getEcgAnomalyType() != null) {
+                dict.putIfAbsent(r.getEcgAnomalyType(), dict.size());
+            }
+        }
+        out.varint(dict.size());
+        for (String s : dict.keySet()) {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            out.varint(b.length);
+            out.bytes(b);
+        }
+        out.bitmap(n, i -> records.get(i).getEcgAnomalyType() != null);
+        for (UserHealthRecord r : records) {
+            if (r.getEcgAnomalyType() != null) {
+                out.varint(dict.get(r.getEcgAnomalyType()));
+            }
+        }
+
+        // anomaly_mask
+        for (UserHealthRecord r : records) {
+            out.varint(r.getAnomalyMask() == null ? 0 : r.getAnomalyMask());
+        }
+
+        // v2
+        writeDoubles(out, records, UserHealthRecord::getHrvSdnnMs);
+        writeDoubles(out, records, UserHealthRecord::getHrvRmssdMs);
+
+        // v3
+        writeLongs(out, records, UserHealthRecord::getEcgWindowRef);
+        return out.toByteArray();
+    }
+
+    /**
+     * @return 영속성 컨텍스트와 무관한 UserHealthRecord 목록 (id/user 없음, 측정 시각 오름차순)
+     */
+    public static List<UserHealthRecord> decode(byte[] payload) {
+        In in = new In(payload);
+        int version = (int) in.varint();
+        if (version < 1 || version > VERSION) {
+            throw new IllegalStateException("unsupported archive block version: " + version);
+        }
+        int n = (int) in.varint();
+        List<UserHealthRecord> records = new ArrayList<>(n);
+
+        long prev = 0;
+        long prevDelta = 0;
+        for (int i = 0; i < n; i++) {
+            long t;
+            if (i == 0) {
+                t = in.zigzag();
+            } else {
+                prevDelta += in.zigzag();
+                t = prev + prevDelta;
+            }
+            prev = t;
+            UserHealthRecord r = new UserHealthRecord();
+            r.setMeasuredAt(fromMicros(t));
+            records.add(r);
+        }
+
+        Long[] values = new Long[n];
+        readLongs(in, n, values);
+        for (int i = 0; i < n; i++) records.get(i).setBpSys(values[i]);
+        readLongs(in, n, values);
+        for (int i = 0; i < n; i++) records.get(i).setBpDia(values[i]);
+        readLongs(in, n, values);
+        for (int i = 0; i < n; i++) records.get(i).setGlucose(values[i]);
+        readLongs(in, n, values);
+        for (int i = 0; i < n; i++) records.get(i).setHeartRate(values[i]);
+
+        Double[] doubles = new Double[n];
+        readDoubles(in, n, doubles);
+        for (int i = 0; i < n; i++) records.get(i).setEcgRiskScore(doubles[i]);
+
+        Boolean[] flags = new Boolean[n];
+        readFlags(in, n, flags);
+        for (int i = 0; i < n; i++) records.get(i).setEcgAbnormal(flags[i]);
+        readFlags(in, n, flags);
+        for (int i = 0; i < n; i++) records.get(i).setBpAbnormal(flags[i]);
+        readFlags(in, n, flags);
+        for (int i = 0; i < n; i++) records.get(i).setGlucoseAbnormal(flags[i]);
+        readFlags(in, n, flags);
+        for (int i = 0; i < n; i++) records.get(i).setOverallAbnormal(flags[i]);
+
+        String[] dict = new String[(int) in.varint()];
+        for (int i = 0; i < dict.length; i++) {
+            dict[i] = new String(in.bytes((int) in.varint()), StandardCharsets.UTF_8);
+        }
+        boolean[] present = in.bitmap(n);
+        for (int i = 0; i < n; i++) {
+            if (present[i]) records.get(i).setEcgAnomalyType(dict[(int) in.varint()]);
+        }
+
+        for (UserHealthRecord r : records) {
+            int mask = (int) in.varint();
+            r.setAnomalyMask(mask);
+            r.setAnomalyType(VitalAnomaly.typeOf(mask));
+            r.setAnomalyReason(VitalAnomaly.reasonOf(mask));
+        }
+
+        if (version >= 2) {
+            readDoubles(in, n, doubles);
+            for (int i = 0; i < n; i++) records.get(i).setHrvSdnnMs(doubles[i]);
+            readDoubles(in, n, doubles);
+            for (int i = 0; i < n; i++) records.get(i).setHrvRmssdMs(doubles[i]);
+        }
+        if (version >= 3) {
+            readLongs(in, n, values);
+            for (int i = 0; i < n; i++) records.get(i).setEcgWindowRef(values[i]);
+        }
+        return records;
+    }
+
+    /**
+     * 차트용 부분 디코딩 — 측정 시각과 bp_sys, bp_dia, glucose, heart_rate, hrv_sdnn_ms, hrv_rmssd_ms만
+     * primitive 열 배열로 복원 (나머지 컬럼은 건너뜀, UserHealthRecord를 만들지 않음)
+     * 측정 시각은 Timestamp.valueOf(measuredAt).getTime()과 같은 epoch ms
+     */
+    static VitalsSeriesColumns decodeSeries(byte[] payload) {
+        In in = new In(payload);
+        int version = (int) in.varint();
+        if (version < 1 || version > VERSION) {
+            throw new IllegalStateException("unsupported archive block version: " + version);
+        }
+        int n = (int) in.varint();
+        VitalsSeriesColumns columns = new VitalsSeriesColumns(n);
+        columns.setSize(n);
+
+        long[] time = columns.timeColumn();
+        long prev = 0;
+        long prevDelta = 0;
+        for (int i = 0; i < n; i++) {
+            long t;
+            if (i == 0) {
+                t = in.zigzag();
+            } else {
+                prevDelta += in.zigzag();
+                t = prev + prevDelta;
+            }
+            prev = t;
+            time[i] = Timestamp.valueOf(fromMicros(t)).getTime();
+        }
+
+        readLongs(in, n, columns.bpSysColumn());
+        readLongs(in, n, columns.bpDiaColumn());
+        readLongs(in, n, columns.glucoseColumn());
+        readLongs(in, n, columns.heartRateColumn());
+
+        double[] hrvSdnn = columns.hrvSdnnColumn();
+        double[] hrvRmssd = columns.hrvRmssdColumn();
+        if (version < 2) {
+            Arrays.fill(hrvSdnn, 0, n, Double.NaN);
+            Arrays.fill(hrvRmssd, 0, n, Double.NaN);
+            return columns;
+        }
+
+        // 차트에 쓰지 않는 컬럼 건너뛰기: ecg_risk_score, 플래그 4개, ecg_anomaly_type, anomaly_mask
+        readDoubles(in, n, hrvSdnn); // ecg_risk_score — 아래에서 hrv_sdnn_ms로 덮어씀
+        for (int f = 0; f < 4; f++) {
+            in.bitmap(n);
+            in.bitmap(n);
+        }
+        int dictSize = (int) in.varint();
+        for (int i = 0; i < dictSize; i++) {
+            in.bytes((int) in.varint());
+        }
+        boolean[] present = in.bitmap(n);
+        for (int i = 0; i < n; i++) {
+            if (present[i]) in.varint();
+        }
+        for (int i = 0; i < n; i++) {
+            in.varint();
+        }
+
+        readDoubles(in, n, hrvSdnn);
+        readDoubles(in, n, hrvRmssd);
+        return columns;
+    }
+
+    private static void writeLongs(Out out, List<UserHealthRecord> records,
+                                   Function<UserHealthRecord, Long> getter) {
+        out.bitmap(records.size(), i -> getter.apply(records.get(i)) != null);
+        long prev = 0;
+        for (UserHealthRecord r : records) {
+            Long v = getter.apply(r);
+            if (v == null) continue;
+            out.zigzag(v - prev);
+            prev = v;
+        }
+    }
+
+    private static void writeDoubles(Out out, List<UserHealthRecord> records,
+                                     Function<UserHealthRecord, Double> getter) {
+        out.bitmap(records.size(), i -> getter.apply(records.get(i)) != null);
+        long prevBits = 0;
+        for (UserHealthRecord r : records) {
+            Double d = getter.apply(r);
+            if (d == null) continue;
+            long bits = Double.doubleToRawLongBits(d);
+            out.varint(Long.reverse(bits ^ prevBits));
+            prevBits = bits;
+        }
+    }
+
+    private static void writeFlags(Out out, List<UserHealthRecord> records,
+                                   Function<UserHealthRecord, Boolean> getter) {
+        out.bitmap(records.size(), i -> getter.apply(records.get(i)) != null);
+        out.bitmap(records.size(), i -> Boolean.TRUE.equals(getter.apply(records.get(i))));
+    }
+
+    private static void readFlags(In in, int n, Boolean[] into) {
+        boolean[] present = in.bitmap(n);
+        boolean[] values = in.bitmap(n);
+        for (int i = 0; i < n; i++) {
+            into[i] = present[i] ? values[i] : null;
+        }
+    }
+
+    private static void readDoubles(In in, int n, Double[] into) {
+        boolean[] present = in.bitmap(n);
+        long prevBits = 0;
+        for (int i = 0; i < n; i++) {
+            if (present[i]) {
+                long bits = Long.reverse(in.varint()) ^ prevBits;
+                into[i] = Double.longBitsToDouble(bits);
+                prevBits = bits;
+            } else {
+                into[i] = null;
+            }
+        }
+    }
+
+    private static void readLongs(In in, int n, Long[] into) {
+        boolean[] present = in.bitmap(n);
+        long prev = 0;
+        for (int i = 0; i < n; i++) {
+            if (present[i]) {
+                prev += in.zigzag();
+                into[i] = prev;
+            } else {
+                into[i] = null;
+            }
+        }
+    }
+
+    // 차트용: 값이 없으면 NaN
+    private static void readDoubles(In in, int n, double[] into) {
+        boolean[] present = in.bitmap(n);
+        long prevBits = 0;
+        for (int i = 0; i < n; i++) {
+            if (present[i]) {
+                long bits = Long.reverse(in.varint()) ^ prevBits;
+                into[i] = Double.longBitsToDouble(bits);
+                prevBits = bits;
+            } else {
+                into[i] = Double.NaN;
+            }
+        }
+    }
+
+    // 차트용: 값이 없으면 NaN
+    private static void readLongs(In in, int n, double[] into) {
+        boolean[] present = in.bitmap(n);
+        long prev = 0;
+        for (int i = 0; i < n; i++) {
+            if (present[i]) {
+                prev += in.zigzag();
+                into[i] = prev;
+            } else {
+                into[i] = Double.NaN;
+            }
+        }
+    }
+
+    private static long toMicros(LocalDateTime t) {
+        return t.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + t.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static final class Out extends ByteArrayOutputStream {
+
+        Out(int size) {
+            super(size);
+        }
+
+        void varint(long v) {
+            while ((v & ~0x7FL) != 0) {
+                write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            write((int) v);
+        }
+
+        void zigzag(long v) {
+            varint((v << 1) ^ (v >> 63));
+        }
+
+        void bytes(byte[] b) {
+            write(b, 0, b.length);
+        }
+
+        void bitmap(int n, IntPredicate bit) {
+            int current = 0;
+            for (int i = 0; i < n; i++) {
+                if (bit.test(i)) current |= 1 << (i & 7);
+                if ((i & 7) == 7) {
+                    write(current);
+                    current = 0;
+                }
+            }
+            if ((n & 7) != 0) write(current);
+        }
+    }
+
+    private static final class In {
+        private final byte[] buf;
+        private int pos;
+
+        In(byte[] buf) {
+            this.buf = buf;
+        }
+
+        long varint() {
+            long result = 0;
+            int shift = 0;
+            while (true) {
+                byte b = buf[pos++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return result;
+                shift += 7;
+            }
+        }
+
+        long zigzag() {
+            long v = varint();
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        byte[] bytes(int len) {
+            byte[] b = new byte[len];
+            System.arraycopy(buf, pos, b, 0, len);
+            pos += len;
+            return b;
+        }
+
+        boolean[] bitmap(int n) {
+            boolean[] bits = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                bits[i] = (buf[pos + (i >> 3)] & (1 << (i & 7))) != 0;
+            }
+            pos += (n + 7) >> 3;
+            return bits;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.VitalReadingRequest;
+import com.example.demo.entity.UserHealth;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 환자 개인 기준선 대비 이탈 판정 (고정 기준치 판정과 별도)
+ * - 항목별 지수가중 평균/분산을 UserHealth에 보관, 측정마다 O(1) 갱신 (추가 쿼리 없음)
+ * - 갱신 전 기준선으로 z = |x - mean| / std 를 계산해 k 시그마 초과 시 이탈로 표시
+ * - 기록이 minSamples 미만이거나 분산이 아직 0에 가까우면 판정하지 않음
+ *
+ * 호출 순서: observe() → (UserHealth 누적 건수 갱신) — 건수는 이번 측정 이전 값을 사용
+ */
+@Component
+public class VitalsBaselineDetector {
+
+    // 표준편차 하한 — 값이 거의 일정한 환자에서 1~2 단위 변화로 이탈 판정되는 것 방지
+    private static final double MIN_STD_BP = 3.0;      // mmHg
+    private static final double MIN_STD_GLUCOSE = 5.0; // mg/dL
+
+    private final double alpha;
+    private final double kSigma;
+    private final long minSamples;
+
+    public VitalsBaselineDetector(
+            @Value("${vitals.baseline.alpha:0.1}") double alpha,
+            @Value("${vitals.baseline.k-sigma:3.0}") double kSigma,
+            @Value("${vitals.baseline.min-samples:10}") long minSamples) {
+        this.alpha = alpha;
+        this.kSigma = kSigma;
+        this.minSamples = minSamples;
+    }
+
+    /**
+     * 이번 측정을 기준선과 비교한 뒤 기준선에 반영
+     * @return VitalAnomaly 기준선 이탈 비트 (없으면 0)
+     */
+    public int observe(UserHealth h, VitalReadingRequest req) {
+        int mask = 0;
+
+        if (req.getBpSys() != null && req.getBpDia() != null) {
+            boolean warm = h.getBpCount() >= minSamples;
+            double sys = req.getBpSys();
+            double dia = req.getBpDia();
+            boolean deviates = warm
+                    && (exceeds(sys, h.getBpSysEwMean(), h.getBpSysEwVar(), MIN_STD_BP)
+                    || exceeds(dia, h.getBpDiaEwMean(), h.getBpDiaEwVar(), MIN_STD_BP));
+            if (deviates) {
+                mask |= VitalAnomaly.BP_BASELINE_DEVIATION.bit();
+            }
+
+            h.setBpSysEwVar(nextVar(sys, h.getBpSysEwMean(), h.getBpSysEwVar()));
+            h.setBpSysEwMean(nextMean(sys, h.getBpSysEwMean()));
+            h.setBpDiaEwVar(nextVar(dia, h.getBpDiaEwMean(), h.getBpDiaEwVar()));
+            h.setBpDiaEwMean(nextMean(dia, h.getBpDiaEwMean()));
+        }
+
+        if (req.getGlucose() != null) {
+            boolean warm = h.getGlucoseCount() >= minSamples;
+            double g = req.getGlucose();
+            if (warm && exceeds(g, h.getGlucoseEwMean(), h.getGlucoseEwVar(), MIN_STD_GLUCOSE)) {
+                mask |= VitalAnomaly.GLUCOSE_BASELINE_DEVIATION.bit();
+            }
+
+            h.setGlucoseEwVar(nextVar(g, h.getGlucoseEwMean(), h.getGlucoseEwVar()));
+            h.setGlucoseEwMean(nextMean(g, h.getGlucoseEwMean()));
+        }
+
+        return mask;
+    }
+
+    private boolean exceeds(double x, Double mean, Double var, double minStd) {
+        if (mean == null || var == null) {
+            return false;
+        }
+        double std = Math.max(Math.sqrt(var), minStd);
+        return Math.abs(x - mean) > kSigma * std;
+    }
+
+    /*
+     * 지수가중 평균/분산 증분 갱신 (Finch, "Incremental calculation of weighted mean and variance")
+     *   diff = x - mean, mean' = mean + α·diff, var' = (1 - α)·(var + α·diff²)
+     * 분산은 갱신 전 평균으로 계산해야 하므로 nextVar → nextMean 순서로 호출
+     */
+    private double nextMean(double x, Double mean) {
+        return mean == null ? x : mean + alpha * (x - mean);
+    }
+
+    private double nextVar(double x, Double mean, Double var) {
+        if (mean == null || var == null) {
+            return 0.0;
+        }
+        double diff = x - mean;
+        return (1 - alpha) * (var + alpha * diff * diff);
+    }
+}
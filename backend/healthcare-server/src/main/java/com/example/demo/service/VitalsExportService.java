@@ -0,0 +1,198 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.UserHealthRecord;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 환자 측정 기록 전체 내보내기 (NDJSON / CSV)
+ * - 엔티티 List로 모으지 않고 VitalsRecordReader(핫 테이블 커서 + 보관 블록)에서 한 건씩 받아 바로 출력 스트림에 씀
+ * - PostgreSQL JDBC는 autocommit=false 일 때만 커서로 나눠 가져오므로 읽기 전용 트랜잭션 안에서 실행
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VitalsExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    private static final String[] COLUMNS = {
+            "measuredAt", "bpSys", "bpDia", "glucose", "heartRate",
+            "ecgRiskScore", "ecgAbnormal", "ecgAnomalyType",
+            "bpAbnormal", "glucoseAbnormal", "overallAbnormal", "anomalyType",
+            "hrvSdnnMs", "hrvRmssdMs", "ecgWindowRef"
+    };
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final VitalsRecordReader recordReader;
+
+    /**
+     * userPkId 환자의 전체 기록을 측정 시각 오름차순으로 out에 기록
+     * @return 내보낸 행 수
+     */
+    @Transactional(readOnly = true)
+    public long export(Long userPkId, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+
+        long[] rows = {0};
+        try {
+            rowWriter.begin();
+            recordReader.forEach(userPkId, null, null, r -> {
+                try {
+                    rowWriter.write(values(r));
+                    rows[0]++;
+                } catch (IOException e) {
+                    // 클라이언트 연결 종료 등 — 커서를 바로 닫도록 중단
+                    throw new UncheckedIOException(e);
+                }
+            });
+            rowWriter.end();
+        } catch (UncheckedIOException e) {
+            log.warn("[VitalsExport] 전송 중단 userPkId={}, rows={}: {}", userPkId, rows[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+
+        writer.flush();
+        log.info("[VitalsExport] userPkId={}, format={}, rows={}", userPkId, format, rows[0]);
+        return rows[0];
+    }
+
+    // COLUMNS 순서
+    private static Object[] values(UserHealthRecord r) {
+        return new Object[]{
+                r.getMeasuredAt().toString(), r.getBpSys(), r.getBpDia(), r.getGlucose(), r.getHeartRate(),
+                r.getEcgRiskScore(), r.getEcgAbnormal(), r.getEcgAnomalyType(),
+                r.getBpAbnormal(), r.getGlucoseAbnormal(), r.getOverallAbnormal(), r.getAnomalyType(),
+                r.getHrvSdnnMs(), r.getHrvRmssdMs(), r.getEcgWindowRef()
+        };
+    }
+
+    private interface RowWriter {
+        void begin() throws IOException;
+
+        void write(Object[] values) throws IOException;
+
+        void end() throws IOException;
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator gen;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            this.gen = JSON_FACTORY.createGenerator(writer);
+            this.gen.setRootValueSeparator(new SerializedString("\n"));
+            // 응답 Writer는 컨테이너가 닫음
+            this.gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        public void begin() {
+        }
+
+        @Override
+        public void write(Object[] values) throws IOException {
+            gen.writeStartObject();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                Object value = values[i];
+                gen.writeFieldName(COLUMNS[i]);
+                if (value == null) {
+                    gen.writeNull();
+                } else if (value instanceof Long l) {
+                    gen.writeNumber(l);
+                } else if (value instanceof Double d) {
+                    gen.writeNumber(d);
+                } else if (value instanceof Boolean b) {
+                    gen.writeBoolean(b);
+                } else {
+                    gen.writeString(value.toString());
+                }
+            }
+            gen.writeEndObject();
+        }
+
+        @Override
+        public void end() throws IOException {
+            gen.writeRaw('\n');
+            gen.flush();
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(Object[] values) throws IOException {
+            writer.write(values[0].toString());
+            for (int i = 1; i < COLUMNS.length; i++) {
+                writer.write(',');
+                Object value = values[i];
+                if (value instanceof String s) {
+                    writeQuoted(s);
+                } else if (value != null) {
+                    writer.write(value.toString());
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeQuoted(String s) throws IOException {
+            if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+                writer.write(s);
+                return;
+            }
+            writer.write('"');
+            writer.write(s.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void end() {
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.InsightsResponse;
+import com.example.demo.dto.auth.UserHealthResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * /api/vitals/summary, /api/vitals/insights 응답 캐시 (환자 PK + 조회 범위 단위)
+ * - 크기/TTL 제한, 최초 조회 시 적재(lazy warm)
+ * - 같은 키에 대한 동시 miss는 한 번의 DB 조회로 합쳐짐 (Caffeine get(key, loader))
+ * - 측정값 저장 트랜잭션이 커밋된 뒤 해당 환자의 키를 모두 무효화
+ * - 적중률은 cache.gets{cache=vitals.summary|vitals.insights, result=hit|miss}로 노출
+ */
+@Service
+public class VitalsQueryCache {
+
+    // insights 조회 범위 (UserHealthController.getInsights의 days 값과 동일)
+    private static final int[] INSIGHT_RANGES = {7, 30, 365};
+
+    private record InsightsKey(Long userPkId, int days) {}
+
+    private final Cache<Long, Optional<UserHealthResponse>> summaryCache;
+    private final Cache<InsightsKey, InsightsResponse> insightsCache;
+
+    public VitalsQueryCache(
+            MeterRegistry meterRegistry,
+            @Value("${vitals.cache.max-size:10000}") long maxSize,
+            @Value("${vitals.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.summaryCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.insightsCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, summaryCache, "vitals.summary");
+        CaffeineCacheMetrics.monitor(meterRegistry, insightsCache, "vitals.insights");
+    }
+
+    /**
+     * @return 요약이 없으면(측정 기록 없음) null
+     */
+    public UserHealthResponse summary(Long userPkId, Supplier<UserHealthResponse> loader) {
+        return summaryCache.get(userPkId, k -> Optional.ofNullable(loader.get())).orElse(null);
+    }
+
+    public InsightsResponse insights(Long userPkId, int days, Supplier<InsightsResponse> loader) {
+        return insightsCache.get(new InsightsKey(userPkId, days), k -> loader.get());
+    }
+
+    /**
+     * 현재 트랜잭션 커밋 후 해당 환자의 캐시를 비운다.
+     * (커밋 전에 비우면 동시 조회가 커밋 전 데이터를 다시 적재할 수 있음)
+     */
+    public void evictAfterCommit(Long userPkId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(userPkId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(userPkId);
+            }
+        });
+    }
+
+    public void evict(Long userPkId) {
+        summaryCache.invalidate(userPkId);
+        for (int days : INSIGHT_RANGES) {
+            insightsCache.invalidate(new InsightsKey(userPkId, days));
+        }
+    }
+}
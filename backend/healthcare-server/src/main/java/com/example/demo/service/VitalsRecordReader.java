@@ -0,0 +1,280 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.UserHealthRecord;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 환자 측정 기록 순차 조회 — 핫 티어(user_health_records)와 콜드 티어(user_health_record_archive)를 한 흐름으로 합침
+ * - 보관 블록이 없거나 조회 범위가 보관 구간 이후면 핫 테이블 커서만 사용 (대부분의 조회)
+ * - 그 외에는 월 블록을 하나씩 풀어 측정 시각 순서대로 넘긴 뒤 이어서 핫 테이블 커서를 읽음
+ * - 핫 테이블은 forward-only 커서로 fetch-size 단위로 읽음 (호출 측이 읽기 전용 트랜잭션 안이어야 커서가 유지됨)
+ * - 보관 이후 늦게 도착한 과거 측정(보관 구간 안의 핫 행)도 시각 순서대로 끼워 넣음
+ *
+ * 넘겨주는 UserHealthRecord는 영속성 컨텍스트와 무관한 읽기 전용 값 (id/user 없음)
+ */
+@Service
+public class VitalsRecordReader {
+
+    static final String COLUMNS = """
+            measured_at, bp_sys, bp_dia, glucose, heart_rate,
+            ecg_risk_score, ecg_abnormal, ecg_anomaly_type, hrv_sdnn_ms, hrv_rmssd_ms, ecg_window_ref,
+            bp_abnormal, glucose_abnormal, overall_abnormal, anomaly_mask, anomaly_type, anomaly_reason""";
+
+    private static final String HOT_SQL = "SELECT " + COLUMNS + """
+
+            FROM user_health_records
+            WHERE user_id = ? AND measured_at >= ? AND measured_at < ?
+            ORDER BY measured_at ASC, id ASC
+            """;
+
+    // 차트용 projection (forEachSeries)
+    private static final String HOT_SERIES_SQL = """
+            SELECT measured_at, bp_sys, bp_dia, glucose, heart_rate, hrv_sdnn_ms, hrv_rmssd_ms
+            FROM user_health_records
+            WHERE user_id = ? AND measured_at >= ? AND measured_at < ?
+            ORDER BY measured_at ASC, id ASC
+            """;
+
+    private static final String BLOCKS_SQL = """
+            SELECT payload FROM user_health_record_archive
+            WHERE user_id = ? AND month >= ? AND month < ?
+            ORDER BY month ASC
+            """;
+
+    // 조회 범위 상한/하한이 없을 때 (PostgreSQL timestamp 범위 안의 값)
+    private static final LocalDateTime MIN_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+    private final Timer decodeTimer;
+
+    public VitalsRecordReader(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${vitals.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+        this.decodeTimer = Timer.builder("vitals.archive.read")
+                .description("Time to decode one archived month block")
+                .register(meterRegistry);
+    }
+
+    /**
+     * [from, to) 기간 기록을 측정 시각 오름차순으로 action에 전달 (from/to가 null이면 제한 없음)
+     * @return 전달한 기록 수
+     */
+    @Transactional(readOnly = true)
+    public long forEach(Long userPkId, LocalDateTime from, LocalDateTime to, Consumer<UserHealthRecord> action) {
+        LocalDateTime start = from != null ? from : MIN_TIME;
+        LocalDateTime end = to != null ? to : MAX_TIME;
+
+        LocalDateTime horizon = archiveHorizon(userPkId);
+        if (horizon == null || !start.isBefore(horizon)) {
+            return streamHot(userPkId, start, end, action);
+        }
+        LocalDateTime coldEnd = end.isBefore(horizon) ? end : horizon;
+
+        // 보관 구간 안에 남아 있는 핫 행 (보관 후 도착한 과거 측정 — 보통 0건)
+        List<UserHealthRecord> late = new ArrayList<>();
+        streamHot(userPkId, start, coldEnd, late::add);
+
+        long[] count = {0};
+        int[] next = {0};
+        Consumer<UserHealthRecord> emit = r -> {
+            count[0]++;
+            action.accept(r);
+        };
+        streamBlocks(userPkId, start, coldEnd, payload -> {
+            List<UserHealthRecord> block = decodeTimer.record(() -> VitalsArchiveCodec.decode(payload));
+            for (UserHealthRecord r : block) {
+                LocalDateTime t = r.getMeasuredAt();
+                if (t.isBefore(start) || !t.isBefore(coldEnd)) continue;
+                while (next[0] < late.size() && late.get(next[0]).getMeasuredAt().isBefore(t)) {
+                    emit.accept(late.get(next[0]++));
+                }
+                emit.accept(r);
+            }
+        });
+        while (next[0] < late.size()) {
+            emit.accept(late.get(next[0]++));
+        }
+
+        if (end.isAfter(horizon)) {
+            count[0] += streamHot(userPkId, horizon, end, action);
+        }
+        return count[0];
+    }
+
+    /**
+     * 차트용 — [from, to) 기간의 측정 시각 + 항목 6개만 측정 시각 오름차순으로 sink에 전달 (없는 값은 NaN)
+     * 핫 테이블은 필요한 컬럼만 projection, 보관 블록은 해당 컬럼만 부분 디코딩 (UserHealthRecord를 만들지 않음)
+     * @return 전달한 기록 수
+     */
+    @Transactional(readOnly = true)
+    public long forEachSeries(Long userPkId, LocalDateTime from, LocalDateTime to, VitalsSeriesColumns.Sink sink) {
+        LocalDateTime horizon = archiveHorizon(userPkId);
+        if (horizon == null || !from.isBefore(horizon)) {
+            return streamHotSeries(userPkId, from, to, sink);
+        }
+        LocalDateTime coldEnd = to.isBefore(horizon) ? to : horizon;
+        long startMillis = Timestamp.valueOf(from).getTime();
+        long coldEndMillis = Timestamp.valueOf(coldEnd).getTime();
+
+        // 보관 구간 안에 남아 있는 핫 행 (보통 0건)
+        VitalsSeriesColumns late = new VitalsSeriesColumns(16);
+        streamHotSeries(userPkId, from, coldEnd, late::add);
+
+        long[] count = {0};
+        int[] next = {0};
+        streamBlocks(userPkId, from, coldEnd, payload -> {
+            VitalsSeriesColumns block = decodeTimer.record(() -> VitalsArchiveCodec.decodeSeries(payload));
+            for (int i = 0; i < block.size(); i++) {
+                long t = block.time(i);
+                if (t < startMillis || t >= coldEndMillis) continue;
+                while (next[0] < late.size() && late.time(next[0]) < t) {
+                    late.emit(next[0]++, sink);
+                    count[0]++;
+                }
+                block.emit(i, sink);
+                count[0]++;
+            }
+        });
+        while (next[0] < late.size()) {
+            late.emit(next[0]++, sink);
+            count[0]++;
+        }
+
+        if (to.isAfter(horizon)) {
+            count[0] += streamHotSeries(userPkId, horizon, to, sink);
+        }
+        return count[0];
+    }
+
+    /**
+     * 보관된 기록 중 가장 최근 1건 (핫 테이블에 기록이 하나도 남지 않은 환자용 fallback)
+     */
+    @Transactional(readOnly = true)
+    public UserHealthRecord findLatestArchived(Long userPkId) {
+        List<byte[]> payloads = jdbcTemplate.query(
+                "SELECT payload FROM user_health_record_archive WHERE user_id = ? ORDER BY month DESC LIMIT 1",
+                (rs, i) -> rs.getBytes(1), userPkId);
+        if (payloads.isEmpty()) return null;
+        List<UserHealthRecord> block = decodeTimer.record(() -> VitalsArchiveCodec.decode(payloads.get(0)));
+        return block.isEmpty() ? null : block.get(block.size() - 1);
+    }
+
+    /**
+     * 보관 구간 끝 (마지막 보관 월의 다음 달 1일) — 이보다 이전 기록만 블록에 있을 수 있음, 보관 블록이 없으면 null
+     */
+    private LocalDateTime archiveHorizon(Long userPkId) {
+        LocalDate lastMonth = jdbcTemplate.queryForObject(
+                "SELECT MAX(month) FROM user_health_record_archive WHERE user_id = ?", LocalDate.class, userPkId);
+        return lastMonth == null ? null : lastMonth.plusMonths(1).atStartOfDay();
+    }
+
+    /**
+     * [start 월, coldEnd) 범위의 보관 블록 payload를 월 순서대로 전달
+     */
+    private void streamBlocks(Long userPkId, LocalDateTime start, LocalDateTime coldEnd, Consumer<byte[]> action) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(BLOCKS_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // 블록 하나가 수십 KB — 한 번에 조금씩만 가져옴
+            ps.setFetchSize(4);
+            ps.setLong(1, userPkId);
+            ps.setDate(2, Date.valueOf(start.toLocalDate().withDayOfMonth(1)));
+            ps.setTimestamp(3, Timestamp.valueOf(coldEnd));
+            return ps;
+        }, (ResultSet rs) -> {
+            action.accept(rs.getBytes(1));
+        });
+    }
+
+    private long streamHotSeries(Long userPkId, LocalDateTime from, LocalDateTime to, VitalsSeriesColumns.Sink sink) {
+        long[] rows = {0};
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(HOT_SERIES_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setLong(1, userPkId);
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+            return ps;
+        }, (ResultSet rs) -> {
+            sink.accept(rs.getTimestamp(1).getTime(),
+                    nullableLong(rs, 2), nullableLong(rs, 3), nullableLong(rs, 4), nullableLong(rs, 5),
+                    nullableDouble(rs, 6), nullableDouble(rs, 7));
+            rows[0]++;
+        });
+        return rows[0];
+    }
+
+    private static double nullableLong(ResultSet rs, int column) throws SQLException {
+        long v = rs.getLong(column);
+        return rs.wasNull() ? Double.NaN : v;
+    }
+
+    private static double nullableDouble(ResultSet rs, int column) throws SQLException {
+        double v = rs.getDouble(column);
+        return rs.wasNull() ? Double.NaN : v;
+    }
+
+    private long streamHot(Long userPkId, LocalDateTime from, LocalDateTime to, Consumer<UserHealthRecord> action) {
+        long[] rows = {0};
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(HOT_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setLong(1, userPkId);
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            ps.setTimestamp(3, Timestamp.valueOf(to));
+            return ps;
+        }, (ResultSet rs) -> {
+            action.accept(map(rs));
+            rows[0]++;
+        });
+        return rows[0];
+    }
+
+    /**
+     * COLUMNS 순서로 조회한 행 → UserHealthRecord (평균 대비 차이 컬럼은 읽지 않음)
+     */
+    static UserHealthRecord map(ResultSet rs) throws SQLException {
+        UserHealthRecord r = new UserHealthRecord();
+        r.setMeasuredAt(rs.getTimestamp("measured_at").toLocalDateTime());
+        r.setBpSys(rs.getObject("bp_sys", Long.class));
+        r.setBpDia(rs.getObject("bp_dia", Long.class));
+        r.setGlucose(rs.getObject("glucose", Long.class));
+        r.setHeartRate(rs.getObject("heart_rate", Long.class));
+        r.setEcgRiskScore(rs.getObject("ecg_risk_score", Double.class));
+        r.setEcgAbnormal(rs.getObject("ecg_abnormal", Boolean.class));
+        r.setEcgAnomalyType(rs.getString("ecg_anomaly_type"));
+        r.setHrvSdnnMs(rs.getObject("hrv_sdnn_ms", Double.class));
+        r.setHrvRmssdMs(rs.getObject("hrv_rmssd_ms", Double.class));
+        r.setEcgWindowRef(rs.getObject("ecg_window_ref", Long.class));
+        r.setBpAbnormal(rs.getObject("bp_abnormal", Boolean.class));
+        r.setGlucoseAbnormal(rs.getObject("glucose_abnormal", Boolean.class));
+        r.setOverallAbnormal(rs.getObject("overall_abnormal", Boolean.class));
+        r.setAnomalyMask(rs.getInt("anomaly_mask"));
+        r.setAnomalyType(rs.getString("anomaly_type"));
+        r.setAnomalyReason(rs.getString("anomaly_reason"));
+        return r;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.UserDisease;
+import com.example.demo.entity.VitalsDiseaseThreshold;
+import com.example.demo.entity.VitalsPatientThreshold;
+import com.example.demo.repository.UserDiseaseRepository;
+import com.example.demo.repository.VitalsDiseaseThresholdRepository;
+import com.example.demo.repository.VitalsPatientThresholdRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 환자별 이상 판정 기준(VitalsRuleSet) 제공
+ * - 기본 기준(140/90, 90/60, 200, 70)에서 시작
+ * - 질환별 기준(vitals_disease_threshold): 등록된 질환(UserDisease 코드/이름)과 매칭되면 적용, 기본 기준보다 엄격해지는 방향으로만
+ * - 환자별 기준(vitals_patient_threshold): 의료진이 지정한 항목은 그대로 사용 (마지막에 적용)
+ * - 컴파일된 규칙은 불변 객체로 환자 PK 단위 캐시, 질환 등록 트랜잭션 커밋 후 무효화 (기준 테이블 변경은 TTL 후 반영)
+ * - 캐시 적중률은 cache.gets{cache=vitals.rules}로 노출
+ */
+@Service
+public class VitalsRuleEngine {
+
+    private static final class Builder {
+        long bpSysHigh = VitalsRuleSet.DEFAULT.bpSysHigh();
+        long bpDiaHigh = VitalsRuleSet.DEFAULT.bpDiaHigh();
+        long bpSysLow = VitalsRuleSet.DEFAULT.bpSysLow();
+        long bpDiaLow = VitalsRuleSet.DEFAULT.bpDiaLow();
+        long glucoseHigh = VitalsRuleSet.DEFAULT.glucoseHigh();
+        long glucoseLow = VitalsRuleSet.DEFAULT.glucoseLow();
+
+        // 질환별 기준 — 높음 기준은 낮추기만, 낮음 기준은 올리기만 (알림을 줄이는 방향으로는 바꾸지 않음)
+        void tighten(VitalsDiseaseThreshold t) {
+            if (t.getBpSysHigh() != null) bpSysHigh = Math.min(bpSysHigh, t.getBpSysHigh());
+            if (t.getBpDiaHigh() != null) bpDiaHigh = Math.min(bpDiaHigh, t.getBpDiaHigh());
+            if (t.getBpSysLow() != null) bpSysLow = Math.max(bpSysLow, t.getBpSysLow());
+            if (t.getBpDiaLow() != null) bpDiaLow = Math.max(bpDiaLow, t.getBpDiaLow());
+            if (t.getGlucoseHigh() != null) glucoseHigh = Math.min(glucoseHigh, t.getGlucoseHigh());
+            if (t.getGlucoseLow() != null) glucoseLow = Math.max(glucoseLow, t.getGlucoseLow());
+        }
+
+        // 환자별 기준 — 의료진이 지정한 값이므로 방향과 관계없이 사용
+        void override(VitalsPatientThreshold t) {
+            if (t.getBpSysHigh() != null) bpSysHigh = t.getBpSysHigh();
+            if (t.getBpDiaHigh() != null) bpDiaHigh = t.getBpDiaHigh();
+            if (t.getBpSysLow() != null) bpSysLow = t.getBpSysLow();
+            if (t.getBpDiaLow() != null) bpDiaLow = t.getBpDiaLow();
+            if (t.getGlucoseHigh() != null) glucoseHigh = t.getGlucoseHigh();
+            if (t.getGlucoseLow() != null) glucoseLow = t.getGlucoseLow();
+        }
+
+        VitalsRuleSet build() {
+            return new VitalsRuleSet(bpSysHigh, bpDiaHigh, bpSysLow, bpDiaLow, glucoseHigh, glucoseLow);
+        }
+    }
+
+    private final UserDiseaseRepository userDiseaseRepository;
+    private final VitalsDiseaseThresholdRepository diseaseThresholdRepository;
+    private final VitalsPatientThresholdRepository patientThresholdRepository;
+    private final Cache<Long, VitalsRuleSet> rulesCache;
+
+    public VitalsRuleEngine(
+            UserDiseaseRepository userDiseaseRepository,
+            VitalsDiseaseThresholdRepository diseaseThresholdRepository,
+            VitalsPatientThresholdRepository patientThresholdRepository,
+            MeterRegistry meterRegistry,
+            @Value("${vitals.rules.cache-max-size:10000}") long maxSize,
+            @Value("${vitals.rules.cache-ttl-seconds:600}") long ttlSeconds) {
+        this.userDiseaseRepository = userDiseaseRepository;
+        this.diseaseThresholdRepository = diseaseThresholdRepository;
+        this.patientThresholdRepository = patientThresholdRepository;
+        this.rulesCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, rulesCache, "vitals.rules");
+    }
+
+    public VitalsRuleSet rulesFor(Long userPkId) {
+        return rulesCache.get(userPkId, id -> {
+            List<UserDisease> diseases = userDiseaseRepository.findByUser_Id(id);
+            return compile(diseases,
+                    diseases.isEmpty() ? List.of() : diseaseThresholdRepository.findAll(),
+                    patientThresholdRepository.findByUser_Id(id).orElse(null));
+        });
+    }
+
+    static VitalsRuleSet compile(List<UserDisease> diseases,
+                                 List<VitalsDiseaseThreshold> diseaseThresholds,
+                                 VitalsPatientThreshold patientThreshold) {
+        Builder b = new Builder();
+        for (VitalsDiseaseThreshold threshold : diseaseThresholds) {
+            for (UserDisease disease : diseases) {
+                if (matches(threshold, disease)) {
+                    b.tighten(threshold);
+                    break;
+                }
+            }
+        }
+        if (patientThreshold != null) {
+            b.override(patientThreshold);
+        }
+        VitalsRuleSet rules = b.build();
+        return rules.equals(VitalsRuleSet.DEFAULT) ? VitalsRuleSet.DEFAULT : rules;
+    }
+
+    static boolean matches(VitalsDiseaseThreshold threshold, UserDisease disease) {
+        String prefix = threshold.getCodePrefix();
+        String code = disease.getDiseaseCode();
+        if (prefix != null && !prefix.isBlank() && code != null
+                && code.trim().toUpperCase(Locale.ROOT).startsWith(prefix.trim().toUpperCase(Locale.ROOT))) {
+            return true;
+        }
+        String keyword = threshold.getNameKeyword();
+        String name = disease.getDiseaseName();
+        return keyword != null && !keyword.isBlank() && name != null && name.contains(keyword);
+    }
+
+    /**
+     * 질환 정보 변경 트랜잭션 커밋 후 해당 환자의 규칙을 다시 컴파일하도록 무효화
+     */
+    public void evictAfterCommit(Long userPkId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rulesCache.invalidate(userPkId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rulesCache.invalidate(userPkId);
+            }
+        });
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.VitalReadingRequest;
+
+/**
+ * 환자별로 컴파일된 이상 판정 기준 (불변, VitalsRuleEngine이 환자 단위로 캐시)
+ * - 고혈압: 수축기 ≥ bpSysHigh 또는 이완기 ≥ bpDiaHigh
+ * - 저혈압: 수축기 < bpSysLow 또는 이완기 < bpDiaLow
+ * - 고혈당: ≥ glucoseHigh, 저혈당: ≤ glucoseLow
+ */
+public record VitalsRuleSet(
+        long bpSysHigh,
+        long bpDiaHigh,
+        long bpSysLow,
+        long bpDiaLow,
+        long glucoseHigh,
+        long glucoseLow
+) {
+
+    public static final VitalsRuleSet DEFAULT = new VitalsRuleSet(140, 90, 90, 60, 200, 70);
+
+    public int classify(VitalReadingRequest req) {
+        return classify(req.getBpSys(), req.getBpDia(), req.getGlucose(), req.getEcgAbnormal());
+    }
+
+    /**
+     * 한 번의 비교로 VitalAnomaly 비트마스크 계산 (0이면 이상 없음)
+     * 혈압은 수축기/이완기가 모두 있을 때만 판정
+     */
+    public int classify(Long bpSys, Long bpDia, Long glucose, Boolean ecgAbnormal) {
+        int mask = 0;
+        if (bpSys != null && bpDia != null) {
+            long sys = bpSys;
+            long dia = bpDia;
+            if (sys >= bpSysHigh || dia >= bpDiaHigh) {
+                mask |= VitalAnomaly.HIGH_BP.bit();
+            } else if (sys < bpSysLow || dia < bpDiaLow) {
+                mask |= VitalAnomaly.LOW_BP.bit();
+            }
+        }
+        if (glucose != null) {
+            long g = glucose;
+            if (g >= glucoseHigh) {
+                mask |= VitalAnomaly.HIGH_GLUCOSE.bit();
+            } else if (g <= glucoseLow) {
+                mask |= VitalAnomaly.LOW_GLUCOSE.bit();
+            }
+        }
+        if (Boolean.TRUE.equals(ecgAbnormal)) {
+            mask |= VitalAnomaly.ECG_ABNORMAL.bit();
+        }
+        return mask;
+    }
+
+    /**
+     * 보호자 알림 본문 (이 환자에게 적용된 기준치로 표시)
+     */
+    public String alertMessage(VitalAnomaly anomaly, VitalReadingRequest req) {
+        return switch (anomaly) {
+            case HIGH_BP      -> String.format("Blood pressure %d/%d mmHg exceeds normal range (≥%d/%d).", req.getBpSys(), req.getBpDia(), bpSysHigh, bpDiaHigh);
+            case LOW_BP       -> String.format("Blood pressure %d/%d mmHg is below normal range (<%d/%d).", req.getBpSys(), req.getBpDia(), bpSysLow, bpDiaLow);
+            case HIGH_GLUCOSE -> String.format("Blood glucose %d mg/dL exceeds normal range (≥%d).", req.getGlucose(), glucoseHigh);
+            case LOW_GLUCOSE  -> String.format("Blood glucose %d mg/dL is below normal range (≤%d).", req.getGlucose(), glucoseLow);
+            case ECG_ABNORMAL -> "An abnormality was detected in the ECG reading. Please consult a healthcare provider.";
+            case BP_BASELINE_DEVIATION -> String.format("Blood pressure %d/%d mmHg deviates from the patient's usual range.", req.getBpSys(), req.getBpDia());
+            case GLUCOSE_BASELINE_DEVIATION -> String.format("Blood glucose %d mg/dL deviates from the patient's usual range.", req.getGlucose());
+        };
+    }
+}
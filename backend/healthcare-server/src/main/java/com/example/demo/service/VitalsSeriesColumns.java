@@ -0,0 +1,106 @@
+package com.example.demo.service;
+
+import java.util.Arrays;
+
+/**
+ * 차트용 열 단위 primitive 버퍼 — 측정 시각(epoch ms) + 항목 6개 (값이 없으면 NaN)
+ * - 보관 블록 부분 디코딩(VitalsArchiveCodec.decodeSeries)과 보관 구간 안의 늦은 핫 행에 사용
+ * - UserHealthRecord를 만들지 않음 (/api/vitals/series는 LTTB까지 primitive 배열만 사용)
+ */
+final class VitalsSeriesColumns {
+
+    /**
+     * 한 측정의 차트 값 (없는 항목은 NaN)
+     */
+    @FunctionalInterface
+    interface Sink {
+        void accept(long epochMillis, double bpSys, double bpDia, double glucose,
+                    double heartRate, double hrvSdnnMs, double hrvRmssdMs);
+    }
+
+    private long[] time;
+    private double[] bpSys;
+    private double[] bpDia;
+    private double[] glucose;
+    private double[] heartRate;
+    private double[] hrvSdnnMs;
+    private double[] hrvRmssdMs;
+    private int n;
+
+    VitalsSeriesColumns(int capacity) {
+        int c = Math.max(capacity, 1);
+        time = new long[c];
+        bpSys = new double[c];
+        bpDia = new double[c];
+        glucose = new double[c];
+        heartRate = new double[c];
+        hrvSdnnMs = new double[c];
+        hrvRmssdMs = new double[c];
+    }
+
+    void add(long epochMillis, double sys, double dia, double glu, double hr, double sdnn, double rmssd) {
+        if (n == time.length) {
+            int c = n * 2;
+            time = Arrays.copyOf(time, c);
+            bpSys = Arrays.copyOf(bpSys, c);
+            bpDia = Arrays.copyOf(bpDia, c);
+            glucose = Arrays.copyOf(glucose, c);
+            heartRate = Arrays.copyOf(heartRate, c);
+            hrvSdnnMs = Arrays.copyOf(hrvSdnnMs, c);
+            hrvRmssdMs = Arrays.copyOf(hrvRmssdMs, c);
+        }
+        time[n] = epochMillis;
+        bpSys[n] = sys;
+        bpDia[n] = dia;
+        glucose[n] = glu;
+        heartRate[n] = hr;
+        hrvSdnnMs[n] = sdnn;
+        hrvRmssdMs[n] = rmssd;
+        n++;
+    }
+
+    int size() {
+        return n;
+    }
+
+    long time(int i) {
+        return time[i];
+    }
+
+    void emit(int i, Sink sink) {
+        sink.accept(time[i], bpSys[i], bpDia[i], glucose[i], heartRate[i], hrvSdnnMs[i], hrvRmssdMs[i]);
+    }
+
+    // 디코딩 시 열 배열을 그대로 채우기 위한 접근 (VitalsArchiveCodec)
+    long[] timeColumn() {
+        return time;
+    }
+
+    double[] bpSysColumn() {
+        return bpSys;
+    }
+
+    double[] bpDiaColumn() {
+        return bpDia;
+    }
+
+    double[] glucoseColumn() {
+        return glucose;
+    }
+
+    double[] heartRateColumn() {
+        return heartRate;
+    }
+
+    double[] hrvSdnnColumn() {
+        return hrvSdnnMs;
+    }
+
+    double[] hrvRmssdColumn() {
+        return hrvRmssdMs;
+    }
+
+    void setSize(int size) {
+        n = size;
+    }
+}
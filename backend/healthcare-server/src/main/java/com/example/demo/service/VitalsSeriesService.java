@@ -0,0 +1,88 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.VitalsSeriesResponse;
+import com.example.demo.dto.VitalsSeriesResponse.Series;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * 장기간 원본 측정값 차트 (/api/vitals/series)
+ * - VitalsRecordReader.forEachSeries로 기간 내 측정 시각 + 차트 항목만 (핫 테이블 projection, 보관 블록 부분 디코딩)
+ *   순서대로 받아 항목별 primitive 배열에 적재 — 엔티티를 만들지 않음
+ * - 항목별로 LTTB 다운샘플링해 최대 points개 점만 응답
+ */
+@Service
+@RequiredArgsConstructor
+public class VitalsSeriesService {
+
+    private final VitalsRecordReader recordReader;
+
+    @Transactional(readOnly = true)
+    public VitalsSeriesResponse load(Long userPkId, int days, int points) {
+        LocalDate end = LocalDate.now().plusDays(1);
+        LocalDate start = end.minusDays(days);
+
+        Buffer bpSys = new Buffer();
+        Buffer bpDia = new Buffer();
+        Buffer glucose = new Buffer();
+        Buffer heartRate = new Buffer();
+        Buffer hrvSdnn = new Buffer();
+        Buffer hrvRmssd = new Buffer();
+
+        long rows = recordReader.forEachSeries(userPkId, start.atStartOfDay(), end.atStartOfDay(),
+                (t, sys, dia, glu, hr, sdnn, rmssd) -> {
+                    // 혈압은 수축기/이완기 모두 있는 측정만 (insights/평균과 동일 기준)
+                    if (!Double.isNaN(sys) && !Double.isNaN(dia)) {
+                        bpSys.add(t, sys);
+                        bpDia.add(t, dia);
+                    }
+                    if (!Double.isNaN(glu)) {
+                        glucose.add(t, glu);
+                    }
+                    if (!Double.isNaN(hr)) {
+                        heartRate.add(t, hr);
+                    }
+                    if (!Double.isNaN(sdnn)) {
+                        hrvSdnn.add(t, sdnn);
+                    }
+                    if (!Double.isNaN(rmssd)) {
+                        hrvRmssd.add(t, rmssd);
+                    }
+                });
+
+        return new VitalsSeriesResponse(days, points,
+                bpSys.downsample(points),
+                bpDia.downsample(points),
+                glucose.downsample(points),
+                heartRate.downsample(points),
+                hrvSdnn.downsample(points),
+                hrvRmssd.downsample(points),
+                (int) rows);
+    }
+
+    /**
+     * 크기를 미리 알 수 없는 (시각, 값) 배열 — 박싱 없이 2배씩 확장
+     */
+    private static final class Buffer {
+        private long[] t = new long[256];
+        private double[] v = new double[256];
+        private int n;
+
+        void add(long time, double value) {
+            if (n == t.length) {
+                t = Arrays.copyOf(t, n * 2);
+                v = Arrays.copyOf(v, n * 2);
+            }
+            t[n] = time;
+            v[n++] = value;
+        }
+
+        Series downsample(int points) {
+            return LttbDownsampler.downsample(t, v, n, points);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+-- V10: Idempotency-Key 중복 제출 방지 저장소 (POST /api/vitals, /api/vitals/batch)
+-- 최초 처리 트랜잭션 안에서 키를 선점(INSERT ... ON CONFLICT)하고 같은 트랜잭션에서 응답을 기록한다.
+-- 동시에 같은 키로 들어온 요청은 선점 트랜잭션이 끝날 때까지 대기한 뒤 저장된 응답을 재사용한다.
+-- 보존 기간이 지난 행은 IdempotencyKeyPurgeScheduler가 삭제한다.
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    scope         VARCHAR(100) NOT NULL,   -- 엔드포인트 + 환자 로그인 ID
+    idem_key      VARCHAR(100) NOT NULL,   -- 클라이언트가 보낸 Idempotency-Key
+    request_hash  CHAR(64)     NOT NULL,   -- 요청 본문 SHA-256 (같은 키 다른 요청 거부용)
+    response_body TEXT,                    -- 최초 응답 본문(JSON)
+    created_at    TIMESTAMP    NOT NULL DEFAULT now(),
+    PRIMARY KEY (scope, idem_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created_at
+    ON idempotency_keys (created_at);
@@ -0,0 +1,25 @@
+-- V11: 오래된 측정 기록 콜드 티어 (환자 × 월 단위 압축 블록)
+-- UserHealthRecordArchiveService가 vitals.archive.min-age-days보다 오래된 월의 기록을
+-- VitalsArchiveCodec으로 인코딩해 이 테이블로 옮기고 user_health_records에서 삭제한다.
+-- 블록별 합계/건수는 running total 검증(UserHealthSummaryVerificationService)에서 원본 대신 사용한다.
+
+CREATE TABLE IF NOT EXISTS user_health_record_archive (
+    id                BIGSERIAL PRIMARY KEY,
+    user_id           BIGINT    NOT NULL REFERENCES users (id),
+    month             DATE      NOT NULL,   -- 해당 월 1일
+    record_count      INTEGER   NOT NULL,
+    first_measured_at TIMESTAMP NOT NULL,
+    last_measured_at  TIMESTAMP NOT NULL,
+
+    bp_count          BIGINT    NOT NULL DEFAULT 0,
+    bp_sys_sum        BIGINT    NOT NULL DEFAULT 0,
+    bp_dia_sum        BIGINT    NOT NULL DEFAULT 0,
+    glucose_count     BIGINT    NOT NULL DEFAULT 0,
+    glucose_sum       BIGINT    NOT NULL DEFAULT 0,
+
+    raw_bytes         BIGINT    NOT NULL,   -- 원본 행 크기 합 (pg_column_size)
+    payload           BYTEA     NOT NULL,
+    archived_at       TIMESTAMP NOT NULL DEFAULT now(),
+
+    CONSTRAINT uk_user_health_record_archive_user_month UNIQUE (user_id, month)
+);
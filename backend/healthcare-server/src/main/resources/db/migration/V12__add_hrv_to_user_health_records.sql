@@ -0,0 +1,8 @@
+-- V12: ECG 분석에서 계산한 HRV (리드 II R 피크 간격 기준, EcgRhythmAnalyzer)
+-- POST /api/ecg/predict_window?save=true 또는 측정값 API(hrvSdnnMs, hrvRmssdMs)로 저장된다.
+-- 심박수는 기존 heart_rate 컬럼을 그대로 사용한다.
+-- 파티션 부모 테이블에 추가하므로 기존/신규 월 파티션 모두에 적용된다. 보관 블록(콜드 티어)에는 남지 않는다.
+
+ALTER TABLE user_health_records
+    ADD COLUMN IF NOT EXISTS hrv_sdnn_ms  DOUBLE PRECISION,
+    ADD COLUMN IF NOT EXISTS hrv_rmssd_ms DOUBLE PRECISION;
@@ -0,0 +1,6 @@
+-- V13: ECG 분석 결과로 저장된 측정 기록 → 원본 윈도우 위치 (EcgWindowStore ref = 세그먼트 번호 << 32 | 슬롯 번호)
+-- 윈도우 자체(240KB)는 DB가 아니라 백엔드의 세그먼트 파일(ai.ecg.store.dir)에 있고, 저장소가 꺼져 있으면 NULL.
+-- 파티션 부모 테이블에 추가하므로 기존/신규 월 파티션 모두에 적용된다. 보관 블록(콜드 티어)에는 남지 않는다.
+
+ALTER TABLE user_health_records
+    ADD COLUMN IF NOT EXISTS ecg_window_ref BIGINT;
@@ -0,0 +1,7 @@
+-- V14: anomaly_type 길이 확장 (VARCHAR(50) → VARCHAR(255))
+-- 개인 기준선 이탈 비트(BP_BASELINE_DEVIATION, GLUCOSE_BASELINE_DEVIATION)가 더해지면서
+-- 규칙 이상과 함께 저장되는 조합 문자열이 50자를 넘을 수 있다 (모든 비트 조합 최대 101자, VitalAnomaly.typeOf).
+-- 파티션 부모 테이블에 적용하므로 기존/신규 월 파티션 모두 바뀌고, varchar 확장이라 테이블 재작성은 없다.
+
+ALTER TABLE user_health_records
+    ALTER COLUMN anomaly_type TYPE VARCHAR(255);
@@ -0,0 +1,17 @@
+-- V15: 최근 혈압(last_bp_sys/last_bp_dia)의 측정 시각
+-- 오프라인 재전송으로 더 오래된 측정이 늦게 도착해도 "최근 값"이 과거로 되돌아가지 않도록
+-- UserHealthService가 저장된 시각보다 같거나 늦은 측정일 때만 last_bp_* 를 교체한다 (UserHealthDailyRollupService와 같은 기준).
+-- 기존 환자는 핫 테이블의 마지막 혈압 측정 시각으로 초기화
+
+ALTER TABLE user_health_info
+    ADD COLUMN IF NOT EXISTS last_bp_at TIMESTAMP(6);
+
+UPDATE user_health_info h
+SET last_bp_at = t.last_bp_at
+FROM (
+    SELECT user_id, MAX(measured_at) AS last_bp_at
+    FROM user_health_records
+    WHERE bp_sys IS NOT NULL
+    GROUP BY user_id
+) t
+WHERE h.user_id = t.user_id;
@@ -0,0 +1,31 @@
+-- V16: 이상 판정 기준 데이터화 (VitalsRuleEngine)
+-- 코드에 박혀 있던 질환별 기준 완화(고혈압 160/100, 당뇨 250, 저혈압 80/50)를 제거하고
+-- 기준은 아래 두 테이블에서만 읽는다. 두 테이블 모두 비어 있으면 기본 기준(140/90, 90/60, 200, 70) 그대로.
+
+-- 질환별 기준: 등록 질환(user_disease)의 코드 접두어 또는 이름 키워드로 매칭
+-- 기본 기준보다 엄격해지는 방향으로만 적용 (높음 기준은 낮추기만, 낮음 기준은 올리기만)
+CREATE TABLE IF NOT EXISTS vitals_disease_threshold (
+    id            BIGSERIAL   PRIMARY KEY,
+    code_prefix   VARCHAR(20),
+    name_keyword  VARCHAR(50),
+    bp_sys_high   BIGINT,
+    bp_dia_high   BIGINT,
+    bp_sys_low    BIGINT,
+    bp_dia_low    BIGINT,
+    glucose_high  BIGINT,
+    glucose_low   BIGINT,
+    CONSTRAINT ck_vitals_disease_threshold_match CHECK (code_prefix IS NOT NULL OR name_keyword IS NOT NULL)
+);
+
+-- 환자별 기준: 담당 의료진이 환자 단위로 지정한 값 (지정한 항목은 방향과 관계없이 그대로 사용)
+CREATE TABLE IF NOT EXISTS vitals_patient_threshold (
+    id            BIGSERIAL   PRIMARY KEY,
+    user_id       BIGINT      NOT NULL UNIQUE REFERENCES users (id),
+    bp_sys_high   BIGINT,
+    bp_dia_high   BIGINT,
+    bp_sys_low    BIGINT,
+    bp_dia_low    BIGINT,
+    glucose_high  BIGINT,
+    glucose_low   BIGINT,
+    updated_at    TIMESTAMP   NOT NULL DEFAULT now()
+);
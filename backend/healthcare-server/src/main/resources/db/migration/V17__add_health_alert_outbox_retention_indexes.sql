@@ -0,0 +1,12 @@
+-- V17: 알림 아웃박스 보존 정리 (HealthAlertOutboxRetentionScheduler)
+-- SENT 행은 alerts.outbox.retention-days가 지나면 배치 단위로 삭제하고, FAILED 행은 남겨 두고 지표로 노출한다.
+
+-- 보존 기간이 지난 SENT 행을 processed_at 순서로 잘라 삭제 (정리 후에는 보존 기간만큼만 남음)
+CREATE INDEX IF NOT EXISTS idx_health_alert_outbox_sent_processed
+    ON health_alert_outbox (processed_at)
+    WHERE status = 'SENT';
+
+-- alerts.outbox.failed 지표의 COUNT용 (FAILED 행은 드물어 인덱스가 작음)
+CREATE INDEX IF NOT EXISTS idx_health_alert_outbox_failed
+    ON health_alert_outbox (id)
+    WHERE status = 'FAILED';
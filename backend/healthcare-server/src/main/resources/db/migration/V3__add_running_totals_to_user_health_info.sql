@@ -0,0 +1,29 @@
+-- V3: user_health_info에 평균 계산용 누적 합계/건수 컬럼 추가
+-- 측정값 저장 시마다 user_health_records 전체를 AVG로 다시 스캔하던 방식을
+-- running total(O(1) 갱신)로 대체한다. 기존 데이터는 아래 UPDATE로 1회 백필한다.
+
+ALTER TABLE user_health_info
+    ADD COLUMN IF NOT EXISTS bp_count      BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS bp_sys_sum    BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS bp_dia_sum    BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS glucose_count BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS glucose_sum   BIGINT NOT NULL DEFAULT 0;
+
+-- 백필: 기존 AVG 쿼리와 동일한 조건(수축기/이완기 모두 존재, 혈당 존재)으로 집계
+UPDATE user_health_info h
+SET bp_count      = t.bp_count,
+    bp_sys_sum    = t.bp_sys_sum,
+    bp_dia_sum    = t.bp_dia_sum,
+    glucose_count = t.glucose_count,
+    glucose_sum   = t.glucose_sum
+FROM (
+    SELECT user_id,
+           COUNT(*) FILTER (WHERE bp_sys IS NOT NULL AND bp_dia IS NOT NULL)                 AS bp_count,
+           COALESCE(SUM(bp_sys) FILTER (WHERE bp_sys IS NOT NULL AND bp_dia IS NOT NULL), 0) AS bp_sys_sum,
+           COALESCE(SUM(bp_dia) FILTER (WHERE bp_sys IS NOT NULL AND bp_dia IS NOT NULL), 0) AS bp_dia_sum,
+           COUNT(glucose)                                                                    AS glucose_count,
+           COALESCE(SUM(glucose), 0)                                                         AS glucose_sum
+    FROM user_health_records
+    GROUP BY user_id
+) t
+WHERE h.user_id = t.user_id;
@@ -0,0 +1,14 @@
+-- V4: user_health_records PK를 IDENTITY → 시퀀스로 전환 (JDBC 배치 INSERT용)
+-- Hibernate pooled optimizer(allocationSize=50)와 맞추기 위해 INCREMENT BY 50.
+-- pooled 방식은 nextval 값을 블록의 상한으로 쓰므로 (max(id) + 50)에서 시작해야
+-- 첫 블록이 max(id)+1 ~ max(id)+50이 되어 기존 id와 겹치지 않는다.
+
+CREATE SEQUENCE IF NOT EXISTS user_health_records_seq INCREMENT BY 50 MINVALUE 1;
+
+SELECT setval('user_health_records_seq',
+              COALESCE((SELECT MAX(id) FROM user_health_records), 0) + 50,
+              false);
+
+-- 애플리케이션 밖의 INSERT가 IDENTITY로 다른 id 공간을 쓰지 않도록 기존 자동 생성 제거
+ALTER TABLE user_health_records ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE user_health_records ALTER COLUMN id DROP DEFAULT;
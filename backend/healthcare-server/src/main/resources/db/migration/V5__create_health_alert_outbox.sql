@@ -0,0 +1,23 @@
+-- V5: 건강 이상 알림 아웃박스 테이블
+-- 측정 기록 저장과 같은 트랜잭션에서 INSERT되고, 백그라운드 디스패처가
+-- 환자/보호자별 user_health_alert 생성 및 발송을 처리한다.
+
+CREATE TABLE IF NOT EXISTS health_alert_outbox (
+    id               BIGSERIAL PRIMARY KEY,
+    patient_id       BIGINT        NOT NULL REFERENCES users (id),
+    health_record_id BIGINT,
+    alert_type       VARCHAR(255)  NOT NULL,
+    title            VARCHAR(255)  NOT NULL,
+    message          VARCHAR(1000) NOT NULL,
+    status           VARCHAR(20)   NOT NULL DEFAULT 'PENDING',
+    attempts         INTEGER       NOT NULL DEFAULT 0,
+    next_attempt_at  TIMESTAMP     NOT NULL,
+    last_error       VARCHAR(500),
+    created_at       TIMESTAMP,
+    processed_at     TIMESTAMP
+);
+
+-- 폴링 쿼리용: 대기 중인 항목만 인덱싱 (SENT 행이 쌓여도 인덱스 크기 유지)
+CREATE INDEX IF NOT EXISTS idx_health_alert_outbox_pending
+    ON health_alert_outbox (next_attempt_at, id)
+    WHERE status = 'PENDING';
@@ -0,0 +1,60 @@
+-- V6: 일별 측정 요약 테이블 (insights 조회용 rollup)
+-- 항목별 마지막 값 / 최소 / 최대 / 건수. 측정 저장 시 UPSERT로 증분 갱신되며
+-- 아래 INSERT ... SELECT로 기존 기록 전체를 1회 백필한다.
+-- (이후 재집계는 UserHealthDailyRollupService.rebuild 사용)
+
+CREATE TABLE IF NOT EXISTS user_health_daily (
+    id                BIGSERIAL PRIMARY KEY,
+    user_id           BIGINT    NOT NULL REFERENCES users (id),
+    day               DATE      NOT NULL,
+
+    glucose_last      BIGINT,
+    glucose_last_at   TIMESTAMP,
+    glucose_min       BIGINT,
+    glucose_max       BIGINT,
+    glucose_count     BIGINT    NOT NULL DEFAULT 0,
+
+    bp_sys_last       BIGINT,
+    bp_dia_last       BIGINT,
+    bp_last_at        TIMESTAMP,
+    bp_sys_min        BIGINT,
+    bp_sys_max        BIGINT,
+    bp_dia_min        BIGINT,
+    bp_dia_max        BIGINT,
+    bp_count          BIGINT    NOT NULL DEFAULT 0,
+
+    ecg_risk_last     DOUBLE PRECISION,
+    ecg_abnormal_last BOOLEAN,
+    ecg_last_at       TIMESTAMP,
+    ecg_risk_min      DOUBLE PRECISION,
+    ecg_risk_max      DOUBLE PRECISION,
+    ecg_count         BIGINT    NOT NULL DEFAULT 0,
+
+    CONSTRAINT uk_user_health_daily_user_day UNIQUE (user_id, day)
+);
+
+INSERT INTO user_health_daily (user_id, day,
+    glucose_last, glucose_last_at, glucose_min, glucose_max, glucose_count,
+    bp_sys_last, bp_dia_last, bp_last_at, bp_sys_min, bp_sys_max, bp_dia_min, bp_dia_max, bp_count,
+    ecg_risk_last, ecg_abnormal_last, ecg_last_at, ecg_risk_min, ecg_risk_max, ecg_count)
+SELECT r.user_id, CAST(r.measured_at AS DATE),
+    (ARRAY_AGG(r.glucose ORDER BY r.measured_at DESC, r.id DESC) FILTER (WHERE r.glucose IS NOT NULL))[1],
+    MAX(r.measured_at) FILTER (WHERE r.glucose IS NOT NULL),
+    MIN(r.glucose), MAX(r.glucose), COUNT(r.glucose),
+    (ARRAY_AGG(r.bp_sys ORDER BY r.measured_at DESC, r.id DESC) FILTER (WHERE r.bp_sys IS NOT NULL AND r.bp_dia IS NOT NULL))[1],
+    (ARRAY_AGG(r.bp_dia ORDER BY r.measured_at DESC, r.id DESC) FILTER (WHERE r.bp_sys IS NOT NULL AND r.bp_dia IS NOT NULL))[1],
+    MAX(r.measured_at) FILTER (WHERE r.bp_sys IS NOT NULL AND r.bp_dia IS NOT NULL),
+    MIN(r.bp_sys) FILTER (WHERE r.bp_sys IS NOT NULL AND r.bp_dia IS NOT NULL),
+    MAX(r.bp_sys) FILTER (WHERE r.bp_sys IS NOT NULL AND r.bp_dia IS NOT NULL),
+    MIN(r.bp_dia) FILTER (WHERE r.bp_sys IS NOT NULL AND r.bp_dia IS NOT NULL),
+    MAX(r.bp_dia) FILTER (WHERE r.bp_sys IS NOT NULL AND r.bp_dia IS NOT NULL),
+    COUNT(*) FILTER (WHERE r.bp_sys IS NOT NULL AND r.bp_dia IS NOT NULL),
+    (ARRAY_AGG(r.ecg_risk_score ORDER BY r.measured_at DESC, r.id DESC) FILTER (WHERE r.ecg_risk_score IS NOT NULL OR r.ecg_abnormal = TRUE OR r.heart_rate IS NOT NULL))[1],
+    (ARRAY_AGG(r.ecg_abnormal ORDER BY r.measured_at DESC, r.id DESC) FILTER (WHERE r.ecg_risk_score IS NOT NULL OR r.ecg_abnormal = TRUE OR r.heart_rate IS NOT NULL))[1],
+    MAX(r.measured_at) FILTER (WHERE r.ecg_risk_score IS NOT NULL OR r.ecg_abnormal = TRUE OR r.heart_rate IS NOT NULL),
+    MIN(r.ecg_risk_score), MAX(r.ecg_risk_score),
+    COUNT(*) FILTER (WHERE r.ecg_risk_score IS NOT NULL OR r.ecg_abnormal = TRUE OR r.heart_rate IS NOT NULL)
+FROM user_health_records r
+WHERE r.measured_at IS NOT NULL
+GROUP BY r.user_id, CAST(r.measured_at AS DATE)
+ON CONFLICT (user_id, day) DO NOTHING;
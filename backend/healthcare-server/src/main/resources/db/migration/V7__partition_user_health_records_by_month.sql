@@ -0,0 +1,83 @@
+-- V7: user_health_records를 measured_at 기준 월별 RANGE 파티션 테이블로 전환
+-- - PK는 파티션 키를 포함해야 하므로 (id, measured_at)
+-- - 파티션마다 (user_id, measured_at) 복합 인덱스 + measured_at BRIN 인덱스 (부모에 선언 → 자동 전파)
+-- - 기존 데이터 최소 월 ~ 현재+3개월 파티션을 만들고, 범위 밖 데이터는 DEFAULT 파티션으로
+-- - 이후 미래 파티션은 UserHealthRecordPartitionService가 주기적으로 미리 생성
+
+ALTER TABLE user_health_records RENAME TO user_health_records_legacy;
+
+-- 파티션 테이블은 다른 테이블의 FK 대상이 될 수 없으므로(PK에 measured_at 포함)
+-- user_health_alert.health_record_id 등 기존 테이블을 참조하던 FK 제거 (컬럼/값은 유지)
+DO $$
+DECLARE
+    fk RECORD;
+BEGIN
+    FOR fk IN
+        SELECT conname, conrelid::regclass AS tbl
+        FROM pg_constraint
+        WHERE contype = 'f' AND confrelid = 'user_health_records_legacy'::regclass
+    LOOP
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.tbl, fk.conname);
+    END LOOP;
+END $$;
+
+CREATE TABLE user_health_records (
+    id                    BIGINT       NOT NULL,
+    user_id               BIGINT       NOT NULL REFERENCES users (id),
+    bp_sys                BIGINT,
+    bp_dia                BIGINT,
+    glucose               BIGINT,
+    bp_sys_diff_from_avg  DOUBLE PRECISION,
+    bp_dia_diff_from_avg  DOUBLE PRECISION,
+    glucose_diff_from_avg DOUBLE PRECISION,
+    bp_abnormal           BOOLEAN,
+    glucose_abnormal      BOOLEAN,
+    overall_abnormal      BOOLEAN,
+    heart_rate            BIGINT,
+    ecg_risk_score        DOUBLE PRECISION,
+    ecg_abnormal          BOOLEAN,
+    ecg_anomaly_type      VARCHAR(50),
+    anomaly_type          VARCHAR(50),
+    anomaly_reason        VARCHAR(255),
+    measured_at           TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, measured_at)
+) PARTITION BY RANGE (measured_at);
+
+CREATE TABLE user_health_records_default PARTITION OF user_health_records DEFAULT;
+
+DO $$
+DECLARE
+    m      DATE := date_trunc('month', COALESCE((SELECT MIN(measured_at) FROM user_health_records_legacy), now()))::date;
+    last_m DATE := (date_trunc('month', now()) + INTERVAL '3 months')::date;
+BEGIN
+    WHILE m <= last_m LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF user_health_records FOR VALUES FROM (%L) TO (%L)',
+            'user_health_records_' || to_char(m, '"y"YYYY"m"MM'), m, (m + INTERVAL '1 month')::date);
+        m := (m + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO user_health_records (id, user_id, bp_sys, bp_dia, glucose,
+    bp_sys_diff_from_avg, bp_dia_diff_from_avg, glucose_diff_from_avg,
+    bp_abnormal, glucose_abnormal, overall_abnormal,
+    heart_rate, ecg_risk_score, ecg_abnormal, ecg_anomaly_type,
+    anomaly_type, anomaly_reason, measured_at)
+SELECT id, user_id, bp_sys, bp_dia, glucose,
+    bp_sys_diff_from_avg, bp_dia_diff_from_avg, glucose_diff_from_avg,
+    bp_abnormal, glucose_abnormal, overall_abnormal,
+    heart_rate, ecg_risk_score, ecg_abnormal, ecg_anomaly_type,
+    anomaly_type, anomaly_reason, COALESCE(measured_at, now())
+FROM user_health_records_legacy;
+
+DROP TABLE user_health_records_legacy;
+
+CREATE INDEX IF NOT EXISTS idx_user_health_records_user_measured
+    ON user_health_records (user_id, measured_at);
+
+CREATE INDEX IF NOT EXISTS idx_user_health_records_measured_brin
+    ON user_health_records USING BRIN (measured_at);
+
+-- 단건 조회(findById 등)용: id 단독 조회는 파티션 전체를 보지만 인덱스로 빠르게 찾도록
+CREATE INDEX IF NOT EXISTS idx_user_health_records_id
+    ON user_health_records (id);
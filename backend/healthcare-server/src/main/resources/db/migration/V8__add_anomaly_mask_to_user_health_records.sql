@@ -0,0 +1,28 @@
+-- V8: 이상 종류 비트마스크 컬럼 (anomaly_type 문자열 LIKE 검색 대체)
+-- 비트 위치는 VitalAnomaly enum 순서와 동일 (순서 변경 금지)
+--   1 = HIGH_BP, 2 = LOW_BP, 4 = HIGH_GLUCOSE, 8 = LOW_GLUCOSE, 16 = ECG_ABNORMAL
+-- 파티션 부모 테이블에 추가하므로 기존/신규 월 파티션 모두에 적용된다.
+
+ALTER TABLE user_health_records
+    ADD COLUMN IF NOT EXISTS anomaly_mask INTEGER NOT NULL DEFAULT 0;
+
+-- 기존 "HIGH_BP,HIGH_GLUCOSE" 형태 문자열에서 백필
+UPDATE user_health_records r
+SET anomaly_mask =
+      (CASE WHEN 'HIGH_BP'      = ANY (t.types) THEN 1  ELSE 0 END)
+    | (CASE WHEN 'LOW_BP'       = ANY (t.types) THEN 2  ELSE 0 END)
+    | (CASE WHEN 'HIGH_GLUCOSE' = ANY (t.types) THEN 4  ELSE 0 END)
+    | (CASE WHEN 'LOW_GLUCOSE'  = ANY (t.types) THEN 8  ELSE 0 END)
+    | (CASE WHEN 'ECG_ABNORMAL' = ANY (t.types) THEN 16 ELSE 0 END)
+FROM (
+    SELECT id, measured_at, string_to_array(replace(anomaly_type, ' ', ''), ',') AS types
+    FROM user_health_records
+    WHERE anomaly_type IS NOT NULL AND anomaly_type <> ''
+) t
+WHERE r.id = t.id AND r.measured_at = t.measured_at;
+
+-- 이상 기록만 담는 부분 인덱스 (정상 측정이 대부분이라 크기가 작음)
+-- 조회 쿼리는 anomaly_mask <> 0 조건을 함께 써야 이 인덱스를 사용한다
+CREATE INDEX IF NOT EXISTS idx_user_health_records_abnormal
+    ON user_health_records (user_id, measured_at DESC)
+    WHERE anomaly_mask <> 0;
@@ -0,0 +1,32 @@
+-- V9: 환자별 개인 기준선(지수가중 평균/분산) 컬럼
+-- 측정 저장 시 VitalsBaselineDetector가 O(1)로 갱신하며, 기준선에서 k 시그마 이상 벗어난 측정을 표시한다.
+-- 이탈 표시는 anomaly_mask 비트 32 = BP_BASELINE_DEVIATION, 64 = GLUCOSE_BASELINE_DEVIATION
+-- 기존 환자는 전체 기록의 평균/모분산으로 1회 초기화 (이후 측정부터 지수가중으로 최근 값에 수렴)
+
+ALTER TABLE user_health_info
+    ADD COLUMN IF NOT EXISTS bp_sys_ew_mean  DOUBLE PRECISION,
+    ADD COLUMN IF NOT EXISTS bp_sys_ew_var   DOUBLE PRECISION,
+    ADD COLUMN IF NOT EXISTS bp_dia_ew_mean  DOUBLE PRECISION,
+    ADD COLUMN IF NOT EXISTS bp_dia_ew_var   DOUBLE PRECISION,
+    ADD COLUMN IF NOT EXISTS glucose_ew_mean DOUBLE PRECISION,
+    ADD COLUMN IF NOT EXISTS glucose_ew_var  DOUBLE PRECISION;
+
+UPDATE user_health_info h
+SET bp_sys_ew_mean  = t.bp_sys_mean,
+    bp_sys_ew_var   = t.bp_sys_var,
+    bp_dia_ew_mean  = t.bp_dia_mean,
+    bp_dia_ew_var   = t.bp_dia_var,
+    glucose_ew_mean = t.glucose_mean,
+    glucose_ew_var  = t.glucose_var
+FROM (
+    SELECT user_id,
+           AVG(bp_sys)     FILTER (WHERE bp_sys IS NOT NULL AND bp_dia IS NOT NULL) AS bp_sys_mean,
+           VAR_POP(bp_sys) FILTER (WHERE bp_sys IS NOT NULL AND bp_dia IS NOT NULL) AS bp_sys_var,
+           AVG(bp_dia)     FILTER (WHERE bp_sys IS NOT NULL AND bp_dia IS NOT NULL) AS bp_dia_mean,
+           VAR_POP(bp_dia) FILTER (WHERE bp_sys IS NOT NULL AND bp_dia IS NOT NULL) AS bp_dia_var,
+           AVG(glucose)                                                             AS glucose_mean,
+           VAR_POP(glucose)                                                         AS glucose_var
+    FROM user_health_records
+    GROUP BY user_id
+) t
+WHERE h.user_id = t.user_id;
@@ -0,0 +1,89 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.UserHealthDaily;
+import com.example.demo.entity.UserHealthRecord;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InsightsResponseTest {
+
+    @Test
+    void dailyRollupMatchesRawRecords() {
+        Random random = new Random(42);
+        LocalDateTime base = LocalDate.now().minusDays(364).atStartOfDay();
+
+        // 1년치 50k건 (순서 섞임)
+        List<UserHealthRecord> records = new ArrayList<>();
+        for (int n = 0; n < 50_000; n++) {
+            UserHealthRecord r = new UserHealthRecord();
+            r.setMeasuredAt(base.plusMinutes(random.nextInt(365 * 24 * 60)));
+            switch (random.nextInt(3)) {
+                case 0 -> r.setGlucose(60L + random.nextInt(200));
+                case 1 -> {
+                    r.setBpSys(90L + random.nextInt(80));
+                    r.setBpDia(55L + random.nextInt(50));
+                }
+                default -> {
+                    r.setEcgRiskScore(random.nextDouble());
+                    r.setEcgAbnormal(random.nextBoolean());
+                }
+            }
+            records.add(r);
+        }
+
+        InsightsResponse expected = InsightsResponse.from(records, 365);
+        InsightsResponse actual = InsightsResponse.fromDaily(rollup(records), 365);
+
+        assertThat(actual.getLabels()).isEqualTo(expected.getLabels());
+        assertThat(actual.getGlucose()).isEqualTo(expected.getGlucose());
+        assertThat(actual.getBp()).isEqualTo(expected.getBp());
+        assertThat(actual.getEcg()).isEqualTo(expected.getEcg());
+        assertThat(actual.getWeeklyScore()).isEqualTo(expected.getWeeklyScore());
+    }
+
+    @Test
+    void emptyDaysScoreZero() {
+        InsightsResponse resp = InsightsResponse.fromDaily(List.of(), 7);
+
+        assertThat(resp.getLabels()).hasSize(7);
+        assertThat(resp.getGlucose()).containsOnly(0);
+        assertThat(resp.getWeeklyScore()).isZero();
+    }
+
+    // user_health_daily의 "항목별 마지막 값"과 같은 규칙으로 집계
+    private static List<UserHealthDaily> rollup(List<UserHealthRecord> records) {
+        Map<LocalDate, UserHealthDaily> byDay = new LinkedHashMap<>();
+        for (UserHealthRecord r : records) {
+            LocalDateTime t = r.getMeasuredAt();
+            UserHealthDaily d = byDay.computeIfAbsent(t.toLocalDate(), day -> {
+                UserHealthDaily row = new UserHealthDaily();
+                row.setDay(day);
+                return row;
+            });
+            if (r.getGlucose() != null && (d.getGlucoseLastAt() == null || t.isAfter(d.getGlucoseLastAt()))) {
+                d.setGlucoseLast(r.getGlucose());
+                d.setGlucoseLastAt(t);
+            }
+            if (r.getBpSys() != null && (d.getBpLastAt() == null || t.isAfter(d.getBpLastAt()))) {
+                d.setBpSysLast(r.getBpSys());
+                d.setBpDiaLast(r.getBpDia());
+                d.setBpLastAt(t);
+            }
+            if (r.getEcgRiskScore() != null && (d.getEcgLastAt() == null || t.isAfter(d.getEcgLastAt()))) {
+                d.setEcgRiskLast(r.getEcgRiskScore());
+                d.setEcgAbnormalLast(r.getEcgAbnormal());
+                d.setEcgLastAt(t);
+            }
+        }
+        return new ArrayList<>(byDay.values());
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.User;
+import com.example.demo.entity.UserHealthRecord;
+import com.example.demo.entity.UserRole;
+import com.example.demo.service.VitalAnomaly;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 모든 이상 비트가 켜진 측정 기록도 anomaly_type/anomaly_reason 길이 제한에 걸리지 않고 저장되는지 확인
+ * (DemoApplicationTests와 같이 설정된 PostgreSQL + Flyway 마이그레이션 필요, 테스트 후 롤백)
+ */
+@SpringBootTest
+@Transactional
+class UserHealthRecordAnomalyTypeTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserHealthRecordRepository recordRepository;
+
+    @Test
+    void savesRecordWithEveryAnomalyBit() {
+        User user = new User();
+        user.setUserId("anomaly-type-test");
+        user.setPassword("x");
+        user.setName("T");
+        user.setGender("M");
+        user.setBirthDate(LocalDate.of(1960, 1, 1));
+        user.setPhone("010");
+        user.setAddress("a");
+        user.setRole(UserRole.PATIENT);
+        userRepository.save(user);
+
+        int worst = (1 << VitalAnomaly.values().length) - 1;
+        UserHealthRecord record = new UserHealthRecord();
+        record.setUser(user);
+        record.setMeasuredAt(LocalDateTime.now());
+        record.setAnomalyMask(worst);
+        record.setAnomalyType(VitalAnomaly.typeOf(worst));
+        record.setAnomalyReason(VitalAnomaly.reasonOf(worst));
+        recordRepository.saveAndFlush(record);
+
+        assertThat(record.getAnomalyType().length()).isGreaterThan(50);
+        assertThat(recordRepository.findById(record.getId()))
+                .hasValueSatisfying(r -> assertThat(r.getAnomalyType()).isEqualTo(VitalAnomaly.typeOf(worst)));
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.demo.repository;
+
+import com.example.demo.service.UserHealthRecordPartitionService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * V7 월별 파티션에서 vitals 조회 쿼리가 partition pruning 되는지 EXPLAIN으로 확인
+ * - 리포지토리 메서드를 실제로 호출하고, Hibernate가 만든 SQL을 같은 파라미터로 EXPLAIN
+ * (DemoApplicationTests와 같이 설정된 PostgreSQL + Flyway 마이그레이션 필요)
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.demo.repository.UserHealthRecordPartitionPruningTest$CapturingInspector")
+class UserHealthRecordPartitionPruningTest {
+
+    /**
+     * Hibernate가 실행하는 SQL을 그대로 기록 (변경하지 않음)
+     */
+    public static class CapturingInspector implements StatementInspector {
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserHealthRecordPartitionService partitionService;
+
+    @Autowired
+    private UserHealthRecordRepository userHealthRecordRepository;
+
+    @BeforeEach
+    void setUp() {
+        partitionService.ensureFuturePartitions();
+        CapturingInspector.SQL.clear();
+    }
+
+    @Test
+    void futurePartitionsExist() {
+        YearMonth month = YearMonth.now();
+        for (int i = 0; i <= 3; i++) {
+            String name = UserHealthRecordPartitionService.partitionName(month.plusMonths(i));
+            Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+            assertThat(exists).as(name).isTrue();
+        }
+    }
+
+    @Test
+    void emptyPastPartitionIsDropped() {
+        // 실제 데이터와 겹치지 않는 먼 과거 월
+        YearMonth month = YearMonth.of(2001, 1);
+        String name = UserHealthRecordPartitionService.partitionName(month);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name
+                + " PARTITION OF user_health_records FOR VALUES FROM ('2001-01-01') TO ('2001-02-01')");
+
+        assertThat(partitionService.dropEmptyPartitionsBefore(month.plusMonths(1))).isEqualTo(1);
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+        assertThat(exists).isFalse();
+    }
+
+    @Test
+    void rangeQueryScansOnlyMatchingMonth() {
+        YearMonth month = YearMonth.now();
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.atDay(Math.min(20, month.lengthOfMonth())).atStartOfDay();
+
+        userHealthRecordRepository.findByUser_IdAndMeasuredAtBetweenOrderByMeasuredAtAsc(1L, from, to);
+        String plan = explainCaptured(1L, Timestamp.valueOf(from), Timestamp.valueOf(to));
+
+        assertThat(plan).contains(UserHealthRecordPartitionService.partitionName(month));
+        assertThat(plan).doesNotContain(UserHealthRecordPartitionService.partitionName(month.minusMonths(1)));
+        assertThat(plan).doesNotContain(UserHealthRecordPartitionService.partitionName(month.plusMonths(1)));
+        assertThat(plan).doesNotContain("user_health_records_default");
+    }
+
+    @Test
+    void latestRecordQueryScansOnlyOneDayPartition() {
+        // UserHealthService.findLatestRecord: 마지막 측정일 하루 범위 + LIMIT 1
+        LocalDateTime day = LocalDate.now().atStartOfDay();
+
+        userHealthRecordRepository
+                .findTopByUser_IdAndMeasuredAtGreaterThanEqualAndMeasuredAtLessThanOrderByMeasuredAtDesc(
+                        1L, day, day.plusDays(1));
+        String plan = explainCaptured(1L, Timestamp.valueOf(day), Timestamp.valueOf(day.plusDays(1)), 1);
+
+        assertThat(scannedPartitions(plan)).isEqualTo(1);
+        assertThat(plan).doesNotContain("user_health_records_default");
+    }
+
+    @Test
+    void latestRecordFallbackStaysWithinHotTier() {
+        // UserHealthService.findLatestRecord fallback: 보관 기준 월 ~ 내일 (vitals.archive.min-age-days 기본값)
+        YearMonth first = YearMonth.from(LocalDate.now().minusDays(180));
+        LocalDateTime start = first.atDay(1).atStartOfDay();
+        LocalDateTime end = LocalDate.now().plusDays(1).atStartOfDay();
+
+        userHealthRecordRepository
+                .findTopByUser_IdAndMeasuredAtGreaterThanEqualAndMeasuredAtLessThanOrderByMeasuredAtDesc(
+                        1L, start, end);
+        String plan = explainCaptured(1L, Timestamp.valueOf(start), Timestamp.valueOf(end), 1);
+
+        // 보관 기준 월 이전, 내일이 속한 달 이후 파티션은 스캔하지 않음
+        assertThat(plan).doesNotContain(UserHealthRecordPartitionService.partitionName(first.minusMonths(1)));
+        assertThat(plan).doesNotContain(UserHealthRecordPartitionService.partitionName(
+                YearMonth.from(end).plusMonths(1)));
+        // default 파티션은 범위 안에 전용 파티션이 없는 월이 있을 때만 (그 월의 행은 default에 있음)
+        boolean allMonthsPartitioned = true;
+        for (YearMonth m = first; !m.isAfter(YearMonth.from(end)); m = m.plusMonths(1)) {
+            allMonthsPartitioned &= Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT to_regclass(?) IS NOT NULL", Boolean.class, UserHealthRecordPartitionService.partitionName(m)));
+        }
+        if (allMonthsPartitioned) {
+            assertThat(plan).doesNotContain("user_health_records_default");
+        }
+        assertThat(scannedPartitions(plan)).isGreaterThan(0);
+    }
+
+    /**
+     * 마지막으로 기록된 user_health_records SELECT를 같은 바인드 값으로 EXPLAIN
+     * (바인드 값 개수가 SQL의 ? 개수와 다르면 실패 — 생성 SQL이 바뀌면 테스트도 함께 고쳐야 함)
+     */
+    private String explainCaptured(Object... args) {
+        String sql = CapturingInspector.SQL.stream()
+                .filter(s -> s.contains("user_health_records"))
+                .reduce((a, b) -> b)
+                .orElseThrow(() -> new AssertionError("repository query was not captured"));
+        assertThat(sql.chars().filter(c -> c == '?').count()).as(sql).isEqualTo(args.length);
+
+        List<String> lines = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args);
+        return String.join("\n", lines);
+    }
+
+    private static long scannedPartitions(String plan) {
+        return plan.lines()
+                .filter(line -> line.contains(" on user_health_records_"))
+                .count();
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.demo.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 지연을 주입하는 로컬 AI 스텁 서버로 벌크헤드/서킷 브레이커 동작 확인
+ * + pass-through 모드(forwardPredict)의 검증/중계/오류 처리
+ */
+class EcgAnalysisServiceTest {
+
+    private static final byte[] RESULT = "{\"top_label\": \"NORM\"}".getBytes(StandardCharsets.UTF_8);
+    private static final List<List<Double>> X = List.of(List.of(0.1, 0.2));
+
+    private HttpServer stub;
+    private final AtomicLong latencyMs = new AtomicLong();
+    private final AtomicInteger hits = new AtomicInteger();
+    private CountDownLatch release = new CountDownLatch(0);
+
+    // /predict_window_bin 스텁 응답 (pass-through 테스트용)
+    private final AtomicInteger binStatus = new AtomicInteger(200);
+    private volatile byte[] binBody = RESULT;
+    private volatile int binDeclaredLength = -1; // 0 이상이면 이 길이를 선언하고 binBody만 보낸 뒤 끊음
+    private final AtomicInteger binCompleteBodies = new AtomicInteger();
+
+    @BeforeEach
+    void startStub() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.setExecutor(Executors.newCachedThreadPool());
+        stub.createContext("/predict_window", exchange -> {
+            hits.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(latencyMs.get());
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, RESULT.length);
+            exchange.getResponseBody().write(RESULT);
+            exchange.close();
+        });
+        stub.createContext("/predict_window_bin", exchange -> {
+            hits.incrementAndGet();
+            try {
+                byte[] received = exchange.getRequestBody().readAllBytes();
+                String declared = exchange.getRequestHeaders().getFirst("Content-Length");
+                if (declared != null && received.length == Long.parseLong(declared)) {
+                    binCompleteBodies.incrementAndGet();
+                }
+            } catch (IOException e) {
+                // 클라이언트가 전송을 중단한 요청 — 응답하지 않음
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/problem+json");
+            byte[] body = binBody;
+            exchange.sendResponseHeaders(binStatus.get(), binDeclaredLength >= 0 ? binDeclaredLength : body.length);
+            exchange.getResponseBody().write(body);
+            exchange.getResponseBody().flush();
+            exchange.close();
+        });
+        stub.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        release.countDown();
+        stub.stop(0);
+    }
+
+    private EcgAnalysisService service(EcgCallGuard guard) {
+        return service(guard, "http://127.0.0.1:" + stub.getAddress().getPort(), false);
+    }
+
+    private EcgAnalysisService service(EcgCallGuard guard, String url, boolean passThrough) {
+        return new EcgAnalysisService(url, "",
+                1_000, 2_000, 30_000, passThrough, 4_194_304, true, true, 10, 10, 4_000, 1_000, false, 16, 10, 256, 4,
+                new SimpleMeterRegistry(), guard,
+                // 같은 윈도우를 반복해서 보내므로 결과 캐시는 끔
+                new EcgResultCache(new SimpleMeterRegistry(), false, 1, 1));
+    }
+
+    @Test
+    void slowAiServerOpensCircuitAndFailsFastUntilProbeSucceeds() throws Exception {
+        // 4건 중 50% 이상이 100ms 넘게 걸리면 300ms 차단, 시험 호출 1건
+        EcgCallGuard guard = new EcgCallGuard(10, 0, 4, 4, 50, 50, 100, 300, 1, new SimpleMeterRegistry());
+        EcgAnalysisService service = service(guard);
+
+        latencyMs.set(150);
+        for (int i = 0; i < 4; i++) {
+            assertThat(service.analyzeEcg(X, 500)).contains("NORM"); // 느려도 응답은 정상
+        }
+        assertThat(guard.state()).isEqualTo(EcgCircuitBreaker.State.OPEN);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> service.analyzeEcg(X, 500))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+                });
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(hits.get()).isEqualTo(4); // AI 서버에 요청하지 않음
+
+        Thread.sleep(300);
+        latencyMs.set(0);
+        assertThat(service.analyzeEcg(X, 500)).contains("NORM"); // HALF_OPEN 시험 호출
+        assertThat(guard.state()).isEqualTo(EcgCircuitBreaker.State.CLOSED);
+        service.close();
+    }
+
+    @Test
+    void bulkheadRejectsCallsBeyondConcurrencyLimit() throws Exception {
+        EcgCallGuard guard = new EcgCallGuard(2, 0, 20, 10, 50, 50, 5_000, 30_000, 3, new SimpleMeterRegistry());
+        EcgAnalysisService service = service(guard);
+
+        release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> service.analyzeEcg(X, 500));
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> service.analyzeEcg(X, 500));
+        while (hits.get() < 2) {
+            Thread.sleep(5);
+        }
+
+        assertThatThrownBy(() -> service.analyzeEcg(X, 500))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        assertThat(hits.get()).isEqualTo(2);
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).contains("NORM");
+        assertThat(second.get(5, TimeUnit.SECONDS)).contains("NORM");
+        assertThat(service.analyzeEcg(X, 500)).contains("NORM");
+        assertThat(guard.state()).isEqualTo(EcgCircuitBreaker.State.CLOSED);
+        service.close();
+    }
+
+    @Test
+    void passThroughValidatesHeadersBeforeCallingAiServer() throws Exception {
+        EcgAnalysisService service = service(passThroughGuard(),
+                "http://127.0.0.1:" + stub.getAddress().getPort(), true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertStatus(() -> service.forwardPredict("text/plain", 10, body(10), response),
+                HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+        assertStatus(() -> service.forwardPredict(null, 10, body(10), response),
+                HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+        assertStatus(() -> service.forwardPredict("application/octet-stream", -1, body(10), response),
+                HttpStatus.LENGTH_REQUIRED);
+        assertStatus(() -> service.forwardPredict("application/octet-stream", 4_194_305, body(10), response),
+                HttpStatus.PAYLOAD_TOO_LARGE);
+        assertThat(hits.get()).isZero();
+        service.close();
+    }
+
+    @Test
+    void passThroughStreamsBodyAndRelaysUpstreamErrorsUnchanged() throws Exception {
+        EcgCallGuard guard = passThroughGuard();
+        EcgAnalysisService service = service(guard, "http://127.0.0.1:" + stub.getAddress().getPort(), true);
+
+        MockHttpServletResponse ok = new MockHttpServletResponse();
+        service.forwardPredict("application/octet-stream", 100_000, body(100_000), ok);
+        assertThat(ok.getStatus()).isEqualTo(200);
+        assertThat(ok.getContentAsByteArray()).isEqualTo(RESULT);
+        assertThat(binCompleteBodies.get()).isEqualTo(1);
+
+        // 4xx는 상태/본문/Content-Type 그대로, 브레이커 판단에서 제외 (4건 모두 4xx여도 CLOSED)
+        binStatus.set(422);
+        binBody = "{\"detail\": \"Expected 12 leads\"}".getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < 4; i++) {
+            MockHttpServletResponse rejected = new MockHttpServletResponse();
+            service.forwardPredict("application/octet-stream", 16, body(16), rejected);
+            assertThat(rejected.getStatus()).isEqualTo(422);
+            assertThat(rejected.getContentType()).isEqualTo("application/problem+json");
+            assertThat(rejected.getContentAsByteArray()).isEqualTo(binBody);
+        }
+        assertThat(guard.state()).isEqualTo(EcgCircuitBreaker.State.CLOSED);
+
+        // 5xx도 그대로 전달하되 AI 서버 실패로 집계 (성공 1 + 실패 3 → 창 4건 중 75%)
+        binStatus.set(503);
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletResponse failed = new MockHttpServletResponse();
+            service.forwardPredict("application/octet-stream", 16, body(16), failed);
+            assertThat(failed.getStatus()).isEqualTo(503);
+            assertThat(failed.getContentAsByteArray()).isEqualTo(binBody);
+        }
+        assertThat(guard.state()).isEqualTo(EcgCircuitBreaker.State.OPEN);
+        service.close();
+    }
+
+    @Test
+    void passThroughAbortsShortClientBodyWithoutTrippingBreaker() throws Exception {
+        EcgCallGuard guard = passThroughGuard();
+        EcgAnalysisService service = service(guard, "http://127.0.0.1:" + stub.getAddress().getPort(), true);
+
+        for (int i = 0; i < 4; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            // 100KB를 선언하고 40KB만 보낸 클라이언트
+            service.forwardPredict("application/octet-stream", 100_000, body(40_000), response);
+            assertThat(response.getStatus()).isEqualTo(502);
+        }
+
+        assertThat(binCompleteBodies.get()).isZero(); // 잘린 본문이 AI 서버에 완결된 요청으로 도착하지 않음
+        assertThat(guard.state()).isEqualTo(EcgCircuitBreaker.State.CLOSED);
+        service.close();
+    }
+
+    @Test
+    void passThroughReturns502OnConnectionFailureAndCountsIt() throws Exception {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            closedPort = socket.getLocalPort();
+        }
+        EcgCallGuard guard = passThroughGuard();
+        EcgAnalysisService service = service(guard, "http://127.0.0.1:" + closedPort, true);
+
+        for (int i = 0; i < 4; i++) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            service.forwardPredict("application/json", 16, body(16), response);
+            assertThat(response.getStatus()).isEqualTo(502);
+            assertThat(response.getContentType()).startsWith("application/json");
+            assertThat(response.getContentAsString(StandardCharsets.UTF_8)).contains("\"error\"");
+        }
+        assertThat(guard.state()).isEqualTo(EcgCircuitBreaker.State.OPEN);
+        service.close();
+    }
+
+    @Test
+    void passThroughKeepsCommittedResponseWhenUpstreamBreaksMidBody() throws Exception {
+        EcgAnalysisService service = service(passThroughGuard(),
+                "http://127.0.0.1:" + stub.getAddress().getPort(), true);
+        // 10KB를 선언하고 4KB만 보낸 뒤 연결을 끊는 AI 서버
+        binDeclaredLength = 10_000;
+        binBody = new byte[4_000];
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setBufferSize(1_024); // 버퍼를 넘기면 커밋됨
+        service.forwardPredict("application/octet-stream", 16, body(16), response);
+
+        // 이미 상태/본문 일부를 보낸 뒤라 502로 바꾸지 않음
+        assertThat(response.isCommitted()).isTrue();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).doesNotContain("error");
+        service.close();
+    }
+
+    // 4건 중 50% 이상 실패면 OPEN (느린 호출 기준은 사실상 끔)
+    private static EcgCallGuard passThroughGuard() {
+        return new EcgCallGuard(10, 0, 4, 4, 50, 50, 60_000, 30_000, 1, new SimpleMeterRegistry());
+    }
+
+    private static ByteArrayInputStream body(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) i;
+        }
+        return new ByteArrayInputStream(bytes);
+    }
+
+    private static void assertStatus(ThrowingCallable call, HttpStatus status) {
+        assertThatThrownBy(call).isInstanceOfSatisfying(ResponseStatusException.class,
+                e -> assertThat(e.getStatusCode()).isEqualTo(status));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EcgCircuitBreakerTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final AtomicLong now = new AtomicLong();
+    // 최근 10건 중 최소 5건, 실패율/느린 호출 50% 이상이면 1초 차단, 시험 호출 2건
+    private final EcgCircuitBreaker breaker = new EcgCircuitBreaker(10, 5, 50, 50, 100 * MS, 1_000 * MS, 2, now::get);
+
+    private void call(long durationMs, boolean success) {
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onResult(durationMs * MS, success);
+    }
+
+    @Test
+    void opensOnFailureRateAndProbesAfterWait() {
+        call(10, true);
+        call(10, false);
+        call(10, true);
+        call(10, false);
+        assertThat(breaker.state()).isEqualTo(EcgCircuitBreaker.State.CLOSED); // 최소 호출 수 미만
+        call(10, false);
+        assertThat(breaker.state()).isEqualTo(EcgCircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.remainingOpenMillis()).isEqualTo(1_000);
+
+        now.addAndGet(1_000 * MS);
+        // HALF_OPEN — 시험 호출 2건만 통과
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.state()).isEqualTo(EcgCircuitBreaker.State.HALF_OPEN);
+        breaker.onResult(10 * MS, true);
+        breaker.onResult(10 * MS, true);
+        assertThat(breaker.state()).isEqualTo(EcgCircuitBreaker.State.CLOSED);
+        assertThat(breaker.failureRate()).isZero();
+    }
+
+    @Test
+    void opensOnSlowSuccessfulCallsAndReopensOnFailedProbe() {
+        for (int i = 0; i < 5; i++) {
+            call(i < 2 ? 10 : 150, true);
+        }
+        assertThat(breaker.state()).isEqualTo(EcgCircuitBreaker.State.OPEN);
+        assertThat(breaker.slowCallRate()).isEqualTo(60.0);
+
+        now.addAndGet(1_000 * MS);
+        call(10, true);
+        call(200, true);
+        assertThat(breaker.state()).isEqualTo(EcgCircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void ignoredProbeFreesItsSlot() {
+        for (int i = 0; i < 5; i++) {
+            call(10, false);
+        }
+        now.addAndGet(1_000 * MS);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onIgnored(); // 4xx — 판단에서 제외
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onResult(10 * MS, true);
+        breaker.onResult(10 * MS, true);
+        assertThat(breaker.state()).isEqualTo(EcgCircuitBreaker.State.CLOSED);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EcgInferenceBatcherTest {
+
+    private static EcgWindow window(int fs) {
+        return new EcgWindow(EcgWindow.LEADS, 1, fs, new byte[EcgWindow.HEADER_BYTES + EcgWindow.LEADS * Float.BYTES]);
+    }
+
+    @Test
+    void collectsConcurrentWindowsIntoOneBatchAndReturnsResultsInOrder() throws Exception {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        try (EcgInferenceBatcher batcher = new EcgInferenceBatcher(8, 200, 16, 1, windows -> {
+            batchSizes.add(windows.size());
+            List<String> results = new ArrayList<>();
+            for (EcgWindow w : windows) {
+                results.add(w.fs() == 3 ? null : "fs=" + w.fs()); // fs=3은 AI 서버가 거절한 항목
+            }
+            return results;
+        }, new SimpleMeterRegistry())) {
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int fs = 0; fs < 5; fs++) {
+                futures.add(batcher.submit(window(fs)));
+            }
+            for (int fs = 0; fs < 5; fs++) {
+                assertThat(futures.get(fs).get(5, TimeUnit.SECONDS)).isEqualTo(fs == 3 ? null : "fs=" + fs);
+            }
+            assertThat(batchSizes).containsExactly(5);
+        }
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (EcgInferenceBatcher batcher = new EcgInferenceBatcher(1, 0, 2, 1, windows -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of("ok");
+        }, new SimpleMeterRegistry())) {
+            CompletableFuture<String> sending = batcher.submit(window(0));
+            while (batcher.queued() > 0) {
+                Thread.sleep(5);
+            }
+            batcher.submit(window(1)); // 전송 중인 배치가 끝날 때까지 큐에서 대기
+            batcher.submit(window(2));
+            assertThatThrownBy(() -> batcher.submit(window(3)))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+            release.countDown();
+            assertThat(sending.get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+        }
+    }
+}
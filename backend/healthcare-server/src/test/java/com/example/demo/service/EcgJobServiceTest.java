@@ -0,0 +1,66 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EcgJobServiceTest {
+
+    // 실행 스레드 1개 + 대기 1건
+    private final EcgJobService service = new EcgJobService(new SimpleMeterRegistry(), 1, 1, 100, 600, 1_000);
+
+    @Test
+    void runsJobInBackgroundAndOnlyOwnerCanSeeIt() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        EcgJobService.EcgJob job = service.submit("p1", () -> {
+            await(release);
+            return "{\"top_label\": \"NORM\"}";
+        });
+        assertThat(job.getStatus()).isIn("queued", "running"); // 요청 스레드는 바로 반환
+
+        release.countDown();
+        job.getCompletion().get(5, TimeUnit.SECONDS);
+        EcgJobService.EcgJob done = service.get("p1", job.getId());
+        assertThat(done.getStatus()).isEqualTo("done");
+        assertThat(done.getResult()).contains("NORM");
+        assertThat(done.getCompletedAt()).isNotNull();
+
+        assertThatThrownBy(() -> service.get("p2", job.getId()))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+    }
+
+    @Test
+    void rejectsWhenQueueIsFullAndRecordsFailedAnalysis() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        EcgJobService.EcgJob running = service.submit("p1", () -> {
+            await(release);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "circuit open");
+        });
+        service.submit("p1", () -> "{}"); // 대기 큐
+
+        assertThatThrownBy(() -> service.submit("p1", () -> "{}"))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+
+        release.countDown();
+        running.getCompletion().get(5, TimeUnit.SECONDS);
+        assertThat(running.getStatus()).isEqualTo("failed");
+        assertThat(running.getError()).isEqualTo("circuit open");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CreateHealthRecordRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EcgRecordServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final EcgRecordService service = new EcgRecordService(null, null, objectMapper);
+
+    @Test
+    void mapsAnalysisResultToReading() throws Exception {
+        CreateHealthRecordRequest req = service.toReading(objectMapper.readTree("""
+                {"probs": [0.2, 0.1, 0.72, 0.05, 0.3], "risk_level": "medium", "top_label": "MI",
+                 "rhythm": {"beats": 12, "heartRate": 72.8, "sdnnMs": 50.5, "rmssdMs": 78.7}}
+                """));
+
+        assertThat(req.getHeartRate()).isEqualTo(73L);
+        assertThat(req.getHrvSdnnMs()).isEqualTo(50.5);
+        assertThat(req.getHrvRmssdMs()).isEqualTo(78.7);
+        assertThat(req.getEcgRiskScore()).isEqualTo(0.72);
+        assertThat(req.getEcgAbnormal()).isTrue();
+        assertThat(req.getEcgAnomalyType()).isEqualTo("MI");
+    }
+
+    @Test
+    void skipsErrorResponses() throws Exception {
+        assertThat(service.toReading(objectMapper.readTree("{\"error\": \"AI 서버와 통신할 수 없습니다.\"}"))).isNull();
+        assertThat(service.toReading(objectMapper.readTree("{}"))).isNull();
+    }
+
+    @Test
+    void keepsWindowsOnlyForSuccessfulAnalyses(@TempDir Path dir) throws Exception {
+        EcgWindowStore store = new EcgWindowStore(new SimpleMeterRegistry(), true, dir.toString(), 4);
+        EcgRecordService withStore = new EcgRecordService(null, store, objectMapper);
+        ByteBuffer buf = ByteBuffer.allocate(EcgWindow.HEADER_BYTES + EcgWindow.LEADS * 5000 * Float.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buf.put(new byte[]{'E', 'C', 'G', '1'}).putShort((short) EcgWindow.LEADS).putShort((short) 0)
+                .putInt(5000).putInt(500);
+        EcgWindow window = new EcgWindow(EcgWindow.LEADS, 5000, 500, buf.array());
+        LocalDateTime from = LocalDateTime.now().minusMinutes(1);
+        LocalDateTime to = LocalDateTime.now().plusMinutes(1);
+        try {
+            // AI 오류 응답 — 기록도 윈도우도 남지 않음 (UserHealthService 호출 없음)
+            String error = "{\"error\": \"AI 서버와 통신할 수 없습니다.\"}";
+            assertThat(withStore.keepWindow("alice", error, window)).isEqualTo(error);
+            assertThat(withStore.record("alice", error, window)).contains("\"recorded\":false").doesNotContain("windowRef");
+            assertThat(store.list("alice", from, to, 10)).isEmpty();
+
+            withStore.keepWindow("alice", "{\"top_label\": \"NORM\"}", window);
+            assertThat(store.list("alice", from, to, 10)).hasSize(1);
+        } finally {
+            store.close();
+        }
+    }
+}
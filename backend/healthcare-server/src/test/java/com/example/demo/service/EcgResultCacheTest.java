@@ -0,0 +1,59 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EcgResultCacheTest {
+
+    private final EcgResultCache cache = new EcgResultCache(new SimpleMeterRegistry(), true, 1 << 20, 60);
+
+    private static List<List<Double>> json(int length, double scale) {
+        List<List<Double>> x = new ArrayList<>();
+        for (int lead = 0; lead < EcgWindow.LEADS; lead++) {
+            List<Double> row = new ArrayList<>();
+            for (int i = 0; i < length; i++) {
+                row.add(Math.sin(i * 0.01 + lead) * scale);
+            }
+            x.add(row);
+        }
+        return x;
+    }
+
+    private static EcgWindow binary(List<List<Double>> x, int fs) {
+        int length = x.get(0).size();
+        ByteBuffer b = ByteBuffer.allocate(EcgWindow.HEADER_BYTES + x.size() * length * Float.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        b.put(new byte[]{'E', 'C', 'G', '1'}).putShort((short) x.size()).putShort((short) 0).putInt(length).putInt(fs);
+        x.forEach(row -> row.forEach(v -> b.putFloat(v.floatValue())));
+        return new EcgWindow(x.size(), length, fs, b.array());
+    }
+
+    @Test
+    void jsonAndBinaryWindowsWithSameFloatValuesShareOneEntry() {
+        List<List<Double>> x = json(5000, 1.5);
+        cache.put(cache.key(x, 500), "{\"top_label\": \"NORM\"}");
+
+        assertThat(cache.get(cache.key(binary(x, 500)))).isEqualTo("{\"top_label\": \"NORM\"}");
+        assertThat(cache.get(cache.key(json(5000, 1.5), 500))).isNotNull();
+        // fs가 다르거나 값이 float32 기준으로 다르면 다른 윈도우
+        assertThat(cache.get(cache.key(x, 250))).isNull();
+        List<List<Double>> changed = json(5000, 1.5);
+        changed.get(11).set(4999, Math.nextUp(changed.get(11).get(4999).floatValue()) + 0.0);
+        assertThat(cache.get(cache.key(changed, 500))).isNull();
+    }
+
+    @Test
+    void irregularJsonWindowsAreNotCached() {
+        List<List<Double>> ragged = json(10, 1.0);
+        ragged.get(3).remove(0);
+        assertThat(cache.key(ragged, 500)).isNull();
+        assertThat(cache.key(List.of(), 500)).isNull();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class EcgRhythmAnalyzerTest {
+
+    /**
+     * 합성 ECG (P-QRS-T + 기저선 흔들림 + 잡음) — 리드 II에만 신호, 나머지 리드는 0
+     * @param rrMs 비트 간격 (반복)
+     * @return 실제 비트 위치 (초)
+     */
+    private static List<Double> synthesize(float[] lead, int fs, double[] rrMs, double noise) {
+        List<Double> beats = new ArrayList<>();
+        double seconds = (double) lead.length / fs;
+        for (double t = 0.3, i = 0; t < seconds; t += rrMs[(int) i++ % rrMs.length] / 1000.0) {
+            beats.add(t);
+        }
+        Random random = new Random(7);
+        for (int n = 0; n < lead.length; n++) {
+            double t = (double) n / fs;
+            double v = 0.2 * Math.sin(2 * Math.PI * 0.3 * t) + noise * random.nextGaussian();
+            for (double b : beats) {
+                v += wave(t, b - 0.16, 0.025, 0.15)      // P
+                        + wave(t, b - 0.02, 0.008, -0.15) // Q
+                        + wave(t, b, 0.010, 1.2)          // R
+                        + wave(t, b + 0.025, 0.010, -0.3) // S
+                        + wave(t, b + 0.28, 0.045, 0.35); // T
+            }
+            lead[n] = (float) v;
+        }
+        return beats;
+    }
+
+    private static double wave(double t, double center, double width, double amplitude) {
+        double z = (t - center) / width;
+        return z * z > 50 ? 0 : amplitude * Math.exp(-0.5 * z * z);
+    }
+
+    private static EcgWindow window(float[] lead, int fs) {
+        int length = lead.length;
+        ByteBuffer buf = ByteBuffer.allocate(EcgWindow.HEADER_BYTES + EcgWindow.LEADS * length * Float.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buf.put(new byte[]{'E', 'C', 'G', '1'}).putShort((short) EcgWindow.LEADS).putShort((short) 0)
+                .putInt(length).putInt(fs);
+        buf.position(EcgWindow.HEADER_BYTES + EcgRhythmAnalyzer.LEAD_II * length * Float.BYTES);
+        for (float v : lead) {
+            buf.putFloat(v);
+        }
+        return new EcgWindow(EcgWindow.LEADS, length, fs, buf.array());
+    }
+
+    @Test
+    void detectsBeatsAndHrvOnSyntheticEcg() {
+        double[] rrMs = {800, 860, 760, 820, 900, 780};
+        float[] lead = new float[5000];
+        List<Double> truth = synthesize(lead, 500, rrMs, 0.03);
+
+        EcgRhythmAnalyzer.EcgRhythm rhythm = EcgRhythmAnalyzer.analyze(window(lead, 500));
+
+        double[] rr = new double[truth.size() - 1];
+        double mean = 0;
+        for (int i = 0; i < rr.length; i++) {
+            rr[i] = (truth.get(i + 1) - truth.get(i)) * 1000;
+            mean += rr[i] / rr.length;
+        }
+        double var = 0;
+        double diffSq = 0;
+        for (int i = 0; i < rr.length; i++) {
+            var += (rr[i] - mean) * (rr[i] - mean) / (rr.length - 1);
+            if (i > 0) diffSq += (rr[i] - rr[i - 1]) * (rr[i] - rr[i - 1]) / (rr.length - 1);
+        }
+
+        assertThat(rhythm).isNotNull();
+        assertThat(rhythm.beats()).isEqualTo(truth.size());
+        assertThat(rhythm.heartRate()).isCloseTo(60_000 / mean, within(0.5));
+        assertThat(rhythm.sdnnMs()).isCloseTo(Math.sqrt(var), within(3.0));
+        assertThat(rhythm.rmssdMs()).isCloseTo(Math.sqrt(diffSq), within(4.0));
+    }
+
+    @Test
+    void handlesOtherSamplingRatesAndFastRhythm() {
+        // 360Hz, 150bpm 근처 (T파가 다음 비트에 가까움)
+        float[] lead = new float[3600];
+        List<Double> truth = synthesize(lead, 360, new double[]{400, 420}, 0.02);
+
+        EcgRhythmAnalyzer.EcgRhythm rhythm = EcgRhythmAnalyzer.analyze(window(lead, 360));
+
+        assertThat(rhythm).isNotNull();
+        assertThat(rhythm.beats()).isEqualTo(truth.size());
+        assertThat(rhythm.heartRate()).isCloseTo(60_000 / 410.0, within(1.5));
+    }
+
+    @Test
+    void returnsNullWithoutEnoughBeats() {
+        assertThat(EcgRhythmAnalyzer.analyze(window(new float[5000], 500))).isNull();
+
+        float[] lead = new float[5000];
+        synthesize(lead, 500, new double[]{6000}, 0.0); // 10초에 비트 2개
+        assertThat(EcgRhythmAnalyzer.analyze(window(lead, 500))).isNull();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EcgSampleStoreTest {
+
+    private final EcgSampleStore store = new EcgSampleStore(null, new SimpleMeterRegistry(), true, List.of("MI"), 2, 10);
+
+    @Test
+    void parsesSampleIntoFloatArrays() {
+        EcgSampleStore.EcgSample sample = store.parse("""
+                {"x": [[0.1, 0.20000000298023224], [-1, 3.5]], "fs": 500, "label": "MI", "id": "MI_3", "from": "file", "ts": 1.5}
+                """).orElseThrow();
+
+        assertThat(sample.x()).isDeepEqualTo(new float[][]{{0.1f, 0.2f}, {-1f, 3.5f}});
+        assertThat(sample.fs()).isEqualTo(500);
+        assertThat(sample.id()).isEqualTo("MI_3");
+        assertThat(sample.from()).isEqualTo("file");
+    }
+
+    @Test
+    void ignoresErrorAndMalformedResponses() {
+        assertThat(store.parse("{\"error\": \"샘플 데이터를 불러올 수 없습니다.\"}")).isEmpty();
+        assertThat(store.parse("{\"x\": [[1, 2], [3]]}")).isEmpty();
+        assertThat(store.parse("{\"x\": [[1, \"a\"]]}")).isEmpty();
+        assertThat(store.parse("not json")).isEmpty();
+    }
+}
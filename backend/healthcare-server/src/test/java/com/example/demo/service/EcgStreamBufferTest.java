@@ -0,0 +1,83 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EcgStreamBufferTest {
+
+    /**
+     * 프레임 [t][lead] — 값 = 시점 × 100 + 리드
+     */
+    private static ByteBuffer chunk(long from, int frames) {
+        ByteBuffer buf = ByteBuffer.allocate(frames * EcgStreamBuffer.FRAME_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (long t = from; t < from + frames; t++) {
+            for (int lead = 0; lead < EcgWindow.LEADS; lead++) {
+                buf.putFloat(t * 100 + lead);
+            }
+        }
+        return buf.flip();
+    }
+
+    @Test
+    void snapshotsLastTenSecondsLeadMajorAfterWrapAround() {
+        EcgStreamBuffer buffer = new EcgStreamBuffer(100, 200);
+        buffer.append(chunk(0, 999));
+        assertThat(buffer.due()).isFalse(); // 10초(1000개) 전에는 추론하지 않음
+
+        buffer.append(chunk(999, 301)); // 링 한 바퀴 + 300
+        assertThat(buffer.due()).isTrue();
+        EcgStreamBuffer.Snapshot snapshot = buffer.snapshot();
+
+        assertThat(snapshot.endSample()).isEqualTo(1300);
+        assertThat(snapshot.skipped()).isEqualTo(1); // 1000에서 추론했어야 할 hop 하나가 합쳐짐
+        EcgWindow window = snapshot.window();
+        assertThat(window.length()).isEqualTo(1000);
+        assertThat(window.fs()).isEqualTo(100);
+        FloatBuffer s = window.samples();
+        for (int lead = 0; lead < EcgWindow.LEADS; lead++) {
+            for (int i = 0; i < 1000; i++) {
+                assertThat(s.get(lead * 1000 + i)).isEqualTo((300 + i) * 100f + lead);
+            }
+        }
+    }
+
+    @Test
+    void becomesDueEveryHopAndCountsSkippedHops() {
+        EcgStreamBuffer buffer = new EcgStreamBuffer(100, 200);
+        buffer.append(chunk(0, 1000));
+        assertThat(buffer.snapshot().skipped()).isZero();
+
+        buffer.append(chunk(1000, 199));
+        assertThat(buffer.due()).isFalse();
+        buffer.append(chunk(1199, 1));
+        assertThat(buffer.due()).isTrue();
+        assertThat(buffer.snapshot().skipped()).isZero();
+
+        // 앞 추론이 끝나지 않은 동안 hop 3개 분량이 들어옴 → 한 번만 추론, 2개는 건너뜀
+        buffer.append(chunk(1200, 650));
+        EcgStreamBuffer.Snapshot late = buffer.snapshot();
+        assertThat(late.endSample()).isEqualTo(1850);
+        assertThat(late.skipped()).isEqualTo(2);
+        assertThat(buffer.due()).isFalse();
+    }
+
+    @Test
+    void rejectsPartialFramesAndNonFiniteSamples() {
+        EcgStreamBuffer buffer = new EcgStreamBuffer(500, 1000);
+        assertThatThrownBy(() -> buffer.append(ByteBuffer.allocate(EcgStreamBuffer.FRAME_BYTES + 4)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("48-byte frames");
+
+        ByteBuffer nan = chunk(0, 2);
+        nan.putFloat(EcgStreamBuffer.FRAME_BYTES + 3 * Float.BYTES, Float.NaN);
+        assertThatThrownBy(() -> buffer.append(nan))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Chunk contains NaN/Inf at sample 1, lead 3");
+    }
+}
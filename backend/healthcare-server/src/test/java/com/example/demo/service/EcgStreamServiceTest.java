@@ -0,0 +1,312 @@
+package com.example.demo.service;
+
+import com.example.demo.controller.EcgStreamHandler;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 연속 ECG 스트리밍 — 세션당 추론 1건(밀린 hop은 합쳐서 skipped로 알림), 동시 세션 수 제한(1013), 형식 오류 종료(1007)
+ * AI 호출은 첫 추론에서 멈추는 가짜 EcgAnalysisService로 대체
+ */
+class EcgStreamServiceTest {
+
+    private static final int FS = 100;
+    private static final int HOP_MS = 1000; // hop = 100 샘플
+    private static final int WINDOW = EcgStreamBuffer.WINDOW_SECONDS * FS;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private BlockingAnalysisService analysisService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        analysisService = new BlockingAnalysisService();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        analysisService.release.countDown();
+        analysisService.close();
+    }
+
+    @Test
+    void hopsArrivingDuringInferenceCoalesceIntoOneFollowUpRun() throws Exception {
+        EcgStreamService service = streamService(10);
+        FakeSession session = new FakeSession();
+        EcgStreamService.EcgStream stream = service.open(session, FS, HOP_MS);
+        assertThat(message(session).get("type").asText()).isEqualTo("ready");
+
+        stream.accept(frames(0, WINDOW)); // 첫 10초 → 추론 시작 (AI 응답 대기에서 멈춤)
+        assertThat(analysisService.started.poll(5, TimeUnit.SECONDS)).isEqualTo(1);
+
+        // 추론 중에 hop 3개 도착 → 추가 추론 없이 버퍼에만 반영
+        for (int hop = 0; hop < 3; hop++) {
+            stream.accept(frames(WINDOW + hop * 100L, 100));
+        }
+        assertThat(analysisService.started.poll(200, TimeUnit.MILLISECONDS)).isNull();
+
+        analysisService.release.countDown();
+
+        JsonNode first = message(session);
+        assertThat(first.get("seq").asLong()).isEqualTo(1);
+        assertThat(first.get("endSample").asLong()).isEqualTo(WINDOW);
+        assertThat(first.get("skipped").asLong()).isZero();
+        assertThat(first.get("result").get("ok").asBoolean()).isTrue();
+
+        // 밀린 hop 3개 → 최신 10초로 한 번만 (앞의 2개는 skipped)
+        JsonNode second = message(session);
+        assertThat(second.get("seq").asLong()).isEqualTo(2);
+        assertThat(second.get("endSample").asLong()).isEqualTo(WINDOW + 300);
+        assertThat(second.get("skipped").asLong()).isEqualTo(2);
+
+        assertThat(analysisService.started.poll()).isEqualTo(2);
+        assertThat(analysisService.started.poll(200, TimeUnit.MILLISECONDS)).isNull(); // 그 뒤로는 추론 없음
+        assertThat(analysisService.calls.get()).isEqualTo(2);
+        assertThat(session.sent).isEmpty();
+        assertThat(meterRegistry.get("ai.ecg.stream.windows").tag("outcome", "analyzed").counter().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("ai.ecg.stream.windows").tag("outcome", "skipped").counter().count())
+                .isEqualTo(2);
+        stream.close();
+        service.shutdown();
+    }
+
+    @Test
+    void rejectsSessionsOverCapWith1013AndFreesSlotOnClose() throws Exception {
+        EcgStreamService service = streamService(1);
+        EcgStreamHandler handler = new EcgStreamHandler(service);
+
+        FakeSession first = new FakeSession();
+        handler.afterConnectionEstablished(first);
+        assertThat(first.closeStatus).isNull();
+
+        FakeSession second = new FakeSession();
+        handler.afterConnectionEstablished(second);
+        assertThat(second.closeStatus).isNotNull();
+        assertThat(second.closeStatus.getCode()).isEqualTo(1013);
+        assertThat(meterRegistry.get("ai.ecg.stream.sessions").gauge().value()).isEqualTo(1);
+
+        handler.afterConnectionClosed(first, CloseStatus.NORMAL);
+        FakeSession third = new FakeSession();
+        handler.afterConnectionEstablished(third);
+        assertThat(third.closeStatus).isNull();
+        service.shutdown();
+    }
+
+    @Test
+    void closesSessionWith1007OnMalformedOrNonFiniteFrames() throws Exception {
+        EcgStreamService service = streamService(10);
+        EcgStreamHandler handler = new EcgStreamHandler(service);
+
+        FakeSession partial = new FakeSession();
+        handler.afterConnectionEstablished(partial);
+        handler.handleMessage(partial, new BinaryMessage(new byte[EcgStreamBuffer.FRAME_BYTES + 1]));
+        assertThat(partial.closeStatus.getCode()).isEqualTo(1007);
+
+        FakeSession nan = new FakeSession();
+        handler.afterConnectionEstablished(nan);
+        ByteBuffer frame = frames(0, 1);
+        frame.putFloat(0, Float.NaN);
+        handler.handleMessage(nan, new BinaryMessage(frame));
+        assertThat(nan.closeStatus.getCode()).isEqualTo(1007);
+
+        FakeSession badQuery = new FakeSession(URI.create("ws://localhost/api/ecg/stream?fs=5"));
+        handler.afterConnectionEstablished(badQuery);
+        assertThat(badQuery.closeStatus.getCode()).isEqualTo(1007);
+
+        assertThat(analysisService.calls.get()).isZero();
+        service.shutdown();
+    }
+
+    private EcgStreamService streamService(int maxSessions) {
+        return new EcgStreamService(analysisService, meterRegistry, maxSessions, HOP_MS, 1000, 100, 1000,
+                5_000, 65_536, 65_536, 60_000);
+    }
+
+    private JsonNode message(FakeSession session) throws Exception {
+        WebSocketMessage<?> message = session.sent.poll(5, TimeUnit.SECONDS);
+        assertThat(message).isInstanceOf(TextMessage.class);
+        return objectMapper.readTree(((TextMessage) message).getPayload());
+    }
+
+    /**
+     * 프레임 [t][lead] × frames (float32 LE)
+     */
+    private static ByteBuffer frames(long from, int frames) {
+        ByteBuffer buf = ByteBuffer.allocate(frames * EcgStreamBuffer.FRAME_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (long t = from; t < from + frames; t++) {
+            for (int lead = 0; lead < EcgWindow.LEADS; lead++) {
+                buf.putFloat((float) Math.sin(t * 0.1 + lead));
+            }
+        }
+        return buf.flip();
+    }
+
+    /**
+     * 첫 호출에서 release까지 멈추는 AI 분석 (호출 순번을 started로 알림)
+     */
+    private static final class BlockingAnalysisService extends EcgAnalysisService {
+
+        final AtomicInteger calls = new AtomicInteger();
+        final BlockingQueue<Integer> started = new LinkedBlockingQueue<>();
+        final CountDownLatch release = new CountDownLatch(1);
+
+        BlockingAnalysisService() {
+            super("http://127.0.0.1:9", "", 1_000, 1_000, 30_000, false, 4_194_304,
+                    true, false, 10, 10, 4_000, 1_000,
+                    false, 16, 10, 256, 4,
+                    new SimpleMeterRegistry(),
+                    new EcgCallGuard(10, 0, 10, 10, 50, 100, 60_000, 30_000, 1, new SimpleMeterRegistry()),
+                    new EcgResultCache(new SimpleMeterRegistry(), false, 1, 1));
+        }
+
+        @Override
+        public String analyzeStreamWindow(EcgWindow window) {
+            int call = calls.incrementAndGet();
+            started.add(call);
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "{\"ok\": true, \"call\": " + call + "}";
+        }
+    }
+
+    /**
+     * 보낸 메시지와 종료 상태만 기록하는 WebSocketSession
+     */
+    private static final class FakeSession implements WebSocketSession {
+
+        private static final AtomicInteger IDS = new AtomicInteger();
+
+        final BlockingQueue<WebSocketMessage<?>> sent = new LinkedBlockingQueue<>();
+        final Map<String, Object> attributes = new ConcurrentHashMap<>();
+        final String id = "s" + IDS.incrementAndGet();
+        final URI uri;
+        volatile CloseStatus closeStatus;
+        private int textLimit;
+        private int binaryLimit;
+
+        FakeSession() {
+            this(URI.create("ws://localhost/api/ecg/stream?fs=" + FS + "&hopMs=" + HOP_MS));
+        }
+
+        FakeSession(URI uri) {
+            this.uri = uri;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public URI getUri() {
+            return uri;
+        }
+
+        @Override
+        public HttpHeaders getHandshakeHeaders() {
+            return new HttpHeaders();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public Principal getPrincipal() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public String getAcceptedProtocol() {
+            return null;
+        }
+
+        @Override
+        public void setTextMessageSizeLimit(int messageSizeLimit) {
+            textLimit = messageSizeLimit;
+        }
+
+        @Override
+        public int getTextMessageSizeLimit() {
+            return textLimit;
+        }
+
+        @Override
+        public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+            binaryLimit = messageSizeLimit;
+        }
+
+        @Override
+        public int getBinaryMessageSizeLimit() {
+            return binaryLimit;
+        }
+
+        @Override
+        public List<WebSocketExtension> getExtensions() {
+            return List.of();
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) {
+            sent.add(message);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return closeStatus == null;
+        }
+
+        @Override
+        public void close() {
+            close(CloseStatus.NORMAL);
+        }
+
+        @Override
+        public void close(CloseStatus status) {
+            closeStatus = status;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class EcgWindowPreprocessorTest {
+
+    private static List<List<Double>> leads(int length, int fs, double hz) {
+        List<List<Double>> x = new ArrayList<>();
+        for (int l = 0; l < EcgWindow.LEADS; l++) {
+            List<Double> lead = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                lead.add(hz == 0 ? l + i : Math.sin(2 * Math.PI * hz * i / fs));
+            }
+            x.add(lead);
+        }
+        return x;
+    }
+
+    @Test
+    void trimsToLastSamplesPadsShortWindowsAndTransposes() {
+        EcgWindow trimmed = EcgWindowPreprocessor.fromMatrix(leads(6000, 500, 0), 500, 30_000);
+        assertThat(trimmed.length()).isEqualTo(5000);
+        assertThat(trimmed.samples().get(0)).isEqualTo(1000f); // ensure_len: 마지막 5000개
+        assertThat(trimmed.samples().get(5000)).isEqualTo(1001f); // 리드 1
+
+        EcgWindow padded = EcgWindowPreprocessor.fromMatrix(leads(100, 500, 0), 500, 30_000);
+        FloatBuffer s = padded.samples();
+        assertThat(s.get(99)).isEqualTo(99f);
+        assertThat(s.get(100)).isZero();
+        assertThat(s.get(4999)).isZero();
+
+        // (L, 12) → (12, L)
+        List<List<Double>> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            rows.add(new ArrayList<>(Collections.nCopies(EcgWindow.LEADS, (double) i)));
+        }
+        rows.get(2).set(5, 7.0);
+        EcgWindow transposed = EcgWindowPreprocessor.fromMatrix(rows, 500, 30_000);
+        assertThat(transposed.samples().get(5 * 5000 + 2)).isEqualTo(7f);
+        assertThat(transposed.samples().get(2)).isEqualTo(2f);
+    }
+
+    @Test
+    void resamplesToTargetRateLikeResamplePoly() {
+        // 1000Hz 10초 5Hz 사인 → 500Hz 5000개, 끝부분(필터 길이) 제외 원 신호와 일치
+        EcgWindow down = EcgWindowPreprocessor.fromMatrix(leads(10_000, 1000, 5), 1000, 30_000);
+        FloatBuffer s = down.samples();
+        for (int i = 50; i < 4950; i++) {
+            assertThat((double) s.get(i)).isCloseTo(Math.sin(2 * Math.PI * 5 * i / 500.0), within(1e-3));
+        }
+
+        // 360Hz(MIT-BIH) 5초 → 500Hz 2500개 + 0 패딩
+        EcgWindow up = EcgWindowPreprocessor.fromMatrix(leads(1800, 360, 3), 360, 30_000);
+        s = up.samples();
+        for (int i = 50; i < 2450; i++) {
+            assertThat((double) s.get(i)).isCloseTo(Math.sin(2 * Math.PI * 3 * i / 500.0), within(1e-3));
+        }
+        assertThat(s.get(2500)).isZero();
+    }
+
+    @Test
+    void tailOnlyResamplingMatchesFullOutput() {
+        EcgWindowPreprocessor.PolyphaseFilter filter = EcgWindowPreprocessor.filter(360, 500);
+        float[] x = new float[9000];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = (float) Math.sin(i * 0.01) + (i % 7) * 0.1f;
+        }
+        float[] full = new float[filter.outputLength(x.length)];
+        filter.resampleTail(x, 0, x.length, full, 0, full.length);
+        float[] tail = new float[5000];
+        assertThat(filter.resampleTail(x, 0, x.length, tail, 0, 5000)).isEqualTo(5000);
+        for (int i = 0; i < 5000; i++) {
+            assertThat(tail[i]).isEqualTo(full[full.length - 5000 + i]);
+        }
+    }
+
+    @Test
+    void filterCacheStaysBoundedAcrossManyRates() {
+        // 소수 fs는 필터가 가장 큼 (9973Hz → 계수 약 20만 개)
+        int[] primes = {9973, 9967, 9949, 9941, 9931, 9929, 9923, 9907, 9901, 9887, 9883, 9871, 9859, 9857, 9851};
+        for (int fs : primes) {
+            EcgWindowPreprocessor.filter(fs, EcgWindowPreprocessor.TARGET_FS);
+        }
+
+        assertThat(EcgWindowPreprocessor.cachedFilterTaps()).isLessThanOrEqualTo(2_000_000);
+        // 밀려난 비율도 다시 설계되어 사용 가능
+        assertThat(EcgWindowPreprocessor.filter(primes[0], EcgWindowPreprocessor.TARGET_FS).down).isEqualTo(primes[0]);
+    }
+
+    @Test
+    void rejectsMalformedWindowsLocally() {
+        assertBadRequest(List.of(List.of(1.0, 2.0), List.of(3.0)), "Jagged array detected");
+        assertBadRequest(List.of(List.of(1.0, 2.0)), "Expected (12, L) or (L, 12). Got (1, 2)");
+        List<List<Double>> nan = leads(10, 500, 0);
+        nan.get(3).set(4, Double.NaN);
+        assertBadRequest(nan, "Input contains NaN/Inf at x[3][4]");
+        List<List<Object>> text = new ArrayList<>();
+        for (List<Double> lead : leads(10, 500, 0)) {
+            text.add(new ArrayList<>(lead));
+        }
+        text.get(0).set(1, "a");
+        assertBadRequest(text, "Input contains a non-numeric value at x[0][1]");
+
+        assertThatThrownBy(() -> EcgWindowPreprocessor.fromMatrix(leads(100, 500, 0), 500, 50))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE));
+    }
+
+    private static void assertBadRequest(List<? extends List<?>> x, String reason) {
+        assertThatThrownBy(() -> EcgWindowPreprocessor.fromMatrix(x, 500, 30_000))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+                    assertThat(e.getReason()).isEqualTo(reason);
+                });
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EcgWindowStoreTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 10, 1, 9, 0);
+
+    @TempDir
+    Path dir;
+
+    private EcgWindowStore open() {
+        return new EcgWindowStore(new SimpleMeterRegistry(), true, dir.toString(), 2);
+    }
+
+    /**
+     * @param quantized µV 단위 값(ADC 원본과 같은 반복)이면 true, 리샘플된 값처럼 임의 float이면 false
+     */
+    private static EcgWindow window(int length, int fs, long seed, boolean quantized) {
+        ByteBuffer buf = ByteBuffer.allocate(EcgWindow.HEADER_BYTES + EcgWindow.LEADS * length * Float.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buf.put(new byte[]{'E', 'C', 'G', '1'}).putShort((short) EcgWindow.LEADS).putShort((short) 0)
+                .putInt(length).putInt(fs);
+        Random random = new Random(seed);
+        for (int i = 0; i < EcgWindow.LEADS * length; i++) {
+            double v = Math.sin(i * 0.05) + 0.05 * random.nextGaussian();
+            buf.putFloat(quantized ? Math.round(v * 1000) / 1000f : (float) v);
+        }
+        return new EcgWindow(EcgWindow.LEADS, length, fs, buf.array());
+    }
+
+    private static long at(int minutes) {
+        return T0.plusMinutes(minutes).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static void assertSameSamples(EcgWindow loaded, EcgWindow original) {
+        assertThat(loaded.length()).isEqualTo(5000);
+        assertThat(loaded.fs()).isEqualTo(500);
+        assertThat(Arrays.equals(loaded.payload(), original.payload())).isTrue();
+    }
+
+    @Test
+    void storesWindowsAndReadsThemBackAfterCompressionAndRestart() throws Exception {
+        EcgWindowStore store = open();
+        EcgWindow a = window(5000, 500, 1, true);
+        EcgWindow b = window(5000, 500, 2, false);
+        EcgWindow c = window(5000, 500, 3, true);
+        long refA = store.append("alice", a, at(0));
+        long refB = store.append("alice", b, at(10));
+        long refC = store.append("bob", c, at(5));  // 세그먼트 0이 가득 참 → 압축, c는 세그먼트 1
+        assertThat(refC >>> 32).isEqualTo(1);
+        assertSameSamples(store.load("alice", refB), b);
+        store.close();
+
+        assertThat(Files.exists(dir.resolve("seg-00000000.ecgz"))).isTrue();
+        assertThat(Files.exists(dir.resolve("seg-00000000.ecg"))).isFalse();
+
+        // 재기동: 압축 세그먼트 + 남은 .ecg 세그먼트에서 인덱스를 다시 만듦
+        EcgWindowStore reopened = open();
+        try {
+            assertSameSamples(reopened.load("alice", refA), a);
+            assertSameSamples(reopened.load("alice", refB), b);
+            assertSameSamples(reopened.load("bob", refC), c);
+
+            List<EcgWindowStore.StoredWindow> alice = reopened.list("alice", T0, T0.plusHours(1), 100);
+            assertThat(alice).extracting(EcgWindowStore.StoredWindow::ref).containsExactly(refA, refB);
+            assertThat(alice.get(1).measuredAt()).isEqualTo(T0.plusMinutes(10));
+            assertThat(reopened.list("alice", T0.plusMinutes(1), T0.plusHours(1), 100))
+                    .extracting(EcgWindowStore.StoredWindow::ref).containsExactly(refB);
+
+            // 새 쓰기는 새 세그먼트에서
+            assertThat(reopened.append("bob", c, at(20)) >>> 32).isEqualTo(2);
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void fitsWindowsBeforeStoringAndHidesOtherUsersWindows() throws Exception {
+        EcgWindowStore store = open();
+        try {
+            EcgWindow raw = window(3600, 360, 4, false);
+            long ref = store.append("alice", raw, at(0));
+
+            assertSameSamples(store.load("alice", ref), EcgWindowPreprocessor.preprocess(raw));
+            assertThatThrownBy(() -> store.load("bob", ref))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND));
+            assertThatThrownBy(() -> store.load("alice", ref + 1))
+                    .isInstanceOf(ResponseStatusException.class);
+            assertThat(store.list("bob", T0, T0.plusDays(1), 10)).isEmpty();
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    void disabledStoreKeepsNothing() {
+        EcgWindowStore store = new EcgWindowStore(new SimpleMeterRegistry(), false, dir.resolve("off").toString(), 2);
+
+        assertThat(store.append("alice", window(5000, 500, 1, true), at(0))).isNull();
+        assertThat(Files.exists(dir.resolve("off"))).isFalse();
+    }
+}
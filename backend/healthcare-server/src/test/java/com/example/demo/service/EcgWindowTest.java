@@ -0,0 +1,60 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EcgWindowTest {
+
+    private static byte[] window(int leads, int length, int fs, float fill) {
+        ByteBuffer b = ByteBuffer.allocate(EcgWindow.HEADER_BYTES + leads * length * Float.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        b.put(new byte[]{'E', 'C', 'G', '1'}).putShort((short) leads).putShort((short) 0).putInt(length).putInt(fs);
+        for (int i = 0; i < leads * length; i++) {
+            b.putFloat(fill + i);
+        }
+        return b.array();
+    }
+
+    @Test
+    void readsHeaderAndKeepsSamplesInLeadOrder() throws Exception {
+        byte[] body = window(12, 5000, 500, 0.5f);
+
+        EcgWindow w = EcgWindow.read(new ByteArrayInputStream(body), body.length, 30000);
+
+        assertThat(w.leads()).isEqualTo(12);
+        assertThat(w.length()).isEqualTo(5000);
+        assertThat(w.fs()).isEqualTo(500);
+        assertThat(w.payload()).isEqualTo(body);
+        FloatBuffer s = w.samples();
+        assertThat(s.limit()).isEqualTo(60_000);
+        assertThat(s.get(5000)).isEqualTo(5000.5f); // x[1][0]
+    }
+
+    @Test
+    void rejectsNonFiniteTruncatedAndOversizedWindows() {
+        byte[] nan = window(12, 10, 500, Float.NaN);
+        assertThatThrownBy(() -> EcgWindow.read(new ByteArrayInputStream(nan), nan.length, 30000))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("x[0][0]");
+
+        byte[] full = window(12, 10, 500, 0f);
+        byte[] truncated = Arrays.copyOf(full, full.length - 4);
+        assertThatThrownBy(() -> EcgWindow.read(new ByteArrayInputStream(truncated), -1, 30000))
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("truncated");
+
+        assertThatThrownBy(() -> EcgWindow.read(new ByteArrayInputStream(full), full.length, 5))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE));
+    }
+}
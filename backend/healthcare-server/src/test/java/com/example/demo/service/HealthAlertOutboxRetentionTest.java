@@ -0,0 +1,86 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.HealthAlertOutbox;
+import com.example.demo.entity.OutboxStatus;
+import com.example.demo.entity.User;
+import com.example.demo.entity.UserRole;
+import com.example.demo.repository.HealthAlertOutboxRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.scheduler.HealthAlertOutboxRetentionScheduler;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 알림 아웃박스 보존 정리 — 오래된 SENT 항목만 배치 단위로 삭제하고 FAILED 항목은 지표로 노출
+ * (DemoApplicationTests와 같이 설정된 PostgreSQL + Flyway 마이그레이션 필요, 테스트 후 롤백)
+ */
+@SpringBootTest(properties = {"alerts.outbox.retention-days=14", "alerts.outbox.purge-batch-size=1"})
+@Transactional
+class HealthAlertOutboxRetentionTest {
+
+    @Autowired
+    private HealthAlertOutboxRetentionScheduler retentionScheduler;
+
+    @Autowired
+    private HealthAlertOutboxRepository outboxRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void purgesOnlyOldSentEntriesAndReportsFailedOnes() {
+        User patient = new User();
+        patient.setUserId("outbox-retention-test");
+        patient.setPassword("x");
+        patient.setName("T");
+        patient.setGender("M");
+        patient.setBirthDate(LocalDate.of(1950, 1, 1));
+        patient.setPhone("010");
+        patient.setAddress("a");
+        patient.setRole(UserRole.PATIENT);
+        userRepository.save(patient);
+
+        double failedBefore = meterRegistry.get("alerts.outbox.failed").gauge().value();
+
+        LocalDateTime now = LocalDateTime.now();
+        Long oldSent1 = entry(patient, OutboxStatus.SENT, now.minusDays(30));
+        Long oldSent2 = entry(patient, OutboxStatus.SENT, now.minusDays(20));
+        Long recentSent = entry(patient, OutboxStatus.SENT, now.minusDays(3));
+        Long oldFailed = entry(patient, OutboxStatus.FAILED, now.minusDays(30));
+        Long pending = entry(patient, OutboxStatus.PENDING, null);
+
+        // 배치 크기 1 → 여러 배치로 나눠 모두 삭제
+        assertThat(retentionScheduler.purge()).isGreaterThanOrEqualTo(2);
+
+        assertThat(outboxRepository.existsById(oldSent1)).isFalse();
+        assertThat(outboxRepository.existsById(oldSent2)).isFalse();
+        assertThat(outboxRepository.existsById(recentSent)).isTrue();
+        assertThat(outboxRepository.existsById(oldFailed)).isTrue();
+        assertThat(outboxRepository.existsById(pending)).isTrue();
+
+        assertThat(meterRegistry.get("alerts.outbox.failed").gauge().value()).isEqualTo(failedBefore + 1);
+    }
+
+    private Long entry(User patient, OutboxStatus status, LocalDateTime processedAt) {
+        HealthAlertOutbox e = new HealthAlertOutbox();
+        e.setPatient(patient);
+        e.setAlertType("BP_HIGH");
+        e.setTitle("t");
+        e.setMessage("m");
+        e.setStatus(status);
+        e.setNextAttemptAt(LocalDateTime.now().plusDays(1));
+        e.setProcessedAt(processedAt);
+        return outboxRepository.saveAndFlush(e).getId();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.VitalsSeriesResponse.Series;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LttbDownsamplerTest {
+
+    @Test
+    void keepsEndpointsAndSpikesWithinThreshold() {
+        int n = 100_000;
+        long[] t = new long[n];
+        double[] v = new double[n];
+        long start = 1_700_000_000_000L;
+        for (int i = 0; i < n; i++) {
+            t[i] = start + i * 300_000L; // 5분 간격 약 1년
+            v[i] = 120 + 10 * Math.sin(i / 500.0);
+        }
+        v[42_424] = 210; // 단발성 급상승
+
+        Series s = LttbDownsampler.downsample(t, v, n, 500);
+
+        assertThat(s.t()).hasSize(500);
+        assertThat(s.v()).hasSize(500);
+        assertThat(s.t()[0]).isEqualTo(t[0]);
+        assertThat(s.t()[499]).isEqualTo(t[n - 1]);
+        assertThat(s.t()).isSorted();
+        assertThat(Arrays.stream(s.v()).max().orElseThrow()).isEqualTo(210);
+    }
+
+    @Test
+    void returnsInputWhenBelowThreshold() {
+        long[] t = {1, 2, 3, 0};
+        double[] v = {5, 6, 7, 0};
+
+        Series s = LttbDownsampler.downsample(t, v, 3, 500);
+
+        assertThat(s.t()).containsExactly(1, 2, 3);
+        assertThat(s.v()).containsExactly(5, 6, 7);
+    }
+}
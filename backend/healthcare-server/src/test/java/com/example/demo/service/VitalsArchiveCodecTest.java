@@ -0,0 +1,134 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.UserHealthRecord;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VitalsArchiveCodecTest {
+
+    @Test
+    void roundTripsSparseRecords() {
+        List<UserHealthRecord> records = sampleRecords();
+
+        byte[] payload = VitalsArchiveCodec.encode(records);
+        List<UserHealthRecord> decoded = VitalsArchiveCodec.decode(payload);
+
+        assertThat(decoded).hasSize(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            UserHealthRecord a = records.get(i);
+            UserHealthRecord b = decoded.get(i);
+            assertThat(b.getMeasuredAt()).isEqualTo(a.getMeasuredAt());
+            assertThat(b.getBpSys()).isEqualTo(a.getBpSys());
+            assertThat(b.getBpDia()).isEqualTo(a.getBpDia());
+            assertThat(b.getGlucose()).isEqualTo(a.getGlucose());
+            assertThat(b.getHeartRate()).isEqualTo(a.getHeartRate());
+            assertThat(b.getEcgRiskScore()).isEqualTo(a.getEcgRiskScore());
+            assertThat(b.getEcgAbnormal()).isEqualTo(a.getEcgAbnormal());
+            assertThat(b.getBpAbnormal()).isEqualTo(a.getBpAbnormal());
+            assertThat(b.getGlucoseAbnormal()).isNull();
+            assertThat(b.getOverallAbnormal()).isEqualTo(a.getOverallAbnormal());
+            assertThat(b.getEcgAnomalyType()).isEqualTo(a.getEcgAnomalyType());
+            assertThat(b.getHrvSdnnMs()).isEqualTo(a.getHrvSdnnMs());
+            assertThat(b.getHrvRmssdMs()).isEqualTo(a.getHrvRmssdMs());
+            assertThat(b.getEcgWindowRef()).isEqualTo(a.getEcgWindowRef());
+            assertThat(b.getAnomalyMask()).isEqualTo(a.getAnomalyMask());
+            assertThat(b.getAnomalyType()).isEqualTo(VitalAnomaly.typeOf(a.getAnomalyMask()));
+        }
+        // 행당 수 바이트 수준 (원본 행은 약 100바이트 이상, HRV 실수 값이 대부분을 차지)
+        assertThat(payload.length).isLessThan(records.size() * 12);
+    }
+
+    @Test
+    void seriesDecodeMatchesFullDecode() {
+        List<UserHealthRecord> records = sampleRecords();
+        byte[] payload = VitalsArchiveCodec.encode(records);
+
+        VitalsSeriesColumns columns = VitalsArchiveCodec.decodeSeries(payload);
+
+        assertThat(columns.size()).isEqualTo(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            UserHealthRecord r = records.get(i);
+            int index = i;
+            columns.emit(i, (t, sys, dia, glu, hr, sdnn, rmssd) -> {
+                assertThat(t).isEqualTo(Timestamp.valueOf(r.getMeasuredAt()).getTime());
+                assertThat((Double) sys).as("bpSys %d", index).isEqualTo(orNaN(r.getBpSys()));
+                assertThat((Double) dia).isEqualTo(orNaN(r.getBpDia()));
+                assertThat((Double) glu).isEqualTo(orNaN(r.getGlucose()));
+                assertThat((Double) hr).isEqualTo(orNaN(r.getHeartRate()));
+                assertThat((Double) sdnn).isEqualTo(orNaN(r.getHrvSdnnMs()));
+                assertThat((Double) rmssd).isEqualTo(orNaN(r.getHrvRmssdMs()));
+            });
+        }
+    }
+
+    @Test
+    void readsVersion1BlocksWithoutHrv() {
+        // v1: 버전, 건수 1, measured_at 0, 정수 4개·실수 1개 null 비트맵, 플래그 4개, 빈 사전, ecg_anomaly_type 비트맵, mask
+        byte[] v1 = {1, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 5};
+
+        List<UserHealthRecord> decoded = VitalsArchiveCodec.decode(v1);
+
+        assertThat(decoded).hasSize(1);
+        assertThat(decoded.get(0).getMeasuredAt()).isEqualTo(LocalDateTime.of(1970, 1, 1, 0, 0));
+        assertThat(decoded.get(0).getAnomalyMask()).isEqualTo(5);
+        assertThat(decoded.get(0).getHrvSdnnMs()).isNull();
+        assertThat(decoded.get(0).getHrvRmssdMs()).isNull();
+        assertThat(decoded.get(0).getEcgWindowRef()).isNull();
+
+        VitalsSeriesColumns columns = VitalsArchiveCodec.decodeSeries(v1);
+        assertThat(columns.size()).isEqualTo(1);
+        columns.emit(0, (t, sys, dia, glu, hr, sdnn, rmssd) -> {
+            assertThat(sys).isNaN();
+            assertThat(sdnn).isNaN();
+            assertThat(rmssd).isNaN();
+        });
+    }
+
+    @Test
+    void roundTripsEmptyBlock() {
+        assertThat(VitalsArchiveCodec.decode(VitalsArchiveCodec.encode(List.of()))).isEmpty();
+    }
+
+    private static List<UserHealthRecord> sampleRecords() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 0, 0, 0, 123_456_000);
+        List<UserHealthRecord> records = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            UserHealthRecord r = new UserHealthRecord();
+            // 대부분 5분 간격, 가끔 불규칙
+            r.setMeasuredAt(start.plusMinutes(5L * i).plusSeconds(i % 97 == 0 ? 13 : 0));
+            if (i % 3 != 0) {
+                r.setBpSys(110L + i % 40);
+                r.setBpDia(70L + i % 25);
+            }
+            if (i % 5 == 0) r.setGlucose(90L + i % 150);
+            if (i % 2 == 0) r.setHeartRate(60L + i % 30);
+            if (i % 7 == 0) {
+                r.setEcgRiskScore(i / 2_000.0);
+                r.setEcgAbnormal(i % 14 == 0);
+                r.setEcgAnomalyType(i % 14 == 0 ? "AFIB" : "NORMAL");
+                r.setHrvSdnnMs(40 + (i % 23) * 1.37);
+                r.setHrvRmssdMs(i % 28 == 0 ? null : 25 + (i % 17) * 0.91);
+                // EcgWindowStore ref = 세그먼트 << 32 | 슬롯 (저장 순서대로 증가, 가끔 다음 세그먼트)
+                if (i % 21 == 0) r.setEcgWindowRef(((long) (i / 1000) << 32) | (i / 21 % 48));
+            }
+            r.setAnomalyMask(i % 11 == 0 ? VitalAnomaly.HIGH_BP.bit() | VitalAnomaly.ECG_ABNORMAL.bit() : 0);
+            if (r.getBpSys() != null) r.setBpAbnormal(i % 11 == 0);
+            // 과거 기록처럼 마스크와 어긋난 플래그도 그대로 보존
+            r.setOverallAbnormal(i % 13 == 0);
+            records.add(r);
+        }
+
+        return records;
+    }
+
+    // Double.equals는 NaN끼리 같다고 보므로 boxed로 비교
+    private static Double orNaN(Number value) {
+        return value == null ? Double.NaN : value.doubleValue();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.VitalReadingRequest;
+import com.example.demo.entity.UserHealth;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class VitalsBaselineDetectorTest {
+
+    private final VitalsBaselineDetector detector = new VitalsBaselineDetector(0.1, 3.0, 10);
+
+    @Test
+    void flagsGlucoseFarFromPersonalBaselineOnlyAfterWarmUp() {
+        UserHealth h = new UserHealth();
+        for (int i = 0; i < 10; i++) {
+            // 웜업 구간에서는 큰 값도 표시하지 않음
+            assertThat(detector.observe(h, glucose(i == 5 ? 190 : 100 + (i % 2) * 10))).isZero();
+            h.setGlucoseCount(h.getGlucoseCount() + 1);
+        }
+        for (int i = 0; i < 30; i++) {
+            detector.observe(h, glucose(100 + (i % 2) * 10));
+            h.setGlucoseCount(h.getGlucoseCount() + 1);
+        }
+
+        // 고정 기준치(≥200) 미만이지만 이 환자 평소 값에서는 크게 벗어남
+        assertThat(detector.observe(h, glucose(170))).isEqualTo(VitalAnomaly.GLUCOSE_BASELINE_DEVIATION.bit());
+        assertThat(detector.observe(h, glucose(108))).isZero();
+    }
+
+    @Test
+    void ewmaConvergesToRecentLevel() {
+        UserHealth h = new UserHealth();
+        for (int i = 0; i < 200; i++) {
+            detector.observe(h, bp(i < 100 ? 120 : 140, 80));
+        }
+
+        assertThat(h.getBpSysEwMean()).isCloseTo(140.0, within(0.1));
+        assertThat(h.getBpDiaEwMean()).isCloseTo(80.0, within(1e-9));
+        assertThat(h.getBpDiaEwVar()).isCloseTo(0.0, within(1e-9));
+    }
+
+    private static VitalReadingRequest glucose(long value) {
+        VitalReadingRequest r = new VitalReadingRequest();
+        r.setGlucose(value);
+        return r;
+    }
+
+    private static VitalReadingRequest bp(long sys, long dia) {
+        VitalReadingRequest r = new VitalReadingRequest();
+        r.setBpSys(sys);
+        r.setBpDia(dia);
+        return r;
+    }
+}
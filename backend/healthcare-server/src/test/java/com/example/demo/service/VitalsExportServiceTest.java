@@ -0,0 +1,198 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.User;
+import com.example.demo.entity.UserHealthRecord;
+import com.example.demo.entity.UserRole;
+import com.example.demo.repository.UserHealthRecordRepository;
+import com.example.demo.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 측정 기록 내보내기 — CSV 따옴표 처리, NDJSON 한 줄 형태, 보관 블록과 핫 행을 시각 순서로 합치는지 확인
+ * (DemoApplicationTests와 같이 설정된 PostgreSQL + Flyway 마이그레이션 필요, 테스트 후 롤백)
+ */
+@SpringBootTest
+@Transactional
+class VitalsExportServiceTest {
+
+    private static final String HEADER = "measuredAt,bpSys,bpDia,glucose,heartRate,"
+            + "ecgRiskScore,ecgAbnormal,ecgAnomalyType,"
+            + "bpAbnormal,glucoseAbnormal,overallAbnormal,anomalyType,"
+            + "hrvSdnnMs,hrvRmssdMs,ecgWindowRef";
+
+    // 실제 데이터와 겹치지 않는 먼 과거 월 (보관 블록)
+    private static final LocalDate ARCHIVED_MONTH = LocalDate.of(2001, 3, 1);
+
+    @Autowired
+    private VitalsExportService exportService;
+
+    @Autowired
+    private VitalsRecordReader recordReader;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserHealthRecordRepository recordRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUserId("vitals-export-test");
+        user.setPassword("x");
+        user.setName("T");
+        user.setGender("F");
+        user.setBirthDate(LocalDate.of(1955, 1, 1));
+        user.setPhone("010");
+        user.setAddress("a");
+        user.setRole(UserRole.PATIENT);
+        userRepository.save(user);
+    }
+
+    @Test
+    void csvQuotesFieldsWithSeparatorsQuotesAndLineBreaks() throws Exception {
+        LocalDateTime t = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        UserHealthRecord r = hot(t, 120L, 80L);
+        r.setEcgAnomalyType("AF, \"suspected\"");
+        r.setAnomalyType("BP_HIGH\nGLUCOSE_HIGH");
+        r.setBpAbnormal(true);
+        r.setHrvSdnnMs(42.5);
+        recordRepository.saveAndFlush(r);
+        UserHealthRecord plain = hot(t.plusMinutes(1), null, null);
+        plain.setEcgAnomalyType("NORMAL");
+        recordRepository.saveAndFlush(plain);
+
+        String csv = export(VitalsExportService.Format.CSV);
+
+        assertThat(csv).isEqualTo(HEADER + "\r\n"
+                + t + ",120,80,,,,,\"AF, \"\"suspected\"\"\",true,,,\"BP_HIGH\nGLUCOSE_HIGH\",42.5,,\r\n"
+                + t.plusMinutes(1) + ",,,,,,,NORMAL,,,,,,,\r\n");
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLineWithEveryColumn() throws Exception {
+        LocalDateTime t = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        UserHealthRecord r = hot(t, 130L, 85L);
+        r.setEcgAnomalyType("line\n\"break\"");
+        r.setEcgRiskScore(0.25);
+        r.setEcgAbnormal(false);
+        recordRepository.saveAndFlush(r);
+        recordRepository.saveAndFlush(hot(t.plusMinutes(1), null, null));
+
+        String ndjson = export(VitalsExportService.Format.NDJSON);
+
+        assertThat(ndjson).endsWith("\n");
+        String[] lines = ndjson.split("\n", -1);
+        assertThat(lines).hasSize(3);
+        assertThat(lines[2]).isEmpty();
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        List<String> fields = new ArrayList<>();
+        first.fieldNames().forEachRemaining(fields::add);
+        assertThat(String.join(",", fields)).isEqualTo(HEADER);
+        assertThat(first.get("measuredAt").asText()).isEqualTo(t.toString());
+        assertThat(first.get("bpSys").isIntegralNumber()).isTrue();
+        assertThat(first.get("bpSys").asLong()).isEqualTo(130L);
+        assertThat(first.get("ecgRiskScore").asDouble()).isEqualTo(0.25);
+        assertThat(first.get("ecgAbnormal").isBoolean()).isTrue();
+        assertThat(first.get("ecgAnomalyType").asText()).isEqualTo("line\n\"break\"");
+        assertThat(first.get("glucose").isNull()).isTrue();
+
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertThat(second.size()).isEqualTo(fields.size());
+        assertThat(second.get("bpSys").isNull()).isTrue();
+    }
+
+    @Test
+    void mergesArchivedBlockLateHotRowsAndHotTierInTimeOrder() throws Exception {
+        LocalDateTime a1 = ARCHIVED_MONTH.atTime(8, 0);
+        LocalDateTime a2 = ARCHIVED_MONTH.plusDays(19).atTime(8, 0);
+        archive(List.of(record(a1, 110L), record(a2, 112L)));
+
+        // 보관 후 늦게 도착한 같은 월 측정 → 블록 사이에 끼워 넣어야 함
+        LocalDateTime late = ARCHIVED_MONTH.plusDays(9).atTime(8, 0);
+        LocalDateTime lateSameInstant = a2; // 같은 시각이면 블록 행 다음
+        recordRepository.saveAndFlush(hot(late, 111L, 70L));
+        recordRepository.saveAndFlush(hot(lateSameInstant, 113L, 70L));
+
+        LocalDateTime h1 = LocalDateTime.now().minusDays(2).truncatedTo(ChronoUnit.SECONDS);
+        LocalDateTime h2 = h1.plusDays(1);
+        recordRepository.saveAndFlush(hot(h2, 121L, 70L));
+        recordRepository.saveAndFlush(hot(h1, 120L, 70L));
+
+        String ndjson = export(VitalsExportService.Format.NDJSON);
+        List<Long> bpSys = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            bpSys.add(objectMapper.readTree(line).get("bpSys").asLong());
+        }
+        assertThat(bpSys).containsExactly(110L, 111L, 112L, 113L, 120L, 121L);
+
+        // 기간 조회도 같은 순서로 잘라서 전달 (보관 구간 중간 ~ 핫 티어 중간)
+        List<LocalDateTime> times = new ArrayList<>();
+        long count = recordReader.forEach(user.getId(), late, h2, r -> times.add(r.getMeasuredAt()));
+        assertThat(times).containsExactly(late, a2, a2, h1);
+        assertThat(count).isEqualTo(4);
+    }
+
+    private String export(VitalsExportService.Format format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(user.getId(), format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private UserHealthRecord hot(LocalDateTime measuredAt, Long bpSys, Long bpDia) {
+        UserHealthRecord r = new UserHealthRecord();
+        r.setUser(user);
+        r.setMeasuredAt(measuredAt);
+        r.setBpSys(bpSys);
+        r.setBpDia(bpDia);
+        return r;
+    }
+
+    private static UserHealthRecord record(LocalDateTime measuredAt, Long bpSys) {
+        UserHealthRecord r = new UserHealthRecord();
+        r.setMeasuredAt(measuredAt);
+        r.setBpSys(bpSys);
+        r.setBpDia(70L);
+        return r;
+    }
+
+    // UserHealthRecordArchiveService가 만드는 것과 같은 월 블록 (합계 컬럼은 이 테스트에서 사용하지 않음)
+    private void archive(List<UserHealthRecord> records) {
+        jdbcTemplate.update("""
+                        INSERT INTO user_health_record_archive
+                            (user_id, month, record_count, first_measured_at, last_measured_at, raw_bytes, payload)
+                        VALUES (?, ?, ?, ?, ?, 0, ?)
+                        """,
+                user.getId(), Date.valueOf(ARCHIVED_MONTH), records.size(),
+                Timestamp.valueOf(records.get(0).getMeasuredAt()),
+                Timestamp.valueOf(records.get(records.size() - 1).getMeasuredAt()),
+                VitalsArchiveCodec.encode(records));
+    }
+}
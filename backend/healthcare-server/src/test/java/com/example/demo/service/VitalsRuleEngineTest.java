@@ -0,0 +1,106 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.UserDisease;
+import com.example.demo.entity.VitalsDiseaseThreshold;
+import com.example.demo.entity.VitalsPatientThreshold;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VitalsRuleEngineTest {
+
+    @Test
+    void defaultRulesKeepOriginalThresholds() {
+        VitalsRuleSet rules = VitalsRuleEngine.compile(List.of(), List.of(), null);
+
+        assertThat(rules).isSameAs(VitalsRuleSet.DEFAULT);
+        assertThat(rules.classify(140L, 80L, null, null)).isEqualTo(VitalAnomaly.HIGH_BP.bit());
+        assertThat(rules.classify(139L, 89L, null, null)).isZero();
+        assertThat(rules.classify(89L, 70L, null, null)).isEqualTo(VitalAnomaly.LOW_BP.bit());
+        assertThat(rules.classify(120L, null, 200L, null)).isEqualTo(VitalAnomaly.HIGH_GLUCOSE.bit());
+        assertThat(rules.classify(null, null, 70L, true))
+                .isEqualTo(VitalAnomaly.LOW_GLUCOSE.bit() | VitalAnomaly.ECG_ABNORMAL.bit());
+    }
+
+    @Test
+    void diseasesWithoutConfiguredThresholdsKeepDefaults() {
+        VitalsRuleSet rules = VitalsRuleEngine.compile(
+                List.of(disease("I10", "고혈압"), disease("E11", "제2형 당뇨"), disease("I95", "저혈압")),
+                List.of(), null);
+
+        assertThat(rules).isSameAs(VitalsRuleSet.DEFAULT);
+    }
+
+    @Test
+    void diseaseThresholdsOnlyTighten() {
+        VitalsRuleSet rules = VitalsRuleEngine.compile(
+                List.of(disease("i10.9", null), disease(null, "제2형 당뇨")),
+                List.of(
+                        diseaseThreshold("I10", null, 130L, 80L, 100L, null, null, null),
+                        // 완화 방향(높음 기준 상향, 낮음 기준 하향)은 무시
+                        diseaseThreshold(null, "당뇨", null, null, null, null, 250L, 80L),
+                        // 매칭되지 않는 질환
+                        diseaseThreshold("I95", null, null, null, 80L, 50L, null, null)),
+                null);
+
+        assertThat(rules.bpSysHigh()).isEqualTo(130);
+        assertThat(rules.bpDiaHigh()).isEqualTo(80);
+        assertThat(rules.bpSysLow()).isEqualTo(100);
+        assertThat(rules.bpDiaLow()).isEqualTo(60);
+        assertThat(rules.glucoseHigh()).isEqualTo(200);
+        assertThat(rules.glucoseLow()).isEqualTo(80);
+        assertThat(rules.classify(135L, 75L, 80L, null))
+                .isEqualTo(VitalAnomaly.HIGH_BP.bit() | VitalAnomaly.LOW_GLUCOSE.bit());
+    }
+
+    @Test
+    void patientThresholdOverridesInEitherDirection() {
+        VitalsPatientThreshold patient = new VitalsPatientThreshold();
+        patient.setBpSysHigh(150L);
+        patient.setGlucoseLow(60L);
+
+        VitalsRuleSet rules = VitalsRuleEngine.compile(
+                List.of(disease("I10", null)),
+                List.of(diseaseThreshold("I10", null, 130L, null, null, null, null, null)),
+                patient);
+
+        assertThat(rules.bpSysHigh()).isEqualTo(150);
+        assertThat(rules.bpDiaHigh()).isEqualTo(90);
+        assertThat(rules.glucoseLow()).isEqualTo(60);
+        assertThat(rules.classify(145L, 85L, 65L, null)).isZero();
+    }
+
+    @Test
+    void anomalyTextIsPrecomputedPerMask() {
+        int mask = VitalAnomaly.HIGH_BP.bit() | VitalAnomaly.HIGH_GLUCOSE.bit();
+
+        assertThat(VitalAnomaly.typeOf(0)).isNull();
+        assertThat(VitalAnomaly.typeOf(mask)).isEqualTo("HIGH_BP,HIGH_GLUCOSE");
+        assertThat(VitalAnomaly.reasonOf(mask)).isEqualTo("고혈압 기준치 초과, 혈당 기준치 초과");
+        assertThat(VitalAnomaly.typeOf(mask)).isSameAs(VitalAnomaly.typeOf(mask));
+    }
+
+    private static VitalsDiseaseThreshold diseaseThreshold(String codePrefix, String nameKeyword,
+                                                           Long bpSysHigh, Long bpDiaHigh, Long bpSysLow, Long bpDiaLow,
+                                                           Long glucoseHigh, Long glucoseLow) {
+        VitalsDiseaseThreshold t = new VitalsDiseaseThreshold();
+        t.setCodePrefix(codePrefix);
+        t.setNameKeyword(nameKeyword);
+        t.setBpSysHigh(bpSysHigh);
+        t.setBpDiaHigh(bpDiaHigh);
+        t.setBpSysLow(bpSysLow);
+        t.setBpDiaLow(bpDiaLow);
+        t.setGlucoseHigh(glucoseHigh);
+        t.setGlucoseLow(glucoseLow);
+        return t;
+    }
+
+    private static UserDisease disease(String code, String name) {
+        UserDisease d = new UserDisease();
+        d.setDiseaseCode(code);
+        d.setDiseaseName(name);
+        return d;
+    }
+}
@@ -9,6 +9,7 @@ CareLink API 성능 벤치마크 스크립트
 사용법:
   pip install requests numpy
   python benchmark_api.py --base-url http://<EC2-IP>:30080 --token <JWT>
+  (헬스 체크는 관리 포트 — 외부에 공개하지 않으므로 원격이면 --management-url로 터널/내부 주소 지정)
 
 결과: benchmark_results.json (논문 표/그래프 원본 데이터)
 """
@@ -19,6 +20,7 @@ import statistics
 import threading
 import time
 from datetime import datetime
+from urllib.parse import urlsplit, urlunsplit
 
 import numpy as np
 import requests
@@ -31,6 +33,8 @@ def parse_args():
     p = argparse.ArgumentParser(description="CareLink API Benchmark")
     p.add_argument("--base-url", default="http://localhost:8080",
                    help="백엔드 base URL (e.g. http://3.x.x.x:8080)")
+    p.add_argument("--management-url", default="",
+                   help="백엔드 관리 포트(actuator) base URL (생략 시 --base-url 호스트의 8090 포트)")
     p.add_argument("--ai-url", default="http://localhost:8000",
                    help="AI 서버 base URL")
     p.add_argument("--token", default="",
@@ -49,7 +53,12 @@ def parse_args():
                    help="ECG 추론 반복 횟수 (기본: 30)")
     p.add_argument("--out", default="benchmark_results.json",
                    help="결과 저장 파일명")
-    return p.parse_args()
+    args = p.parse_args()
+    if not args.management_url:
+        # actuator(health)는 서비스 포트가 아닌 관리 포트에서만 제공 (MANAGEMENT_PORT, 기본 8090)
+        u = urlsplit(args.base_url)
+        args.management_url = urlunsplit((u.scheme, f"{u.hostname}:8090", "", "", ""))
+    return args
 
 
 # ---------------------------------------------------------------------------
@@ -251,13 +260,14 @@ def main():
     report = {
         "generated_at": datetime.now().isoformat(),
         "base_url": args.base_url,
+        "management_url": args.management_url,
         "ai_url": args.ai_url,
     }
 
     print("=== CareLink API 벤치마크 ===")
 
     # --- 6-1. 백엔드 헬스 확인 ---
-    health_url = f"{args.base_url}/actuator/health"
+    health_url = f"{args.management_url}/actuator/health"
     lat, code = timed_get(health_url, {})
     print(f"[Health] {health_url} → HTTP {code} ({lat:.1f}ms)")
     report["backend_health"] = {"status": code, "latency_ms": round(lat, 2)}
@@ -271,7 +281,7 @@ def main():
 
     # --- 6-3. 주요 API 동시 부하 테스트 ---
     endpoints = {
-        "health_check": f"{args.base_url}/actuator/health",
+        "health_check": health_url,
         "vitals_insights": f"{args.base_url}/api/vitals/insights?userId={args.user_id}&range=7d",
         "user_profile": f"{args.base_url}/api/users/{args.user_id}",
         "notifications": f"{args.base_url}/api/notification/{args.user_id}",